@@ -20,18 +20,126 @@ repositories {
     mavenCentral()
 }
 
+// Benchmarks JMH en src/jmh/java. Ven las clases de main y sus dependencias.
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+
 dependencies {
     implementation("org.apache.commons:commons-csv:1.10.0")
     implementation("com.fasterxml.jackson.core:jackson-core:2.17.2")
     implementation("com.fasterxml.jackson.core:jackson-databind:2.17.2")
-    implementation("info.picocli:picocli:4.7.6")
+    // --format smile|cbor
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:2.17.2")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor:2.17.2")
     // Tests
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation ("org.assertj:assertj-core:3.25.3")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // Benchmarks
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Concatenación de cadenas sin invokedynamic: cada forma distinta de "a" + b
+// genera sus LambdaForms en el primer uso, y en una ejecución corta eso es
+// buena parte del arranque. Es lo que hace el propio JDK con java.base.
+tasks.compileJava {
+    options.compilerArgs.add("-XDstringConcat=inline")
+}
+
+// ./gradlew jmh [-Pjmh.include=ConverterBench] [-Pjmh.args="-f 2 -wi 5"]
+// Resultados en build/jmh/results.json, con -prof gc para la asignación por registro.
+// La línea base de src/jmh/baseline.json se grabó en una VM de 1 vCPU (Intel Xeon,
+// 5 GB) con Temurin 21.0.1, no con el toolchain 24: en otra máquina o JDK las cifras
+// no son comparables; graba la tuya con jmh + jmhSaveBaseline antes de usar jmhCompare.
+val jmhResults = layout.buildDirectory.file("jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline.json")
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Ejecuta los benchmarks JMH"
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    outputs.file(jmhResults)
+    outputs.upToDateWhen { false }
+    doFirst { jmhResults.get().asFile.parentFile.mkdirs() }
+    args = buildList {
+        (findProperty("jmh.include") as String?)?.let { add(it) }
+        addAll(listOf("-prof", "gc", "-rf", "json", "-rff", jmhResults.get().asFile.path))
+        (findProperty("jmh.args") as String?)?.let { addAll(it.trim().split(Regex("\\s+"))) }
+    }
+}
+
+tasks.register<JavaExec>("jmhCompare") {
+    group = "benchmark"
+    description = "Compara build/jmh/results.json con la línea base guardada; falla sin ella"
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "dev.silvericarus.bench.BaselineCompare"
+    args = listOf(jmhResults.get().asFile.path, jmhBaseline.asFile.path,
+            (findProperty("jmh.tolerance") as String?) ?: "0.10")
+}
+
+tasks.register<Copy>("jmhSaveBaseline") {
+    group = "benchmark"
+    description = "Guarda build/jmh/results.json como nueva línea base"
+    from(jmhResults)
+    into(jmhBaseline.asFile.parentFile)
+    rename { jmhBaseline.asFile.name }
+}
+
+// ./gradlew appCds: instala la distribución y genera lib/csv2json.jsa con una
+// ejecución de ejemplo (src/cds); bin/csv2json-cds arranca con él.
+// ./gradlew startupBench [-Pstartup.runs=20]: primer byte y total, con y sin CDS.
+val installDir = layout.buildDirectory.dir("install/csv2json")
+val cdsDir = layout.buildDirectory.dir("cds")
+val cdsSample = layout.projectDirectory.dir("src/cds")
+val toolchainHome = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(24) }
+        .map { it.metadata.installationPath.asFile.absolutePath }
+
+tasks.register<Exec>("appCds") {
+    group = "distribution"
+    description = "Genera el archivo AppCDS de la distribución instalada"
+    dependsOn(tasks.named("installDist"))
+    val jsa = installDir.map { it.file("lib/csv2json.jsa") }
+    inputs.dir(cdsSample)
+    outputs.file(jsa)
+    executable = installDir.get().file("bin/csv2json-cds").asFile.path
+    // Con --schema y --stats el archivo incluye también Jackson databind.
+    args("csv2json", "--in", cdsSample.file("sample.csv").asFile.path,
+            "--out", cdsDir.get().file("train.json").asFile.path,
+            "--schema", cdsSample.file("sample-schema.json").asFile.path,
+            "--empty-as-null", "--stats", cdsDir.get().file("train-stats.json").asFile.path)
+    doFirst {
+        // Sin archivo, el lanzador lo crea al salir de esta ejecución.
+        jsa.get().asFile.delete()
+        cdsDir.get().asFile.mkdirs()
+        environment("JAVA_HOME", toolchainHome.get())
+    }
+}
+
+tasks.register<JavaExec>("startupBench") {
+    group = "benchmark"
+    description = "Mide el arranque de la CLI con y sin el archivo AppCDS"
+    dependsOn(tasks.named("appCds"), tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "dev.silvericarus.bench.StartupBench"
+    outputs.upToDateWhen { false }
+    args = listOf(installDir.get().dir("bin").asFile.path, cdsSample.file("sample.csv").asFile.path,
+            (findProperty("startup.runs") as String?) ?: "20")
+    doFirst { environment("JAVA_HOME", toolchainHome.get()) }
+}
@@ -0,0 +1,103 @@
+package dev.silvericarus.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compara dos ficheros de resultados JMH (-rf json): el de la última
+ * ejecución y la línea base guardada en src/jmh/baseline.json.
+ *
+ * Es regresión si el throughput baja, o la asignación por operación
+ * (gc.alloc.rate.norm) sube, más que la tolerancia relativa (0.10 = 10 %).
+ * Sale con código 1 si hay alguna, y con 2 si faltan los resultados o la
+ * línea base: sin ella no hay con qué comparar y el control no puede darse por bueno.
+ *
+ * Uso: BaselineCompare results.json baseline.json [tolerancia]
+ */
+public final class BaselineCompare {
+	private static final String ALLOC = "gc.alloc.rate.norm";
+	/** Bytes por operación por debajo de los cuales no se mira la asignación (ruido). */
+	private static final double ALLOC_SLACK = 16;
+
+	private BaselineCompare() {}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Uso: BaselineCompare <results.json> <baseline.json> [tolerancia]");
+			System.exit(2);
+		}
+		Path results = Path.of(args[0]);
+		Path baseline = Path.of(args[1]);
+		double tolerance = (args.length > 2) ? Double.parseDouble(args[2]) : 0.10;
+
+		if (!Files.exists(results)) {
+			System.err.println("[jmh] No hay resultados en " + results + "; ejecuta antes ./gradlew jmh");
+			System.exit(2);
+		}
+		if (!Files.exists(baseline)) {
+			System.err.println("[jmh] No hay línea base en " + baseline + "; guárdala con ./gradlew jmhSaveBaseline");
+			System.exit(2);
+		}
+
+		Map<String, JsonNode> base = index(baseline);
+		int regressions = 0;
+		for (Map.Entry<String, JsonNode> e : index(results).entrySet()) {
+			JsonNode old = base.get(e.getKey());
+			if (old == null) {
+				System.out.println("NUEVO     " + e.getKey());
+				continue;
+			}
+			double now = e.getValue().path("primaryMetric").path("score").asDouble();
+			double before = old.path("primaryMetric").path("score").asDouble();
+			double nowAlloc = alloc(e.getValue());
+			double beforeAlloc = alloc(old);
+
+			boolean slower = now < before * (1 - tolerance);
+			boolean heavier = nowAlloc > ALLOC_SLACK && nowAlloc > beforeAlloc * (1 + tolerance);
+			if (slower || heavier) regressions++;
+
+			System.out.printf(Locale.ROOT, "%-9s %s  %.1f -> %.1f ops/s (%+.1f%%)  %.1f -> %.1f B/op%n",
+					(slower || heavier) ? "REGRESIÓN" : "ok", e.getKey(),
+					before, now, (before == 0) ? 0 : (now / before - 1) * 100,
+					beforeAlloc, nowAlloc);
+		}
+
+		if (regressions > 0) {
+			System.err.println("[jmh] " + regressions + " regresiones por encima del " + Math.round(tolerance * 100) + " %");
+			System.exit(1);
+		}
+	}
+
+	/** Resultados por "benchmark{param=valor,...}". */
+	private static Map<String, JsonNode> index(Path file) throws IOException {
+		Map<String, JsonNode> out = new LinkedHashMap<>();
+		for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+			StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+			JsonNode params = run.path("params");
+			if (params.isObject()) {
+				key.append('{');
+				Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+				while (it.hasNext()) {
+					Map.Entry<String, JsonNode> p = it.next();
+					key.append(p.getKey()).append('=').append(p.getValue().asText());
+					if (it.hasNext()) key.append(',');
+				}
+				key.append('}');
+			}
+			out.put(key.toString(), run);
+		}
+		return out;
+	}
+
+	private static double alloc(JsonNode run) {
+		return run.path("secondaryMetrics").path(ALLOC).path("score").asDouble(0);
+	}
+}
@@ -0,0 +1,60 @@
+package dev.silvericarus.bench;
+
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/** {@link Converter#csvToJson} completo, fichero a fichero. Una operación = un registro. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBench {
+	@Param({"tall", "wide", "quoted", "multiline"})
+	public String dataset;
+
+	@Param({"ndjson", "array", "pretty"})
+	public String mode;
+
+	private Path dir;
+	private Path in;
+	private Path out;
+	private ConvertOptions options;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("bench-conv-");
+		in = Datasets.write(dataset, dir);
+		out = dir.resolve("out.json");
+		options = new ConvertOptions()
+				.delimeter(',')
+				.header(true)
+				.emptyAsNull(true)
+				.ndjson(mode.equals("ndjson"))
+				.pretty(mode.equals("pretty"))
+				.charset(StandardCharsets.UTF_8);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try (Stream<Path> s = Files.walk(dir)) {
+			s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(Datasets.ROWS)
+	public void csvToJson() throws Exception {
+		Converter.csvToJson(in, out, options);
+	}
+}
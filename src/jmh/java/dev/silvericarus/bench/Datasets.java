@@ -0,0 +1,91 @@
+package dev.silvericarus.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Datos sintéticos para los benchmarks. Todos tienen {@link #ROWS} registros
+ * (más la cabecera), así ops/s y gc.alloc.rate.norm salen por registro con
+ * {@code @OperationsPerInvocation(Datasets.ROWS)}.
+ *
+ *  - tall: 8 columnas cortas y mezcladas (int, double, bool, texto, vacíos);
+ *  - wide: 300 columnas;
+ *  - quoted: todos los campos entre comillas, con "" y delimitadores dentro;
+ *  - multiline: como tall, pero con un campo entre comillas de varias líneas.
+ */
+final class Datasets {
+	static final int ROWS = 10_000;
+	private static final int WIDE_COLUMNS = 300;
+
+	private Datasets() {}
+
+	static Path write(String kind, Path dir) throws IOException {
+		Path f = dir.resolve(kind + ".csv");
+		Random rnd = new Random(42);
+		try (BufferedWriter w = Files.newBufferedWriter(f, StandardCharsets.UTF_8)) {
+			switch (kind) {
+				case "tall" -> tall(w, rnd, false);
+				case "multiline" -> tall(w, rnd, true);
+				case "wide" -> wide(w, rnd);
+				case "quoted" -> quoted(w, rnd);
+				default -> throw new IllegalArgumentException("Dataset desconocido: " + kind);
+			}
+		}
+		return f;
+	}
+
+	private static void tall(BufferedWriter w, Random rnd, boolean multiline) throws IOException {
+		w.write("id,name,age,score,active,city,comment,empty\n");
+		for (int i = 0; i < ROWS; i++) {
+			w.write(Integer.toString(i));
+			w.write(",Name");
+			w.write(Integer.toString(rnd.nextInt(1000)));
+			w.write(',');
+			w.write(Integer.toString(18 + rnd.nextInt(80)));
+			w.write(',');
+			w.write(Double.toString(rnd.nextInt(100_000) / 100.0));
+			w.write(',');
+			w.write(rnd.nextBoolean() ? "true" : "false");
+			w.write(",Madrid,");
+			w.write(multiline ? "\"línea uno\nlínea, dos\n\"\"tres\"\"\"" : "sin comillas");
+			w.write(",\n");
+		}
+	}
+
+	private static void wide(BufferedWriter w, Random rnd) throws IOException {
+		for (int c = 0; c < WIDE_COLUMNS; c++) {
+			if (c > 0) w.write(',');
+			w.write("column_" + c);
+		}
+		w.write('\n');
+		for (int i = 0; i < ROWS; i++) {
+			for (int c = 0; c < WIDE_COLUMNS; c++) {
+				if (c > 0) w.write(',');
+				switch (c % 4) {
+					case 0 -> w.write(Integer.toString(rnd.nextInt()));
+					case 1 -> w.write(Double.toString(rnd.nextDouble()));
+					case 2 -> w.write("v" + rnd.nextInt(50));
+					default -> { }
+				}
+			}
+			w.write('\n');
+		}
+	}
+
+	private static void quoted(BufferedWriter w, Random rnd) throws IOException {
+		w.write("\"id\",\"title\",\"body\",\"price\"\n");
+		for (int i = 0; i < ROWS; i++) {
+			w.write('"');
+			w.write(Integer.toString(i));
+			w.write("\",\"Título \"\"");
+			w.write(Integer.toString(rnd.nextInt(1000)));
+			w.write("\"\", con coma\",\"texto; con | separadores, y \"\"comillas\"\"\",\"");
+			w.write(Double.toString(rnd.nextInt(10_000) / 100.0));
+			w.write("\"\n");
+		}
+	}
+}
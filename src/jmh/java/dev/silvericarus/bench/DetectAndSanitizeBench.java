@@ -0,0 +1,69 @@
+package dev.silvericarus.bench;
+
+import dev.silvericarus.csv.CsvSanitizer;
+import dev.silvericarus.csv.DelimeterDetector;
+import dev.silvericarus.csv.RelaxedQuotesReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Pasos previos a la conversión: detección de delimitador (una operación =
+ * una detección) y saneado de comillas (una operación = un registro).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectAndSanitizeBench {
+	@Param({"tall", "wide", "quoted", "multiline"})
+	public String dataset;
+
+	private Path dir;
+	private Path in;
+	private final char[] buf = new char[8192];
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("bench-detect-");
+		in = Datasets.write(dataset, dir);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try (Stream<Path> s = Files.walk(dir)) {
+			s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public char detectDelimeter() throws IOException {
+		return DelimeterDetector.detect(in, StandardCharsets.UTF_8, 200);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(Datasets.ROWS)
+	public long relaxedQuotesReader() throws IOException {
+		long total = 0;
+		try (Reader r = new RelaxedQuotesReader(Files.newBufferedReader(in, StandardCharsets.UTF_8), '"', ',')) {
+			int n;
+			while ((n = r.read(buf, 0, buf.length)) != -1) total += n;
+		}
+		return total;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(Datasets.ROWS)
+	public void sanitizeToTemp() throws IOException {
+		Files.delete(CsvSanitizer.sanitizeToTemp(in, StandardCharsets.UTF_8, ','));
+	}
+}
@@ -0,0 +1,84 @@
+package dev.silvericarus.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tiempo de arranque de la CLI en procesos nuevos, que JMH no mide: para un
+ * fichero pequeño casi todo es JVM y carga de clases.
+ *
+ * Lanza {@code bin/csv2json} y {@code bin/csv2json-cds} de una distribución
+ * instalada, alternándolos, con {@code --out -}, y mide desde el arranque
+ * del proceso hasta el primer byte en stdout y hasta que termina. Las
+ * primeras ejecuciones de cada uno se descartan (caché de disco).
+ *
+ * Uso: StartupBench <dir bin> <csv> [ejecuciones]
+ */
+public final class StartupBench {
+	private static final String[] LAUNCHERS = {"csv2json", "csv2json-cds"};
+	private static final int WARMUP = 3;
+
+	private StartupBench() {}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Uso: StartupBench <dir bin> <csv> [ejecuciones]");
+			System.exit(2);
+		}
+		Path bin = Path.of(args[0]);
+		String csv = Path.of(args[1]).toAbsolutePath().toString();
+		int runs = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+
+		long[][] ttfb = new long[LAUNCHERS.length][runs];
+		long[][] total = new long[LAUNCHERS.length][runs];
+		for (int r = -WARMUP; r < runs; r++) {
+			for (int l = 0; l < LAUNCHERS.length; l++) {
+				long[] t = once(bin.resolve(LAUNCHERS[l]), csv);
+				if (r < 0) continue;
+				ttfb[l][r] = t[0];
+				total[l][r] = t[1];
+			}
+		}
+
+		System.out.printf(Locale.ROOT, "%-14s %22s %22s%n", "", "primer byte p50/p90", "total p50/p90");
+		for (int l = 0; l < LAUNCHERS.length; l++) {
+			System.out.printf(Locale.ROOT, "%-14s %10.1f /%7.1f ms %10.1f /%7.1f ms%n", LAUNCHERS[l],
+					ms(pct(ttfb[l], 0.5)), ms(pct(ttfb[l], 0.9)), ms(pct(total[l], 0.5)), ms(pct(total[l], 0.9)));
+		}
+		long before = pct(ttfb[0], 0.5), after = pct(ttfb[1], 0.5);
+		System.out.printf(Locale.ROOT, "primer byte con CDS: %+.1f%%%n", (before == 0) ? 0 : (after / (double) before - 1) * 100);
+	}
+
+	/** {tiempo hasta el primer byte, tiempo total} en nanosegundos. */
+	private static long[] once(Path launcher, String csv) throws IOException, InterruptedException {
+		List<String> cmd = List.of(launcher.toString(), "csv2json", "--in", csv, "--out", "-", "--ndjson");
+		long t0 = System.nanoTime();
+		Process p = new ProcessBuilder(cmd).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+		long first;
+		try (InputStream out = p.getInputStream()) {
+			if (out.read() < 0) throw new IOException(launcher.getFileName() + " no ha escrito nada");
+			first = System.nanoTime() - t0;
+			out.transferTo(OutputStream.nullOutputStream());
+		}
+		int code = p.waitFor();
+		long end = System.nanoTime() - t0;
+		if (code != 0) throw new IOException(launcher.getFileName() + " ha salido con " + code);
+		return new long[]{first, end};
+	}
+
+	private static long pct(long[] xs, double q) {
+		long[] s = xs.clone();
+		Arrays.sort(s);
+		int i = (int) Math.ceil(q * s.length) - 1;
+		return s[Math.max(0, Math.min(s.length - 1, i))];
+	}
+
+	private static double ms(long nanos) {
+		return nanos / 1e6;
+	}
+}
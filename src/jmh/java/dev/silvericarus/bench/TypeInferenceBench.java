@@ -0,0 +1,35 @@
+package dev.silvericarus.bench;
+
+import dev.silvericarus.core.TypeInference;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** {@link TypeInference#infer} sobre una mezcla fija de celdas. Una operación = una celda. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeInferenceBench {
+	private static final String[] CELLS = {
+			"42", "-17", "2147483648", "9223372036854775808",
+			"3.14159", "1e-3", ".5", "007",
+			"true", "FALSE", "", "   ",
+			"Madrid", "NaN", "0x1F", "texto con espacios"
+	};
+
+	@Benchmark
+	@OperationsPerInvocation(16)
+	public void infer(Blackhole bh) {
+		for (String s : CELLS) bh.consume(TypeInference.infer(s, true, false));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(16)
+	public void classify(Blackhole bh) {
+		for (String s : CELLS) bh.consume(TypeInference.classify(s));
+	}
+}
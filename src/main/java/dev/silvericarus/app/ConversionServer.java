@@ -0,0 +1,293 @@
+package dev.silvericarus.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.SchemaMismatchException;
+import dev.silvericarus.csv.CsvSniffer;
+import dev.silvericarus.util.CliUtils;
+import dev.silvericarus.util.CountingInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor HTTP de conversión sobre {@code com.sun.net.httpserver}, con un
+ * hilo virtual por petición, para no arrancar una JVM por fichero.
+ *
+ *   POST /csv2json?ndjson&delim=;&empty-as-null   (cuerpo: el CSV)
+ *   GET  /metrics                                 (texto de Prometheus)
+ *
+ * Los parámetros son las flags de csv2json sin los guiones iniciales (ver
+ * {@link #QUERY_FLAGS}); el schema es el del servidor. --on-error admite
+ * skip y null, pero no reject, que escribe a fichero. La respuesta sale en
+ * streaming por {@link Converter}, igual que en la CLI; con format=smile o
+ * format=cbor, como application/x-jackson-smile o application/cbor.
+ *
+ * - Como mucho {@code maxConcurrent} conversiones a la vez; el resto, 503.
+ * - Cuerpos de más de {@code maxBodyBytes}: 413.
+ * - La respuesta se retiene hasta {@value #COMMIT_BYTES} bytes antes de
+ *   enviar el 200, así un error en las primeras filas todavía sale como
+ *   400/413/422. Si falla después, la conexión se corta sin cerrar el
+ *   cuerpo y el cliente ve una respuesta incompleta.
+ */
+public final class ConversionServer {
+	/** Flags de csv2json que se aceptan como parámetros de la URL. */
+	static final Set<String> QUERY_FLAGS = Set.of(
+			"delim", "quote", "header", "no-header", "encoding",
+			"empty-as-null", "strings-only", "ndjson", "pretty", "limit",
+			"relaxed-quotes", "adaptive-types", "on-error", "max-errors",
+			"select", "where", "format");
+	static final int COMMIT_BYTES = 256 << 10;
+	/** Estado en métricas de una respuesta cortada después del 200. */
+	private static final int ABORTED = 599;
+
+	private final HttpServer http;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Semaphore slots;
+	private final int maxConcurrent;
+	private final long maxBodyBytes;
+	private final Schema schema;
+	private final ServerMetrics metrics = new ServerMetrics();
+
+	public ConversionServer(String host, int port, int maxConcurrent, long maxBodyBytes, Schema schema) throws IOException {
+		if (maxConcurrent < 1) throw new IllegalArgumentException("--max-concurrent debe ser >= 1");
+		if (maxBodyBytes < 1) throw new IllegalArgumentException("--max-body-bytes debe ser >= 1");
+		this.maxConcurrent = maxConcurrent;
+		this.slots = new Semaphore(maxConcurrent);
+		this.maxBodyBytes = maxBodyBytes;
+		this.schema = schema;
+		this.http = HttpServer.create(new InetSocketAddress(host, port), 0);
+		http.setExecutor(executor);
+		http.createContext("/csv2json", this::convert);
+		http.createContext("/metrics", this::metrics);
+	}
+
+	public void start() { http.start(); }
+
+	/** Deja de aceptar peticiones y espera hasta {@code seconds} a las que están en curso. */
+	public void stop(int seconds) {
+		http.stop(seconds);
+		executor.shutdownNow();
+	}
+
+	/** Puerto real (útil con --port 0). */
+	public int port() { return http.getAddress().getPort(); }
+
+	private void metrics(HttpExchange ex) throws IOException {
+		try (ex) {
+			if (!"GET".equals(ex.getRequestMethod())) {
+				sendText(ex, 405, "Solo GET\n");
+				return;
+			}
+			ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			sendText(ex, 200, metrics.render(maxConcurrent - slots.availablePermits(), maxConcurrent));
+		}
+	}
+
+	private void convert(HttpExchange ex) throws IOException {
+		long t0 = System.nanoTime();
+		CountingInputStream body = new CountingInputStream(new LimitedInputStream(ex.getRequestBody(), maxBodyBytes));
+		Response resp = null;
+		// Solo cuenta filas: con stats() cada fila pagaría los tiempos de --stats.
+		LongAdder rows = new LongAdder();
+		int status = 500;
+		try {
+			if (!"POST".equals(ex.getRequestMethod())) {
+				status = sendText(ex, 405, "Solo POST\n");
+				return;
+			}
+			String declared = ex.getRequestHeaders().getFirst("Content-Length");
+			if (declared != null && Long.parseLong(declared) > maxBodyBytes) {
+				status = sendText(ex, 413, "Cuerpo de más de " + maxBodyBytes + " bytes\n");
+				return;
+			}
+			if (!slots.tryAcquire()) {
+				ex.getResponseHeaders().set("Retry-After", "1");
+				status = sendText(ex, 503, "Demasiadas conversiones en curso\n");
+				return;
+			}
+			try {
+				Map<String, String> q = parseQuery(ex.getRequestURI().getRawQuery());
+				String delim = q.getOrDefault("delim", "auto");
+				CsvSniffer.Sniffed sniffed = CsvSniffer.sniff(body, CsvToJsonCmd.encoding(q),
+						"auto".equalsIgnoreCase(delim) ? 0 : CliUtils.toDelimeterChar(delim));
+				ConvertOptions o = CsvToJsonCmd.options(q, schema, sniffed.dialect()).rowCounter(rows);
+
+				resp = new Response(ex, o.format().mediaType(o.charset()));
+				Converter.csvToJson(sniffed.replay(), resp, o);
+				resp.finish();
+				status = 200;
+			} finally {
+				slots.release();
+			}
+		} catch (SchemaMismatchException e) {
+			status = fail(ex, resp, 422, "[schema] " + e.getMessage());
+		} catch (IllegalArgumentException e) {
+			status = fail(ex, resp, 400, "Argumentos inválidos: " + e.getMessage());
+		} catch (IOException | RuntimeException e) {
+			// commons-csv envuelve los IOException del Reader en UncheckedIOException.
+			BodyTooLarge big = tooLarge(e);
+			status = (big != null) ? fail(ex, resp, 413, big.getMessage()) : fail(ex, resp, 500, "Error: " + e.getMessage());
+		} finally {
+			metrics.record(status, body.count(), (resp == null) ? 0 : resp.count, rows.sum(), System.nanoTime() - t0);
+			if (status != ABORTED) ex.close();
+		}
+		if (status == ABORTED) throw new IOException("Conversión cortada tras enviar la cabecera");
+	}
+
+	/**
+	 * Con la respuesta aún retenida, se descarta y sale el error. Si ya se ha
+	 * enviado el 200 no hay forma de avisar dentro de HTTP/1.1: se devuelve
+	 * {@link #ABORTED} y el handler lanza sin cerrar el intercambio, así el
+	 * servidor corta la conexión sin el último trozo del cuerpo.
+	 */
+	private static int fail(HttpExchange ex, Response resp, int status, String msg) throws IOException {
+		if (resp != null && resp.committed()) {
+			System.err.println("[serve] " + ex.getRequestURI() + ": " + msg);
+			return ABORTED;
+		}
+		return sendText(ex, status, msg + "\n");
+	}
+
+	private static BodyTooLarge tooLarge(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof BodyTooLarge b) return b;
+		}
+		return null;
+	}
+
+	private static int sendText(HttpExchange ex, int status, String text) throws IOException {
+		byte[] b = text.getBytes(StandardCharsets.UTF_8);
+		if (!ex.getResponseHeaders().containsKey("Content-Type")) {
+			ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		}
+		ex.sendResponseHeaders(status, b.length);
+		try (OutputStream os = ex.getResponseBody()) {
+			os.write(b);
+		}
+		return status;
+	}
+
+	/** "a=1&b&c=x%3By" -> {a=1, b=true, c=x;y}, como {@link Main#parseOptions}. */
+	static Map<String, String> parseQuery(String raw) {
+		Map<String, String> m = new LinkedHashMap<>();
+		if (raw == null || raw.isEmpty()) return m;
+		for (String part : raw.split("&")) {
+			if (part.isEmpty()) continue;
+			int eq = part.indexOf('=');
+			String k = URLDecoder.decode((eq < 0) ? part : part.substring(0, eq), StandardCharsets.UTF_8);
+			String v = (eq < 0) ? "true" : URLDecoder.decode(part.substring(eq + 1), StandardCharsets.UTF_8);
+			if (!QUERY_FLAGS.contains(k)) throw new IllegalArgumentException("Parámetro no admitido: " + k);
+			m.put(k, v);
+		}
+		if (m.containsKey("header") && m.containsKey("no-header")) {
+			throw new IllegalArgumentException("header y no-header son excluyentes");
+		}
+		return m;
+	}
+
+	/**
+	 * Cuerpo de la respuesta: retiene lo escrito hasta {@link #COMMIT_BYTES};
+	 * si la conversión acaba antes, sale con Content-Length. Ignora close():
+	 * quien decide cómo termina la respuesta es el handler.
+	 */
+	private static final class Response extends OutputStream {
+		private final HttpExchange ex;
+		private final String contentType;
+		private final ByteArrayOutputStream held = new ByteArrayOutputStream(8 << 10);
+		private OutputStream body;
+		long count;
+
+		Response(HttpExchange ex, String contentType) {
+			this.ex = ex;
+			this.contentType = contentType;
+		}
+
+		boolean committed() { return body != null; }
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count += len;
+			if (body != null) {
+				body.write(b, off, len);
+				return;
+			}
+			held.write(b, off, len);
+			if (held.size() >= COMMIT_BYTES) {
+				ex.getResponseHeaders().set("Content-Type", contentType);
+				ex.sendResponseHeaders(200, 0);
+				body = ex.getResponseBody();
+				held.writeTo(body);
+				held.reset();
+			}
+		}
+
+		@Override
+		public void close() {}
+
+		void finish() throws IOException {
+			if (body == null) {
+				ex.getResponseHeaders().set("Content-Type", contentType);
+				ex.sendResponseHeaders(200, (held.size() == 0) ? -1 : held.size());
+				body = ex.getResponseBody();
+				held.writeTo(body);
+			}
+			body.close();
+		}
+	}
+
+	/** El cuerpo no puede pasar de {@code max} bytes aunque no traiga Content-Length. */
+	private static final class LimitedInputStream extends FilterInputStream {
+		private final long max;
+		private long read;
+
+		LimitedInputStream(InputStream in, long max) {
+			super(in);
+			this.max = max;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) check(1);
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, (int) Math.min(len, max - read + 1));
+			if (n > 0) check(n);
+			return n;
+		}
+
+		private void check(int n) throws BodyTooLarge {
+			read += n;
+			if (read > max) throw new BodyTooLarge("Cuerpo de más de " + max + " bytes");
+		}
+	}
+
+	private static final class BodyTooLarge extends IOException {
+		BodyTooLarge(String msg) { super(msg); }
+	}
+}
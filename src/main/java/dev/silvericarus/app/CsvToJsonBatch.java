@@ -0,0 +1,273 @@
+package dev.silvericarus.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.ConvertStats;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.ErrorPolicy;
+import dev.silvericarus.core.OutputFormat;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.SchemaMismatchException;
+import dev.silvericarus.csv.CsvSniffer;
+import dev.silvericarus.util.CliUtils;
+import dev.silvericarus.util.Gzip;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * csv2json --in-dir/--out-dir: convierte todos los ficheros que casan con
+ * --glob en una sola JVM, así el arranque y el calentamiento del JIT se
+ * pagan una vez y no por fichero.
+ *
+ * - Cada fichero va en un hilo virtual; como mucho --jobs a la vez.
+ * - El schema se carga una vez. El dialecto (delimitador, comilla y, con
+ *   --header auto o --encoding auto, cabecera y codificación) se detecta en
+ *   el primer fichero de cada directorio y se reutiliza en el resto, salvo
+ *   en los que traen BOM o con --sniff-each.
+ * - Un fichero que falla (también por {@link SchemaMismatchException}) no
+ *   para a los demás: se borra su salida a medias y queda en el resumen.
+ *
+ * La salida replica el árbol de --in-dir con extensión .json (.ndjson con
+ * --ndjson, o la de --format, más .gz si se comprime). Con --on-error reject, cada fichero
+ * deja sus rechazados al lado, en {@code <salida>.rejects.csv}.
+ */
+final class CsvToJsonBatch {
+	private static final String DEFAULT_GLOB = "*.{csv,csv.gz}";
+
+	private CsvToJsonBatch() {}
+
+	/** Resultado de un fichero; {@code error} es null si ha ido bien. */
+	record FileResult(Path in, Path out, long rows, long millis, String error, boolean schemaMismatch) {
+		boolean ok() { return error == null; }
+	}
+
+	static int run(Map<String, String> o) throws Exception {
+		Path inDir = Path.of(requireArg(o, "in-dir"));
+		Path outDir = Path.of(requireArg(o, "out-dir"));
+		if (o.containsKey("in") || o.containsKey("out")) {
+			throw new IllegalArgumentException("--in/--out no se combinan con --in-dir/--out-dir");
+		}
+		for (String k : List.of("stats", "infer-schema-out")) {
+			if (o.containsKey(k)) throw new IllegalArgumentException("--" + k + " no se admite en modo lote (ver --summary)");
+		}
+		for (String k : List.of("checkpoint", "resume", "rejects", "split-rows", "split-bytes", "follow")) {
+			if (o.containsKey(k)) throw new IllegalArgumentException("--" + k + " no se admite en modo lote");
+		}
+		if (o.containsKey("header") && o.containsKey("no-header")) {
+			throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		}
+		if (!Files.isDirectory(inDir)) throw new IllegalArgumentException("--in-dir no es un directorio: " + inDir);
+
+		int jobs = parseJobs(o.getOrDefault("jobs", "auto"));
+		Path summaryOut = o.containsKey("summary") ? Path.of(o.get("summary")) : null;
+		String glob = o.getOrDefault("glob", DEFAULT_GLOB);
+		boolean gzipOut = CsvToJsonCmd.parseCompress(o.get("compress"), "");
+		OutputFormat format = o.containsKey("format") ? OutputFormat.from(o.get("format"))
+				: o.containsKey("ndjson") ? OutputFormat.NDJSON : OutputFormat.JSON;
+		String ext = format.extension() + (gzipOut ? ".gz" : "");
+
+		Schema schema = o.containsKey("schema") ? Schema.load(Path.of(o.get("schema"))) : null;
+		List<Path> files = list(inDir, glob);
+		System.err.printf(Locale.ROOT, "[csv2json] in-dir=%s out-dir=%s glob=%s ficheros=%d jobs=%d%n",
+				inDir, outDir, glob, files.size(), jobs);
+
+		Map<Path, CsvSniffer.Dialect> dialects = o.containsKey("sniff-each") ? null : new ConcurrentHashMap<>();
+		long t0 = System.nanoTime();
+		List<FileResult> results = new ArrayList<>(files.size());
+
+		Semaphore slots = new Semaphore(jobs);
+		try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<FileResult>> pending = new ArrayList<>(files.size());
+			for (Path in : files) {
+				Path out = outDir.resolve(inDir.relativize(in)).resolveSibling(baseName(in) + ext);
+				slots.acquire();
+				pending.add(pool.submit(() -> {
+					try {
+						return convertOne(in, out, o, schema, dialects, gzipOut);
+					} finally {
+						slots.release();
+					}
+				}));
+			}
+			for (Future<FileResult> f : pending) results.add(await(f));
+		}
+		long wallMs = (System.nanoTime() - t0) / 1_000_000;
+
+		long ok = 0, rows = 0;
+		for (FileResult r : results) {
+			if (r.ok()) {
+				ok++;
+				rows += r.rows();
+				System.err.printf(Locale.ROOT, "[ok] %s -> %s (%d filas, %d ms)%n", r.in(), r.out(), r.rows(), r.millis());
+			} else {
+				System.err.printf(Locale.ROOT, "[error] %s: %s%n", r.in(), r.error());
+			}
+		}
+		long failed = results.size() - ok;
+		System.err.printf(Locale.ROOT, "[resumen] %d correctos, %d con error, %d filas, %d ms%n", ok, failed, rows, wallMs);
+		if (summaryOut != null) writeSummary(summaryOut, results, ok, failed, rows, wallMs);
+
+		if (failed == 0) return 0;
+		// Igual que en un solo fichero: 3 si todo lo que ha fallado es el schema.
+		return results.stream().allMatch(r -> r.ok() || r.schemaMismatch()) ? 3 : 5;
+	}
+
+	private static FileResult convertOne(Path in, Path out, Map<String, String> o, Schema schema,
+	                                     Map<Path, CsvSniffer.Dialect> dialects, boolean gzipOut) {
+		long t0 = System.nanoTime();
+		try {
+			Files.createDirectories(out.toAbsolutePath().getParent());
+			ConvertStats stats = new ConvertStats();
+			// Como en la CLI: el detalle por fila solo si hay una grabación JFR que lo quiera.
+			boolean detailed = ConvertStats.recording();
+			LongAdder rows = new LongAdder();
+
+			try (BufferedInputStream peek = new BufferedInputStream(Files.newInputStream(in), 1 << 16)) {
+				boolean gzipIn = Gzip.startsWithMagic(peek);
+				BufferedInputStream head = gzipIn ? new BufferedInputStream(Gzip.decompress(peek), 1 << 16) : peek;
+
+				head.mark(4);
+				byte[] first = head.readNBytes(4);
+				head.reset();
+				int bom = CsvSniffer.bomLength(first, first.length);
+
+				Path dir = in.getParent();
+				CsvSniffer.Dialect dialect = (dialects != null && bom == 0) ? dialects.get(dir) : null;
+				InputStream body = head;
+				if (dialect == null) {
+					String delim = o.getOrDefault("delim", "auto");
+					CsvSniffer.Sniffed sniffed = CsvSniffer.sniff(head, CsvToJsonCmd.encoding(o),
+							"auto".equalsIgnoreCase(delim) ? 0 : CliUtils.toDelimeterChar(delim));
+					dialect = sniffed.dialect();
+					body = sniffed.replay();
+					if (dialects != null && bom == 0) dialects.putIfAbsent(dir, dialect);
+				}
+
+				ConvertOptions opts = CsvToJsonCmd.options(o, schema, dialect)
+						.stats(detailed ? stats : null)
+						.rowCounter(rows);
+				ErrorPolicy onError = opts.onError();
+				if (onError != null && onError.action() == ErrorPolicy.Action.REJECT) {
+					onError.rejects(out.resolveSibling(out.getFileName() + ".rejects.csv"));
+				}
+				boolean byPath = !gzipIn && bom == 0;
+				try (var s = stats.phase(ConvertStats.Phase.CONVERT)) {
+					if (gzipOut) {
+						// Los ficheros ya van en paralelo entre sí: un hilo de compresión por fichero.
+						OutputStream sink = Gzip.compress(Files.newOutputStream(out), 1);
+						if (byPath) Converter.csvToJson(in, sink, opts);
+						else Converter.csvToJson(body, sink, opts);
+					} else {
+						if (byPath) Converter.csvToJson(in, out, opts);
+						else Converter.csvToJson(body, out, opts);
+					}
+					// Lo leído del disco, comprimido o no, como en la CLI; el evento JFR lo lleva.
+					stats.bytesIn(Files.size(in));
+				}
+			}
+			return new FileResult(in, out, rows.sum(), millisSince(t0), null, false);
+		} catch (SchemaMismatchException e) {
+			return failed(in, out, t0, "[schema] " + e.getMessage(), true);
+		} catch (Exception e) {
+			return failed(in, out, t0, String.valueOf(e.getMessage()), false);
+		}
+	}
+
+	private static FileResult failed(Path in, Path out, long t0, String error, boolean schemaMismatch) {
+		try {
+			Files.deleteIfExists(out);
+		} catch (IOException ignored) {
+			// Se queda la salida a medias; el resumen ya dice que ha fallado.
+		}
+		return new FileResult(in, out, 0, millisSince(t0), error, schemaMismatch);
+	}
+
+	/** Ficheros regulares bajo {@code dir} que casan con el glob, en orden. Sin '/' se compara solo el nombre. */
+	static List<Path> list(Path dir, String glob) throws IOException {
+		PathMatcher m = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+		boolean byName = !glob.contains("/");
+		try (Stream<Path> s = Files.walk(dir)) {
+			return s.filter(Files::isRegularFile)
+					.filter(p -> m.matches(byName ? p.getFileName() : dir.relativize(p)))
+					.sorted()
+					.toList();
+		}
+	}
+
+	/** Nombre sin .gz ni la última extensión: datos.csv.gz -> datos. */
+	static String baseName(Path p) {
+		String name = p.getFileName().toString();
+		if (Gzip.hasExtension(name)) name = name.substring(0, name.length() - 3);
+		int dot = name.lastIndexOf('.');
+		return (dot > 0) ? name.substring(0, dot) : name;
+	}
+
+	private static void writeSummary(Path out, List<FileResult> results, long ok, long failed,
+	                                 long rows, long wallMs) throws IOException {
+		ObjectMapper om = new ObjectMapper();
+		ObjectNode root = om.createObjectNode();
+		root.put("ok", ok);
+		root.put("failed", failed);
+		root.put("rows", rows);
+		root.put("wallMs", wallMs);
+		ArrayNode files = root.putArray("files");
+		for (FileResult r : results) {
+			ObjectNode f = files.addObject();
+			f.put("in", r.in().toString());
+			f.put("out", r.out().toString());
+			f.put("status", r.ok() ? "ok" : "error");
+			f.put("rows", r.rows());
+			f.put("ms", r.millis());
+			if (!r.ok()) f.put("error", r.error());
+		}
+		om.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), root);
+	}
+
+	private static FileResult await(Future<FileResult> f) throws InterruptedException {
+		try {
+			return f.get();
+		} catch (ExecutionException e) {
+			// convertOne ya recoge sus errores; aquí solo llegaría un Error.
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/** --jobs N|auto; auto = nº de CPUs. */
+	private static int parseJobs(String v) {
+		if ("auto".equalsIgnoreCase(v)) return Runtime.getRuntime().availableProcessors();
+		int n = Integer.parseInt(v);
+		if (n < 1) throw new IllegalArgumentException("--jobs debe ser >= 1");
+		return n;
+	}
+
+	private static long millisSince(long t0) {
+		return (System.nanoTime() - t0) / 1_000_000;
+	}
+
+	private static String requireArg(Map<String, String> o, String key) {
+		String v = o.get(key);
+		if (v == null || v.isBlank()) throw new IllegalArgumentException("Falta --" + key + " <dir>");
+		return v;
+	}
+}
@@ -1,107 +1,395 @@
 package dev.silvericarus.app;
 
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
-import dev.silvericarus.csv.CsvSanitizer;
-import dev.silvericarus.csv.DelimeterDetector;
+import dev.silvericarus.csv.CsvSniffer;
 import dev.silvericarus.util.CliUtils;
+import dev.silvericarus.util.CountingInputStream;
+import dev.silvericarus.util.CountingOutputStream;
+import dev.silvericarus.util.Gzip;
 import java.nio.charset.Charset;
+import dev.silvericarus.core.Checkpoint;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.ConvertStats;
 import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.ErrorPolicy;
+import dev.silvericarus.core.OutputFormat;
 import dev.silvericarus.core.Schema;
 import dev.silvericarus.core.SchemaMismatchException;
+import dev.silvericarus.core.ShardManifest;
 
 public class CsvToJsonCmd {
 	public static int run(Map<String, String> o) throws Exception {
 		if (o.containsKey("help")){printHelp();return 0;}
+		if (o.containsKey("in-dir")) return CsvToJsonBatch.run(o);
 
-		Path in  = requirePath(o, "in");
-		Path out = requirePath(o, "out");
+		String inArg  = requireArg(o, "in");
+		String outArg = requireArg(o, "out");
+		boolean stdin  = CliUtils.isStdio(inArg);
+		boolean stdout = CliUtils.isStdio(outArg);
+		Path in  = stdin ? null : Path.of(inArg);
+		Path out = stdout ? null : Path.of(outArg);
 
 		String delim   = o.getOrDefault("delim", "auto");
-		boolean header = o.containsKey("header");
+		boolean autoHdr = autoHeader(o);
+		boolean header = o.containsKey("header") && !autoHdr;
 		boolean noHdr  = o.containsKey("no-header");
-		if (header && noHdr) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		if (o.containsKey("header") && noHdr) throw new IllegalArgumentException("--header y --no-header son excluyentes");
 
 		boolean emptyAsNull = o.containsKey("empty-as-null");
 		boolean stringsOnly = o.containsKey("strings-only");
 		boolean ndjson      = o.containsKey("ndjson");
+		String format       = o.getOrDefault("format", ndjson ? "ndjson" : "json");
 		boolean pretty      = o.containsKey("pretty");
-		boolean relaxed     = o.containsKey("relaxed-quotes");
-		String  encoding    = o.getOrDefault("encoding", "UTF-8");
+		Charset encoding    = encoding(o);
 		Integer limit       = o.containsKey("limit") ? Integer.parseInt(o.get("limit")) : null;
 		Path schema         = o.containsKey("schema") ? Path.of(o.get("schema")) : null;
+		int threads         = parseThreads(o.getOrDefault("threads", "1"));
+		Path schemaOut      = o.containsKey("infer-schema-out") ? Path.of(o.get("infer-schema-out")) : null;
+		boolean adaptive    = o.containsKey("adaptive-types") || schemaOut != null;
+		int sampleRows      = parseSampleRows(o.getOrDefault("adaptive-types", "true"));
+		Path statsOut       = o.containsKey("stats") ? Path.of(o.get("stats")) : null;
+		boolean gzipOut     = parseCompress(o.get("compress"), outArg);
+		// Como pigz: sin --threads, comprime con todas las CPUs.
+		int gzipThreads     = o.containsKey("threads") ? threads : Runtime.getRuntime().availableProcessors();
 
-		Charset cs = Charset.forName(encoding);
-
-		final char delimeterChar;
-		if ("auto".equalsIgnoreCase(delim)) {
-			delimeterChar = DelimeterDetector.detect(in, cs, 200);
-			System.err.println("[auto-delim] elegido = " + printable(delimeterChar));
-		} else {
-			delimeterChar = CliUtils.toDelimeterChar(delim);
+		Path checkpoint     = o.containsKey("checkpoint") ? Path.of(o.get("checkpoint")) : null;
+		boolean resume      = o.containsKey("resume");
+		if (resume && checkpoint == null) throw new IllegalArgumentException("--resume necesita --checkpoint <path>");
+		if (checkpoint != null && (stdin || stdout || gzipOut)) {
+			throw new IllegalArgumentException("--checkpoint necesita --in y --out en fichero, sin comprimir");
+		}
+		boolean split       = o.containsKey("split-rows") || o.containsKey("split-bytes");
+		if (split && (stdout || gzipOut || checkpoint != null)) {
+			throw new IllegalArgumentException("--split-rows/--split-bytes necesitan --out a fichero, sin comprimir ni --checkpoint");
+		}
+		boolean follow      = o.containsKey("follow");
+		if (follow && (stdin || stdout || gzipOut || split || resume)) {
+			throw new IllegalArgumentException("--follow necesita --in y --out en fichero, sin comprimir ni partir; ya sigue solo desde su estado");
 		}
+		if (follow && statsOut != null) {
+			throw new IllegalArgumentException("--stats no se admite con --follow: la conversión no termina");
+		}
+		// El estado de --follow es un checkpoint; por defecto, al lado de la salida.
+		Path followState    = !follow ? null : (checkpoint != null) ? checkpoint : Path.of(outArg + ".follow.json");
+
+		// Las fases sueltas se miden siempre (eventos JFR); el detalle por fila, solo si alguien lo va a leer.
+		ConvertStats stats = new ConvertStats();
+		boolean detailed = statsOut != null || ConvertStats.recording();
+
+		boolean autoDelim = "auto".equalsIgnoreCase(delim);
+		char explicitDelim = autoDelim ? 0 : CliUtils.toDelimeterChar(delim);
 
 		Schema schemaObj = null;
 		if (o.containsKey("schema")) {
 			Path schemaPath = Path.of(o.get("schema"));
-			schemaObj = Schema.load(schemaPath);
+			try (var s = stats.phase(ConvertStats.Phase.SCHEMA_LOAD)) {
+				schemaObj = Schema.load(schemaPath);
+			}
 		}
 
-		Path source = in;
-		if (relaxed) {
-			source = CsvSanitizer.sanitizeToTemp(in, cs);
-		}
+		// Una sola lectura acotada del principio: dialecto, cabecera y BOM/codificación.
+		// Con stdin la muestra se repite desde memoria, así que no hace falta fichero temporal.
+		// gzip se reconoce por la firma (vale también para stdin) y se descomprime en otro hilo.
+		try (CountingInputStream raw = new CountingInputStream(stdin ? CliUtils.stdin() : Files.newInputStream(in));
+		     BufferedInputStream peek = new BufferedInputStream(raw, 1 << 16)) {
+			boolean gzipIn = Gzip.startsWithMagic(peek);
+			if (gzipIn) System.err.println("[gzip] entrada comprimida");
+			InputStream src = gzipIn ? Gzip.decompress(peek) : peek;
 
-		System.out.printf(Locale.ROOT,
-				"[csv2json] in=%s out=%s delim=%s header=%s noHeader=%s ndjson=%s pretty=%s encoding=%s emptyAsNull=%s stringsOnly=%s limit=%s schema=%s%n",
-				in, out, delim, header, noHdr, ndjson, pretty, encoding, emptyAsNull, stringsOnly, limit, schema
-		);
+			CsvSniffer.Sniffed sniffed;
+			try (var s = stats.phase(ConvertStats.Phase.DETECT)) {
+				sniffed = CsvSniffer.sniff(src, encoding, explicitDelim);
+			}
+			CsvSniffer.Dialect dialect = sniffed.dialect();
 
-		try {
-			Converter.csvToJson(
-					source, out, delimeterChar, header, noHdr,
-					emptyAsNull, stringsOnly, ndjson, pretty,
-					cs, limit, schemaObj
+			char delimeterChar = dialect.delimeter();
+			if (autoDelim) System.err.println("[auto-delim] elegido = " + printable(delimeterChar));
+			if (autoHdr) {
+				header = dialect.header();
+				System.err.println("[auto-header] cabecera = " + header);
+			}
+			Charset cs = dialect.charset();
+			if (dialect.bomLength() > 0) System.err.println("[bom] " + cs.name());
+
+			// Todo lo que no es JSON va a stderr: con --out - stdout lleva solo la salida.
+			System.err.printf(Locale.ROOT,
+					"[csv2json] in=%s out=%s delim=%s header=%s noHeader=%s format=%s pretty=%s encoding=%s emptyAsNull=%s stringsOnly=%s limit=%s schema=%s threads=%d adaptive=%s gzip=%s%n",
+					inArg, outArg, delim, header, noHdr, format, pretty, cs.name(), emptyAsNull, stringsOnly, limit, schema, threads,
+					adaptive ? String.valueOf(sampleRows) : "no", gzipOut
 			);
-			return 0;
-		} catch (SchemaMismatchException e) {
-			System.err.println("[schema] " + e.getMessage());
-			return 3;
+
+			ConvertOptions opts = options(o, schemaObj, dialect).stats(detailed ? stats : null);
+			ErrorPolicy onError = opts.onError();
+			if (onError != null && onError.action() == ErrorPolicy.Action.REJECT) {
+				if (onError.rejects() == null) {
+					if (stdout) throw new IllegalArgumentException("--on-error reject con --out - necesita --rejects <path>");
+					onError.rejects(Path.of(outArg + ".rejects.csv"));
+				}
+				System.err.println("[on-error] rechazados en " + onError.rejects());
+			}
+
+			// Fichero normal: el conversor lo mapea/trocea por su cuenta; la muestra ya está en caché.
+			boolean byPath = !stdin && !gzipIn && dialect.bomLength() == 0 && Files.isRegularFile(in);
+			if (checkpoint != null) {
+				// Los offsets del checkpoint son bytes del fichero tal cual: nada de gzip ni BOM delante.
+				if (!byPath) throw new IllegalArgumentException("--checkpoint necesita una entrada sin comprimir y sin BOM");
+				if (resume && Files.exists(checkpoint)) {
+					Checkpoint c = Checkpoint.load(checkpoint);
+					System.err.printf(Locale.ROOT, "[checkpoint] reanudando tras %d filas (byte %d de la entrada, %d de la salida)%n",
+							c.records(), c.inputOffset(), c.outputLength());
+				}
+			}
+			try {
+				if (follow) {
+					if (!byPath) throw new IllegalArgumentException("--follow necesita una entrada sin comprimir y sin BOM");
+					if (Files.exists(followState)) {
+						Checkpoint c = Checkpoint.load(followState);
+						System.err.printf(Locale.ROOT, "[follow] reanudando tras %d filas (byte %d de la entrada)%n",
+								c.records(), c.inputOffset());
+					}
+					System.err.println("[follow] siguiendo " + in + ", estado en " + followState + " (Ctrl-C para parar)");
+					Converter.follow(in, out, opts.checkpoint(followState));
+					return 0;
+				}
+				try (var s = stats.phase(ConvertStats.Phase.CONVERT)) {
+					if (stdout || gzipOut) {
+						CountingOutputStream counted = new CountingOutputStream(stdout ? CliUtils.stdout() : Files.newOutputStream(out));
+						OutputStream sink = gzipOut ? Gzip.compress(counted, gzipThreads) : counted;
+						if (byPath) Converter.csvToJson(in, sink, opts);
+						else Converter.csvToJson(sniffed.replay(), sink, opts);
+						stats.bytesOut(counted.count());
+					} else {
+						if (byPath) Converter.csvToJson(in, out, opts);
+						else Converter.csvToJson(sniffed.replay(), out, opts);
+						if (split) {
+							// --out es el patrón: el tamaño sale del manifiesto.
+							Path manifest = ShardManifest.manifestPath(out);
+							ShardManifest m = ShardManifest.load(manifest);
+							System.err.printf(Locale.ROOT, "[split] %d shards, manifiesto %s%n", m.shards().size(), manifest);
+							stats.bytesOut(m.bytes());
+						} else {
+							stats.bytesOut(Files.size(out));
+						}
+					}
+					// Antes de cerrar el tramo: el evento JFR de CONVERT lleva los bytes de entrada.
+					stats.bytesIn(byPath ? Files.size(in) : raw.count());
+				}
+				stats.finish();
+				if (onError != null && onError.errors() > 0) {
+					System.err.printf(Locale.ROOT, "[on-error] %d %s%n", onError.errors(),
+							(onError.action() == ErrorPolicy.Action.NULL) ? "celdas a null" : "filas descartadas");
+				}
+				if (statsOut != null) {
+					stats.write(statsOut);
+					System.err.println("[stats] " + statsOut);
+				}
+				return 0;
+			} catch (SchemaMismatchException e) {
+				System.err.println("[schema] " + e.getMessage());
+				return 3;
+			}
+		}
+	}
+
+	/**
+	 * Opciones de conversión a partir de las flags y del dialecto detectado;
+	 * --quote manda sobre lo detectado y la cabecera solo se toma del
+	 * dialecto con --header auto. Compartido con el modo lote, que crea unas
+	 * por fichero.
+	 */
+	static ConvertOptions options(Map<String, String> o, Schema schema, CsvSniffer.Dialect d) {
+		boolean noHdr = o.containsKey("no-header");
+		boolean header = autoHeader(o) ? d.header() : o.containsKey("header");
+		Path schemaOut = o.containsKey("infer-schema-out") ? Path.of(o.get("infer-schema-out")) : null;
+		ConvertOptions opts = new ConvertOptions()
+				.delimeter(d.delimeter())
+				.quote(o.containsKey("quote") ? parseQuote(o.get("quote")) : d.quote())
+				.header(header).noHeader(noHdr)
+				.emptyAsNull(o.containsKey("empty-as-null")).stringsOnly(o.containsKey("strings-only"))
+				.detectDates(o.containsKey("detect-dates"))
+				.valueCache(o.containsKey("value-cache"))
+				.ndjson(o.containsKey("ndjson")).pretty(o.containsKey("pretty"))
+				.charset(d.charset())
+				.limit(o.containsKey("limit") ? Integer.parseInt(o.get("limit")) : null)
+				.schema(schema)
+				.threads(parseThreads(o.getOrDefault("threads", "1")))
+				.commonsCsv(o.containsKey("commons-csv"))
+				.relaxedQuotes(o.containsKey("relaxed-quotes"))
+				.adaptiveTypes(o.containsKey("adaptive-types"))
+				.adaptiveSample(parseSampleRows(o.getOrDefault("adaptive-types", "true")))
+				.inferSchemaOut(schemaOut)
+				.checkpoint(o.containsKey("checkpoint") ? Path.of(o.get("checkpoint")) : null)
+				.checkpointEvery(Long.parseLong(o.getOrDefault("checkpoint-every", "1000000")))
+				.resume(o.containsKey("resume"))
+				.onError(errorPolicy(o))
+				.select(parseSelect(o.get("select")))
+				.where(o.get("where"))
+				.splitRows(o.containsKey("split-rows") ? Long.parseLong(o.get("split-rows")) : 0)
+				.splitBytes(o.containsKey("split-bytes") ? Long.parseLong(o.get("split-bytes")) : 0)
+				.followPollMillis(Long.parseLong(o.getOrDefault("follow-poll", "1000")));
+		if (o.containsKey("format")) {
+			OutputFormat f = OutputFormat.from(o.get("format"));
+			if (f.binary() && o.containsKey("pretty")) throw new IllegalArgumentException("--pretty solo con --format json");
+			if (f == OutputFormat.JSON && o.containsKey("ndjson")) throw new IllegalArgumentException("--format json y --ndjson son excluyentes");
+			opts.format(f);
+		}
+		return opts;
+	}
+
+	/** --header auto: la cabecera la decide {@link CsvSniffer}; sin la flag no hay cabecera. */
+	static boolean autoHeader(Map<String, String> o) {
+		return "auto".equalsIgnoreCase(o.get("header"));
+	}
+
+	/** --encoding; UTF-8 sin la flag y null con "auto" (BOM, UTF-8 si es válido, o ISO-8859-1). */
+	static Charset encoding(Map<String, String> o) {
+		String e = o.getOrDefault("encoding", "UTF-8");
+		return "auto".equalsIgnoreCase(e) ? null : Charset.forName(e);
+	}
+
+	/** --select a,b,c; null sin la flag. */
+	static List<String> parseSelect(String v) {
+		if (v == null) return null;
+		List<String> names = new ArrayList<>();
+		for (String s : v.split(",")) {
+			if (!s.isBlank()) names.add(s.trim());
 		}
+		if (names.isEmpty()) throw new IllegalArgumentException("--select necesita al menos una columna");
+		return names;
 	}
 
-	private static String printable(char c) {
+	/** --on-error, --max-errors y --rejects; null si no se pide nada (falla en el primer error). */
+	static ErrorPolicy errorPolicy(Map<String, String> o) {
+		if (!o.containsKey("on-error") && !o.containsKey("max-errors") && !o.containsKey("rejects")) return null;
+		ErrorPolicy.Action a = ErrorPolicy.Action.from(o.getOrDefault("on-error", "fail"));
+		if (o.containsKey("max-errors") && a == ErrorPolicy.Action.FAIL) {
+			throw new IllegalArgumentException("--max-errors necesita --on-error skip|null|reject");
+		}
+		if (o.containsKey("rejects") && a != ErrorPolicy.Action.REJECT) {
+			throw new IllegalArgumentException("--rejects necesita --on-error reject");
+		}
+		ErrorPolicy p = new ErrorPolicy(a);
+		if (o.containsKey("max-errors")) {
+			long n = Long.parseLong(o.get("max-errors"));
+			if (n < 0) throw new IllegalArgumentException("--max-errors debe ser >= 0");
+			p.maxErrors(n);
+		}
+		if (o.containsKey("rejects")) p.rejects(Path.of(o.get("rejects")));
+		return p;
+	}
+
+	static String printable(char c) {
 		return switch (c) {
 			case '\t' -> "\\t";
 			default -> String.valueOf(c);
 		};
 	}
 
-	private static Path requirePath(Map<String ,String> o, String key){
+	/** --compress gzip|none; sin la flag, gzip si la salida acaba en .gz. */
+	static boolean parseCompress(String v, String out) {
+		if (v == null) return Gzip.hasExtension(out);
+		return switch (v.toLowerCase(Locale.ROOT)) {
+			case "gzip", "gz", "true" -> true;
+			case "none" -> false;
+			default -> throw new IllegalArgumentException("--compress debe ser gzip o none");
+		};
+	}
+
+	static char parseQuote(String v) {
+		if (v == null || v.length() != 1) throw new IllegalArgumentException("--quote debe ser un único carácter");
+		return v.charAt(0);
+	}
+
+	static int parseThreads(String v) {
+		if ("auto".equalsIgnoreCase(v)) return Runtime.getRuntime().availableProcessors();
+		int n = Integer.parseInt(v);
+		if (n < 0) throw new IllegalArgumentException("--threads debe ser >= 0");
+		return (n == 0) ? Runtime.getRuntime().availableProcessors() : n;
+	}
+
+	/** Valor de --adaptive-types: sin número, 1000 filas de muestra. */
+	private static int parseSampleRows(String v) {
+		if ("true".equals(v)) return 1000;
+		int n = Integer.parseInt(v);
+		if (n < 0) throw new IllegalArgumentException("--adaptive-types debe ser >= 0");
+		return n;
+	}
+
+	/** Ruta de --in/--out; "-" es stdin/stdout. */
+	private static String requireArg(Map<String ,String> o, String key){
 		String v = o.get(key);
-		if (v == null || v.isBlank()) throw new IllegalArgumentException("Falta --" + key + " <ruta>");
-		return Path.of(v);
+		if (v == null || v.isBlank()) throw new IllegalArgumentException("Falta --" + key + " <ruta|->");
+		return v;
 	}
 
 	private static void printHelp() {
 		System.out.println("""
 				Uso:
-				  converter csv2json --in <input.csv> --out <output.json> [opciones]
+				  converter csv2json --in <input.csv|-> --out <output.json|-> [opciones]
+				  ("-" = stdin/stdout; los mensajes van siempre a stderr)
+				  converter csv2json --in-dir <dir> --out-dir <dir> [--glob G] [--jobs N] [--summary <path>] [opciones]
+				  (lote en una sola JVM; --glob por defecto *.{csv,csv.gz}; --jobs por defecto nº de CPUs;
+				   el dialecto se detecta una vez por directorio salvo con --sniff-each)
 				
 				Opciones:
 				  --delim auto|,|;|\\t||    (por defecto auto)
-				  --header | --no-header
-				  --schema <path.json>
+				  --header [auto] | --no-header
+				                            (sin ninguno de los dos, no hay cabecera; con auto, se detecta)
+				  --quote C                 (por defecto se detecta: " o ')
+				  --schema <path.json>      (tipos: string, int, long, double, decimal, bool, date, timestamp;
+				                             date/timestamp admiten :iso, :epoch-days, :epoch-seconds o :epoch-millis)
 				  --empty-as-null           (CSV→JSON)
 				  --strings-only            (desactiva inferencia)
-				  --ndjson                  (salida NDJSON)
+				  --detect-dates            (la inferencia reconoce fechas y horas ISO-8601 y las escribe normalizadas)
+				  --value-cache             (guarda por columna los valores ya escritos para columnas de pocos valores
+				                             distintos: estados, países...; se apaga sola donde acierta poco; solo JSON de texto)
+				  --ndjson                  (salida NDJSON; igual que --format ndjson)
+				  --format json|ndjson|smile|cbor
+				                            (smile y cbor: JSON binario de Jackson, con los nombres de campo y los textos
+				                             cortos repetidos como referencias; filas en un array o, con --ndjson, sueltas)
 				  --pretty                  (JSON con indentación)
 				  --limit N
-				  --encoding UTF-8
+				  --relaxed-quotes          (arregla comillas mal cerradas al vuelo)
+				  --encoding UTF-8|auto     (por defecto UTF-8; auto: BOM, UTF-8 si es válido, o ISO-8859-1)
+				  --threads N|auto          (conversión por trozos en paralelo; 0/auto = nº de CPUs)
+				  --commons-csv             (usa commons-csv en vez del tokenizador mapeado en UTF-8)
+				  --adaptive-types [N]      (fija el tipo de cada columna con N filas de muestra; 1000 por defecto)
+				  --infer-schema-out <path> (guarda los tipos aprendidos como schema; implica --adaptive-types)
+				  --stats <path>            (informe JSON: bytes, registros, filas/s, tiempo por fase y tipos por columna)
+				  --compress gzip|none      (por defecto gzip si --out acaba en .gz; la entrada gzip se detecta sola)
+				  --checkpoint <path>       (guarda cada --checkpoint-every filas, 1000000 por defecto, hasta dónde ha llegado;
+				                             entrada UTF-8 en fichero, sin gzip ni BOM; en secuencial)
+				  --resume                  (sigue desde --checkpoint si existe: salta la entrada leída y recorta la salida)
+				  --on-error fail|skip|null|reject
+				                            (celdas que no encajan con el schema: abortar, por defecto; omitir la fila;
+				                             escribir null; u omitirla y guardarla en --rejects)
+				  --rejects <path>          (CSV de filas rechazadas con registro, columna y motivo;
+				                             por defecto <out>.rejects.csv)
+				  --max-errors N            (con skip/null/reject, aborta al pasar de N errores)
+				  --select a,b,c            (solo esas columnas y en ese orden; las demás ni se convierten)
+				  --where "expr"            (filtra filas sobre el texto crudo antes de inferir: col=v, col!=v,
+				                             col in (a,b), col<N, col<=N, col>N, col>=N, col is [not] null; unidas con and)
+				  --split-rows N            (parte la salida en ficheros de N filas; --out es el patrón, p. ej. out-{n}.ndjson,
+				                             y al lado queda out-manifest.json con ficheros, registros y bytes)
+				  --split-bytes N           (igual, cortando al pasar de unos N bytes; se puede combinar con --split-rows)
+				  --follow                  (sigue la entrada como tail -f: convierte lo que hay y va añadiendo los registros
+				                             nuevos; necesita --ndjson; estado en --checkpoint o <out>.follow.json,
+				                             desde el que sigue al volver a arrancar)
+				  --follow-poll MS          (con --follow, mira la entrada cada MS ms aunque no llegue aviso; 1000 por defecto)
 				
 				Ejemplos:
 				  converter csv2json --in data.csv --out out.ndjson --header --ndjson --delim auto
+				  converter csv2json --in data.csv --out es.ndjson --ndjson --select id,name,age --where "country=ES and age>=18"
+				  converter csv2json --in big.csv --out parts/big-{n}.ndjson --ndjson --split-rows 1000000
+				  converter csv2json --in data.csv --out data.smile --header --format smile
+				  converter csv2json --in app.log.csv --out app.ndjson --header --ndjson --adaptive-types --follow
+				  curl -s https://example.org/data.csv | converter csv2json --in - --out - --ndjson | kafkacat -P -t datos
 				  converter csv2json --help
 				""");
 	}
@@ -1,8 +1,14 @@
 package dev.silvericarus.app;
 
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.*;
 
+import dev.silvericarus.core.JsonToCsvConverter;
+import dev.silvericarus.core.JsonToCsvOptions;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.util.CliUtils;
+
 public class JsonToCsvCmd {
 	public static int run(Map<String, String> o) throws Exception {
 		if (o.containsKey("help")) {
@@ -13,27 +19,53 @@ public class JsonToCsvCmd {
 		Path in  = requirePath(o, "in");
 		Path out = requirePath(o, "out");
 
-		String delim   = o.getOrDefault("delim", "auto");
-		boolean header = o.containsKey("header");
-		boolean noHdr  = o.containsKey("no-header");
-		if (header && noHdr) throw new IllegalArgumentException("--header y --no-header son excluyentes");
-
-		boolean emptyAsNull = o.containsKey("empty-as-null");
-		boolean stringsOnly = o.containsKey("strings-only");
-		boolean ndjson      = o.containsKey("ndjson");
-		boolean pretty      = o.containsKey("pretty");
+		String delim        = o.getOrDefault("delim", ",");
+		boolean noHdr       = o.containsKey("no-header");
 		String  encoding    = o.getOrDefault("encoding", "UTF-8");
 		Integer limit       = o.containsKey("limit") ? Integer.parseInt(o.get("limit")) : null;
 		Path schema         = o.containsKey("schema") ? Path.of(o.get("schema")) : null;
+		int discoverRows    = o.containsKey("discover-rows") ? Integer.parseInt(o.get("discover-rows")) : 1000;
+
+		List<String> columns = null;
+		boolean literal = false;
+		if (o.containsKey("columns")) {
+			columns = parseColumns(o.get("columns"));
+		} else if (schema != null) {
+			Schema sch = Schema.load(schema);
+			// Son nombres de cabecera CSV: "price.usd" es una clave, no una ruta.
+			if (sch.hasColumns()) columns = sch.getColumns();
+			literal = true;
+		}
 
 		System.out.printf(Locale.ROOT,
-				"[json2csv] in=%s out=%s delim=%s header=%s noHeader=%s ndjson=%s pretty=%s encoding=%s emptyAsNull=%s stringsOnly=%s limit=%s schema=%s%n",
-				in, out, delim, header, noHdr, ndjson, pretty, encoding, emptyAsNull, stringsOnly, limit, schema
+				"[json2csv] in=%s out=%s delim=%s header=%s encoding=%s limit=%s columns=%s schema=%s%n",
+				in, out, delim, !noHdr, encoding, limit, (columns == null) ? "auto" : columns, schema
 		);
 
+		JsonToCsvConverter.Result r = JsonToCsvConverter.run(in, out, new JsonToCsvOptions()
+				.delimeter(CliUtils.toDelimeterChar(delim))
+				.columns(columns)
+				.literalColumns(literal)
+				.header(!noHdr)
+				.charset(Charset.forName(encoding))
+				.limit(limit)
+				.discoverRows(discoverRows));
+
+		if (r.droppedFields() > 0) {
+			System.err.println("[json2csv] " + r.droppedFields() + " campos descartados por no estar entre las columnas");
+		}
 		return 0;
 	}
 
+	private static List<String> parseColumns(String v) {
+		List<String> cols = new ArrayList<>();
+		for (String c : v.split(",")) {
+			if (!c.isBlank()) cols.add(c.trim());
+		}
+		if (cols.isEmpty()) throw new IllegalArgumentException("--columns vacío");
+		return cols;
+	}
+
 	private static Path requirePath(Map<String,String> o, String key) {
 		String v = o.get(key);
 		if (v == null || v.isBlank()) throw new IllegalArgumentException("Falta --" + key + " <ruta>");
@@ -47,11 +79,20 @@ public class JsonToCsvCmd {
 
         Opciones:
           --delim ,|;|\\t||          (por defecto ,)
-          --columns a,b,c            (orden de columnas)
-          --encoding UTF-8
+          --columns a,b,c            (orden de columnas; si no, se descubren)
+                                     (rutas en lo anidado: user.address.city, tags[0])
+          --schema <path.json>       (usa sus "columns" si no hay --columns)
+          --discover-rows N          (filas para descubrir columnas; por defecto 1000)
+          --no-header                (no escribe la fila de cabecera)
+          --limit N
+          --encoding UTF-8           (del CSV de salida)
+
+        La entrada puede ser NDJSON o un array JSON; se detecta sola. Sin
+        --columns, un objeto o array anidado va como JSON en su celda.
 
         Ejemplos:
           converter json2csv --in data.ndjson --out data.csv --columns id,name,age
+          converter json2csv --in users.ndjson --out users.csv --columns id,user.address.city,tags[0]
           converter json2csv --help
         """);
 	}
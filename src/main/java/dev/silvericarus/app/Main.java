@@ -16,6 +16,8 @@ public class Main{
 			switch (sub){
 				case "csv2json" -> System.exit(CsvToJsonCmd.run(opts));
 				case "json2csv" -> System.exit(JsonToCsvCmd.run(opts));
+				case "serve" -> System.exit(ServeCmd.run(opts));
+				case "profile" -> System.exit(ProfileCmd.run(opts));
 				default -> {
 					System.err.println("Subcomando desconocido: " + sub);
 					printGlobalHelp();
@@ -57,7 +59,8 @@ public class Main{
 				val = keyVal.substring(eq + 1);
 			} else {
 				key = keyVal;
-				if ((i + 1) < args.length && !args[i + 1].startsWith("--") && !args[i + 1].startsWith("-")) {
+				// "-" suelto es un valor (stdin/stdout), no una flag.
+				if ((i + 1) < args.length && (!args[i + 1].startsWith("-") || "-".equals(args[i + 1]))) {
 					val = args[++i];
 				}
 			}
@@ -68,15 +71,19 @@ public class Main{
 
 	private static void printGlobalHelp() {
 		System.out.println("""
-        converter <csv2json|json2csv> [opciones]
+        converter <csv2json|json2csv|serve|profile> [opciones]
 
         Subcomandos:
           csv2json   Convierte CSV -> JSON (array o NDJSON)
           json2csv   Convierte JSON -> CSV
+          serve      Servidor HTTP de conversión (POST /csv2json, GET /metrics)
+          profile    Perfil por columna de un CSV y schema para csv2json
 
         Ejemplos:
           converter csv2json --help
           converter json2csv --help
+          converter serve --help
+          converter profile --help
         """);
 	}
 }
@@ -0,0 +1,109 @@
+package dev.silvericarus.app;
+
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Profile;
+import dev.silvericarus.core.Profiler;
+import dev.silvericarus.csv.CsvSniffer;
+import dev.silvericarus.util.CliUtils;
+import dev.silvericarus.util.Gzip;
+
+import java.io.BufferedInputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+public class ProfileCmd {
+	public static int run(Map<String, String> o) throws Exception {
+		if (o.containsKey("help")) {
+			printHelp();
+			return 0;
+		}
+
+		String inArg = o.get("in");
+		if (inArg == null || inArg.isBlank()) throw new IllegalArgumentException("Falta --in <ruta>");
+		if (CliUtils.isStdio(inArg)) throw new IllegalArgumentException("profile necesita --in en fichero: lo trocea para leerlo en paralelo");
+		Path in = Path.of(inArg);
+		String outArg = o.getOrDefault("out", CliUtils.STDIO);
+		// Como el estado de --follow: por defecto, al lado de la entrada.
+		Path schemaOut = Path.of(o.getOrDefault("schema-out", inArg + ".schema.json"));
+
+		String delim = o.getOrDefault("delim", "auto");
+		boolean header = o.containsKey("header");
+		boolean noHdr = o.containsKey("no-header");
+		if (header && noHdr) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		String encoding = o.get("encoding");
+		int threads = CsvToJsonCmd.parseThreads(o.getOrDefault("threads", "auto"));
+		int top = Integer.parseInt(o.getOrDefault("top", "10"));
+		if (top < 1) throw new IllegalArgumentException("--top debe ser >= 1");
+
+		boolean autoDelim = "auto".equalsIgnoreCase(delim);
+		CsvSniffer.Dialect d;
+		try (BufferedInputStream raw = new BufferedInputStream(Files.newInputStream(in), 1 << 16)) {
+			if (Gzip.startsWithMagic(raw)) {
+				throw new IllegalArgumentException("profile necesita la entrada sin comprimir");
+			}
+			d = CsvSniffer.sniff(raw, (encoding == null) ? null : Charset.forName(encoding),
+					autoDelim ? 0 : CliUtils.toDelimeterChar(delim)).dialect();
+		}
+		if (autoDelim) System.err.println("[auto-delim] elegido = " + CsvToJsonCmd.printable(d.delimeter()));
+		if (!header && !noHdr) {
+			header = d.header();
+			System.err.println("[auto-header] cabecera = " + header);
+		}
+
+		System.err.printf(Locale.ROOT, "[profile] in=%s out=%s schema-out=%s delim=%s header=%s encoding=%s threads=%d top=%d%n",
+				inArg, outArg, schemaOut, delim, header, d.charset().name(), threads, top);
+
+		long t0 = System.nanoTime();
+		Profile p = Profiler.profile(in, new ConvertOptions()
+				.delimeter(d.delimeter())
+				.quote(o.containsKey("quote") ? CsvToJsonCmd.parseQuote(o.get("quote")) : d.quote())
+				.header(header).noHeader(noHdr)
+				.charset(d.charset())
+				.detectDates(o.containsKey("detect-dates"))
+				.threads(threads), top);
+
+		if (CliUtils.isStdio(outArg)) {
+			OutputStream out = CliUtils.stdout();
+			p.write(out);
+			out.write('\n');
+			out.flush();
+		} else {
+			p.save(Path.of(outArg));
+		}
+		p.schema().save(schemaOut);
+		System.err.printf(Locale.ROOT, "[profile] %d filas, %d columnas en %d ms; schema en %s%n",
+				p.records(), p.columns().size(), (System.nanoTime() - t0) / 1_000_000, schemaOut);
+		return 0;
+	}
+
+	private static void printHelp() {
+		System.out.println("""
+				Uso:
+				  converter profile --in <input.csv> [opciones]
+
+				Perfil por columna, leyendo el fichero por trozos en paralelo y con
+				memoria fija: tipos, nulos/blancos, mínimo y máximo, distintos
+				(aproximado, HyperLogLog) y valores más frecuentes (Count-Min).
+				Escribe además un schema listo para csv2json --schema.
+
+				Opciones:
+				  --out <report.json|->      (perfil en JSON; por defecto stdout)
+				  --schema-out <path.json>   (por defecto <input>.schema.json)
+				  --top N                    (valores más frecuentes por columna; por defecto 10)
+				  --delim auto|,|;|\\t||      (por defecto auto)
+				  --quote C
+				  --header | --no-header     (por defecto se detecta)
+				  --encoding UTF-8           (compatible con ASCII; por defecto se detecta)
+				  --detect-dates             (tipos date y timestamp para fechas y horas ISO-8601)
+				  --threads N|auto           (por defecto auto = nº de CPUs)
+
+				Ejemplos:
+				  converter profile --in feed.csv --out feed.profile.json --schema-out feed.schema.json
+				  converter csv2json --in feed.csv --out feed.ndjson --ndjson --schema feed.schema.json
+				""");
+	}
+}
@@ -0,0 +1,67 @@
+package dev.silvericarus.app;
+
+import dev.silvericarus.core.Schema;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+public class ServeCmd {
+	private static final long DEFAULT_MAX_BODY = 64L << 20;
+
+	public static int run(Map<String, String> o) throws Exception {
+		if (o.containsKey("help")){printHelp();return 0;}
+
+		String portArg = o.get("port");
+		if (portArg == null || portArg.isBlank()) throw new IllegalArgumentException("Falta --port <n>");
+		int port = Integer.parseInt(portArg);
+		if (port < 0 || port > 65535) throw new IllegalArgumentException("--port fuera de rango: " + port);
+		String host = o.getOrDefault("host", "127.0.0.1");
+		int maxConcurrent = o.containsKey("max-concurrent")
+				? Integer.parseInt(o.get("max-concurrent"))
+				: Runtime.getRuntime().availableProcessors();
+		long maxBody = o.containsKey("max-body-bytes") ? Long.parseLong(o.get("max-body-bytes")) : DEFAULT_MAX_BODY;
+		Schema schema = o.containsKey("schema") ? Schema.load(Path.of(o.get("schema"))) : null;
+
+		ConversionServer server = new ConversionServer(host, port, maxConcurrent, maxBody, schema);
+		server.start();
+		System.err.printf(Locale.ROOT, "[serve] escuchando en http://%s:%d (max-concurrent=%d max-body-bytes=%d schema=%s)%n",
+				host, server.port(), maxConcurrent, maxBody, o.get("schema"));
+
+		// Ctrl+C / SIGTERM: deja terminar unos segundos lo que esté en curso.
+		CountDownLatch stopped = new CountDownLatch(1);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			System.err.println("[serve] parando");
+			server.stop(5);
+			stopped.countDown();
+		}));
+		stopped.await();
+		return 0;
+	}
+
+	private static void printHelp() {
+		System.out.println("""
+				Uso:
+				  converter serve --port N [opciones]
+
+				Opciones:
+				  --host H                 (por defecto 127.0.0.1)
+				  --max-concurrent N       (conversiones a la vez; el resto recibe 503; por defecto nº de CPUs)
+				  --max-body-bytes N       (cuerpo máximo; más grande recibe 413; por defecto 64 MB)
+				  --schema <path.json>     (se aplica a todas las peticiones)
+
+				Rutas:
+				  POST /csv2json?<flags>   cuerpo CSV; flags de csv2json sin "--":
+				                           delim, quote, header, no-header, encoding, empty-as-null,
+				                           strings-only, ndjson, pretty, limit, relaxed-quotes, adaptive-types,
+				                           on-error (skip o null; reject no), max-errors, select, where,
+				                           format (json, ndjson, smile o cbor)
+				  GET  /metrics            peticiones por código, bytes, filas y latencia (Prometheus)
+
+				Ejemplos:
+				  converter serve --port 8080
+				  curl -s --data-binary @data.csv 'http://127.0.0.1:8080/csv2json?ndjson&delim=;'
+				""");
+	}
+}
@@ -0,0 +1,86 @@
+package dev.silvericarus.app;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores del modo servidor para /metrics, en formato de texto de
+ * Prometheus: peticiones por código, bytes de entrada y salida, filas y
+ * percentiles de latencia.
+ *
+ * Los percentiles salen de las últimas {@value #WINDOW} conversiones (una
+ * ventana circular), no de todo el histórico: reflejan el estado actual.
+ */
+final class ServerMetrics {
+	static final int WINDOW = 4096;
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+	private final Map<Integer, LongAdder> requests = new ConcurrentHashMap<>();
+	private final LongAdder bytesIn = new LongAdder();
+	private final LongAdder bytesOut = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+
+	private final long[] latencies = new long[WINDOW];
+	private int next;
+	private int size;
+
+	void record(int status, long in, long out, long rowCount, long nanos) {
+		requests.computeIfAbsent(status, k -> new LongAdder()).increment();
+		bytesIn.add(in);
+		bytesOut.add(out);
+		rows.add(rowCount);
+		synchronized (latencies) {
+			latencies[next] = nanos;
+			next = (next + 1) % WINDOW;
+			if (size < WINDOW) size++;
+		}
+	}
+
+	long requests(int status) {
+		LongAdder a = requests.get(status);
+		return (a == null) ? 0 : a.sum();
+	}
+
+	/** Percentil {@code q} (0..1) de la ventana, en nanosegundos; 0 sin datos. */
+	long latency(double q) {
+		long[] copy;
+		synchronized (latencies) {
+			copy = Arrays.copyOf(latencies, size);
+		}
+		if (copy.length == 0) return 0;
+		Arrays.sort(copy);
+		int i = (int) Math.ceil(q * copy.length) - 1;
+		return copy[Math.max(0, Math.min(copy.length - 1, i))];
+	}
+
+	String render(int inFlight, int maxConcurrent) {
+		StringBuilder sb = new StringBuilder(1024);
+		sb.append("# TYPE csv2json_requests_total counter\n");
+		for (Map.Entry<Integer, LongAdder> e : new TreeMap<>(requests).entrySet()) {
+			sb.append("csv2json_requests_total{status=\"").append(e.getKey()).append("\"} ").append(e.getValue().sum()).append('\n');
+		}
+		counter(sb, "csv2json_request_bytes_total", bytesIn.sum());
+		counter(sb, "csv2json_response_bytes_total", bytesOut.sum());
+		counter(sb, "csv2json_rows_total", rows.sum());
+
+		sb.append("# TYPE csv2json_in_flight gauge\n");
+		sb.append("csv2json_in_flight ").append(inFlight).append('\n');
+		sb.append("# TYPE csv2json_max_concurrent gauge\n");
+		sb.append("csv2json_max_concurrent ").append(maxConcurrent).append('\n');
+
+		sb.append("# TYPE csv2json_latency_seconds summary\n");
+		for (double q : QUANTILES) {
+			sb.append(String.format(Locale.ROOT, "csv2json_latency_seconds{quantile=\"%s\"} %.6f%n", q, latency(q) / 1e9));
+		}
+		return sb.toString();
+	}
+
+	private static void counter(StringBuilder sb, String name, long v) {
+		sb.append("# TYPE ").append(name).append(" counter\n");
+		sb.append(name).append(' ').append(v).append('\n');
+	}
+}
@@ -0,0 +1,35 @@
+package dev.silvericarus.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Vista {@link CharSequence} de un trozo de byte[] en UTF-8, un char por byte.
+ * Basta para {@link TypeInference#classify}: bools y números son ASCII, y
+ * cualquier byte no ASCII cae fuera de la gramática y se queda como texto.
+ */
+final class ByteChars implements CharSequence {
+	private byte[] b;
+	private int off;
+	private int len;
+
+	ByteChars wrap(byte[] b, int off, int len) {
+		this.b = b;
+		this.off = off;
+		this.len = len;
+		return this;
+	}
+
+	@Override
+	public int length() { return len; }
+
+	@Override
+	public char charAt(int i) { return (char) (b[off + i] & 0xFF); }
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new String(b, off + start, end - start, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() { return new String(b, off, len, StandardCharsets.UTF_8); }
+}
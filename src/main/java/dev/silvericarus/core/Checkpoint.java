@@ -0,0 +1,74 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Punto de reanudación de una conversión (--checkpoint): el último registro
+ * escrito entero y dónde acaba en la entrada y en la salida.
+ *
+ * @param inputSize    tamaño de la entrada al guardarlo; si cambia, no se reanuda
+ * @param inputOffset  byte de la entrada donde empieza el registro siguiente
+ * @param recordNumber nº de registro leído, con la cabecera (como commons-csv)
+ * @param records      filas escritas en la salida
+ * @param outputLength bytes de la salida hasta el final de la última fila
+ * @param format       "array", "array-pretty" o "ndjson"; tiene que coincidir al reanudar
+ * @param types        tipos bloqueados en modo adaptativo (null sin él), que
+ *                     pueden haberse ensanchado después de la muestra
+ */
+public record Checkpoint(long inputSize, long inputOffset, long recordNumber, long records,
+                         long outputLength, String format, List<ColumnType> types) {
+
+	static String format(ConvertOptions o) {
+		if (o.format().binary()) return o.format().name().toLowerCase(Locale.ROOT) + (o.ndjson() ? "-seq" : "");
+		if (o.ndjson()) return "ndjson";
+		return o.pretty() ? "array-pretty" : "array";
+	}
+
+	public static Checkpoint load(Path path) throws IOException {
+		JsonNode root = new ObjectMapper().readTree(path.toFile());
+		List<ColumnType> types = null;
+		if (root.path("types").isArray()) {
+			types = new ArrayList<>();
+			for (JsonNode t : root.get("types")) types.add(t.isNull() ? null : ColumnType.from(t.asText()));
+		}
+		for (String k : List.of("inputSize", "inputOffset", "recordNumber", "records", "outputLength", "format")) {
+			if (!root.has(k)) throw new IOException("Checkpoint inválido, falta '" + k + "': " + path);
+		}
+		return new Checkpoint(root.get("inputSize").asLong(), root.get("inputOffset").asLong(),
+				root.get("recordNumber").asLong(), root.get("records").asLong(),
+				root.get("outputLength").asLong(), root.get("format").asText(), types);
+	}
+
+	/** Escribe en un temporal al lado y lo renombra: un corte a medias deja el checkpoint anterior. */
+	public void save(Path path) throws IOException {
+		ObjectMapper om = new ObjectMapper();
+		ObjectNode root = om.createObjectNode();
+		root.put("inputSize", inputSize);
+		root.put("inputOffset", inputOffset);
+		root.put("recordNumber", recordNumber);
+		root.put("records", records);
+		root.put("outputLength", outputLength);
+		root.put("format", format);
+		if (types != null) {
+			ArrayNode arr = root.putArray("types");
+			for (ColumnType t : types) {
+				if (t == null) arr.addNull();
+				else arr.add(t.name().toLowerCase(Locale.ROOT));
+			}
+		}
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		om.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), root);
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,150 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.silvericarus.csv.MappedCsvTokenizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lado de {@link MappedConverter} que guarda y retoma {@link Checkpoint}s.
+ *
+ * Al reanudar, la salida se recorta a {@link Checkpoint#outputLength()} y
+ * el tokenizador salta a {@link Checkpoint#inputOffset()}. El generador JSON
+ * empieza de cero, así que lo que escribe antes de la primera fila nueva
+ * (el "[" del array y un null de relleno) se descarta: solo sirve para que
+ * coloque la coma, el separador de NDJSON y la sangría de --pretty igual
+ * que si no se hubiera cortado.
+ *
+ * Antes de cada checkpoint se vuelca el generador y se hace fsync de la
+ * salida: lo que el checkpoint da por escrito está en disco.
+ */
+final class Checkpointer {
+	private final Path file;
+	private final long every;
+	private final long inputSize;
+	private final String format;
+	private final Checkpoint from;
+	private final FileChannel out;
+	private final Sink sink;
+
+	private long records;
+	private long sinceLast;
+
+	private Checkpointer(Path file, long every, long inputSize, String format, Checkpoint from, FileChannel out) {
+		this.file = file;
+		this.every = every;
+		this.inputSize = inputSize;
+		this.format = format;
+		this.from = from;
+		this.out = out;
+		this.sink = new Sink(out, (from == null) ? 0 : from.outputLength());
+		sink.discard = from != null;
+	}
+
+	/** Abre la salida: desde cero o, con --resume y checkpoint, recortada al último registro guardado. */
+	static Checkpointer open(Path in, Path outPath, ConvertOptions o) throws IOException {
+		if (o.limit() != null) throw new IllegalArgumentException("--checkpoint no se combina con --limit");
+		if (o.onError() != null && o.onError().action() == ErrorPolicy.Action.REJECT) {
+			// Al reanudar se perderían los rechazados de antes del corte.
+			throw new IllegalArgumentException("--checkpoint no se combina con --on-error reject");
+		}
+		long inputSize = Files.size(in);
+		String format = Checkpoint.format(o);
+		Checkpoint from = (o.resume() && Files.exists(o.checkpoint())) ? Checkpoint.load(o.checkpoint()) : null;
+
+		if (from == null) {
+			FileChannel ch = FileChannel.open(outPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			return new Checkpointer(o.checkpoint(), o.checkpointEvery(), inputSize, format, null, ch);
+		}
+
+		if (from.inputSize() != inputSize) {
+			throw new IllegalArgumentException("La entrada ha cambiado desde el checkpoint (" + from.inputSize()
+					+ " bytes entonces, " + inputSize + " ahora)");
+		}
+		if (!from.format().equals(format)) {
+			throw new IllegalArgumentException("El checkpoint es de salida " + from.format() + ", no " + format);
+		}
+		if (!Files.exists(outPath) || Files.size(outPath) < from.outputLength()) {
+			throw new IllegalArgumentException("La salida es más corta que el checkpoint: " + outPath);
+		}
+		FileChannel ch = FileChannel.open(outPath, StandardOpenOption.WRITE);
+		ch.truncate(from.outputLength());
+		ch.position(from.outputLength());
+		return new Checkpointer(o.checkpoint(), o.checkpointEvery(), inputSize, format, from, ch);
+	}
+
+	/** Salida del conversor; se cierra con él. */
+	OutputStream stream() { return sink; }
+
+	/** Tipos del modo adaptativo tal como estaban en el checkpoint; null si no se reanuda o no los hay. */
+	ColumnTypeLock lock(boolean dates) {
+		return (from == null || from.types() == null) ? null : ColumnTypeLock.of(from.types(), dates);
+	}
+
+	/**
+	 * Tras leer la cabecera y abrir el array: al reanudar, rellena el estado
+	 * del generador, salta en la entrada y empieza a escribir de verdad.
+	 */
+	void begin(JsonGenerator gen, MappedCsvTokenizer tok) throws IOException {
+		if (from != null) {
+			if (from.records() > 0) gen.writeNull();
+			tok.seek(from.inputOffset(), from.recordNumber());
+			records = from.records();
+		}
+		gen.flush();
+		sink.discard = false;
+	}
+
+	/** Después de escribir cada fila entera. */
+	void row(JsonGenerator gen, MappedCsvTokenizer tok, ColumnTypeLock lock) throws IOException {
+		records++;
+		if (++sinceLast < every) return;
+		sinceLast = 0;
+		gen.flush();
+		out.force(false);
+		new Checkpoint(inputSize, tok.position(), tok.recordNumber(), records, sink.written, format,
+				(lock == null) ? null : lock.types()).save(file);
+	}
+
+	/** La conversión ha terminado bien: el checkpoint ya no sirve. */
+	void done() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	/** Escribe en el canal contando bytes; mientras {@code discard}, los tira. También lo usa {@link Follower}. */
+	static final class Sink extends OutputStream {
+		private final FileChannel ch;
+		boolean discard;
+		long written;
+
+		Sink(FileChannel ch, long written) {
+			this.ch = ch;
+			this.written = written;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (discard) return;
+			ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+			while (bb.hasRemaining()) ch.write(bb);
+			written += len;
+		}
+
+		@Override
+		public void close() throws IOException {
+			ch.close();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plan de columnas calculado una vez por fichero (o por trozo en paralelo).
+ * Cada columna lleva su nombre ya serializado para Jackson, la estrategia
+ * con la que se escriben sus celdas y la política de vacíos, así el bucle
+ * por fila solo indexa arrays: ni "col" + i, ni búsquedas en el schema, ni
+ * volver a escapar el nombre en cada celda.
+ *
+ * Las columnas que aparecen más allá de la cabecera (filas más anchas) se
+ * añaden al plan la primera vez que se ven, con nombre colN. No es seguro
+ * compartir un plan entre hilos.
+ *
+ * Cada columna cuenta además los valores que escribe por tipo y los null,
+ * que {@link ConvertStats} recoge al terminar.
+ *
+ * Con --select el plan lleva además los índices a escribir ({@link #selected()}):
+ * las demás columnas no se leen, ni se infieren ni se escriben.
+ */
+final class ColumnPlan {
+	enum Strategy {
+		/** Tipo fijado por el schema; si no encaja, {@link Converter.RowMismatch}. */
+		SCHEMA,
+		/** Siempre texto (--strings-only). */
+		STRINGS,
+		/** Tipo bloqueado en modo adaptativo ({@link ColumnTypeLock}). */
+		LOCKED,
+		/** Inferencia celda a celda. */
+		INFER
+	}
+
+	static final class Column {
+		final int index;
+		final String name;
+		final SerializedString key;
+		final Strategy strategy;
+		/** Tipo del schema con {@link Strategy#SCHEMA}; null en otro caso. */
+		final ColumnType type;
+		/** Cómo se escriben DATE/TIMESTAMP del schema ({@link Schema#outputOf}). */
+		final TemporalOutput output;
+		/** Con {@link Strategy#INFER}, reconocer fechas y horas (--detect-dates). */
+		final boolean dates;
+		/** Valores ya escritos de la columna (--value-cache); null sin ella o con schema. */
+		final ValueCache cache;
+		/** Celdas vacías o en blanco como null (--empty-as-null). */
+		final boolean emptyAsNull;
+		/** Con --on-error null, a quién contarle las celdas que no encajan; null = lanzar. */
+		final RowErrors nullOnError;
+		/** Valores escritos por tipo (índice = ordinal) y null escritos. */
+		final long[] typeCounts = new long[TYPES];
+		long nulls;
+		private IsoTime time;
+
+		Column(int index, String name, Strategy strategy, ColumnType type, TemporalOutput output, boolean dates,
+		       ValueCache cache, boolean emptyAsNull, RowErrors nullOnError) {
+			this.index = index;
+			this.name = name;
+			this.key = new SerializedString(name);
+			this.strategy = strategy;
+			this.type = type;
+			this.output = output;
+			this.dates = dates;
+			this.cache = cache;
+			this.emptyAsNull = emptyAsNull;
+			this.nullOnError = nullOnError;
+		}
+
+		void count(ColumnType t) { typeCounts[t.ordinal()]++; }
+
+		/** Lector de fechas de la columna, creado la primera vez que hace falta y reutilizado celda a celda. */
+		IsoTime time() {
+			if (time == null) time = new IsoTime();
+			return time;
+		}
+	}
+
+	private static final int TYPES = ColumnType.values().length;
+
+	private final List<String> headerNames;
+	private final int headerWidth;
+	private final Schema schema;
+	private final boolean emptyAsNull;
+	private final boolean dates;
+	private final boolean cache;
+	private final Strategy fallback;
+	private final RowErrors nullOnError;
+	private final int[] selected;
+	private Column[] columns;
+	private int width;
+
+	/**
+	 * @param headerNames nombres efectivos (cabecera o columnas del schema); null = col0..N
+	 * @param dates       inferencia con fechas y horas (--detect-dates)
+	 * @param cache       una {@link ValueCache} por columna sin tipo en el schema (--value-cache)
+	 * @param locked      modo adaptativo: las columnas sin tipo en el schema usan el tipo bloqueado
+	 * @param errors      política de errores de la conversión; null = la de siempre
+	 * @param selected    índices de --select en su orden; null = todas
+	 */
+	ColumnPlan(List<String> headerNames, Schema schema, boolean emptyAsNull, boolean stringsOnly, boolean dates,
+	           boolean cache, boolean locked, RowErrors errors, int[] selected) {
+		this.headerNames = headerNames;
+		this.headerWidth = (headerNames == null) ? 0 : headerNames.size();
+		this.schema = schema;
+		this.emptyAsNull = emptyAsNull;
+		this.dates = dates;
+		this.cache = cache;
+		this.fallback = stringsOnly ? Strategy.STRINGS : (locked ? Strategy.LOCKED : Strategy.INFER);
+		this.nullOnError = (errors != null && errors.nullsCells()) ? errors : null;
+		this.selected = selected;
+		this.columns = new Column[Math.max(headerWidth, 16)];
+		for (int i = 0; i < headerWidth; i++) columns[i] = build(i);
+	}
+
+	static ColumnPlan of(List<String> headerNames, ConvertOptions o, boolean locked, RowErrors errors) {
+		return new ColumnPlan(headerNames, o.schema(), o.emptyAsNull(), o.stringsOnly(), o.detectDates(), o.cachesValues(),
+				locked, errors, selection(headerNames, o.select()));
+	}
+
+	/** Índices de las columnas de --select, en su orden; null sin él. */
+	static int[] selection(List<String> headerNames, List<String> select) {
+		if (select == null) return null;
+		int[] idx = new int[select.size()];
+		for (int k = 0; k < idx.length; k++) {
+			idx[k] = index(select.get(k), headerNames, "--select");
+			for (int j = 0; j < k; j++) {
+				if (idx[j] == idx[k]) throw new IllegalArgumentException("--select: columna repetida '" + select.get(k) + "'");
+			}
+		}
+		return idx;
+	}
+
+	/** Índice de la columna {@code name}: por nombre en la cabecera o, si no está, como colN. */
+	static int index(String name, List<String> headerNames, String flag) {
+		name = name.trim();
+		if (headerNames != null) {
+			int i = headerNames.indexOf(name);
+			if (i >= 0) return i;
+		}
+		if (name.startsWith("col")) {
+			try {
+				int i = Integer.parseInt(name.substring(3));
+				if (i >= 0 && (headerNames == null || i >= headerNames.size())) return i;
+			} catch (NumberFormatException ignored) {
+				// Se queda como nombre desconocido.
+			}
+		}
+		throw new IllegalArgumentException(flag + ": columna desconocida '" + name + "'");
+	}
+
+	/** Índices a escribir, en orden; null = todas las de la fila más las que falten de la cabecera. */
+	int[] selected() { return selected; }
+
+	/** Columnas que tiene la cabecera; las que falten en una fila se escriben como null. */
+	int headerWidth() { return headerWidth; }
+
+	/** Columnas vistas hasta ahora: la cabecera más las que hayan traído filas más anchas. */
+	int width() { return width; }
+
+	Column column(int i) {
+		if (i < columns.length) {
+			Column c = columns[i];
+			if (c != null) return c;
+		} else {
+			columns = Arrays.copyOf(columns, Math.max(i + 1, columns.length * 2));
+		}
+		return columns[i] = build(i);
+	}
+
+	private Column build(int i) {
+		width = Math.max(width, i + 1);
+		String name = (i < headerWidth) ? headerNames.get(i) : "col" + i;
+		ColumnType forced = (schema != null) ? schema.typeOf(name) : null;
+		if (forced != null) return new Column(i, name, Strategy.SCHEMA, forced, schema.outputOf(name), false, null,
+				emptyAsNull, nullOnError);
+		return new Column(i, name, fallback, null, TemporalOutput.ISO, dates, cache ? new ValueCache() : null, emptyAsNull, null);
+	}
+}
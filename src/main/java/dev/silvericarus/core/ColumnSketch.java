@@ -0,0 +1,332 @@
+package dev.silvericarus.core;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lo que {@link Profiler} acumula de una columna en un trozo: histograma de
+ * tipos ({@link TypeInference#classify}, con fechas si --detect-dates), nulos y blancos, mínimo y máximo,
+ * y los sketches de distintos ({@link HyperLogLog}) y frecuencias
+ * ({@link CountMinSketch}). Ocupa lo mismo tenga el trozo mil filas o
+ * diez millones, y los de dos trozos se combinan con {@link #merge}.
+ *
+ * Top-k: junto al Count-Min se guardan como mucho 4·k candidatos con su
+ * frecuencia estimada ({@link Candidates}), indexados por el mismo hash que
+ * los sketches; uno nuevo solo entra si supera al menor. Una celda que ya
+ * es candidata solo actualiza su cuenta, sin crear nada. Al combinar se
+ * juntan los candidatos de ambos y se vuelven a estimar con la tabla ya
+ * sumada, así que un valor repartido entre trozos no sale corto.
+ *
+ * No es seguro entre hilos: cada trozo tiene los suyos.
+ */
+final class ColumnSketch {
+	private final int capacity;
+	private final Charset cs;
+	private final boolean dates;
+
+	private final long[] types = new long[ColumnType.values().length];
+	private long nulls, blanks;
+	private final HyperLogLog distinct = new HyperLogLog();
+	private final CountMinSketch freq = new CountMinSketch();
+	private final Candidates candidates;
+
+	private boolean number;
+	private double minNumber, maxNumber;
+	private String minNumberText, maxNumberText;
+	private byte[] minText, maxText;
+
+	/**
+	 * {@code cs}: la codificación del fichero, para los valores que se guardan
+	 * como texto; {@code dates}: clasificar también fechas y horas ISO-8601.
+	 */
+	ColumnSketch(int topK, Charset cs, boolean dates) {
+		this.capacity = Math.max(1, topK) * 4;
+		this.candidates = new Candidates(capacity);
+		this.cs = cs;
+		this.dates = dates;
+	}
+
+	/** Celda vacía o que falta en un registro más corto que la cabecera. */
+	void addNull() {
+		nulls++;
+	}
+
+	void addNulls(long n) {
+		nulls += n;
+	}
+
+	/** Celda con algo, en b[0, len); {@code text} es la vista que se reutiliza para clasificarla. */
+	void add(byte[] b, int len, ByteChars text) {
+		if (TypeInference.isBlank(b, 0, len)) {
+			blanks++;
+			return;
+		}
+		text.wrap(b, 0, len);
+		ColumnType t = TypeInference.classify(text, dates);
+		types[t.ordinal()]++;
+		if (t == ColumnType.INT || t == ColumnType.LONG || t == ColumnType.DOUBLE) number(text, t);
+
+		if (minText == null || Arrays.compareUnsigned(b, 0, len, minText, 0, minText.length) < 0) minText = Arrays.copyOf(b, len);
+		if (maxText == null || Arrays.compareUnsigned(b, 0, len, maxText, 0, maxText.length) > 0) maxText = Arrays.copyOf(b, len);
+
+		long h = HyperLogLog.hash(b, 0, len);
+		distinct.add(h);
+		long f = freq.add(h);
+		int i = candidates.find(h);
+		if (i >= 0) candidates.raise(i, f);
+		else if (!candidates.full() || f > candidates.floor()) candidates.insert(h, Arrays.copyOf(b, len), f);
+	}
+
+	private void number(CharSequence s, ColumnType t) {
+		double v = (t == ColumnType.DOUBLE) ? decimal(s) : integral(s);
+		if (!number || v < minNumber) {
+			minNumber = v;
+			minNumberText = TypeInference.numberLexeme(s.toString());
+		}
+		if (!number || v > maxNumber) {
+			maxNumber = v;
+			maxNumberText = TypeInference.numberLexeme(s.toString());
+		}
+		number = true;
+	}
+
+	/** Valor de un texto clasificado como INT o LONG, sin pasar por String. */
+	private static double integral(CharSequence s) {
+		int i = 0, e = s.length();
+		while (s.charAt(i) <= ' ') i++;
+		while (s.charAt(e - 1) <= ' ') e--;
+		boolean negative = s.charAt(i) == '-';
+		if (negative || s.charAt(i) == '+') i++;
+		// En negativo, para que quepa Long.MIN_VALUE.
+		long v = 0;
+		for (; i < e; i++) v = v * 10 - (s.charAt(i) - '0');
+		return negative ? v : -(double) v;
+	}
+
+	private static final double[] POW10 = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	/**
+	 * Valor de un texto clasificado como número (también lo usa
+	 * {@link RowFilter}). Con hasta 15 cifras
+	 * significativas y exponente decimal de hasta ±22, mantisa y potencia de
+	 * diez son exactas en double y una sola operación redondea igual que
+	 * {@link Double#parseDouble}; el resto, que es raro, pasa por él.
+	 */
+	static double decimal(CharSequence s) {
+		int i = 0, e = s.length();
+		while (s.charAt(i) <= ' ') i++;
+		while (s.charAt(e - 1) <= ' ') e--;
+		int start = i;
+		boolean negative = s.charAt(i) == '-';
+		if (negative || s.charAt(i) == '+') i++;
+
+		long m = 0;
+		int digits = 0, scale = 0;
+		boolean fraction = false;
+		for (; i < e; i++) {
+			char c = s.charAt(i);
+			if (c == '.') {
+				fraction = true;
+				continue;
+			}
+			if (c == 'e' || c == 'E') break;
+			if (m == 0 && c == '0') {
+				if (fraction) scale--;
+				continue;
+			}
+			if (++digits > 15) return Double.parseDouble(s.subSequence(start, e).toString());
+			m = m * 10 + (c - '0');
+			if (fraction) scale--;
+		}
+		if (i < e) {
+			i++;
+			boolean negExp = s.charAt(i) == '-';
+			if (negExp || s.charAt(i) == '+') i++;
+			int exp = 0;
+			for (; i < e && exp < 1000; i++) exp = exp * 10 + (s.charAt(i) - '0');
+			scale += negExp ? -exp : exp;
+		}
+		if (m == 0) return negative ? -0.0 : 0.0;
+		if (scale < -22 || scale > 22) return Double.parseDouble(s.subSequence(start, e).toString());
+		double v = (scale < 0) ? m / POW10[-scale] : m * POW10[scale];
+		return negative ? -v : v;
+	}
+
+	/** Suma lo de {@code other} (otro trozo de la misma columna). */
+	void merge(ColumnSketch other) {
+		for (int i = 0; i < types.length; i++) types[i] += other.types[i];
+		nulls += other.nulls;
+		blanks += other.blanks;
+		distinct.merge(other.distinct);
+		freq.merge(other.freq);
+
+		if (other.number) {
+			if (!number || other.minNumber < minNumber) {
+				minNumber = other.minNumber;
+				minNumberText = other.minNumberText;
+			}
+			if (!number || other.maxNumber > maxNumber) {
+				maxNumber = other.maxNumber;
+				maxNumberText = other.maxNumberText;
+			}
+			number = true;
+		}
+		if (other.minText != null && (minText == null || Arrays.compareUnsigned(other.minText, minText) < 0)) minText = other.minText;
+		if (other.maxText != null && (maxText == null || Arrays.compareUnsigned(other.maxText, maxText) > 0)) maxText = other.maxText;
+
+		Candidates mine = candidates.copy();
+		candidates.clear();
+		reoffer(mine);
+		reoffer(other.candidates);
+	}
+
+	/** Vuelve a proponer los candidatos de {@code from} con la tabla de frecuencias ya sumada. */
+	private void reoffer(Candidates from) {
+		for (int k = 0; k < from.size; k++) {
+			long h = from.hashes[k];
+			long f = freq.estimate(h);
+			int i = candidates.find(h);
+			if (i >= 0) candidates.raise(i, f);
+			else if (!candidates.full() || f > candidates.floor()) candidates.insert(h, from.values[k], f);
+		}
+	}
+
+	/** Resultado de la columna; {@code records} son las filas del fichero, para la tasa de nulos. */
+	Profile.Column result(String name, long records, int topK) {
+		Map<ColumnType, Long> histogram = new EnumMap<>(ColumnType.class);
+		ColumnType type = null;
+		for (ColumnType t : ColumnType.values()) {
+			if (types[t.ordinal()] == 0) continue;
+			histogram.put(t, types[t.ordinal()]);
+			type = ColumnTypeLock.widen(type, t);
+		}
+		boolean numeric = type == ColumnType.INT || type == ColumnType.LONG || type == ColumnType.DOUBLE;
+		String min = numeric ? minNumberText : (minText == null) ? null : new String(minText, cs);
+		String max = numeric ? maxNumberText : (maxText == null) ? null : new String(maxText, cs);
+
+		List<Profile.Value> all = new ArrayList<>(candidates.size);
+		for (int k = 0; k < candidates.size; k++) {
+			all.add(new Profile.Value(new String(candidates.values[k], cs), candidates.counts[k]));
+		}
+		List<Profile.Value> top = all.stream()
+				.sorted(Comparator.comparingLong(Profile.Value::count).reversed().thenComparing(Profile.Value::value))
+				.limit(topK)
+				.toList();
+		double nullRate = (records == 0) ? 0 : (double) (nulls + blanks) / records;
+		return new Profile.Column(name, type, histogram, nulls, blanks, nullRate, min, max, distinct.estimate(), top);
+	}
+
+	/**
+	 * Candidatos a top-k: hash, bytes del valor y frecuencia estimada en
+	 * arrays paralelos, con un índice de direccionamiento abierto por hash.
+	 * La menor frecuencia ({@link #floor()}) se guarda y solo se vuelve a
+	 * buscar cuando cambia la entrada que la tenía.
+	 */
+	private static final class Candidates {
+		final int capacity;
+		final long[] hashes;
+		final byte[][] values;
+		final long[] counts;
+		int size;
+		/** Entrada con la menor frecuencia; -1 sin entradas. */
+		private int min = -1;
+		/** Posición + 1 de cada entrada, por hash; 0 = libre. */
+		private final int[] index;
+		private final int mask;
+
+		Candidates(int capacity) {
+			this.capacity = capacity;
+			this.hashes = new long[capacity];
+			this.values = new byte[capacity][];
+			this.counts = new long[capacity];
+			this.index = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+			this.mask = index.length - 1;
+		}
+
+		boolean full() { return size == capacity; }
+
+		/** Menor frecuencia guardada; con la lista llena, lo que hay que superar para entrar. */
+		long floor() { return (min < 0) ? 0 : counts[min]; }
+
+		/** Entrada con ese hash; -1 si no está. */
+		int find(long h) {
+			for (int s = slot(h); index[s] != 0; s = (s + 1) & mask) {
+				if (hashes[index[s] - 1] == h) return index[s] - 1;
+			}
+			return -1;
+		}
+
+		/** Sube la frecuencia de una entrada (el Count-Min nunca baja). */
+		void raise(int i, long f) {
+			if (f <= counts[i]) return;
+			counts[i] = f;
+			if (i == min) min = lowest();
+		}
+
+		/** Añade un valor nuevo; con la lista llena, en lugar del de menor frecuencia. */
+		void insert(long h, byte[] value, long f) {
+			int i;
+			if (full()) {
+				i = min;
+				unindex(hashes[i]);
+			} else {
+				i = size++;
+			}
+			hashes[i] = h;
+			values[i] = value;
+			counts[i] = f;
+			int s = slot(h);
+			while (index[s] != 0) s = (s + 1) & mask;
+			index[s] = i + 1;
+			if (min < 0 || i == min || f < counts[min]) min = (i == min) ? lowest() : i;
+		}
+
+		void clear() {
+			Arrays.fill(index, 0);
+			Arrays.fill(values, null);
+			size = 0;
+			min = -1;
+		}
+
+		Candidates copy() {
+			Candidates c = new Candidates(capacity);
+			for (int k = 0; k < size; k++) c.insert(hashes[k], values[k], counts[k]);
+			return c;
+		}
+
+		private int lowest() {
+			int low = 0;
+			for (int k = 1; k < size; k++) {
+				if (counts[k] < counts[low]) low = k;
+			}
+			return (size == 0) ? -1 : low;
+		}
+
+		/** Quita un hash del índice corriendo hacia atrás los que lo seguían (sondeo lineal sin lápidas). */
+		private void unindex(long h) {
+			int s = slot(h);
+			while (hashes[index[s] - 1] != h) s = (s + 1) & mask;
+			index[s] = 0;
+			for (int next = (s + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+				int home = slot(hashes[index[next] - 1]);
+				// Se mueve al hueco si su posición ideal no queda entre el hueco y donde está.
+				if (((next - home) & mask) >= ((next - s) & mask)) {
+					index[s] = index[next];
+					index[next] = 0;
+					s = next;
+				}
+			}
+		}
+
+		private int slot(long h) {
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+	}
+}
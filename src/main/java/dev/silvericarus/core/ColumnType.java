@@ -5,7 +5,13 @@ import java.util.Locale;
 public enum ColumnType {
 	STRING, INT,
 	LONG, DOUBLE,
-	BOOL;
+	BOOL,
+	/** Número exacto: se escribe con su literal, también en Smile/CBOR (BigDecimal). */
+	DECIMAL,
+	/** Fecha ISO-8601 yyyy-MM-dd ({@link IsoTime}). */
+	DATE,
+	/** Fecha y hora ISO-8601, con o sin zona ({@link IsoTime}). */
+	TIMESTAMP;
 
 	public static ColumnType from(String s) {
 		if (s == null) return null;
@@ -15,6 +21,9 @@ public enum ColumnType {
 			case "long" -> LONG;
 			case "double", "float", "number" -> DOUBLE;
 			case "bool", "boolean" -> BOOL;
+			case "decimal", "numeric" -> DECIMAL;
+			case "date" -> DATE;
+			case "timestamp", "datetime" -> TIMESTAMP;
 			default -> throw new IllegalArgumentException("Tipo no soportado en schema: " + s);
 		};
 	}
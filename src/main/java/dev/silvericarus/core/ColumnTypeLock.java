@@ -0,0 +1,108 @@
+package dev.silvericarus.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tipos por columna "bloqueados" para el modo adaptativo.
+ *
+ * 1) Muestreo: {@link #observe} con las primeras N filas; cada columna toma
+ *    el tipo que cubre todo lo visto.
+ * 2) Conversión: {@link #resolve} solo valida la celda contra el tipo
+ *    bloqueado (una columna STRING ni siquiera se mira). Si no encaja, la
+ *    columna se ensancha desde esa fila en adelante; las filas ya escritas
+ *    no se tocan.
+ *
+ * Regla de ensanchado (la misma que en el muestreo):
+ *  - INT -> LONG -> DOUBLE entre números;
+ *  - DATE -> TIMESTAMP entre fechas (con --detect-dates);
+ *  - BOOL con cualquier número, o cualquier cosa con texto -> STRING;
+ *  - STRING es el tope y ya no cambia.
+ * Las celdas vacías o en blanco no votan ni ensanchan: salen como null con
+ * --empty-as-null o como "" en otro caso, igual que sin modo adaptativo.
+ * Una columna sin ningún valor en la muestra se bloquea con su primer valor.
+ */
+public final class ColumnTypeLock {
+	private ColumnType[] types = new ColumnType[16];
+	private int width;
+	private final boolean dates;
+
+	public ColumnTypeLock() {
+		this(false);
+	}
+
+	/** {@code dates}: clasificar también fechas y horas ISO-8601 (--detect-dates). */
+	public ColumnTypeLock(boolean dates) {
+		this.dates = dates;
+	}
+
+	/**
+	 * Fase de muestreo: combina el tipo de la celda con lo ya visto en la columna.
+	 * Las celdas en blanco no deben pasarse (ver nota de la clase).
+	 */
+	public void observe(int col, CharSequence s) {
+		ensure(col);
+		types[col] = widen(types[col], TypeInference.classify(s, dates));
+	}
+
+	/** Tipo con el que escribir una celda no vacía, ensanchando la columna si no encaja. */
+	public ColumnType resolve(int col, CharSequence s) {
+		ensure(col);
+		ColumnType t = types[col];
+		if (t == ColumnType.STRING) return t;
+		if (t != null && TypeInference.fits(t, s)) return t;
+		t = widen(t, TypeInference.classify(s, dates));
+		types[col] = t;
+		return t;
+	}
+
+	/** Bloqueo con estos tipos ya fijados (null = sin datos), p. ej. el guardado en un {@link Checkpoint}. */
+	public static ColumnTypeLock of(List<ColumnType> types, boolean dates) {
+		ColumnTypeLock lock = new ColumnTypeLock(dates);
+		for (int i = 0; i < types.size(); i++) {
+			lock.ensure(i);
+			lock.types[i] = types.get(i);
+		}
+		return lock;
+	}
+
+	/** Tipo actual de la columna; null si aún no ha visto ningún valor. */
+	public ColumnType typeOf(int col) {
+		return (col < width) ? types[col] : null;
+	}
+
+	public int width() { return width; }
+
+	public List<ColumnType> types() {
+		return new ArrayList<>(Arrays.asList(types).subList(0, width));
+	}
+
+	/** Tipo mínimo que cubre a y b (a puede ser null = sin datos). */
+	public static ColumnType widen(ColumnType a, ColumnType b) {
+		if (a == null || a == b) return b;
+		int ra = numericRank(a), rb = numericRank(b);
+		if (ra > 0 && rb > 0) return (ra > rb) ? a : b;
+		if (temporal(a) && temporal(b)) return ColumnType.TIMESTAMP;
+		return ColumnType.STRING;
+	}
+
+	private static int numericRank(ColumnType t) {
+		return switch (t) {
+			case INT -> 1;
+			case LONG -> 2;
+			case DOUBLE -> 3;
+			case DECIMAL -> 4;
+			default -> 0;
+		};
+	}
+
+	private static boolean temporal(ColumnType t) {
+		return t == ColumnType.DATE || t == ColumnType.TIMESTAMP;
+	}
+
+	private void ensure(int col) {
+		if (col >= types.length) types = Arrays.copyOf(types, Math.max(col + 1, types.length * 2));
+		if (col >= width) width = col + 1;
+	}
+}
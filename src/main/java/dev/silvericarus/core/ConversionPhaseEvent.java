@@ -0,0 +1,43 @@
+package dev.silvericarus.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Fase de una conversión en JDK Flight Recorder, para verla junto a las
+ * pausas de GC, la E/S y el uso de CPU:
+ *
+ *   java -XX:StartFlightRecording=filename=rec.jfr ... csv2json ...
+ *   jfr print --events dev.silvericarus.ConversionPhase rec.jfr
+ *
+ * Las fases contiguas (detección, schema, conversión) ocupan su tramo real.
+ * Parse, saneado, inferencia y escritura van intercaladas fila a fila: se
+ * emiten al terminar, abarcando toda la conversión, y su tiempo propio va
+ * en {@link #accumulated}.
+ */
+@Name("dev.silvericarus.ConversionPhase")
+@Label("Conversion Phase")
+@Category("csv2json")
+@StackTrace(false)
+final class ConversionPhaseEvent extends Event {
+	@Label("Phase")
+	String phase;
+
+	@Label("Accumulated")
+	@Description("Tiempo propio de la fase")
+	@Timespan(Timespan.NANOSECONDS)
+	long accumulated;
+
+	@Label("Records")
+	long records;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+}
@@ -0,0 +1,237 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opciones de CSV -> JSON agrupadas en un único objeto, para no seguir
+ * alargando la firma posicional de {@link Converter#csvToJson}.
+ * Los setters devuelven {@code this} para poder encadenarlos.
+ */
+public final class ConvertOptions {
+	private char delimeter = ',';
+	private char quote = '"';
+	private boolean header;
+	private boolean noHeader;
+	private boolean emptyAsNull;
+	private boolean stringsOnly;
+	private boolean detectDates;
+	private boolean valueCache;
+	private boolean ndjson;
+	private OutputFormat binary;
+	private boolean pretty;
+	private Charset charset = StandardCharsets.UTF_8;
+	private Integer limit;
+	private Schema schema;
+	private int threads = 1;
+	private long chunkBytes;
+	private boolean commonsCsv;
+	private boolean relaxedQuotes;
+	private boolean adaptiveTypes;
+	private int adaptiveSample = 1000;
+	private Path inferSchemaOut;
+	private ConvertStats stats;
+	private LongAdder rowCounter;
+	private Path checkpoint;
+	private long checkpointEvery = 1_000_000;
+	private boolean resume;
+	private ErrorPolicy onError;
+	private List<String> select;
+	private String where;
+	private long splitRows;
+	private long splitBytes;
+	private long followPollMillis = 1000;
+
+	public char delimeter() { return delimeter; }
+	public ConvertOptions delimeter(char d) { this.delimeter = d; return this; }
+
+	/** Carácter de comilla (por defecto '"'); debe ser ASCII. */
+	public char quote() { return quote; }
+	public ConvertOptions quote(char q) { this.quote = q; return this; }
+
+	public boolean header() { return header; }
+	public ConvertOptions header(boolean b) { this.header = b; return this; }
+
+	public boolean noHeader() { return noHeader; }
+	public ConvertOptions noHeader(boolean b) { this.noHeader = b; return this; }
+
+	public boolean emptyAsNull() { return emptyAsNull; }
+	public ConvertOptions emptyAsNull(boolean b) { this.emptyAsNull = b; return this; }
+
+	public boolean stringsOnly() { return stringsOnly; }
+	public ConvertOptions stringsOnly(boolean b) { this.stringsOnly = b; return this; }
+
+	/**
+	 * Inferencia (celda a celda o adaptativa) que reconoce también fechas y
+	 * horas ISO-8601 como DATE/TIMESTAMP y las escribe normalizadas. Apagada
+	 * por defecto: un texto con forma de fecha sigue saliendo tal cual.
+	 */
+	public boolean detectDates() { return detectDates; }
+	public ConvertOptions detectDates(boolean b) { this.detectDates = b; return this; }
+
+	/**
+	 * Caché por columna de valores ya clasificados y escapados
+	 * ({@link ValueCache}) para columnas de pocos valores distintos; cada
+	 * columna la apaga sola si acierta poco. Solo con salida JSON de texto.
+	 */
+	public boolean valueCache() { return valueCache; }
+	public ConvertOptions valueCache(boolean b) { this.valueCache = b; return this; }
+
+	public boolean ndjson() { return ndjson; }
+	public ConvertOptions ndjson(boolean b) { this.ndjson = b; return this; }
+
+	/**
+	 * --format: JSON y NDJSON son {@link #ndjson(boolean)} false y true; Smile y
+	 * CBOR cambian la codificación y {@link #ndjson()} pasa a decir si las filas
+	 * van en un array o sueltas. {@link #pretty()} solo vale para texto.
+	 */
+	public OutputFormat format() {
+		if (binary != null) return binary;
+		return ndjson ? OutputFormat.NDJSON : OutputFormat.JSON;
+	}
+
+	public ConvertOptions format(OutputFormat f) {
+		switch (f) {
+			case JSON, NDJSON -> {
+				this.ndjson = f == OutputFormat.NDJSON;
+				this.binary = null;
+			}
+			default -> this.binary = f;
+		}
+		return this;
+	}
+
+	/**
+	 * Factoría de {@link #format()}; sin referencias atrás si --on-error puede
+	 * deshacer filas, ni en una CBOR sequence: el espacio de nombres de
+	 * stringref solo abarca el primer valor raíz y los lectores no
+	 * resolverían las referencias de las filas siguientes.
+	 */
+	JsonFactory factory() {
+		OutputFormat f = format();
+		return f.factory(backReferences() && !(f == OutputFormat.CBOR && ndjson));
+	}
+
+	private boolean backReferences() {
+		return onError == null || onError.action() == ErrorPolicy.Action.FAIL || onError.action() == ErrorPolicy.Action.NULL;
+	}
+
+	/**
+	 * false si el generador no admite {@code writeUTF8String}: Smile solo busca
+	 * textos repetidos entre Strings, así que el camino mapeado tiene que crearlos.
+	 */
+	boolean rawUtf8Strings() {
+		return format() != OutputFormat.SMILE || !backReferences();
+	}
+
+	/** --value-cache y un generador que admite valores en crudo: Smile y CBOR no. */
+	boolean cachesValues() {
+		return valueCache && binary == null;
+	}
+
+	/** Salto de línea tras cada fila: NDJSON de texto. */
+	boolean lineBreaks() { return ndjson && binary == null; }
+
+	public boolean pretty() { return pretty; }
+	public ConvertOptions pretty(boolean b) { this.pretty = b; return this; }
+
+	public Charset charset() { return charset; }
+	public ConvertOptions charset(Charset cs) { this.charset = (cs == null) ? StandardCharsets.UTF_8 : cs; return this; }
+
+	public Integer limit() { return limit; }
+	public ConvertOptions limit(Integer n) { this.limit = n; return this; }
+
+	public Schema schema() { return schema; }
+	public ConvertOptions schema(Schema s) { this.schema = s; return this; }
+
+	/** Nº de hilos para la conversión por trozos; 1 (por defecto) = camino secuencial. */
+	public int threads() { return threads; }
+	public ConvertOptions threads(int n) { this.threads = Math.max(1, n); return this; }
+
+	/** Tamaño nominal de cada trozo en bytes; 0 (por defecto) = se calcula según el fichero. */
+	public long chunkBytes() { return chunkBytes; }
+	public ConvertOptions chunkBytes(long n) { this.chunkBytes = Math.max(0, n); return this; }
+
+	/** Fuerza el parser de commons-csv en lugar del tokenizador sobre fichero mapeado. */
+	public boolean commonsCsv() { return commonsCsv; }
+	public ConvertOptions commonsCsv(boolean b) { this.commonsCsv = b; return this; }
+
+	/** Arregla comillas mal cerradas al vuelo ({@code RelaxedQuotesReader}); implica commons-csv. */
+	public boolean relaxedQuotes() { return relaxedQuotes; }
+	public ConvertOptions relaxedQuotes(boolean b) { this.relaxedQuotes = b; return this; }
+
+	/**
+	 * Modo adaptativo: fija el tipo de cada columna con las primeras filas y
+	 * después solo valida ({@link ColumnTypeLock}). Desactiva la conversión por trozos.
+	 */
+	public boolean adaptiveTypes() { return adaptiveTypes || inferSchemaOut != null; }
+	public ConvertOptions adaptiveTypes(boolean b) { this.adaptiveTypes = b; return this; }
+
+	/** Filas de muestra del modo adaptativo (1000 por defecto; 0 = se fija con la primera celda). */
+	public int adaptiveSample() { return adaptiveSample; }
+	public ConvertOptions adaptiveSample(int n) { this.adaptiveSample = Math.max(0, n); return this; }
+
+	/** Si no es null, al terminar se escribe aquí el schema aprendido (implica modo adaptativo). */
+	public Path inferSchemaOut() { return inferSchemaOut; }
+	public ConvertOptions inferSchemaOut(Path p) { this.inferSchemaOut = p; return this; }
+
+	/** Métricas por fila y por columna (--stats); null = sin medir. */
+	public ConvertStats stats() { return stats; }
+	public ConvertOptions stats(ConvertStats s) { this.stats = s; return this; }
+
+	/**
+	 * Se suma uno por fila escrita; cuenta filas sin el coste de medir de
+	 * {@link #stats}. Vale entre hilos. null = sin contar.
+	 */
+	public LongAdder rowCounter() { return rowCounter; }
+	public ConvertOptions rowCounter(LongAdder c) { this.rowCounter = c; return this; }
+
+	/**
+	 * Fichero de {@link Checkpoint}: cada {@link #checkpointEvery()} filas se
+	 * guarda hasta dónde se ha leído y escrito. Solo con entrada UTF-8 mapeable
+	 * y salida a fichero; desactiva la conversión por trozos.
+	 */
+	public Path checkpoint() { return checkpoint; }
+	public ConvertOptions checkpoint(Path p) { this.checkpoint = p; return this; }
+
+	public long checkpointEvery() { return checkpointEvery; }
+	public ConvertOptions checkpointEvery(long n) { this.checkpointEvery = Math.max(1, n); return this; }
+
+	/** Sigue desde el {@link #checkpoint()} si existe: salta la entrada ya leída y recorta la salida. */
+	public boolean resume() { return resume; }
+	public ConvertOptions resume(boolean b) { this.resume = b; return this; }
+
+	/** Qué hacer con las celdas que no encajan con el schema (--on-error); null = abortar en la primera. */
+	public ErrorPolicy onError() { return onError; }
+	public ConvertOptions onError(ErrorPolicy p) { this.onError = p; return this; }
+
+	/** Columnas a escribir y en qué orden (--select); null = todas. Las demás ni se convierten. */
+	public List<String> select() { return select; }
+	public ConvertOptions select(List<String> names) { this.select = (names == null) ? null : List.copyOf(names); return this; }
+
+	/** Filtro de filas sobre el texto crudo (--where), antes de inferir tipos; null = todas. */
+	public String where() { return where; }
+	public ConvertOptions where(String expr) { this.where = expr; return this; }
+
+	/**
+	 * Parte la salida en ficheros de como mucho N filas (--split-rows); 0 = sin
+	 * partir. --out es entonces un patrón ({@link ShardManifest#shardPath}).
+	 */
+	public long splitRows() { return splitRows; }
+	public ConvertOptions splitRows(long n) { this.splitRows = Math.max(0, n); return this; }
+
+	/** Como {@link #splitRows()}, cortando al pasar de N bytes (--split-bytes). */
+	public long splitBytes() { return splitBytes; }
+	public ConvertOptions splitBytes(long n) { this.splitBytes = Math.max(0, n); return this; }
+
+	boolean sharded() { return splitRows > 0 || splitBytes > 0; }
+
+	/** Con {@link Converter#follow}, cada cuánto se mira la entrada aunque no llegue aviso de cambio (--follow-poll). */
+	public long followPollMillis() { return followPollMillis; }
+	public ConvertOptions followPollMillis(long ms) { this.followPollMillis = Math.max(1, ms); return this; }
+}
@@ -0,0 +1,229 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Métricas de una conversión para --stats: bytes y registros de entrada y
+ * salida, filas por segundo, tiempo por fase y, por columna, cuántos valores
+ * salieron de cada tipo y cuántos null.
+ *
+ * Las fases contiguas se miden con {@link #phase}. Parse y escritura se miden
+ * fila a fila, solo si se pasa este objeto en {@link ConvertOptions#stats};
+ * la inferencia va dentro de la escritura, así que se estima midiéndola
+ * aparte en una de cada {@value #INFER_SAMPLE} filas y se descuenta de ella.
+ * En paralelo, parse/inferencia/escritura suman el tiempo de todos los hilos.
+ *
+ * Cada fase se emite además como {@link ConversionPhaseEvent} de JFR.
+ * No es seguro compartirlo entre hilos: cada trozo lleva el suyo y se suman.
+ */
+public final class ConvertStats {
+	public enum Phase {
+		DETECT("detect"),
+		SANITIZE("sanitize"),
+		SCHEMA_LOAD("schemaLoad"),
+		PARSE("parse"),
+		INFER("infer"),
+		WRITE("write"),
+		/** Toda la conversión, de la primera lectura al último byte escrito. */
+		CONVERT("convert");
+
+		private final String key;
+
+		Phase(String key) { this.key = key; }
+
+		public String key() { return key; }
+	}
+
+	/** Fases que van intercaladas fila a fila; en JFR se emiten al cerrar {@link Phase#CONVERT}. */
+	private static final Phase[] ROW_PHASES = {Phase.SANITIZE, Phase.PARSE, Phase.INFER, Phase.WRITE};
+
+	static final int INFER_SAMPLE = 32;
+
+	private final long started = System.nanoTime();
+	private final long[] nanos = new long[Phase.values().length];
+	private long wallNanos = -1;
+	private long bytesIn, bytesOut, recordsIn, recordsOut;
+	private final List<Counts> columns = new ArrayList<>();
+
+	/** Hay una grabación JFR con el evento de fase activado. */
+	public static boolean recording() {
+		return jfr() && EventType.getEventType(ConversionPhaseEvent.class).isEnabled();
+	}
+
+	/**
+	 * JFR está arrancado (con -XX:StartFlightRecording o jcmd). Si no, ni se
+	 * crea el evento: registrarlo carga e instrumenta un centenar de clases de
+	 * jdk.jfr, más que toda la conversión de un fichero pequeño.
+	 */
+	private static boolean jfr() {
+		return FlightRecorder.isInitialized();
+	}
+
+	/** Mide un tramo contiguo: {@code try (var s = stats.phase(Phase.DETECT)) { ... }}. */
+	public Span phase(Phase p) { return new Span(p); }
+
+	public long nanos(Phase p) {
+		if (p == Phase.WRITE) return Math.max(0, nanos[p.ordinal()] - nanos[Phase.INFER.ordinal()]);
+		return nanos[p.ordinal()];
+	}
+
+	public long bytesIn() { return bytesIn; }
+	public ConvertStats bytesIn(long n) { this.bytesIn = n; return this; }
+
+	public long bytesOut() { return bytesOut; }
+	public ConvertStats bytesOut(long n) { this.bytesOut = n; return this; }
+
+	public long recordsIn() { return recordsIn; }
+	public long recordsOut() { return recordsOut; }
+
+	/** Fija el tiempo total; sin llamarlo, {@link #write} toma el transcurrido hasta entonces. */
+	public void finish() {
+		if (wallNanos < 0) wallNanos = System.nanoTime() - started;
+	}
+
+	void add(Phase p, long n) { nanos[p.ordinal()] += n; }
+
+	/** Suma un registro leído, se escriba o no (--where y --on-error skip/reject lo descartan). */
+	void recordIn() { recordsIn++; }
+
+	/**
+	 * Suma una fila convertida. La escritura incluye la inferencia de sus celdas;
+	 * devuelve true si toca medir la inferencia de esta fila con {@link #inferSample}.
+	 */
+	boolean row(long parseNanos, long writeNanos) {
+		nanos[Phase.PARSE.ordinal()] += parseNanos;
+		nanos[Phase.WRITE.ordinal()] += writeNanos;
+		recordsOut++;
+		return recordsOut % INFER_SAMPLE == 0;
+	}
+
+	void inferSample(long n) { nanos[Phase.INFER.ordinal()] += n * INFER_SAMPLE; }
+
+	/** Suma las métricas de un trozo, del que cuentan {@code read} registros leídos y {@code written} filas escritas. */
+	void merge(ConvertStats chunk, long read, long written) {
+		for (int i = 0; i < nanos.length; i++) nanos[i] += chunk.nanos[i];
+		recordsIn += read;
+		recordsOut += written;
+		for (int i = 0; i < chunk.columns.size(); i++) counts(i, chunk.columns.get(i).name).add(chunk.columns.get(i));
+	}
+
+	/** Recoge los contadores por columna del plan al terminar. */
+	void columns(ColumnPlan plan) {
+		for (int i = 0; i < plan.width(); i++) {
+			ColumnPlan.Column c = plan.column(i);
+			Counts k = counts(i, c.name);
+			for (int t = 0; t < k.types.length; t++) k.types[t] += c.typeCounts[t];
+			k.nulls += c.nulls;
+		}
+	}
+
+	private Counts counts(int i, String name) {
+		while (columns.size() <= i) columns.add(new Counts(name));
+		return columns.get(i);
+	}
+
+	/** Escribe el informe JSON. */
+	public void write(Path out) throws IOException {
+		finish();
+		ObjectMapper om = new ObjectMapper();
+		ObjectNode root = om.createObjectNode();
+
+		root.putObject("input").put("bytes", bytesIn).put("records", recordsIn);
+		root.putObject("output").put("bytes", bytesOut).put("records", recordsOut);
+		root.put("wallMs", millis(wallNanos));
+		root.put("rowsPerSecond", (wallNanos <= 0) ? 0 : Math.round(recordsOut * 1e9 / wallNanos));
+
+		ObjectNode phases = root.putObject("phasesMs");
+		for (Phase p : Phase.values()) {
+			if (p != Phase.CONVERT) phases.put(p.key(), millis(nanos(p)));
+		}
+
+		var cols = root.putArray("columns");
+		for (Counts k : columns) {
+			ObjectNode col = cols.addObject();
+			col.put("name", k.name);
+			col.put("nulls", k.nulls);
+			ObjectNode types = col.putObject("types");
+			for (ColumnType t : ColumnType.values()) {
+				long n = k.types[t.ordinal()];
+				if (n > 0) types.put(t.name().toLowerCase(Locale.ROOT), n);
+			}
+		}
+
+		om.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), root);
+	}
+
+	private static double millis(long n) {
+		return Math.round(n / 1e3) / 1e3;
+	}
+
+	private static final class Counts {
+		final String name;
+		final long[] types = new long[ColumnType.values().length];
+		long nulls;
+
+		Counts(String name) { this.name = name; }
+
+		void add(Counts o) {
+			for (int t = 0; t < types.length; t++) types[t] += o.types[t];
+			nulls += o.nulls;
+		}
+	}
+
+	/** Tramo de una fase; al cerrarlo suma su duración y emite el evento JFR. */
+	public final class Span implements AutoCloseable {
+		private final Phase phase;
+		private final long start = System.nanoTime();
+		private final ConversionPhaseEvent event;
+		private final ConversionPhaseEvent[] rows;
+
+		private Span(Phase phase) {
+			this.phase = phase;
+			if (!jfr()) {
+				event = null;
+				rows = null;
+				return;
+			}
+			event = new ConversionPhaseEvent();
+			event.begin();
+			if (phase == Phase.CONVERT) {
+				rows = new ConversionPhaseEvent[ROW_PHASES.length];
+				for (int i = 0; i < rows.length; i++) {
+					rows[i] = new ConversionPhaseEvent();
+					rows[i].begin();
+				}
+			} else {
+				rows = null;
+			}
+		}
+
+		@Override
+		public void close() {
+			long d = System.nanoTime() - start;
+			add(phase, d);
+			if (event == null) return;
+			commit(event, phase, d);
+			if (rows == null) return;
+			for (int i = 0; i < rows.length; i++) commit(rows[i], ROW_PHASES[i], nanos(ROW_PHASES[i]));
+		}
+
+		private void commit(ConversionPhaseEvent e, Phase p, long accumulated) {
+			e.end();
+			if (!e.shouldCommit()) return;
+			e.phase = p.key();
+			e.accumulated = accumulated;
+			e.records = recordsOut;
+			e.bytes = (p == Phase.CONVERT) ? bytesIn : 0;
+			e.commit();
+		}
+	}
+}
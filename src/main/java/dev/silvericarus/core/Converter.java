@@ -2,6 +2,7 @@ package dev.silvericarus.core;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import dev.silvericarus.csv.RelaxedQuotesReader;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -9,13 +10,29 @@ import dev.silvericarus.core.Schema;
 import dev.silvericarus.core.SchemaMismatchException;
 import dev.silvericarus.core.ColumnType;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class Converter {
 	private Converter() {}
@@ -36,57 +53,393 @@ public final class Converter {
 	                             boolean ndjson, boolean pretty,
 	                             Charset cs, Integer limit,
 	                             Schema schema) throws IOException, SchemaMismatchException {
-		if (header && noHeader) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		csvToJson(in, out, new ConvertOptions()
+				.delimeter(delimeter)
+				.header(header).noHeader(noHeader)
+				.emptyAsNull(emptyAsNull).stringsOnly(stringsOnly)
+				.ndjson(ndjson).pretty(pretty)
+				.charset(cs).limit(limit)
+				.schema(schema));
+	}
 
-		CSVFormat fmt = CSVFormat.DEFAULT.builder()
-				.setDelimiter(delimeter)
-				.setQuote('"')
-				.setIgnoreSurroundingSpaces(true)
-				.setRecordSeparator(null)
-				.setAllowMissingColumnNames(true)
-				.build();
+	/**
+	 * Igual que la variante posicional, pero con las opciones agrupadas.
+	 * Con threads > 1 y un fichero de entrada compatible, la conversión se
+	 * reparte por trozos entre hilos ({@link ParallelConverter}); la salida es
+	 * idéntica byte a byte a la del camino secuencial.
+	 * Con UTF-8 se tokeniza sobre el fichero mapeado ({@link MappedConverter})
+	 * salvo que se pida commons-csv con {@link ConvertOptions#commonsCsv(boolean)}
+	 * o comillas relajadas, que se arreglan al vuelo sobre el Reader.
+	 * En modo adaptativo los tipos se fijan por columna ({@link ColumnTypeLock})
+	 * y, si se pide, el resultado se guarda como schema al terminar.
+	 * Con {@link ConvertOptions#checkpoint()} va siempre por el camino mapeado
+	 * y secuencial, que es el que sabe guardar y retomar su posición.
+	 * Con --split-rows/--split-bytes {@code out} es un patrón de nombres
+	 * ({@link ShardManifest}) y tampoco se trocea en paralelo.
+	 */
+	public static void csvToJson(Path in, Path out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		if (o.header() && o.noHeader()) throw new IllegalArgumentException("--header y --no-header son excluyentes");
 
-		if (header) fmt = fmt.builder().setHeader().setSkipHeaderRecord(true).build();
+		if (o.checkpoint() != null) {
+			if (o.relaxedQuotes() || !MappedConverter.supports(in, o)) {
+				throw new IllegalArgumentException("--checkpoint necesita una entrada UTF-8 en fichero, sin --commons-csv ni --relaxed-quotes");
+			}
+			if (o.sharded()) throw new IllegalArgumentException("--checkpoint no se puede combinar con --split-rows/--split-bytes");
+			if (o.format().binary()) throw new IllegalArgumentException("--checkpoint solo con salida JSON de texto");
+			MappedConverter.runCheckpointed(in, out, o);
+			return;
+		}
+
+		if (o.sharded()) {
+			if (!o.relaxedQuotes() && MappedConverter.supports(in, o)) MappedConverter.runSharded(in, out, o);
+			else convertReader(Files.newBufferedReader(in, o.charset()), null, o, out);
+			return;
+		}
+
+		if (!o.relaxedQuotes()) {
+			// threads > 1 antes de tocar ParallelConverter: con un hilo ni se carga.
+			if (o.threads() > 1 && ParallelConverter.supports(in, o) && ParallelConverter.run(in, out, o)) return;
+			if (MappedConverter.supports(in, o)) {
+				MappedConverter.run(in, Files.newOutputStream(out), o);
+				return;
+			}
+		}
+
+		convertReader(Files.newBufferedReader(in, o.charset()), Files.newOutputStream(out), o, null);
+	}
+
+	/**
+	 * --follow: convierte {@code in} y sigue añadiendo a {@code out} los
+	 * registros que se le vayan añadiendo ({@link Follower}), hasta que se
+	 * interrumpe el hilo. Solo NDJSON, por el camino mapeado y secuencial; el
+	 * estado va en {@link ConvertOptions#checkpoint()} y, si ya existe, se
+	 * sigue desde él.
+	 */
+	public static void follow(Path in, Path out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		if (o.header() && o.noHeader()) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		if (o.checkpoint() == null) throw new IllegalArgumentException("--follow necesita un fichero de estado (--checkpoint)");
+		if (!o.ndjson()) throw new IllegalArgumentException("--follow necesita --ndjson: a un array cerrado no se le pueden añadir filas");
+		if (o.format().binary()) throw new IllegalArgumentException("--follow solo con salida JSON de texto");
+		if (o.relaxedQuotes() || !MappedConverter.supports(in, o)) {
+			throw new IllegalArgumentException("--follow necesita una entrada UTF-8 en fichero, sin --commons-csv ni --relaxed-quotes");
+		}
+		if (o.limit() != null || o.sharded()) {
+			throw new IllegalArgumentException("--follow no se combina con --limit ni con --split-rows/--split-bytes");
+		}
+		if (o.onError() != null && o.onError().action() == ErrorPolicy.Action.REJECT) {
+			throw new IllegalArgumentException("--follow no se combina con --on-error reject");
+		}
+		Follower.run(in, out, o);
+	}
+
+	/**
+	 * Fichero de entrada hacia un stream (stdout, una tubería). Igual que con
+	 * salida a fichero salvo que no se trocea en paralelo: si un trozo falla
+	 * hay que repetir en secuencial, y lo ya escrito en el stream no se puede
+	 * deshacer. El stream se cierra al terminar.
+	 */
+	public static void csvToJson(Path in, OutputStream out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		if (o.header() && o.noHeader()) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		if (o.sharded()) throw new IllegalArgumentException(SPLIT_NEEDS_FILE);
+
+		if (!o.relaxedQuotes() && MappedConverter.supports(in, o)) {
+			MappedConverter.run(in, out, o);
+			return;
+		}
+		convertReader(Files.newBufferedReader(in, o.charset()), out, o, null);
+	}
+
+	/**
+	 * CSV -> JSON leyendo de un stream (stdin, una tubería o la réplica de
+	 * {@code CsvSniffer}). Siempre va por commons-csv; el stream se cierra al terminar.
+	 */
+	public static void csvToJson(InputStream in, Path out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		if (o.header() && o.noHeader()) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		if (o.sharded()) convertReader(reader(in, o), null, o, out);
+		else convertReader(reader(in, o), Files.newOutputStream(out), o, null);
+	}
+
+	/** De stream a stream, sin ficheros intermedios: {@code curl ... | csv2json --in - --out - | ...}. */
+	public static void csvToJson(InputStream in, OutputStream out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		if (o.header() && o.noHeader()) throw new IllegalArgumentException("--header y --no-header son excluyentes");
+		if (o.sharded()) throw new IllegalArgumentException(SPLIT_NEEDS_FILE);
+		convertReader(reader(in, o), out, o, null);
+	}
+
+	private static Reader reader(InputStream in, ConvertOptions o) {
+		return new BufferedReader(new InputStreamReader(in, o.charset()), 1 << 16);
+	}
+
+	private static Writer writer(OutputStream out, ConvertOptions o) {
+		return new BufferedWriter(new OutputStreamWriter(out, o.charset()), 1 << 16);
+	}
 
-		JsonFactory jf = new JsonFactory();
+	private static final String SPLIT_NEEDS_FILE = "--split-rows/--split-bytes necesitan --out a fichero";
 
-		try (Reader inR = Files.newBufferedReader(in, cs);
+	/** Con {@code shards} no nulo, {@code out} es null y cada shard abre su fichero. */
+	private static void convertReader(Reader in, OutputStream out, ConvertOptions o, Path shards) throws IOException, SchemaMismatchException {
+		ConvertStats stats = o.stats();
+		TimedReader rawIn = null;
+		if (o.relaxedQuotes()) {
+			if (stats != null) {
+				rawIn = new TimedReader(in);
+				in = new TimedReader(new RelaxedQuotesReader(rawIn, o.quote(), o.delimeter()));
+			} else {
+				in = new RelaxedQuotesReader(in, o.quote(), o.delimeter());
+			}
+		}
+		CSVFormat fmt = csvFormat(o.delimeter(), o.quote(), o.header());
+		JsonFactory jf = o.factory();
+		Schema schema = o.schema();
+		ColumnTypeLock lock = o.adaptiveTypes() ? new ColumnTypeLock(o.detectDates()) : null;
+
+		try (Reader inR = in;
 			CSVParser parser = new CSVParser(inR, fmt);
-			Writer outW = Files.newBufferedWriter(out, cs);
-			JsonGenerator gen = jf.createGenerator(outW)) {
+			OutputStream outS = out) {
 
-			if (!ndjson && pretty) gen.useDefaultPrettyPrinter();
+			List<String> csvHeader = o.header() ? parser.getHeaderNames() : null;
+			List<String> effectiveNames = resolveEffectiveColumnsNames(csvHeader, o.noHeader(), schema);
+			checkRequiredColumns(csvHeader, schema);
 
-			List<String> csvHeader = header ? parser.getHeaderNames() : null;
-			List<String> effectiveNames = resolveEffectiveColumnsNames(csvHeader, noHeader, schema);
+			try (RowErrors errors = RowErrors.open(o, effectiveNames);
+			     JsonGenerator gen = (shards != null)
+					     ? ShardingGenerator.open(shards, o, f -> generator(jf, f, false, o, errors))
+					     : generator(jf, outS, true, o, errors)) {
 
-			if (header && schema != null && schema.hasColumns()) {
-				for (String must : schema.getColumns()) {
-					if (csvHeader.stream().noneMatch(h -> h.equals(must))) {
-						throw new SchemaMismatchException("Columna requerida por schema ausente en CSV: " + must);
-					}
-				}
+				if (!o.ndjson() && o.pretty()) gen.useDefaultPrettyPrinter();
+				write(gen, parser, effectiveNames, o, lock, errors);
+				if (gen instanceof ShardingGenerator sg) sg.finish();
+				if (errors != null) errors.done();
+			}
+			if (stats != null && rawIn != null) {
+				// El parse tira del saneado: se le descuenta lo que ha tardado este.
+				long sanitize = in instanceof TimedReader t ? t.nanos - rawIn.nanos : 0;
+				stats.add(ConvertStats.Phase.SANITIZE, sanitize);
+				stats.add(ConvertStats.Phase.PARSE, -sanitize);
 			}
+		}
+	}
+
+	/**
+	 * Generador sobre {@code out}: el texto en el charset de la entrada, los
+	 * binarios tal cual. Sin {@code buffered} para los shards, que miden lo
+	 * que queda en el generador. Si --on-error tiene que deshacer filas,
+	 * {@link RewindableGenerator}.
+	 */
+	private static JsonGenerator generator(JsonFactory jf, OutputStream out, boolean buffered, ConvertOptions o,
+	                                       RowErrors errors) throws IOException {
+		boolean rewind = errors != null && errors.dropsRows();
+		if (o.format().binary()) {
+			OutputStream os = buffered ? new BufferedOutputStream(out, 1 << 16) : out;
+			return rewind ? RewindableGenerator.of(jf, os, o) : jf.createGenerator(os);
+		}
+		Writer w = buffered ? writer(out, o) : new OutputStreamWriter(out, o.charset());
+		return rewind ? RewindableGenerator.of(jf, w, o) : jf.createGenerator(w);
+	}
+
+	private static void write(JsonGenerator gen, CSVParser parser, List<String> effectiveNames, ConvertOptions o,
+	                          ColumnTypeLock lock, RowErrors errors) throws IOException, SchemaMismatchException {
+		ConvertStats stats = o.stats();
+		LongAdder rows = o.rowCounter();
+		RowGenerator rg = (gen instanceof RowGenerator r) ? r : null;
+		ColumnPlan plan = ColumnPlan.of(effectiveNames, o, lock != null, errors);
+		Iterator<CSVRecord> records = parser.iterator();
+		RowFilter filter = RowFilter.of(o.where(), effectiveNames);
+		if (filter != null) records = filtered(records, filter, stats);
+		if (lock != null) {
+			long t = System.nanoTime();
+			records = sampleTypes(records, lock, sampleRows(o), plan.selected());
+			if (stats != null) stats.add(ConvertStats.Phase.INFER, System.nanoTime() - t);
+		}
+
+		Integer limit = o.limit();
+		int count = 0;
+		boolean lineBreaks = o.lineBreaks();
+		if (!o.ndjson()) gen.writeStartArray();
+		long t0 = (stats != null) ? System.nanoTime() : 0;
+		while (records.hasNext()) {
+			CSVRecord rec = records.next();
+			if (stats != null) stats.recordIn();
+			long t1 = (stats != null) ? System.nanoTime() : 0;
+			long record = recordNumber(rec, o.header());
+			if (rg != null) rg.mark(record);
+			try {
+				writeObjectFromRecord(gen, rec, record, plan, lock);
+			} catch (RowMismatch m) {
+				if (errors == null || !errors.dropsRows()) throw m;
+				rg.rewind();
+				errors.row(m, rec.toList());
+				continue;
+			}
+			if (lineBreaks) gen.writeRaw('\n');
+			if (rows != null) rows.increment();
+			if (stats != null) {
+				if (stats.row(t1 - t0, System.nanoTime() - t1)) stats.inferSample(inferNanos(rec, plan, lock));
+				t0 = System.nanoTime();
+			}
+			if (limit != null && ++count >= limit) break;
+		}
+		if (!o.ndjson()) gen.writeEndArray();
+
+		if (o.inferSchemaOut() != null) saveInferredSchema(o.inferSchemaOut(), effectiveNames, o, lock);
+		if (stats != null) stats.columns(plan);
+	}
 
-			int count = 0;
-			if (ndjson) {
-				for (CSVRecord rec : parser) {
-					writeObjectFromRecord(gen, rec, effectiveNames, schema, emptyAsNull, stringsOnly);
-					gen.writeRaw('\n');
-					if (limit != null && ++count >= limit) break;
+	/**
+	 * Vuelve a inferir los tipos de una fila ya escrita, sin escribir nada,
+	 * para estimar qué parte de la escritura es inferencia (--stats).
+	 */
+	static long inferNanos(CSVRecord rec, ColumnPlan plan, ColumnTypeLock lock) {
+		long t = System.nanoTime();
+		int sink = 0;
+		for (int i = 0; i < rec.size(); i++) {
+			ColumnPlan.Column c = plan.column(i);
+			String s = rec.get(i);
+			if (s == null || s.isBlank()) continue;
+			switch (c.strategy) {
+				case SCHEMA -> sink += TypeInference.fits(c.type, s) ? 1 : 0;
+				case LOCKED -> sink += lock.resolve(i, s).ordinal();
+				case INFER -> sink += TypeInference.classify(s, c.dates).ordinal();
+				default -> { }
+			}
+		}
+		t = System.nanoTime() - t;
+		return (sink < 0) ? 0 : t;
+	}
+
+	/** Reader que acumula el tiempo pasado en sus lecturas. */
+	private static final class TimedReader extends FilterReader {
+		long nanos;
+
+		TimedReader(Reader in) { super(in); }
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			long t = System.nanoTime();
+			try {
+				return super.read(cbuf, off, len);
+			} finally {
+				nanos += System.nanoTime() - t;
+			}
+		}
+	}
+
+	/**
+	 * Solo los registros que pasan --where; el resto no llega ni al muestreo
+	 * ni a la escritura, pero cuenta como leído en {@code stats}.
+	 */
+	private static Iterator<CSVRecord> filtered(Iterator<CSVRecord> it, RowFilter filter, ConvertStats stats) {
+		return new Iterator<>() {
+			private CSVRecord next;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null && it.hasNext()) {
+					CSVRecord rec = it.next();
+					if (filter.keeps(rec)) next = rec;
+					else if (stats != null) stats.recordIn();
 				}
-			} else {
-				gen.writeStartArray();
-				for (CSVRecord rec : parser) {
-					writeObjectFromRecord(gen, rec, effectiveNames, schema, emptyAsNull, stringsOnly);
-					if (limit != null && ++count >= limit) break;
+				return next != null;
+			}
+
+			@Override
+			public CSVRecord next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				CSVRecord rec = next;
+				next = null;
+				return rec;
+			}
+		};
+	}
+
+	/**
+	 * Muestreo del modo adaptativo: retiene en memoria las primeras filas,
+	 * fija los tipos con ellas y devuelve un iterador que las repite delante
+	 * del resto, así la entrada se lee una sola vez. Con --select solo se
+	 * miran las columnas seleccionadas ({@code sel}).
+	 */
+	private static Iterator<CSVRecord> sampleTypes(Iterator<CSVRecord> it, ColumnTypeLock lock, int rows, int[] sel) {
+		List<CSVRecord> sample = new ArrayList<>(Math.min(rows, 1024));
+		while (sample.size() < rows && it.hasNext()) {
+			CSVRecord rec = it.next();
+			int n = (sel == null) ? rec.size() : sel.length;
+			for (int k = 0; k < n; k++) {
+				int i = (sel == null) ? k : sel[k];
+				if (i >= rec.size()) continue;
+				String s = rec.get(i);
+				if (!s.isBlank()) lock.observe(i, s);
+			}
+			sample.add(rec);
+		}
+
+		Iterator<CSVRecord> head = sample.iterator();
+		return new Iterator<>() {
+			@Override public boolean hasNext() { return head.hasNext() || it.hasNext(); }
+			@Override public CSVRecord next() { return head.hasNext() ? head.next() : it.next(); }
+		};
+	}
+
+	/** Filas a muestrear: no tiene sentido mirar más allá de --limit. */
+	static int sampleRows(ConvertOptions o) {
+		Integer limit = o.limit();
+		return (limit == null) ? o.adaptiveSample() : Math.min(o.adaptiveSample(), Math.max(1, limit));
+	}
+
+	/**
+	 * Guarda los tipos aprendidos en un fichero que {@link Schema#load} puede
+	 * leer. Las columnas con tipo en el schema de entrada lo conservan; las que
+	 * nunca tuvieron un valor no vacío se omiten de "types". Con --strings-only
+	 * todo lo demás se guarda como string, que es lo que se ha escrito.
+	 */
+	static void saveInferredSchema(Path out, List<String> names, ConvertOptions o, ColumnTypeLock lock) throws IOException {
+		Schema schema = o.schema();
+		int width = Math.max(lock.width(), (names == null) ? 0 : names.size());
+		Map<String, ColumnType> types = new LinkedHashMap<>();
+		for (int i = 0; i < width; i++) {
+			String name = (names != null && i < names.size()) ? names.get(i) : "col" + i;
+			ColumnType t = (schema != null) ? schema.typeOf(name) : null;
+			if (t == null) {
+				t = lock.typeOf(i);
+				if (t != null && o.stringsOnly()) t = ColumnType.STRING;
+			}
+			if (t != null) types.put(name, t);
+		}
+		Schema.of(names, types).save(out);
+	}
+
+	/**
+	 * Número de registro contando la cabecera, como
+	 * {@code MappedCsvTokenizer.recordNumber()}: commons-csv no la cuenta
+	 * cuando la salta.
+	 */
+	static long recordNumber(CSVRecord rec, boolean header) {
+		return header ? rec.getRecordNumber() + 1 : rec.getRecordNumber();
+	}
+
+	static CSVFormat csvFormat(char delimeter, char quote, boolean header) {
+		CSVFormat fmt = CSVFormat.DEFAULT.builder()
+				.setDelimiter(delimeter)
+				.setQuote(quote)
+				.setIgnoreSurroundingSpaces(true)
+				.setRecordSeparator(null)
+				.setAllowMissingColumnNames(true)
+				.build();
+
+		if (header) fmt = fmt.builder().setHeader().setSkipHeaderRecord(true).build();
+		return fmt;
+	}
+
+	static void checkRequiredColumns(List<String> csvHeader, Schema schema) throws SchemaMismatchException {
+		if (csvHeader != null && schema != null && schema.hasColumns()) {
+			for (String must : schema.getColumns()) {
+				if (csvHeader.stream().noneMatch(h -> h.equals(must))) {
+					throw new SchemaMismatchException("Columna requerida por schema ausente en CSV: " + must);
 				}
-				gen.writeEndArray();
 			}
 		}
 	}
 
-	private static List<String> resolveEffectiveColumnsNames(List<String> csvHeader,
+	static List<String> resolveEffectiveColumnsNames(List<String> csvHeader,
 	                                                         boolean noHeader,
 	                                                         Schema schema) {
 
@@ -97,78 +450,222 @@ public final class Converter {
 		return null;
 	}
 
-	private static void writeObjectFromRecord(JsonGenerator gen,
-	                                          CSVRecord rec,
-	                                          List<String> headerNames,
-											  Schema schema,
-	                                          boolean emptyAsNull,
-	                                          boolean stringsOnly) throws IOException, SchemaMismatchException {
+	/**
+	 * Escribe la fila como objeto siguiendo el plan de columnas. Con
+	 * {@code lock} no nulo, las columnas {@link ColumnPlan.Strategy#LOCKED}
+	 * usan el tipo bloqueado.
+	 */
+	static void writeObjectFromRecord(JsonGenerator gen,
+	                                  CSVRecord rec,
+	                                  long record,
+	                                  ColumnPlan plan,
+	                                  ColumnTypeLock lock) throws IOException, SchemaMismatchException {
 
 		gen.writeStartObject();
 
 		int width = rec.size();
-		int targetWidth = width;
+		int[] sel = plan.selected();
+		int n = (sel == null) ? width : sel.length;
+		for (int k = 0; k < n; k++) {
+			int i = (sel == null) ? k : sel[k];
+			ColumnPlan.Column c = plan.column(i);
+			String raw = (i < width) ? rec.get(i) : null;
 
-		for (int i = 0; i < width; i++) {
-			String colName;
-			if (headerNames != null && i < headerNames.size()) {
-				colName = headerNames.get(i);
-			} else {
-				colName = "col" + i;
+			if (c.strategy == ColumnPlan.Strategy.SCHEMA) {
+				writeSchemaField(gen, c, raw, record);
+				continue;
+			}
+			if (raw == null || (c.emptyAsNull && raw.isBlank())) {
+				gen.writeFieldName(c.key);
+				gen.writeNull();
+				c.nulls++;
+				continue;
 			}
-			String raw = rec.get(i);
-			Object v;
 
-			ColumnType forced = (schema != null) ? schema.typeOf(colName) : null;
-			if (forced != null) {
-				v = applySchemaType(forced, raw, emptyAsNull, rec.getRecordNumber(), colName);
-			} else {
-				v = TypeInference.infer(raw, emptyAsNull, stringsOnly);
+			gen.writeFieldName(c.key);
+			boolean locked = c.strategy == ColumnPlan.Strategy.LOCKED;
+			boolean blank = locked && raw.isBlank();
+			ValueCache cache = c.cache;
+			// En modo adaptativo el valor guardado vale mientras la columna siga con el mismo tipo.
+			int hit = (cache == null || blank) ? -1 : cache.find(raw, locked ? lock.typeOf(i) : null);
+			if (hit >= 0) {
+				gen.writeRawValue(cache.json(hit));
+				c.count(cache.type(hit));
+				continue;
 			}
+			ColumnType t = switch (c.strategy) {
+				case STRINGS -> ColumnType.STRING;
+				case LOCKED -> blank ? ColumnType.STRING : lock.resolve(i, raw);
+				default -> TypeInference.classify(raw, c.dates);
+			};
+			writeTypedValue(gen, c, raw, t);
+			if (cache != null && !blank && cache.wants(raw.length())) cache.put(raw, t, ValueCache.json(c, raw, t));
+			c.count(t);
+		}
 
-			writeField(gen, colName, v);
+		for (int i = width; sel == null && i < plan.headerWidth(); i++) {
+			ColumnPlan.Column c = plan.column(i);
+			gen.writeFieldName(c.key);
+			gen.writeNull();
+			c.nulls++;
 		}
 
-		if (headerNames != null && headerNames.size() > width) {
-			for (int i = width; i < headerNames.size(); i++) {
-				String colName = headerNames.get(i);
-				ColumnType forced = (schema != null) ? schema.typeOf(colName) : null;
-				Object value = null;
-				writeField(gen, colName, value);
+		gen.writeEndObject();
+	}
+
+	/**
+	 * Escribe el valor con el tipo dado, que tiene que admitir {@code s}. Los
+	 * números salen con su literal original ({@link TypeInference#numberLexeme}),
+	 * sin pasar por int/double; las fechas, en ISO-8601 normalizado.
+	 */
+	private static void writeTypedValue(JsonGenerator gen, ColumnPlan.Column c, String s, ColumnType t) throws IOException {
+		switch (t) {
+			case BOOL -> gen.writeBoolean(TypeInference.isTrue(s));
+			case INT, LONG, DOUBLE -> writeNumber(gen, TypeInference.numberLexeme(s));
+			case DATE, TIMESTAMP -> {
+				c.time().read(s, t);
+				writeTemporal(gen, c.time(), t, TemporalOutput.ISO);
 			}
+			default -> gen.writeString(s);
 		}
+	}
 
-		gen.writeEndObject();
+	/**
+	 * Escribe un literal numérico. Los generadores binarios (Smile, CBOR) no
+	 * lo copian tal cual y uno con decimales lo guardarían como BigDecimal:
+	 * se les pasa el int, long o double que obtendría un lector del JSON de texto.
+	 */
+	static void writeNumber(JsonGenerator gen, String lexeme) throws IOException {
+		if (!gen.canWriteBinaryNatively()) {
+			gen.writeNumber(lexeme);
+			return;
+		}
+		boolean integral = true;
+		for (int i = 0; i < lexeme.length() && integral; i++) {
+			char c = lexeme.charAt(i);
+			integral = c != '.' && c != 'e' && c != 'E';
+		}
+		if (!integral) {
+			gen.writeNumber(Double.parseDouble(lexeme));
+			return;
+		}
+		try {
+			long v = Long.parseLong(lexeme);
+			if (v == (int) v) gen.writeNumber((int) v);
+			else gen.writeNumber(v);
+		} catch (NumberFormatException tooLong) {
+			gen.writeNumber(new BigInteger(lexeme));
+		}
 	}
 
-	private static Object applySchemaType(ColumnType t, String s, boolean emptyAsNull,
-	                                      long recordNumber, String colName) throws SchemaMismatchException {
+	/**
+	 * Escribe un DECIMAL: el literal tal cual en JSON y, en Smile/CBOR, como
+	 * BigDecimal, para que no pase por double.
+	 */
+	static void writeDecimal(JsonGenerator gen, String lexeme) throws IOException {
+		if (gen.canWriteBinaryNatively()) gen.writeNumber(new BigDecimal(lexeme));
+		else gen.writeNumber(lexeme);
+	}
+
+	/** Escribe el último valor leído por {@code time} como {@code t}, según la salida de la columna. */
+	static void writeTemporal(JsonGenerator gen, IsoTime time, ColumnType t, TemporalOutput out) throws IOException {
+		switch (out) {
+			case ISO -> gen.writeString(time.chars(), 0, time.format(t));
+			case EPOCH_DAYS -> gen.writeNumber(time.epochDay());
+			case EPOCH_SECONDS -> gen.writeNumber(time.epochSecond());
+			case EPOCH_MILLIS -> gen.writeNumber(time.epochMilli());
+		}
+	}
 
-		if (s == null) return null;
-		if (emptyAsNull && s.isBlank()) return null;
+	/** Escribe el campo con el tipo forzado por el schema; si no encaja, {@link RowMismatch} (o null, según la política). */
+	static void writeSchemaField(JsonGenerator gen, ColumnPlan.Column c, String s,
+	                             long recordNumber) throws IOException, SchemaMismatchException {
 
-		try {
-			return switch (t) {
-				case STRING -> s;
-				case BOOL -> {
-					String x = s.trim();
-					if (equalsIgnoreCaseAscii(x, "true")) yield Boolean.TRUE;
-					if (equalsIgnoreCaseAscii(x, "false")) yield Boolean.FALSE;
-					throw new NumberFormatException("boolean inválido: " + s);
+		if (s == null || (c.emptyAsNull && s.isBlank())) {
+			gen.writeFieldName(c.key);
+			gen.writeNull();
+			c.nulls++;
+			return;
+		}
+
+		ColumnType t = c.type;
+		switch (t) {
+			case STRING -> {
+				gen.writeFieldName(c.key);
+				gen.writeString(s);
+			}
+			case BOOL -> {
+				String x = s.trim();
+				boolean v;
+				if (equalsIgnoreCaseAscii(x, "true")) v = true;
+				else if (equalsIgnoreCaseAscii(x, "false")) v = false;
+				else {
+					mismatch(gen, c, s, recordNumber);
+					return;
 				}
-				case INT -> Integer.valueOf(s.trim());
-				case LONG -> Long.valueOf(s.trim());
-				case DOUBLE -> {
-					double d = Double.parseDouble(s.trim());
-					if (Double.isNaN(d) || Double.isFinite(d)) {
-						throw new NumberFormatException("double inválido: " + s);
-					}
-					yield d;
+				gen.writeFieldName(c.key);
+				gen.writeBoolean(v);
+			}
+			case INT, LONG, DOUBLE -> {
+				if (!TypeInference.fits(t, s)) {
+					mismatch(gen, c, s, recordNumber);
+					return;
 				}
-			};
-		} catch (NumberFormatException nfe) {
-			throw new SchemaMismatchException("Fila " + recordNumber + " columna '" + colName +
-					"': valor '" + s + "' no compatible con tipo " + t);
+				gen.writeFieldName(c.key);
+				writeNumber(gen, TypeInference.numberLexeme(s));
+			}
+			case DECIMAL -> {
+				if (!TypeInference.fits(t, s)) {
+					mismatch(gen, c, s, recordNumber);
+					return;
+				}
+				gen.writeFieldName(c.key);
+				writeDecimal(gen, TypeInference.numberLexeme(s));
+			}
+			case DATE, TIMESTAMP -> {
+				if (!c.time().read(s, t)) {
+					mismatch(gen, c, s, recordNumber);
+					return;
+				}
+				gen.writeFieldName(c.key);
+				writeTemporal(gen, c.time(), t, c.output);
+			}
+		}
+		c.count(t);
+	}
+
+	/** Celda que no encaja: {@link RowMismatch}, o null si la política es --on-error null. */
+	private static void mismatch(JsonGenerator gen, ColumnPlan.Column c, String s,
+	                             long recordNumber) throws IOException, SchemaMismatchException {
+		RowMismatch m = new RowMismatch(recordNumber, c.name, s, c.type);
+		if (c.nullOnError == null) throw m;
+		c.nullOnError.cell(m);
+		gen.writeFieldName(c.key);
+		gen.writeNull();
+		c.nulls++;
+	}
+
+	/**
+	 * Valor incompatible con el schema en una fila concreta. Guarda los datos
+	 * para poder renumerar la fila cuando se convierte por trozos.
+	 */
+	static final class RowMismatch extends SchemaMismatchException {
+		final long recordNumber;
+		final String colName;
+		final String value;
+		final ColumnType type;
+
+		RowMismatch(long recordNumber, String colName, String value, ColumnType type) {
+			super("Fila " + recordNumber + " columna '" + colName +
+					"': valor '" + value + "' no compatible con tipo " + type);
+			this.recordNumber = recordNumber;
+			this.colName = colName;
+			this.value = value;
+			this.type = type;
+		}
+
+		RowMismatch shifted(long offset) {
+			return new RowMismatch(recordNumber + offset, colName, value, type);
 		}
 	}
 
@@ -183,22 +680,4 @@ public final class Converter {
 		}
 		return true;
 	}
-
-	private static void writeField(JsonGenerator gen, String name, Object v) throws IOException {
-		if (v == null) {
-			gen.writeNullField(name);
-		} else if (v instanceof String s) {
-			gen.writeStringField(name, s);
-		} else if (v instanceof Integer n) {
-			gen.writeNumberField(name, n);
-		} else if (v instanceof Long n) {
-			gen.writeNumberField(name, n);
-		} else if (v instanceof Double d) {
-			gen.writeNumberField(name, d);
-		} else if (v instanceof Boolean b) {
-			gen.writeBooleanField(name, b);
-		} else {
-			gen.writeStringField(name, String.valueOf(v));
-		}
-	}
 }
@@ -0,0 +1,46 @@
+package dev.silvericarus.core;
+
+/**
+ * Frecuencias aproximadas (Count-Min) en una tabla fija de 4 x 1024
+ * contadores: nunca se queda corto, y se pasa como mucho en torno al 0,3 %
+ * de las filas vistas. Dos tablas se combinan sumándolas, así que cada
+ * trozo lleva la suya y se juntan al final.
+ *
+ * Las 4 posiciones salen de las dos mitades de un hash de 64 bits
+ * ({@link HyperLogLog#hash}); no es seguro entre hilos.
+ */
+final class CountMinSketch {
+	private static final int DEPTH = 4;
+	private static final int WIDTH = 1024;
+
+	private final long[] counts = new long[DEPTH * WIDTH];
+
+	/** Cuenta una aparición más y devuelve la frecuencia estimada, ya con ella. */
+	long add(long hash) {
+		long min = Long.MAX_VALUE;
+		for (int d = 0; d < DEPTH; d++) {
+			int i = d * WIDTH + slot(hash, d);
+			long c = ++counts[i];
+			if (c < min) min = c;
+		}
+		return min;
+	}
+
+	long estimate(long hash) {
+		long min = Long.MAX_VALUE;
+		for (int d = 0; d < DEPTH; d++) {
+			long c = counts[d * WIDTH + slot(hash, d)];
+			if (c < min) min = c;
+		}
+		return min;
+	}
+
+	void merge(CountMinSketch other) {
+		for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+	}
+
+	private static int slot(long hash, int d) {
+		int h1 = (int) hash, h2 = (int) (hash >>> 32);
+		return (h1 + d * h2) & (WIDTH - 1);
+	}
+}
@@ -0,0 +1,57 @@
+package dev.silvericarus.core;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Qué hacer con las celdas que no encajan con el schema (--on-error) y,
+ * al terminar, cuántas hubo. Sin política en {@link ConvertOptions#onError}
+ * la primera aborta la conversión, como siempre.
+ *
+ * Solo se toca cuando hay un error: las filas buenas se escriben igual que
+ * sin política. Un objeto por conversión; no se reutiliza.
+ */
+public final class ErrorPolicy {
+	public enum Action {
+		/** La primera celda mala aborta con {@link SchemaMismatchException}. */
+		FAIL,
+		/** La fila entera se omite de la salida. */
+		SKIP,
+		/** La celda se escribe como null y la fila sigue. */
+		NULL,
+		/** Como {@link #SKIP}, y la fila original va al CSV de {@link #rejects()}. */
+		REJECT;
+
+		public static Action from(String s) {
+			try {
+				return valueOf(s.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("--on-error desconocido: " + s + " (fail|skip|null|reject)");
+			}
+		}
+	}
+
+	private final Action action;
+	private long maxErrors = Long.MAX_VALUE;
+	private Path rejects;
+	private long errors;
+
+	public ErrorPolicy(Action action) {
+		this.action = action;
+	}
+
+	public Action action() { return action; }
+
+	/** Con más de {@code n} errores se aborta igual que con {@link Action#FAIL}. */
+	public long maxErrors() { return maxErrors; }
+	public ErrorPolicy maxErrors(long n) { this.maxErrors = Math.max(0, n); return this; }
+
+	/** CSV de filas rechazadas; obligatorio con {@link Action#REJECT}. */
+	public Path rejects() { return rejects; }
+	public ErrorPolicy rejects(Path p) { this.rejects = p; return this; }
+
+	/** Filas omitidas o celdas anuladas en la conversión, cuando ha terminado bien. */
+	public long errors() { return errors; }
+
+	void add(long n) { errors += n; }
+}
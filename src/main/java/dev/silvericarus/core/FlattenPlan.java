@@ -0,0 +1,151 @@
+package dev.silvericarus.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rutas de las columnas de json2csv, compiladas una vez en un árbol que se
+ * recorre a la par que los tokens de cada registro:
+ *
+ *   id, user.address.city, tags[0], items[1].sku
+ *
+ * "." entra en un objeto y "[n]" en el elemento n de un array. Cada hoja
+ * es una columna; lo que no cuelga de ninguna ruta se salta entero con
+ * {@code skipChildren()}, sin copiarlo. Una columna que es prefijo de otra
+ * ("user" y "user.id") no se admite: la primera se llevaría el objeto
+ * entero como JSON y la otra se quedaría sin leer.
+ *
+ * Una ruta con "." o "[n]" es también el nombre de una posible clave de
+ * primer nivel: si el registro trae "price.usd" tal cual, esa clave manda
+ * sobre {"price": {"usd": ...}}.
+ */
+final class FlattenPlan {
+	/** Nodo de la ruta: hoja (columna >= 0) o campos y elementos por los que seguir. */
+	static final class Node {
+		int column = -1;
+		/** Hoja de una clave de primer nivel tomada tal cual, que manda sobre la ruta de la misma columna. */
+		boolean exact;
+		Map<String, Node> fields;
+		Node[] items;
+
+		Node field(String name) {
+			return (fields == null) ? null : fields.get(name);
+		}
+
+		Node item(int i) {
+			return (items == null || i >= items.length) ? null : items[i];
+		}
+
+		boolean leaf() {
+			return column >= 0;
+		}
+
+		private Node fieldOrNew(String name) {
+			if (fields == null) fields = new HashMap<>();
+			return fields.computeIfAbsent(name, k -> new Node());
+		}
+
+		private Node itemOrNew(int i) {
+			if (items == null) items = new Node[i + 1];
+			else if (i >= items.length) items = Arrays.copyOf(items, i + 1);
+			if (items[i] == null) items[i] = new Node();
+			return items[i];
+		}
+
+		private boolean branch() {
+			return fields != null || items != null;
+		}
+	}
+
+	private FlattenPlan() {}
+
+	/**
+	 * Raíz con una ruta por columna, en el orden de {@code columns}; las
+	 * repetidas se ignoran. Con {@code literal}, cada columna es solo una
+	 * clave de primer nivel con ese nombre.
+	 */
+	static Node compile(List<String> columns, boolean literal) {
+		Node root = new Node();
+		Set<String> seen = new HashSet<>();
+		int next = 0;
+		for (String c : columns) {
+			if (!seen.add(c)) continue;
+			int column = next++;
+			boolean plain = c.indexOf('.') < 0 && c.indexOf('[') < 0;
+			if (!literal) {
+				Node n = path(root, c);
+				if (n.leaf() || n.branch()) throw overlap(c);
+				n.column = column;
+			}
+			if (literal || !plain) {
+				// Las partes de una ruta nunca llevan "." ni "[": esta clave no choca con ninguna.
+				Node n = root.fieldOrNew(c);
+				n.column = column;
+				n.exact = !plain;
+			}
+		}
+		return root;
+	}
+
+	/** Columna de nivel superior con el nombre tal cual, sin interpretar "." ni "[n]" (columnas descubiertas). */
+	static Node literal(Node root, String name, int column) {
+		Node n = root.fieldOrNew(name);
+		n.column = column;
+		return n;
+	}
+
+	private static Node path(Node root, String column) {
+		Node n = root;
+		int i = 0, len = column.length();
+		boolean field = true;
+		while (i < len) {
+			if (!field && column.charAt(i) == '.') {
+				i++;
+				field = true;
+				continue;
+			}
+			if (n.leaf()) throw overlap(column);
+			if (column.charAt(i) == '[') {
+				int close = column.indexOf(']', i);
+				if (close < 0 || field) throw invalid(column);
+				n = n.itemOrNew(index(column, i + 1, close));
+				i = close + 1;
+				field = false;
+			} else if (field) {
+				int end = i;
+				while (end < len && column.charAt(end) != '.' && column.charAt(end) != '[') end++;
+				if (end == i) throw invalid(column);
+				n = n.fieldOrNew(column.substring(i, end));
+				i = end;
+				field = false;
+			} else {
+				throw invalid(column);
+			}
+		}
+		if (field) throw invalid(column);
+		return n;
+	}
+
+	private static int index(String column, int from, int to) {
+		if (from == to || to - from > 9) throw invalid(column);
+		int v = 0;
+		for (int i = from; i < to; i++) {
+			char c = column.charAt(i);
+			if (c < '0' || c > '9') throw invalid(column);
+			v = v * 10 + (c - '0');
+		}
+		return v;
+	}
+
+	private static IllegalArgumentException invalid(String column) {
+		return new IllegalArgumentException("--columns: ruta no válida: " + column + " (p. ej. user.address.city o tags[0])");
+	}
+
+	private static IllegalArgumentException overlap(String column) {
+		return new IllegalArgumentException("--columns: " + column + " se solapa con otra columna que es prefijo suyo o la contiene");
+	}
+}
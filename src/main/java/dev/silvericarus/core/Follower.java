@@ -0,0 +1,266 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.silvericarus.csv.MappedCsvTokenizer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Modo --follow: convierte un CSV que no deja de crecer (un log al que se
+ * van añadiendo filas) y añade a la salida NDJSON solo lo nuevo.
+ *
+ * Cada pasada lee desde el último registro entero hasta el último fin de
+ * línea del fichero. Un registro a medias se queda para la siguiente, sea
+ * porque aún no tiene salto de línea o porque tiene un campo entre
+ * comillas sin cerrar. Tras la pasada se vuelca la salida, se hace fsync y
+ * se guarda un {@link Checkpoint} con el offset, el nº de registro y los
+ * tipos del modo adaptativo. Al arrancar otra vez se sigue desde ahí: la
+ * salida se recorta a lo que el checkpoint da por escrito, la cabecera se
+ * lee una vez y los tipos no se vuelven a muestrear.
+ *
+ * Entre pasadas se espera un aviso del directorio ({@link WatchService}),
+ * como mucho {@link ConvertOptions#followPollMillis()}: en sistemas de
+ * ficheros de red los avisos no siempre llegan, y sin WatchService se
+ * sondea sin más. La salida es la misma, byte a byte, que la de convertir
+ * de una vez el fichero tal como esté al final.
+ */
+final class Follower {
+	private final Path in;
+	private final ConvertOptions o;
+	private final Checkpointer.Sink sink;
+	private final FileChannel out;
+	private final boolean resumed;
+
+	private long offset, recordNumber, records, seen = -1;
+	private ColumnTypeLock lock;
+	private List<String> names;
+	private JsonGenerator gen;
+	private RowGenerator rg;
+	private ColumnPlan plan;
+	private RowFilter filter;
+	private RowErrors errors;
+	private final LongAdder rows;
+	private final MappedConverter.Scratch scratch = new MappedConverter.Scratch();
+
+	private Follower(Path in, ConvertOptions o, Checkpoint from, FileChannel out) {
+		this.in = in;
+		this.o = o;
+		this.out = out;
+		this.rows = o.rowCounter();
+		this.sink = new Checkpointer.Sink(out, (from == null) ? 0 : from.outputLength());
+		this.resumed = from != null && from.records() > 0;
+		if (from != null) {
+			offset = from.inputOffset();
+			recordNumber = from.recordNumber();
+			records = from.records();
+			if (from.types() != null) lock = ColumnTypeLock.of(from.types(), o.detectDates());
+		}
+	}
+
+	/**
+	 * Sigue {@code in} hasta que se interrumpe el hilo. Si el aviso llega a
+	 * mitad de una pasada, lo que se haya escrito en ella se recorta al
+	 * volver a arrancar, como tras un corte.
+	 */
+	static void run(Path in, Path outPath, ConvertOptions o) throws IOException, SchemaMismatchException {
+		Checkpoint from = Files.exists(o.checkpoint()) ? Checkpoint.load(o.checkpoint()) : null;
+		if (from != null) {
+			if (!from.format().equals(Checkpoint.format(o))) {
+				throw new IllegalArgumentException("El checkpoint es de salida " + from.format() + ", no " + Checkpoint.format(o));
+			}
+			if (!Files.exists(outPath) || Files.size(outPath) < from.outputLength()) {
+				throw new IllegalArgumentException("La salida es más corta que el checkpoint: " + outPath);
+			}
+		}
+		FileChannel ch = FileChannel.open(outPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		long length = (from == null) ? 0 : from.outputLength();
+		ch.truncate(length);
+		ch.position(length);
+
+		Follower f = new Follower(in, o, from, ch);
+		try (WatchService ws = watch(in)) {
+			do {
+				f.pass();
+			} while (await(ws, o.followPollMillis()));
+		} catch (ClosedByInterruptException stopped) {
+			// Interrumpido leyendo o escribiendo: el canal ya está cerrado y el checkpoint es el de la pasada anterior.
+		} finally {
+			f.close();
+		}
+	}
+
+	/** Convierte lo que haya de nuevo, si lo hay, y guarda el checkpoint. */
+	private void pass() throws IOException, SchemaMismatchException {
+		try (FileChannel ch = FileChannel.open(in, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size == seen) return;
+			if (size < offset) {
+				throw new IOException("La entrada ha encogido por debajo de lo ya convertido (" + size + " < " + offset
+						+ " bytes); si se ha rotado, borra " + o.checkpoint() + " para empezar de cero");
+			}
+			seen = size;
+			long end = lineEnd(ch, offset, size);
+			if (end <= offset) return;
+			if (gen == null && !start(ch, end)) return;
+
+			long before = offset;
+			try (MappedCsvTokenizer tok = new MappedCsvTokenizer(ch, offset, end, o.delimeter(), o.quote())) {
+				tok.seek(offset, recordNumber);
+				try {
+					while (tok.next()) {
+						if (filter != null && !filter.keeps(tok, scratch)) continue;
+						if (rg != null) rg.mark(tok.recordNumber());
+						try {
+							MappedConverter.writeObject(gen, tok, plan, lock, scratch);
+						} catch (Converter.RowMismatch m) {
+							if (errors == null || !errors.dropsRows()) throw m;
+							rg.rewind();
+							errors.row(m, MappedConverter.fields(tok));
+							continue;
+						}
+						gen.writeRaw('\n');
+						records++;
+						if (rows != null) rows.increment();
+					}
+				} catch (EOFException partial) {
+					// Campo entre comillas aún sin cerrar: el registro se lee en otra pasada.
+				}
+				offset = tok.position();
+				recordNumber = tok.recordNumber();
+			}
+			if (offset == before) return;
+
+			gen.flush();
+			out.force(false);
+			new Checkpoint(size, offset, recordNumber, records, sink.written, Checkpoint.format(o),
+					(lock == null) ? null : lock.types()).save(o.checkpoint());
+			if (o.inferSchemaOut() != null) Converter.saveInferredSchema(o.inferSchemaOut(), names, o, lock);
+		}
+	}
+
+	/**
+	 * Primera pasada con datos: cabecera, muestreo de tipos (si no vienen del
+	 * checkpoint) y generador. false si la cabecera o la muestra aún están a medias.
+	 */
+	private boolean start(FileChannel ch, long end) throws IOException, SchemaMismatchException {
+		List<String> csvHeader = null;
+		try (MappedCsvTokenizer tok = new MappedCsvTokenizer(ch, 0, end, o.delimeter(), o.quote())) {
+			if (o.header()) {
+				if (!tok.next()) return false;
+				csvHeader = MappedConverter.fields(tok);
+				if (offset == 0) {
+					offset = tok.position();
+					recordNumber = tok.recordNumber();
+				}
+			}
+			if (lock == null && o.adaptiveTypes()) {
+				try (MappedCsvTokenizer sample = new MappedCsvTokenizer(ch, 0, end, o.delimeter(), o.quote())) {
+					lock = MappedConverter.sampleTypes(sample, o);
+				}
+			}
+		} catch (EOFException partial) {
+			return false;
+		}
+		names = Converter.resolveEffectiveColumnsNames(csvHeader, o.noHeader(), o.schema());
+		Converter.checkRequiredColumns(csvHeader, o.schema());
+		errors = RowErrors.open(o, names);
+		plan = ColumnPlan.of(names, o, lock != null, errors);
+		filter = RowFilter.of(o.where(), names);
+
+		JsonFactory jf = o.factory();
+		gen = (errors != null && errors.dropsRows()) ? RewindableGenerator.of(jf, sink, o)
+				: jf.createGenerator(sink, JsonEncoding.UTF8);
+		rg = (gen instanceof RowGenerator r) ? r : null;
+		if (resumed) {
+			// Como en Checkpointer: el separador de NDJSON sale igual que sin cortar.
+			sink.discard = true;
+			gen.writeNull();
+			gen.flush();
+			sink.discard = false;
+		}
+		return true;
+	}
+
+	private void close() throws IOException {
+		try {
+			if (errors != null) {
+				errors.done();
+				errors.close();
+			}
+		} finally {
+			if (!out.isOpen()) return;
+			if (gen != null) gen.close();
+			else sink.close();
+		}
+	}
+
+	/** Posición tras el último fin de línea en [from, size); {@code from} si no hay ninguno. */
+	static long lineEnd(FileChannel ch, long from, long size) throws IOException {
+		ByteBuffer bb = ByteBuffer.allocate(8192);
+		for (long hi = size; hi > from; ) {
+			int n = (int) Math.min(bb.capacity(), hi - from);
+			long lo = hi - n;
+			bb.clear().limit(n);
+			while (bb.hasRemaining()) {
+				if (ch.read(bb, lo + bb.position()) < 0) break;
+			}
+			for (int i = bb.position() - 1; i >= 0; i--) {
+				byte b = bb.get(i);
+				if (b == '\n' || b == '\r') return lo + i + 1;
+			}
+			hi = lo;
+		}
+		return from;
+	}
+
+	/** WatchService sobre el directorio de {@code in}; null si el sistema de ficheros no lo tiene. */
+	private static WatchService watch(Path in) {
+		WatchService ws = null;
+		try {
+			ws = in.getFileSystem().newWatchService();
+			in.toAbsolutePath().getParent().register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			return ws;
+		} catch (UnsupportedOperationException | IOException e) {
+			if (ws != null) {
+				try {
+					ws.close();
+				} catch (IOException ignored) {
+				}
+			}
+			return null;
+		}
+	}
+
+	/** Espera un aviso o {@code millis}; false si interrumpen el hilo. */
+	private static boolean await(WatchService ws, long millis) {
+		try {
+			if (ws == null) {
+				Thread.sleep(millis);
+				return true;
+			}
+			for (WatchKey k = ws.poll(millis, TimeUnit.MILLISECONDS); k != null; k = ws.poll()) {
+				k.pollEvents();
+				k.reset();
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package dev.silvericarus.core;
+
+/**
+ * Contador aproximado de valores distintos (HyperLogLog) con 2^12
+ * registros de un byte: 4 KB por columna sea cual sea la entrada, con un
+ * error típico en torno al 1,6 %. Dos contadores se combinan quedándose con
+ * el máximo de cada registro, así que da igual cómo se repartan las filas
+ * entre trozos.
+ *
+ * Recibe hashes de 64 bits ya mezclados ({@link #hash}); no es seguro entre hilos.
+ */
+final class HyperLogLog {
+	private static final int P = 12;
+	private static final int M = 1 << P;
+
+	private final byte[] registers = new byte[M];
+
+	void add(long hash) {
+		int idx = (int) (hash >>> (64 - P));
+		long w = hash << P;
+		int rank = (w == 0) ? 64 - P + 1 : Long.numberOfLeadingZeros(w) + 1;
+		if (rank > registers[idx]) registers[idx] = (byte) rank;
+	}
+
+	void merge(HyperLogLog other) {
+		for (int i = 0; i < M; i++) {
+			if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+		}
+	}
+
+	long estimate() {
+		double sum = 0;
+		int zeros = 0;
+		for (byte r : registers) {
+			sum += 1.0 / (1L << r);
+			if (r == 0) zeros++;
+		}
+		double e = 0.7213 / (1 + 1.079 / M) * M * M / sum;
+		// Con pocos valores, conteo lineal sobre los registros vacíos.
+		if (e <= 2.5 * M && zeros > 0) e = M * Math.log((double) M / zeros);
+		return Math.round(e);
+	}
+
+	/** Hash de 64 bits de los bytes (FNV-1a con la mezcla final de Murmur3). */
+	static long hash(byte[] b, int off, int len) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = off, end = off + len; i < end; i++) {
+			h ^= b[i] & 0xFF;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
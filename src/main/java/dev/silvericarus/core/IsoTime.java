@@ -0,0 +1,217 @@
+package dev.silvericarus.core;
+
+import java.util.Locale;
+
+/**
+ * Lector de fechas y horas ISO-8601 de formato fijo, escrito a mano para
+ * no pasar por {@code DateTimeFormatter} (ni crear objetos) en cada celda:
+ *
+ *   DATE:      yyyy-MM-dd
+ *   TIMESTAMP: yyyy-MM-dd('T'|' ')HH:mm(:ss(.f{1,9})?)?(Z|±HH(:?mm)?)?
+ *
+ * (tras quitar blancos ≤ ' ' como {@link String#trim()}). Comprueba rangos,
+ * días del mes y años bisiestos; no admite el segundo 60 ni la hora 24.
+ * Los días desde 1970 se calculan con aritmética del calendario civil
+ * proléptico gregoriano, sin {@code LocalDate}.
+ *
+ * {@link #kind} solo valida y no necesita instancia. {@link #read} guarda
+ * además el instante leído, que luego se saca con {@link #format} o como
+ * epoch; la instancia se reutiliza celda a celda y no es segura entre hilos.
+ */
+final class IsoTime {
+	private long epochSecond;
+	private int nanos;
+	/** Dígitos de fracción tal como venían, para volver a escribirlos igual. */
+	private int fractionDigits;
+	private boolean zoned;
+	private final char[] buf = new char[40];
+
+	/** DATE, TIMESTAMP o null si el texto no es ninguno de los dos. */
+	static ColumnType kind(CharSequence s) {
+		return scan(s, null);
+	}
+
+	/**
+	 * Lee {@code s} como {@code as} (DATE o TIMESTAMP); una fecha sola vale
+	 * como TIMESTAMP a medianoche. false si no encaja.
+	 */
+	boolean read(CharSequence s, ColumnType as) {
+		ColumnType k = scan(s, this);
+		return k == as || (k == ColumnType.DATE && as == ColumnType.TIMESTAMP);
+	}
+
+	/** Días desde 1970-01-01, en UTC si el texto traía zona. */
+	long epochDay() { return Math.floorDiv(epochSecond, 86_400); }
+
+	long epochSecond() { return epochSecond; }
+
+	long epochMilli() { return epochSecond * 1000 + nanos / 1_000_000; }
+
+	/** Buffer donde escribe {@link #format}. */
+	char[] chars() { return buf; }
+
+	/**
+	 * Escribe en {@link #chars()} el último valor leído como {@code as}
+	 * normalizado: separador 'T', segundos siempre, la fracción con sus
+	 * dígitos y, si traía zona, pasado a UTC y terminado en 'Z'. Devuelve la longitud.
+	 */
+	int format(ColumnType as) {
+		long day = Math.floorDiv(epochSecond, 86_400);
+		int sod = (int) Math.floorMod(epochSecond, 86_400);
+		int w = civil(day, buf);
+		if (as == ColumnType.DATE) return w;
+		buf[w++] = 'T';
+		w = two(sod / 3600, buf, w);
+		buf[w++] = ':';
+		w = two(sod / 60 % 60, buf, w);
+		buf[w++] = ':';
+		w = two(sod % 60, buf, w);
+		if (fractionDigits > 0) {
+			buf[w++] = '.';
+			int f = nanos;
+			for (int k = fractionDigits; k < 9; k++) f /= 10;
+			for (int k = w + fractionDigits - 1; k >= w; k--, f /= 10) buf[k] = (char) ('0' + f % 10);
+			w += fractionDigits;
+		}
+		if (zoned) buf[w++] = 'Z';
+		return w;
+	}
+
+	/** El recorrido de verdad; con {@code out} no nulo guarda en él lo leído. */
+	private static ColumnType scan(CharSequence s, IsoTime out) {
+		int i = 0, e = s.length();
+		while (i < e && s.charAt(i) <= ' ') i++;
+		while (e > i && s.charAt(e - 1) <= ' ') e--;
+		if (e - i < 10 || s.charAt(i + 4) != '-' || s.charAt(i + 7) != '-') return null;
+
+		int year = digits(s, i, 4, e), month = digits(s, i + 5, 2, e), day = digits(s, i + 8, 2, e);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) return null;
+		long seconds = epochDay(year, month, day) * 86_400;
+		i += 10;
+		if (i == e) {
+			if (out != null) out.set(seconds, 0, 0, false);
+			return ColumnType.DATE;
+		}
+
+		char sep = s.charAt(i);
+		if ((sep != 'T' && sep != 't' && sep != ' ') || e - i < 6 || s.charAt(i + 3) != ':') return null;
+		int hour = digits(s, i + 1, 2, e), minute = digits(s, i + 4, 2, e);
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59) return null;
+		seconds += hour * 3600 + minute * 60;
+		i += 6;
+
+		int nanos = 0, fraction = 0;
+		if (i < e && s.charAt(i) == ':') {
+			int second = digits(s, i + 1, 2, e);
+			if (second < 0 || second > 59) return null;
+			seconds += second;
+			i += 3;
+			if (i < e && s.charAt(i) == '.') {
+				int start = ++i;
+				while (i < e && i - start < 9 && isDigit(s.charAt(i))) nanos = nanos * 10 + (s.charAt(i++) - '0');
+				fraction = i - start;
+				if (fraction == 0) return null;
+				for (int k = fraction; k < 9; k++) nanos *= 10;
+			}
+		}
+
+		boolean zoned = false;
+		if (i < e) {
+			char z = s.charAt(i);
+			if (z == 'Z' || z == 'z') {
+				if (i + 1 != e) return null;
+			} else if (z == '+' || z == '-') {
+				int oh = digits(s, i + 1, 2, e), om = 0;
+				int j = i + 3;
+				if (oh < 0 || oh > 18) return null;
+				if (j < e) {
+					if (s.charAt(j) == ':') j++;
+					om = digits(s, j, 2, e);
+					if (om < 0 || om > 59 || j + 2 != e) return null;
+				}
+				int offset = oh * 3600 + om * 60;
+				seconds -= (z == '-') ? -offset : offset;
+			} else {
+				return null;
+			}
+			zoned = true;
+		}
+		if (out != null) out.set(seconds, nanos, fraction, zoned);
+		return ColumnType.TIMESTAMP;
+	}
+
+	private void set(long epochSecond, int nanos, int fractionDigits, boolean zoned) {
+		this.epochSecond = epochSecond;
+		this.nanos = nanos;
+		this.fractionDigits = fractionDigits;
+		this.zoned = zoned;
+	}
+
+	/** Valor de los n dígitos desde {@code from}; -1 si no caben antes de {@code end} o alguno no es dígito. */
+	private static int digits(CharSequence s, int from, int n, int end) {
+		if (from + n > end) return -1;
+		int v = 0;
+		for (int k = from; k < from + n; k++) {
+			char c = s.charAt(k);
+			if (!isDigit(c)) return -1;
+			v = v * 10 + (c - '0');
+		}
+		return v;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		return switch (month) {
+			case 2 -> ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+			case 4, 6, 9, 11 -> 30;
+			default -> 31;
+		};
+	}
+
+	/** Días desde 1970-01-01 de una fecha civil válida (años en eras de 400, marzo como primer mes). */
+	static long epochDay(int year, int month, int day) {
+		long y = (month <= 2) ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yoe = y - era * 400;
+		long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146_097 + doe - 719_468;
+	}
+
+	/** Escribe yyyy-MM-dd del día {@code epochDay} en dst desde 0; devuelve la longitud. */
+	private static int civil(long epochDay, char[] dst) {
+		long z = epochDay + 719_468;
+		long era = Math.floorDiv(z, 146_097);
+		long doe = z - era * 146_097;
+		long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+		int w;
+		if (year >= 0 && year <= 9999) {
+			w = two((int) year / 100, dst, 0);
+			w = two((int) year % 100, dst, w);
+		} else {
+			// Una zona puede sacar el año de 0000-9999: se escribe con signo, como ISO-8601 extendido.
+			String y = String.format(Locale.ROOT, "%+05d", year);
+			y.getChars(0, y.length(), dst, 0);
+			w = y.length();
+		}
+		dst[w++] = '-';
+		w = two(month, dst, w);
+		dst[w++] = '-';
+		return two(day, dst, w);
+	}
+
+	private static int two(int v, char[] dst, int w) {
+		dst[w] = (char) ('0' + v / 10);
+		dst[w + 1] = (char) ('0' + v % 10);
+		return w + 2;
+	}
+}
@@ -0,0 +1,228 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JSON -> CSV en streaming con {@link JsonParser}, sin construir árboles.
+ *
+ * Entrada: objetos sueltos en la raíz (NDJSON o concatenados) o dentro de un
+ * array de primer nivel; se detecta solo. Cada objeto es una fila:
+ *  - texto y números salen con su texto original; true/false tal cual;
+ *  - null (o clave ausente) = celda vacía;
+ *  - objetos/arrays anidados se escriben como JSON compacto en la celda,
+ *    salvo que las columnas entren en ellos.
+ *
+ * Columnas: las de {@link JsonToCsvOptions#columns()} o, si no hay, la unión
+ * de claves (por orden de aparición) de las primeras N filas, que son las
+ * únicas que se retienen en memoria. Las claves que aparecen después y no
+ * son columnas se descartan y se cuentan en {@link Result#droppedFields()}.
+ *
+ * Las columnas indicadas pueden ser rutas ({@link FlattenPlan}):
+ * user.address.city o tags[0] aplanan lo anidado sobre la marcha, sin
+ * construir un árbol por registro, y los subárboles que ninguna ruta pide
+ * se saltan sin copiarlos. Si el registro trae una clave con el nombre
+ * exacto de la columna ("price.usd"), sale esa; con
+ * {@link JsonToCsvOptions#literalColumns()}, solo esa.
+ */
+public final class JsonToCsvConverter {
+	private JsonToCsvConverter() {}
+
+	/** Filas escritas y campos descartados por no ser columna. */
+	public record Result(long records, long droppedFields) {}
+
+	public static Result run(Path in, Path out, JsonToCsvOptions o) throws IOException {
+		try (InputStream is = new BufferedInputStream(Files.newInputStream(in), 1 << 16);
+		     Writer w = Files.newBufferedWriter(out, o.charset())) {
+			return run(is, w, o);
+		}
+	}
+
+	/** Lee JSON de {@code in} y escribe CSV en {@code out}; no cierra ninguno de los dos. */
+	public static Result run(InputStream in, Writer out, JsonToCsvOptions o) throws IOException {
+		JsonFactory jf = new JsonFactory();
+		long max = (o.limit() == null) ? Long.MAX_VALUE : Math.max(0, o.limit());
+
+		try (JsonParser p = jf.createParser(in)) {
+			p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+			RecordReader reader = new RecordReader(jf, p, o.columns(), o.literalColumns());
+
+			List<String[]> pending = new ArrayList<>();
+			if (o.columns() == null) {
+				String[] row;
+				while (pending.size() < Math.min(o.discoverRows(), max) && (row = reader.next(true)) != null) {
+					pending.add(row.clone());
+				}
+			}
+
+			CSVPrinter printer = new CSVPrinter(out, csvFormat(o.delimeter()));
+			int width = reader.names.size();
+			if (o.header()) printer.printRecord(reader.names);
+
+			long written = 0;
+			for (String[] row : pending) {
+				printRow(printer, row, width);
+				written++;
+			}
+			pending = null;
+
+			String[] row;
+			while (written < max && (row = reader.next(false)) != null) {
+				printRow(printer, row, width);
+				written++;
+			}
+			printer.flush();
+			return new Result(written, reader.dropped);
+		}
+	}
+
+	static CSVFormat csvFormat(char delimeter) {
+		return CSVFormat.DEFAULT.builder()
+				.setDelimiter(delimeter)
+				.build();
+	}
+
+	private static void printRow(CSVPrinter printer, String[] row, int width) throws IOException {
+		for (int i = 0; i < width; i++) printer.print((i < row.length) ? row[i] : null);
+		printer.println();
+	}
+
+	/**
+	 * Recorre los objetos de la entrada siguiendo las rutas de las columnas y
+	 * los vuelca en un array por índice de columna. El array se reutiliza
+	 * entre llamadas a {@link #next}.
+	 */
+	private static final class RecordReader {
+		private final JsonFactory jf;
+		private final JsonParser p;
+		final List<String> names = new ArrayList<>();
+		private final FlattenPlan.Node root;
+		private String[] row;
+		/** Registro en el que cada columna ya salió de su clave exacta (ver {@link FlattenPlan.Node#exact}). */
+		private long[] exactIn;
+		private int depth;
+		private long recordNumber;
+		long dropped;
+
+		RecordReader(JsonFactory jf, JsonParser p, List<String> columns, boolean literal) {
+			this.jf = jf;
+			this.p = p;
+			if (columns != null) {
+				root = FlattenPlan.compile(columns, literal);
+				for (String c : columns) {
+					if (!names.contains(c)) names.add(c);
+				}
+			} else {
+				root = new FlattenPlan.Node();
+			}
+			row = new String[Math.max(16, names.size())];
+			exactIn = new long[names.size()];
+		}
+
+		/** Siguiente objeto o null al final. Con {@code grow}, las claves nuevas pasan a ser columnas. */
+		String[] next(boolean grow) throws IOException {
+			JsonToken t;
+			while ((t = p.nextToken()) != null) {
+				if (t == JsonToken.START_ARRAY && depth == 0) {
+					depth = 1;
+				} else if (t == JsonToken.END_ARRAY && depth == 1) {
+					depth = 0;
+				} else if (t == JsonToken.START_OBJECT) {
+					recordNumber++;
+					readObject(grow);
+					return row;
+				} else {
+					throw new IOException("Registro " + (recordNumber + 1) + ": se esperaba un objeto JSON y llegó " + t);
+				}
+			}
+			return null;
+		}
+
+		private void readObject(boolean grow) throws IOException {
+			Arrays.fill(row, null);
+			readFields(root, grow);
+		}
+
+		/** Campos del objeto actual; con {@code grow} (solo en la raíz) las claves nuevas pasan a ser columnas. */
+		private void readFields(FlattenPlan.Node node, boolean grow) throws IOException {
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String name = p.currentName();
+				JsonToken v = p.nextToken();
+				FlattenPlan.Node n = node.field(name);
+				if (n == null && grow) n = addColumn(name);
+				if (n == null) {
+					p.skipChildren();
+					dropped++;
+					continue;
+				}
+				read(n, v);
+			}
+		}
+
+		private void read(FlattenPlan.Node n, JsonToken v) throws IOException {
+			if (n.leaf()) {
+				if (n.exact) {
+					exactIn[n.column] = recordNumber;
+				} else if (n.column < exactIn.length && exactIn[n.column] == recordNumber) {
+					p.skipChildren();
+					return;
+				}
+				row[n.column] = valueText(v);
+			} else if (v == JsonToken.START_OBJECT && n.fields != null) {
+				readFields(n, false);
+			} else if (v == JsonToken.START_ARRAY && n.items != null) {
+				int i = 0;
+				for (JsonToken t; (t = p.nextToken()) != JsonToken.END_ARRAY; i++) {
+					FlattenPlan.Node item = n.item(i);
+					if (item == null) p.skipChildren();
+					else read(item, t);
+				}
+			} else {
+				// No tiene la forma que espera la ruta (o es null): sus columnas se quedan vacías.
+				p.skipChildren();
+			}
+		}
+
+		private FlattenPlan.Node addColumn(String name) {
+			int col = names.size();
+			names.add(name);
+			if (col >= row.length) row = Arrays.copyOf(row, row.length * 2);
+			return FlattenPlan.literal(root, name, col);
+		}
+
+		private String valueText(JsonToken v) throws IOException {
+			return switch (v) {
+				case VALUE_STRING, VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getText();
+				case VALUE_TRUE -> "true";
+				case VALUE_FALSE -> "false";
+				case VALUE_NULL -> null;
+				case START_OBJECT, START_ARRAY -> nestedJson();
+				default -> throw new IOException("Token inesperado en el registro " + recordNumber + ": " + v);
+			};
+		}
+
+		/** Copia el valor anidado como JSON compacto; ocupa lo que ocupe esa celda. */
+		private String nestedJson() throws IOException {
+			StringWriter sw = new StringWriter();
+			try (JsonGenerator g = jf.createGenerator(sw)) {
+				g.copyCurrentStructure(p);
+			}
+			return sw.toString();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package dev.silvericarus.core;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Opciones de JSON -> CSV, con el mismo estilo que {@link ConvertOptions}:
+ * getters sin prefijo y setters encadenables.
+ */
+public final class JsonToCsvOptions {
+	private char delimeter = ',';
+	private List<String> columns;
+	private boolean literalColumns;
+	private boolean header = true;
+	private Charset charset = StandardCharsets.UTF_8;
+	private Integer limit;
+	private int discoverRows = 1000;
+
+	public char delimeter() { return delimeter; }
+	public JsonToCsvOptions delimeter(char d) { this.delimeter = d; return this; }
+
+	/** Columnas y su orden; null = se descubren con las primeras {@link #discoverRows()} filas. */
+	public List<String> columns() { return columns; }
+	public JsonToCsvOptions columns(List<String> c) { this.columns = (c == null) ? null : List.copyOf(c); return this; }
+
+	/**
+	 * Las columnas son claves de primer nivel tal cual, sin leer "." ni
+	 * "[n]" como rutas (p. ej. las de un schema sacado de una cabecera CSV).
+	 */
+	public boolean literalColumns() { return literalColumns; }
+	public JsonToCsvOptions literalColumns(boolean b) { this.literalColumns = b; return this; }
+
+	/** Escribir la fila de cabecera (por defecto sí). */
+	public boolean header() { return header; }
+	public JsonToCsvOptions header(boolean b) { this.header = b; return this; }
+
+	/** Codificación del CSV de salida; la del JSON la detecta Jackson. */
+	public Charset charset() { return charset; }
+	public JsonToCsvOptions charset(Charset cs) { this.charset = (cs == null) ? StandardCharsets.UTF_8 : cs; return this; }
+
+	public Integer limit() { return limit; }
+	public JsonToCsvOptions limit(Integer n) { this.limit = n; return this; }
+
+	/** Registros que se retienen para descubrir columnas cuando no se indican. */
+	public int discoverRows() { return discoverRows; }
+	public JsonToCsvOptions discoverRows(int n) { this.discoverRows = Math.max(1, n); return this; }
+}
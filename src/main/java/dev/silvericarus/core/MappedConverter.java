@@ -0,0 +1,317 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import dev.silvericarus.csv.MappedCsvTokenizer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CSV -> JSON para entradas UTF-8 usando {@link MappedCsvTokenizer}.
+ * Los campos se copian como bytes a un buffer reutilizable, se clasifican
+ * sobre esos mismos bytes ({@link ByteChars}) y se escriben sin decodificar:
+ * texto con {@link JsonGenerator#writeUTF8String}, números con su literal.
+ * Solo se crea un String para las columnas con tipo en el schema.
+ * La salida es la misma que la del camino de commons-csv.
+ */
+final class MappedConverter {
+	private MappedConverter() {}
+
+	static boolean supports(Path in, ConvertOptions o) {
+		return !o.commonsCsv() && isUtf8(o.charset()) && o.quote() <= 0x7F && Files.isRegularFile(in);
+	}
+
+	static boolean isUtf8(Charset cs) {
+		return StandardCharsets.UTF_8.equals(cs) || StandardCharsets.US_ASCII.equals(cs);
+	}
+
+	/** Convierte {@code in} hacia {@code out}, que se cierra al terminar. */
+	static void run(Path in, OutputStream out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		run(in, out, o, null, null);
+	}
+
+	/** Como {@link #run}, guardando {@link Checkpoint}s en el camino; con {@link ConvertOptions#resume()}, sigue una conversión cortada. */
+	static void runCheckpointed(Path in, Path out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		Checkpointer cp = Checkpointer.open(in, out, o);
+		run(in, cp.stream(), o, cp, null);
+		cp.done();
+	}
+
+	/** Como {@link #run}, repartiendo la salida en shards según el patrón {@code out} ({@link ShardingGenerator}). */
+	static void runSharded(Path in, Path out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		run(in, null, o, null, out);
+	}
+
+	/** Con {@code shards} no nulo, {@code out} es null y cada shard abre su fichero. */
+	private static void run(Path in, OutputStream out, ConvertOptions o, Checkpointer cp,
+	                        Path shards) throws IOException, SchemaMismatchException {
+		JsonFactory jf = o.factory();
+		Schema schema = o.schema();
+		ConvertStats stats = o.stats();
+		// Al reanudar, los tipos siguen como estaban (ensanchados o no), sin volver a muestrear.
+		ColumnTypeLock lock = (cp == null) ? null : cp.lock(o.detectDates());
+		if (lock == null && o.adaptiveTypes()) {
+			long t = System.nanoTime();
+			lock = sampleTypes(in, o);
+			if (stats != null) stats.add(ConvertStats.Phase.INFER, System.nanoTime() - t);
+		}
+
+		try (OutputStream os = (out == null) ? null : new BufferedOutputStream(out, 1 << 16);
+		     MappedCsvTokenizer tok = new MappedCsvTokenizer(in, o.delimeter(), o.quote())) {
+
+			List<String> csvHeader = o.header() ? readHeader(tok) : null;
+			List<String> effectiveNames = Converter.resolveEffectiveColumnsNames(csvHeader, o.noHeader(), schema);
+			Converter.checkRequiredColumns(csvHeader, schema);
+
+			try (RowErrors errors = RowErrors.open(o, effectiveNames);
+			     JsonGenerator gen = (shards != null)
+					     ? ShardingGenerator.open(shards, o, f -> generator(jf, f, o, errors))
+					     : generator(jf, os, o, errors)) {
+
+				if (!o.ndjson() && o.pretty()) gen.useDefaultPrettyPrinter();
+				write(gen, tok, effectiveNames, o, lock, cp, errors);
+				if (gen instanceof ShardingGenerator sg) sg.finish();
+				if (errors != null) errors.done();
+			}
+		}
+	}
+
+	/** Generador sobre {@code os}; si --on-error tiene que deshacer filas, {@link RewindableGenerator}. */
+	private static JsonGenerator generator(JsonFactory jf, OutputStream os, ConvertOptions o, RowErrors errors) throws IOException {
+		return (errors != null && errors.dropsRows()) ? RewindableGenerator.of(jf, os, o)
+				: jf.createGenerator(os, JsonEncoding.UTF8);
+	}
+
+	private static void write(JsonGenerator gen, MappedCsvTokenizer tok, List<String> effectiveNames, ConvertOptions o,
+	                          ColumnTypeLock lock, Checkpointer cp, RowErrors errors) throws IOException, SchemaMismatchException {
+		ConvertStats stats = o.stats();
+		LongAdder rows = o.rowCounter();
+		RowGenerator rg = (gen instanceof RowGenerator r) ? r : null;
+		ColumnPlan plan = ColumnPlan.of(effectiveNames, o, lock != null, errors);
+		Integer limit = o.limit();
+		Scratch scratch = new Scratch();
+		scratch.rawUtf8 = o.rawUtf8Strings();
+		RowFilter filter = RowFilter.of(o.where(), effectiveNames);
+		int count = 0;
+		boolean lineBreaks = o.lineBreaks();
+		if (!o.ndjson()) gen.writeStartArray();
+		if (cp != null) cp.begin(gen, tok);
+		long t0 = (stats != null) ? System.nanoTime() : 0;
+		while (tok.next()) {
+			if (stats != null) stats.recordIn();
+			if (filter != null && !filter.keeps(tok, scratch)) continue;
+			long t1 = (stats != null) ? System.nanoTime() : 0;
+			if (rg != null) rg.mark(tok.recordNumber());
+			try {
+				writeObject(gen, tok, plan, lock, scratch);
+			} catch (Converter.RowMismatch m) {
+				if (errors == null || !errors.dropsRows()) throw m;
+				rg.rewind();
+				errors.row(m, fields(tok));
+				continue;
+			}
+			if (lineBreaks) gen.writeRaw('\n');
+			if (rows != null) rows.increment();
+			if (cp != null) cp.row(gen, tok, lock);
+			if (stats != null) {
+				if (stats.row(t1 - t0, System.nanoTime() - t1)) stats.inferSample(inferNanos(tok, plan, lock, scratch));
+				t0 = System.nanoTime();
+			}
+			if (limit != null && ++count >= limit) break;
+		}
+		if (!o.ndjson()) gen.writeEndArray();
+
+		if (o.inferSchemaOut() != null) Converter.saveInferredSchema(o.inferSchemaOut(), effectiveNames, o, lock);
+		if (stats != null) stats.columns(plan);
+	}
+
+	/** Campos de la fila actual tal como vienen, para el CSV de rechazados. */
+	static List<String> fields(MappedCsvTokenizer tok) {
+		List<String> f = new ArrayList<>(tok.size());
+		for (int i = 0; i < tok.size(); i++) f.add(tok.string(i));
+		return f;
+	}
+
+	/** Como {@code Converter.inferNanos}: repite la inferencia de la fila actual sin escribir. */
+	static long inferNanos(MappedCsvTokenizer tok, ColumnPlan plan, ColumnTypeLock lock, Scratch scratch) {
+		long t = System.nanoTime();
+		int sink = 0;
+		for (int i = 0; i < tok.size(); i++) {
+			ColumnPlan.Column c = plan.column(i);
+			if (c.strategy == ColumnPlan.Strategy.STRINGS) continue;
+			if (c.strategy == ColumnPlan.Strategy.SCHEMA) {
+				sink += TypeInference.fits(c.type, tok.string(i)) ? 1 : 0;
+				continue;
+			}
+			byte[] b = scratch.fit(tok.length(i));
+			int n = tok.copy(i, b);
+			if (TypeInference.isBlank(b, 0, n)) continue;
+			ByteChars text = scratch.text.wrap(b, 0, n);
+			sink += (c.strategy == ColumnPlan.Strategy.LOCKED ? lock.resolve(i, text) : TypeInference.classify(text, c.dates)).ordinal();
+		}
+		t = System.nanoTime() - t;
+		return (sink < 0) ? 0 : t;
+	}
+
+	/** Muestreo del modo adaptativo sobre un tokenizador aparte, con las filas y columnas de --where/--select. */
+	private static ColumnTypeLock sampleTypes(Path in, ConvertOptions o) throws IOException {
+		if (Converter.sampleRows(o) == 0) return new ColumnTypeLock(o.detectDates());
+		try (MappedCsvTokenizer tok = new MappedCsvTokenizer(in, o.delimeter(), o.quote())) {
+			return sampleTypes(tok, o);
+		}
+	}
+
+	/** Como {@link #sampleTypes(Path, ConvertOptions)}, con un tokenizador recién abierto al principio del fichero. */
+	static ColumnTypeLock sampleTypes(MappedCsvTokenizer tok, ConvertOptions o) throws IOException {
+		ColumnTypeLock lock = new ColumnTypeLock(o.detectDates());
+		int rows = Converter.sampleRows(o);
+		if (rows == 0) return lock;
+
+		List<String> csvHeader = o.header() ? readHeader(tok) : null;
+		List<String> names = Converter.resolveEffectiveColumnsNames(csvHeader, o.noHeader(), o.schema());
+		RowFilter filter = RowFilter.of(o.where(), names);
+		int[] sel = ColumnPlan.selection(names, o.select());
+		Scratch scratch = new Scratch();
+		int n = 0;
+		while (tok.next()) {
+			if (filter != null && !filter.keeps(tok, scratch)) continue;
+			int width = (sel == null) ? tok.size() : sel.length;
+			for (int k = 0; k < width; k++) {
+				int i = (sel == null) ? k : sel[k];
+				if (i >= tok.size()) continue;
+				byte[] b = scratch.fit(tok.length(i));
+				int len = tok.copy(i, b);
+				if (!TypeInference.isBlank(b, 0, len)) lock.observe(i, scratch.text.wrap(b, 0, len));
+			}
+			if (++n >= rows) break;
+		}
+		return lock;
+	}
+
+	/** Lee la primera fila como cabecera, igual que {@code CSVParser#getHeaderNames()}. */
+	static List<String> readHeader(MappedCsvTokenizer tok) throws IOException {
+		if (!tok.next()) return List.of();
+		List<String> names = new ArrayList<>(tok.size());
+		for (int i = 0; i < tok.size(); i++) names.add(tok.string(i));
+		return names;
+	}
+
+	/**
+	 * Mismo objeto que {@code Converter.writeObjectFromRecord}, leyendo del tokenizador.
+	 * Con {@code lock} no nulo las celdas se validan contra el tipo bloqueado.
+	 */
+	static void writeObject(JsonGenerator gen,
+	                        MappedCsvTokenizer tok,
+	                        ColumnPlan plan,
+	                        ColumnTypeLock lock,
+	                        Scratch scratch) throws IOException, SchemaMismatchException {
+
+		gen.writeStartObject();
+
+		int width = tok.size();
+		int[] sel = plan.selected();
+		int n = (sel == null) ? width : sel.length;
+		for (int k = 0; k < n; k++) {
+			int i = (sel == null) ? k : sel[k];
+			ColumnPlan.Column c = plan.column(i);
+			if (i >= width) {
+				gen.writeFieldName(c.key);
+				gen.writeNull();
+				c.nulls++;
+				continue;
+			}
+
+			if (c.strategy == ColumnPlan.Strategy.SCHEMA) {
+				Converter.writeSchemaField(gen, c, tok.string(i), tok.recordNumber());
+				continue;
+			}
+
+			byte[] b = scratch.fit(tok.length(i));
+			int len = tok.copy(i, b);
+			boolean locked = c.strategy == ColumnPlan.Strategy.LOCKED;
+			boolean blank = (c.emptyAsNull || locked) && TypeInference.isBlank(b, 0, len);
+			gen.writeFieldName(c.key);
+			if (c.emptyAsNull && blank) {
+				gen.writeNull();
+				c.nulls++;
+				continue;
+			}
+
+			ValueCache cache = c.cache;
+			// En modo adaptativo el valor guardado vale mientras la columna siga con el mismo tipo.
+			int hit = (cache == null || blank) ? -1 : cache.find(b, len, locked ? lock.typeOf(i) : null);
+			if (hit >= 0) {
+				gen.writeRawValue(cache.json(hit));
+				c.count(cache.type(hit));
+				continue;
+			}
+
+			ByteChars text = scratch.text.wrap(b, 0, len);
+			ColumnType t = switch (c.strategy) {
+				case STRINGS -> ColumnType.STRING;
+				case LOCKED -> blank ? ColumnType.STRING : lock.resolve(i, text);
+				default -> TypeInference.classify(text, c.dates);
+			};
+			switch (t) {
+				case BOOL -> gen.writeBoolean(TypeInference.isTrue(text));
+				case INT, LONG, DOUBLE -> {
+					char[] digits = scratch.digits(len + 2);
+					int dl = TypeInference.numberLexeme(text, digits);
+					if (!gen.canWriteBinaryNatively()) gen.writeNumber(digits, 0, dl);
+					else Converter.writeNumber(gen, new String(digits, 0, dl));
+				}
+				case DATE, TIMESTAMP -> {
+					c.time().read(text, t);
+					Converter.writeTemporal(gen, c.time(), t, TemporalOutput.ISO);
+				}
+				default -> {
+					if (scratch.rawUtf8) gen.writeUTF8String(b, 0, len);
+					else gen.writeString(new String(b, 0, len, StandardCharsets.UTF_8));
+				}
+			}
+			if (cache != null && !blank && cache.wants(len)) {
+				String s = ValueCache.utf8(b, len);
+				if (s != null) cache.put(b, len, t, ValueCache.json(c, s, t));
+			}
+			c.count(t);
+		}
+
+		for (int i = width; sel == null && i < plan.headerWidth(); i++) {
+			ColumnPlan.Column c = plan.column(i);
+			gen.writeFieldName(c.key);
+			gen.writeNull();
+			c.nulls++;
+		}
+
+		gen.writeEndObject();
+	}
+
+	/** Buffers reutilizados entre campos de un mismo hilo. */
+	static final class Scratch {
+		private byte[] buf = new byte[256];
+		private char[] chars = new char[64];
+		final ByteChars text = new ByteChars();
+		/** false con generadores que no admiten writeUTF8String ({@link ConvertOptions#rawUtf8Strings()}). */
+		boolean rawUtf8 = true;
+
+		byte[] fit(int len) {
+			if (buf.length < len) buf = new byte[Math.max(len, buf.length * 2)];
+			return buf;
+		}
+
+		char[] digits(int len) {
+			if (chars.length < len) chars = new char[Math.max(len, chars.length * 2)];
+			return chars;
+		}
+	}
+}
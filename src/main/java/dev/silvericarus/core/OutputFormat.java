@@ -0,0 +1,71 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Formato de salida de csv2json (--format). Los binarios usan el
+ * {@link JsonFactory} de su dataformat de Jackson en lugar del de texto;
+ * el resto de la conversión (inferencia, schema, --limit, --select...) es
+ * el mismo, así que un lector Jackson obtiene los mismos valores.
+ *
+ * Smile y CBOR escriben las filas en un array, como JSON; con --ndjson,
+ * una tras otra como valores raíz (en CBOR, una "CBOR sequence"). Con
+ * referencias atrás activadas, un nombre de campo o un texto corto
+ * repetido se escribe como índice a su primera aparición.
+ */
+public enum OutputFormat {
+	JSON, NDJSON, SMILE, CBOR;
+
+	public static OutputFormat from(String s) {
+		try {
+			return valueOf(s.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("--format desconocido: " + s + " (json|ndjson|smile|cbor)");
+		}
+	}
+
+	public boolean binary() {
+		return this == SMILE || this == CBOR;
+	}
+
+	/**
+	 * Factoría del formato. {@code backReferences} solo si el generador no se
+	 * va a rehacer a mitad de salida (como hace {@link RewindableGenerator}):
+	 * uno nuevo empezaría con la tabla de referencias vacía y las siguientes
+	 * apuntarían a otra cosa.
+	 */
+	JsonFactory factory(boolean backReferences) {
+		return switch (this) {
+			case JSON, NDJSON -> new JsonFactory();
+			case SMILE -> SmileFactory.builder()
+					.configure(SmileGenerator.Feature.CHECK_SHARED_NAMES, backReferences)
+					.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, backReferences)
+					.build();
+			case CBOR -> CBORFactory.builder()
+					.configure(CBORGenerator.Feature.STRINGREF, backReferences)
+					.build();
+		};
+	}
+
+	/** Content-Type de la respuesta de {@code serve}; el charset solo en los de texto. */
+	public String mediaType(Charset cs) {
+		return switch (this) {
+			case JSON -> "application/json; charset=" + cs.name();
+			case NDJSON -> "application/x-ndjson; charset=" + cs.name();
+			case SMILE -> "application/x-jackson-smile";
+			case CBOR -> "application/cbor";
+		};
+	}
+
+	/** Extensión de los ficheros de salida del modo lote. */
+	public String extension() {
+		return "." + name().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,381 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import dev.silvericarus.csv.CsvChunker;
+import dev.silvericarus.csv.MappedCsvTokenizer;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * CSV -> JSON repartido por trozos de bytes entre varios hilos.
+ *
+ * - {@link CsvChunker} parte el fichero en límites de registro seguros.
+ * - Cada trozo se convierte en un buffer propio con la misma cabecera,
+ *   schema e inferencia que el camino secuencial.
+ * - El hilo llamador escribe los buffers en orden, con los mismos
+ *   separadores que pondría el generador secuencial (se obtienen
+ *   "sondeando" un generador configurado igual), y corta en --limit.
+ *
+ * Si un trozo no se puede parsear (p. ej. una comilla suelta ha desplazado
+ * los cortes) {@link #run} devuelve false y el llamador repite la
+ * conversión por el camino secuencial.
+ */
+final class ParallelConverter {
+	private static final long MIN_CHUNK = 1L << 20;
+	private static final long MAX_CHUNK = 16L << 20;
+	private static final String MARK = "#";
+
+	private ParallelConverter() {}
+
+	static boolean supports(Path in, ConvertOptions o) throws IOException {
+		if (o.threads() <= 1) return false;
+		// Los trozos se cosen como texto; Smile y CBOR van en secuencial.
+		if (o.format().binary()) return false;
+		// Los tipos bloqueados dependen del orden de las filas: el modo adaptativo va en secuencial.
+		if (o.adaptiveTypes()) return false;
+		if (!asciiCompatible(o.charset()) || o.quote() > 0x7F) return false;
+		if (!Files.isRegularFile(in)) return false;
+		return Files.size(in) > chunkSize(Files.size(in), o);
+	}
+
+	static boolean run(Path in, Path out, ConvertOptions o) throws IOException, SchemaMismatchException {
+		Charset cs = o.charset();
+		Schema schema = o.schema();
+		long max = (o.limit() == null) ? Long.MAX_VALUE : Math.max(1, o.limit());
+
+		List<String> csvHeader = o.header() ? readHeader(in, cs, o.delimeter(), o.quote()) : null;
+		List<String> names = Converter.resolveEffectiveColumnsNames(csvHeader, o.noHeader(), schema);
+
+		JsonFactory jf = new JsonFactory();
+		Framing fr = Framing.probe(jf, o);
+
+		ExecutorService pool = Executors.newFixedThreadPool(o.threads(),
+				Thread.ofPlatform().name("csv2json-chunk-", 0).daemon().factory());
+
+		try (FileChannel ch = FileChannel.open(in, StandardOpenOption.READ);
+		     OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16);
+		     RowErrors errors = RowErrors.open(o, names)) {
+
+			Converter.checkRequiredColumns(csvHeader, schema);
+			RowFilter filter = RowFilter.of(o.where(), names);
+			// Un nombre mal escrito en --select falla aquí y no una vez por trozo.
+			ColumnPlan.selection(names, o.select());
+
+			long size = ch.size();
+			long[] cuts = CsvChunker.split(ch, 0, size, chunkSize(size, o), (byte) o.quote(), pool);
+			int n = cuts.length - 1;
+			int window = o.threads() * 2;
+
+			List<Future<Chunk>> pending = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) pending.add(null);
+			for (int i = 0; i < Math.min(n, window); i++) pending.set(i, submit(pool, ch, cuts, i, o, names, fr.sep(), max, errors, filter));
+
+			long written = 0;
+			long recordBase = o.header() ? 1 : 0;
+			// Si hay que repetir en secuencial, lo medido aquí no cuenta.
+			ConvertStats stats = (o.stats() != null) ? new ConvertStats() : null;
+			boolean first = true;
+			for (int i = 0; i < n && written < max; i++) {
+				Chunk c = await(pending.get(i));
+				pending.set(i, null);
+				if (i + window < n) pending.set(i + window, submit(pool, ch, cuts, i + window, o, names, fr.sep(), max, errors, filter));
+
+				if (c.parseError != null) return false;
+
+				int take = (int) Math.min(c.count, max - written);
+				if (take > 0) {
+					os.write(first ? fr.open() : fr.sep());
+					os.write(c.buf.array(), 0, c.ends[take - 1]);
+					first = false;
+					written += take;
+					if (o.rowCounter() != null) o.rowCounter().add(take);
+				}
+				// Con --limit el trozo puede haber seguido tras la última fila que se toma:
+				// el secuencial no llega a leer eso, así que ni sus errores ni sus registros cuentan.
+				boolean cut = take < c.count;
+				if (stats != null) stats.merge(c.stats, cut ? c.reads[take - 1] : c.count + c.dropped, take);
+				if (c.errors != null) errors.merge(c.errors, (i == 0) ? 0 : recordBase, cut ? c.records[take - 1] : Long.MAX_VALUE);
+				if (c.mismatch != null && take == c.count) {
+					throw (i == 0) ? c.mismatch : c.mismatch.shifted(recordBase);
+				}
+				recordBase += c.count + c.dropped;
+			}
+			os.write(first ? fr.empty() : fr.close());
+			if (stats != null) o.stats().merge(stats, stats.recordsIn(), stats.recordsOut());
+			if (errors != null) errors.done();
+			return true;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static Future<Chunk> submit(ExecutorService pool, FileChannel ch, long[] cuts, int i,
+	                                    ConvertOptions o, List<String> names, byte[] sep, long max, RowErrors errors,
+	                                    RowFilter filter) {
+		long start = cuts[i], end = cuts[i + 1];
+		boolean withHeader = (i == 0) && o.header();
+		return pool.submit(() -> convertChunk(ch, start, end, withHeader, o, names, sep, max, errors, filter));
+	}
+
+	private static Chunk convertChunk(FileChannel ch, long start, long end, boolean withHeader,
+	                                  ConvertOptions o, List<String> names, byte[] sep, long max, RowErrors errors,
+	                                  RowFilter filter) {
+		Chunk c = new Chunk();
+		if (o.stats() != null) c.stats = new ConvertStats();
+		if (errors != null) c.errors = errors.forChunk();
+		JsonFactory jf = new JsonFactory();
+		jf.setRootValueSeparator(null);
+
+		try {
+			if (!o.commonsCsv() && MappedConverter.isUtf8(o.charset())) {
+				convertMapped(jf, ch, start, end, withHeader, o, names, sep, max, filter, c);
+			} else {
+				convertCommons(jf, ch, start, end, withHeader, o, names, sep, max, filter, c);
+			}
+		} catch (Converter.RowMismatch m) {
+			c.mismatch = m;
+		} catch (SchemaMismatchException | IOException | UncheckedIOException e) {
+			c.parseError = e;
+		}
+		return c;
+	}
+
+	private static void convertCommons(JsonFactory jf, FileChannel ch, long start, long end, boolean withHeader,
+	                                   ConvertOptions o, List<String> names, byte[] sep, long max, RowFilter filter,
+	                                   Chunk c) throws IOException, SchemaMismatchException {
+		CSVFormat fmt = Converter.csvFormat(o.delimeter(), o.quote(), withHeader);
+		ColumnPlan plan = ColumnPlan.of(names, o, false, c.errors);
+		try (Reader r = new BufferedReader(new InputStreamReader(new RangeInputStream(ch, start, end), o.charset()), 1 << 16);
+		     CSVParser parser = new CSVParser(r, fmt);
+		     JsonGenerator gen = jf.createGenerator(new OutputStreamWriter(c.buf, o.charset()))) {
+
+			configure(gen, o);
+			ConvertStats stats = c.stats;
+			long t0 = (stats != null) ? System.nanoTime() : 0;
+			for (CSVRecord rec : parser) {
+				if (filter != null && !filter.keeps(rec)) {
+					c.dropped++;
+					continue;
+				}
+				long t1 = (stats != null) ? System.nanoTime() : 0;
+				long record = Converter.recordNumber(rec, withHeader);
+				int before = c.buf.size();
+				if (c.count > 0) c.buf.write(sep);
+				try {
+					Converter.writeObjectFromRecord(gen, rec, record, plan, null);
+				} catch (Converter.RowMismatch m) {
+					dropRow(gen, c, before, m, rec.toList());
+					continue;
+				}
+				gen.flush();
+				c.recordEnd(c.buf.size(), record);
+				if (stats != null) {
+					if (stats.row(t1 - t0, System.nanoTime() - t1)) stats.inferSample(Converter.inferNanos(rec, plan, null));
+					t0 = System.nanoTime();
+				}
+				if (c.count >= max) break;
+			}
+			if (stats != null) stats.columns(plan);
+		}
+	}
+
+	private static void convertMapped(JsonFactory jf, FileChannel ch, long start, long end, boolean withHeader,
+	                                  ConvertOptions o, List<String> names, byte[] sep, long max, RowFilter filter,
+	                                  Chunk c) throws IOException, SchemaMismatchException {
+		try (MappedCsvTokenizer tok = new MappedCsvTokenizer(ch, start, end, o.delimeter(), o.quote());
+		     JsonGenerator gen = jf.createGenerator(c.buf, JsonEncoding.UTF8)) {
+
+			configure(gen, o);
+			if (withHeader) tok.next();
+			ColumnPlan plan = ColumnPlan.of(names, o, false, c.errors);
+			MappedConverter.Scratch scratch = new MappedConverter.Scratch();
+			ConvertStats stats = c.stats;
+			long t0 = (stats != null) ? System.nanoTime() : 0;
+			while (tok.next()) {
+				if (filter != null && !filter.keeps(tok, scratch)) {
+					c.dropped++;
+					continue;
+				}
+				long t1 = (stats != null) ? System.nanoTime() : 0;
+				int before = c.buf.size();
+				if (c.count > 0) c.buf.write(sep);
+				try {
+					MappedConverter.writeObject(gen, tok, plan, null, scratch);
+				} catch (Converter.RowMismatch m) {
+					dropRow(gen, c, before, m, MappedConverter.fields(tok));
+					continue;
+				}
+				gen.flush();
+				c.recordEnd(c.buf.size(), tok.recordNumber());
+				if (stats != null) {
+					if (stats.row(t1 - t0, System.nanoTime() - t1)) stats.inferSample(MappedConverter.inferNanos(tok, plan, null, scratch));
+					t0 = System.nanoTime();
+				}
+				if (c.count >= max) break;
+			}
+			if (stats != null) stats.columns(plan);
+		}
+	}
+
+	/**
+	 * --on-error skip/reject dentro de un trozo: cierra el objeto a medias
+	 * (el error salta antes de escribir el nombre del campo) y recorta el
+	 * buffer a antes del separador. Sin política, el error sigue su curso.
+	 */
+	private static void dropRow(JsonGenerator gen, Chunk c, int before, Converter.RowMismatch m,
+	                            List<String> fields) throws IOException, SchemaMismatchException {
+		if (c.errors == null || !c.errors.dropsRows()) throw m;
+		gen.writeEndObject();
+		gen.flush();
+		c.buf.truncate(before);
+		c.dropped++;
+		c.errors.row(m, fields);
+	}
+
+	private static void configure(JsonGenerator gen, ConvertOptions o) {
+		if (!o.ndjson() && o.pretty()) {
+			gen.setPrettyPrinter(new DefaultPrettyPrinter().withRootSeparator((SerializableString) null));
+		}
+	}
+
+	private static List<String> readHeader(Path in, Charset cs, char delimeter, char quote) throws IOException {
+		try (Reader r = Files.newBufferedReader(in, cs);
+		     CSVParser p = new CSVParser(r, Converter.csvFormat(delimeter, quote, true))) {
+			return p.getHeaderNames();
+		}
+	}
+
+	static long chunkSize(long size, ConvertOptions o) {
+		if (o.chunkBytes() > 0) return o.chunkBytes();
+		long target = size / (o.threads() * 4L);
+		return Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, target));
+	}
+
+	static boolean asciiCompatible(Charset cs) {
+		byte[] probe = "\n\",;|\t".getBytes(cs);
+		return Arrays.equals(probe, "\n\",;|\t".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static Chunk await(Future<Chunk> f) throws IOException {
+		try {
+			return f.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Conversión interrumpida");
+		} catch (ExecutionException ee) {
+			Throwable c = ee.getCause();
+			if (c instanceof IOException io) throw io;
+			if (c instanceof RuntimeException re) throw re;
+			throw new IOException(c);
+		}
+	}
+
+	private static final class Chunk {
+		final Buf buf = new Buf();
+		int count;
+		int[] ends = new int[64];
+		/** Por fila escrita: su número de registro en el trozo y los registros leídos hasta ella, incluida. */
+		long[] records = new long[64];
+		int[] reads = new int[64];
+		Converter.RowMismatch mismatch;
+		Exception parseError;
+		/** Métricas del trozo con --stats; null si no se mide. */
+		ConvertStats stats;
+		/** Errores del trozo con --on-error; null sin política. */
+		RowErrors errors;
+		/** Registros leídos pero no escritos (--where, --on-error skip/reject). */
+		int dropped;
+
+		void recordEnd(int offset, long record) {
+			if (count == ends.length) {
+				ends = Arrays.copyOf(ends, count * 2);
+				records = Arrays.copyOf(records, count * 2);
+				reads = Arrays.copyOf(reads, count * 2);
+			}
+			records[count] = record;
+			reads[count] = count + dropped + 1;
+			ends[count++] = offset;
+		}
+	}
+
+	/** Separadores que el generador secuencial escribe alrededor y entre objetos. */
+	private record Framing(byte[] open, byte[] sep, byte[] close, byte[] empty) {
+		static Framing probe(JsonFactory jf, ConvertOptions o) throws IOException {
+			Charset cs = o.charset();
+			String one = render(jf, o, 1), two = render(jf, o, 2);
+			int m1 = one.indexOf(MARK);
+			int m2 = two.indexOf(MARK, m1 + MARK.length());
+			return new Framing(
+					one.substring(0, m1).getBytes(cs),
+					two.substring(m1 + MARK.length(), m2).getBytes(cs),
+					one.substring(m1 + MARK.length()).getBytes(cs),
+					render(jf, o, 0).getBytes(cs));
+		}
+
+		private static String render(JsonFactory jf, ConvertOptions o, int values) throws IOException {
+			StringWriter sw = new StringWriter();
+			try (JsonGenerator gen = jf.createGenerator(sw)) {
+				if (!o.ndjson() && o.pretty()) gen.useDefaultPrettyPrinter();
+				if (!o.ndjson()) gen.writeStartArray();
+				for (int i = 0; i < values; i++) {
+					gen.writeRawValue(MARK);
+					if (o.ndjson()) gen.writeRaw('\n');
+				}
+				if (!o.ndjson()) gen.writeEndArray();
+			}
+			return sw.toString();
+		}
+	}
+
+	private static final class Buf extends ByteArrayOutputStream {
+		Buf() { super(1 << 16); }
+		byte[] array() { return buf; }
+		void truncate(int n) { count = n; }
+	}
+
+	/** Lee [start, end) de un canal compartido con lecturas posicionales. */
+	private static final class RangeInputStream extends InputStream {
+		private final FileChannel ch;
+		private final long end;
+		private long pos;
+
+		RangeInputStream(FileChannel ch, long start, long end) {
+			this.ch = ch;
+			this.pos = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : (one[0] & 0xFF);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (pos >= end) return -1;
+			int n = (int) Math.min(len, end - pos);
+			int r = ch.read(ByteBuffer.wrap(b, off, n), pos);
+			if (r > 0) pos += r;
+			return r;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Perfil de un CSV ({@link Profiler}): filas y, por columna, lo que se
+ * sabe de sus valores sin haberlos guardado.
+ *
+ * @param header  nombres de la cabecera (o del schema); null sin ellos. Las
+ *                columnas de más en alguna fila se llaman colN
+ * @param records filas de datos, sin la cabecera
+ * @param columns en el orden del fichero
+ */
+public record Profile(List<String> header, long records, List<Column> columns) {
+	/** Valor frecuente con su nº de apariciones estimado (nunca por debajo del real). */
+	public record Value(String value, long count) {}
+
+	/**
+	 * @param type     tipo que cubre todos los valores (la regla de
+	 *                 {@link ColumnTypeLock#widen}); null si no tiene ninguno
+	 * @param types    celdas con valor de cada tipo, según {@link TypeInference#classify}
+	 * @param nulls    celdas vacías o que faltan
+	 * @param blanks   celdas con solo espacios (entre comillas)
+	 * @param nullRate (nulls + blanks) / filas
+	 * @param min      mínimo: numérico si {@code type} es un número, si no el
+	 *                 primero en orden de bytes UTF-8; null sin valores
+	 * @param distinct valores distintos, aproximado (HyperLogLog)
+	 * @param top      los más frecuentes, de más a menos (Count-Min)
+	 */
+	public record Column(String name, ColumnType type, Map<ColumnType, Long> types, long nulls, long blanks, double nullRate,
+	                     String min, String max, long distinct, List<Value> top) {}
+
+	/**
+	 * Schema listo para {@code csv2json --schema}, como el de --infer-schema-out:
+	 * la cabecera como columnas requeridas y el tipo de las que tienen valores.
+	 */
+	public Schema schema() {
+		Map<String, ColumnType> types = new LinkedHashMap<>();
+		for (Column c : columns) {
+			if (c.type() != null) types.put(c.name(), c.type());
+		}
+		return Schema.of(header, types);
+	}
+
+	public void save(Path path) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			write(out);
+		}
+	}
+
+	/** El perfil como JSON con sangría; no cierra {@code out}. */
+	public void write(OutputStream out) throws IOException {
+		ObjectMapper om = new ObjectMapper();
+		ObjectNode root = om.createObjectNode();
+		root.put("records", records);
+		ArrayNode cols = root.putArray("columns");
+		for (Column c : columns) {
+			ObjectNode n = cols.addObject();
+			n.put("name", c.name());
+			n.put("type", (c.type() == null) ? null : name(c.type()));
+			ObjectNode types = n.putObject("types");
+			c.types().forEach((t, count) -> types.put(name(t), count));
+			n.put("nulls", c.nulls());
+			n.put("blanks", c.blanks());
+			n.put("nullRate", c.nullRate());
+			n.put("min", c.min());
+			n.put("max", c.max());
+			n.put("distinct", c.distinct());
+			ArrayNode top = n.putArray("top");
+			for (Value v : c.top()) top.addObject().put("value", v.value()).put("count", v.count());
+		}
+		om.writerWithDefaultPrettyPrinter().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, root);
+	}
+
+	private static String name(ColumnType t) {
+		return t.name().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,182 @@
+package dev.silvericarus.core;
+
+import dev.silvericarus.csv.CsvChunker;
+import dev.silvericarus.csv.CsvSniffer;
+import dev.silvericarus.csv.MappedCsvTokenizer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perfil por columna de un CSV ({@code converter profile}) en una pasada y
+ * con memoria fija: tipos, nulos y blancos, mínimo y máximo, distintos y
+ * más frecuentes ({@link ColumnSketch}).
+ *
+ * El fichero se parte como en {@link ParallelConverter} ({@link CsvChunker}
+ * y --threads) y cada trozo se recorre con
+ * {@link MappedCsvTokenizer} sin un String por celda. Los sketches de los trozos
+ * se van sumando en orden según terminan, con como mucho 2·hilos trozos en
+ * vuelo, así que la memoria depende de hilos y columnas, no del tamaño del
+ * fichero. Si un trozo no se puede leer (una comilla suelta ha movido los
+ * cortes) se repite todo en un solo trozo, como hace el conversor.
+ *
+ * Necesita una codificación compatible con ASCII (UTF-8, ISO-8859-x...).
+ */
+public final class Profiler {
+	private Profiler() {}
+
+	/** Filas y sketches de un trozo, por columna. */
+	private record Chunk(long records, ColumnSketch[] columns) {}
+
+	/**
+	 * Usa de {@code o}: delimitador, comilla, cabecera (y --no-header/schema
+	 * para los nombres, como csv2json), codificación, hilos, tamaño de trozo y --detect-dates.
+	 */
+	public static Profile profile(Path in, ConvertOptions o, int topK) throws IOException {
+		if (!ParallelConverter.asciiCompatible(o.charset())) {
+			throw new IllegalArgumentException("profile necesita una codificación compatible con ASCII: " + o.charset().name());
+		}
+		try (FileChannel ch = FileChannel.open(in, StandardOpenOption.READ)) {
+			long size = ch.size();
+			long from = bomLength(ch);
+
+			List<String> csvHeader = null;
+			if (o.header()) {
+				try (MappedCsvTokenizer tok = new MappedCsvTokenizer(ch, from, size, o.delimeter(), o.quote())) {
+					if (tok.next()) {
+						csvHeader = new ArrayList<>(tok.size());
+						for (int i = 0; i < tok.size(); i++) csvHeader.add(tok.string(i, o.charset()));
+					}
+				}
+			}
+			List<String> names = Converter.resolveEffectiveColumnsNames(csvHeader, o.noHeader(), o.schema());
+			int width = (names == null) ? 0 : names.size();
+
+			Chunk total = (o.threads() > 1) ? parallel(ch, from, size, o, width, topK) : null;
+			if (total == null) total = scan(ch, from, size, o.header(), o, width, topK);
+
+			List<Profile.Column> columns = new ArrayList<>(total.columns().length);
+			for (int i = 0; i < total.columns().length; i++) {
+				String name = (names != null && i < names.size()) ? names.get(i) : "col" + i;
+				columns.add(total.columns()[i].result(name, total.records(), topK));
+			}
+			return new Profile(names, total.records(), columns);
+		}
+	}
+
+	/** Por trozos en paralelo; null si alguno no se puede leer y hay que hacerlo en uno. */
+	private static Chunk parallel(FileChannel ch, long from, long size, ConvertOptions o, int width, int topK) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(o.threads(),
+				Thread.ofPlatform().name("csv2json-profile-", 0).daemon().factory());
+		try {
+			long[] cuts = CsvChunker.split(ch, from, size, ParallelConverter.chunkSize(size - from, o), (byte) o.quote(), pool);
+			int n = cuts.length - 1;
+			int window = o.threads() * 2;
+			List<Future<Chunk>> pending = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) pending.add(null);
+			for (int i = 0; i < Math.min(n, window); i++) pending.set(i, submit(pool, ch, cuts, i, o, width, topK));
+
+			Chunk total = null;
+			for (int i = 0; i < n; i++) {
+				Chunk c;
+				try {
+					c = pending.get(i).get();
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Perfil interrumpido");
+				} catch (ExecutionException ee) {
+					if (ee.getCause() instanceof IOException) return null;
+					if (ee.getCause() instanceof RuntimeException re) throw re;
+					throw new IOException(ee.getCause());
+				}
+				pending.set(i, null);
+				if (i + window < n) pending.set(i + window, submit(pool, ch, cuts, i + window, o, width, topK));
+				total = (total == null) ? c : merge(total, c);
+			}
+			return total;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static Future<Chunk> submit(ExecutorService pool, FileChannel ch, long[] cuts, int i,
+	                                    ConvertOptions o, int width, int topK) {
+		long start = cuts[i], end = cuts[i + 1];
+		boolean withHeader = (i == 0) && o.header();
+		return pool.submit(() -> scan(ch, start, end, withHeader, o, width, topK));
+	}
+
+	/** Recorre [start, end); con {@code withHeader} se salta el primer registro. */
+	private static Chunk scan(FileChannel ch, long start, long end, boolean withHeader,
+	                          ConvertOptions o, int width, int topK) throws IOException {
+		ColumnSketch[] cols = new ColumnSketch[width];
+		for (int i = 0; i < width; i++) cols[i] = new ColumnSketch(topK, o.charset(), o.detectDates());
+		byte[] b = new byte[256];
+		ByteChars text = new ByteChars();
+		long records = 0;
+
+		try (MappedCsvTokenizer tok = new MappedCsvTokenizer(ch, start, end, o.delimeter(), o.quote())) {
+			if (withHeader) tok.next();
+			while (tok.next()) {
+				int n = tok.size();
+				if (n > cols.length) {
+					int old = cols.length;
+					cols = Arrays.copyOf(cols, n);
+					for (int i = old; i < n; i++) {
+						cols[i] = new ColumnSketch(topK, o.charset(), o.detectDates());
+						// Las filas anteriores no llegaban hasta aquí.
+						cols[i].addNulls(records);
+					}
+				}
+				for (int i = 0; i < n; i++) {
+					int len = tok.length(i);
+					if (len == 0) {
+						cols[i].addNull();
+						continue;
+					}
+					if (len > b.length) b = new byte[Math.max(len, b.length * 2)];
+					cols[i].add(b, tok.copy(i, b), text);
+				}
+				for (int i = n; i < cols.length; i++) cols[i].addNull();
+				records++;
+			}
+		}
+		return new Chunk(records, cols);
+	}
+
+	/** Suma b a a; las columnas que solo tiene uno cuentan como nulas en las filas del otro. */
+	private static Chunk merge(Chunk a, Chunk b) {
+		ColumnSketch[] cols = a.columns();
+		if (b.columns().length > cols.length) {
+			int old = cols.length;
+			cols = Arrays.copyOf(cols, b.columns().length);
+			for (int i = old; i < cols.length; i++) {
+				cols[i] = b.columns()[i];
+				cols[i].addNulls(a.records());
+			}
+		}
+		for (int i = 0; i < cols.length; i++) {
+			if (i >= b.columns().length) cols[i].addNulls(b.records());
+			else if (cols[i] != b.columns()[i]) cols[i].merge(b.columns()[i]);
+		}
+		return new Chunk(a.records() + b.records(), cols);
+	}
+
+	/** 3 si el fichero empieza por el BOM de UTF-8, 0 si no. */
+	private static long bomLength(FileChannel ch) throws IOException {
+		ByteBuffer bb = ByteBuffer.allocate(3);
+		int n = Math.max(0, ch.read(bb, 0));
+		return (CsvSniffer.bomLength(bb.array(), n) == 3) ? 3 : 0;
+	}
+}
@@ -0,0 +1,228 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Generador que puede deshacer la fila en curso, para --on-error skip y
+ * reject en los caminos secuenciales.
+ *
+ * Escribe en un buffer propio que solo baja al destino hasta la última
+ * marca ({@link #mark}, al empezar cada fila); {@link #rewind()} recorta
+ * el buffer a la marca y cambia el generador por uno nuevo. Como en
+ * {@link Checkpointer}, al nuevo se le hace escribir el "[" y un null de
+ * relleno sin que lleguen a la salida, así pone la coma, el separador de
+ * NDJSON y la sangría igual que si la fila no hubiera existido.
+ *
+ * Una fila buena solo paga la marca: sumar dos contadores.
+ */
+final class RewindableGenerator extends RowGenerator {
+	private final Factory factory;
+	private final Target target;
+	private final boolean array;
+	private long mark;
+	private int entries;
+
+	private interface Factory {
+		JsonGenerator create() throws IOException;
+	}
+
+	private RewindableGenerator(JsonGenerator first, Factory factory, Target target, ConvertOptions o) {
+		super(first);
+		this.factory = factory;
+		this.target = target;
+		this.array = !o.ndjson();
+	}
+
+	static RewindableGenerator of(JsonFactory jf, OutputStream out, ConvertOptions o) throws IOException {
+		Bytes b = new Bytes(out);
+		Factory f = () -> jf.createGenerator(b, JsonEncoding.UTF8);
+		return new RewindableGenerator(f.create(), f, b, o);
+	}
+
+	static RewindableGenerator of(JsonFactory jf, Writer out, ConvertOptions o) throws IOException {
+		Chars c = new Chars(out);
+		Factory f = () -> jf.createGenerator(c);
+		return new RewindableGenerator(f.create(), f, c, o);
+	}
+
+	@Override
+	void mark(long record) {
+		mark = target.size() + delegate.getOutputBuffered();
+		entries = delegate.getOutputContext().getEntryCount();
+		target.mark(mark);
+	}
+
+	/** Incluye lo retenido en el buffer propio, que aún no ha bajado al destino. */
+	@Override
+	public int getOutputBuffered() {
+		return target.buffered() + delegate.getOutputBuffered();
+	}
+
+	/** Recorta a la marca y deja el generador como estaba entonces. */
+	@Override
+	void rewind() throws IOException {
+		JsonGenerator old = delegate;
+		target.hold(true);
+		try {
+			old.flush();
+			target.truncate(mark);
+
+			JsonGenerator fresh = factory.create();
+			if (old.getPrettyPrinter() != null) fresh.useDefaultPrettyPrinter();
+			target.discard(true);
+			if (array) fresh.writeStartArray();
+			if (entries > 0) fresh.writeNull();
+			fresh.flush();
+			delegate = fresh;
+		} finally {
+			target.discard(false);
+			target.hold(false);
+		}
+	}
+
+	/** Buffer entre el generador y el destino. */
+	private interface Target {
+		long size();
+		/** Lo escrito que aún no ha bajado al destino. */
+		int buffered();
+		void mark(long pos);
+		void truncate(long pos);
+		/** Mientras hold, flush() no baja nada al destino. */
+		void hold(boolean b);
+		/** Mientras discard, lo que se escribe se tira. */
+		void discard(boolean b);
+	}
+
+	private static final class Bytes extends OutputStream implements Target {
+		private final OutputStream out;
+		private byte[] buf = new byte[1 << 16];
+		private int len;
+		/** Posición absoluta de buf[0]. */
+		private long base;
+		private long mark;
+		private boolean hold, discard;
+
+		Bytes(OutputStream out) { this.out = out; }
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int n) throws IOException {
+			if (discard) return;
+			if (len + n > buf.length) {
+				// Baja lo que ya es firme y, si no basta, crece.
+				drain();
+				if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(len + n, buf.length * 2));
+			}
+			System.arraycopy(b, off, buf, len, n);
+			len += n;
+			if (len == buf.length) drain();
+		}
+
+		/**
+		 * Baja al destino hasta la marca. La marca cuenta también lo que
+		 * Jackson aún retiene en su propio buffer, así que puede ir por
+		 * delante de lo recibido: entonces todo lo que hay es firme.
+		 */
+		private void drain() throws IOException {
+			int keep = (int) Math.min(mark - base, len);
+			if (keep <= 0) return;
+			out.write(buf, 0, keep);
+			System.arraycopy(buf, keep, buf, 0, len - keep);
+			len -= keep;
+			base += keep;
+		}
+
+		/** El generador solo se vuelca tras filas enteras: todo lo que hay es firme. */
+		@Override
+		public void flush() throws IOException {
+			if (hold) return;
+			out.write(buf, 0, len);
+			base += len;
+			len = 0;
+			mark = base;
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			hold = false;
+			flush();
+			out.close();
+		}
+
+		@Override public long size() { return base + len; }
+		@Override public int buffered() { return len; }
+		@Override public void mark(long pos) { mark = pos; }
+		@Override public void truncate(long pos) { len = (int) (pos - base); }
+		@Override public void hold(boolean b) { hold = b; }
+		@Override public void discard(boolean b) { discard = b; }
+	}
+
+	private static final class Chars extends Writer implements Target {
+		private final Writer out;
+		private char[] buf = new char[1 << 16];
+		private int len;
+		private long base;
+		private long mark;
+		private boolean hold, discard;
+
+		Chars(Writer out) { this.out = out; }
+
+		@Override
+		public void write(char[] b, int off, int n) throws IOException {
+			if (discard) return;
+			if (len + n > buf.length) {
+				drain();
+				if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(len + n, buf.length * 2));
+			}
+			System.arraycopy(b, off, buf, len, n);
+			len += n;
+			if (len == buf.length) drain();
+		}
+
+		/** Como {@link Bytes#drain()}. */
+		private void drain() throws IOException {
+			int keep = (int) Math.min(mark - base, len);
+			if (keep <= 0) return;
+			out.write(buf, 0, keep);
+			System.arraycopy(buf, keep, buf, 0, len - keep);
+			len -= keep;
+			base += keep;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (hold) return;
+			out.write(buf, 0, len);
+			base += len;
+			len = 0;
+			mark = base;
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			hold = false;
+			flush();
+			out.close();
+		}
+
+		@Override public long size() { return base + len; }
+		@Override public int buffered() { return len; }
+		@Override public void mark(long pos) { mark = pos; }
+		@Override public void truncate(long pos) { len = (int) (pos - base); }
+		@Override public void hold(boolean b) { hold = b; }
+		@Override public void discard(boolean b) { discard = b; }
+	}
+}
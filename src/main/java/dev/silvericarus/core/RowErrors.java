@@ -0,0 +1,113 @@
+package dev.silvericarus.core;
+
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lado de los conversores que aplica una {@link ErrorPolicy}: cuenta los
+ * errores, corta al pasar de --max-errors y escribe las filas rechazadas.
+ *
+ * El CSV de rechazados lleva "record,column,reason" y después los campos de
+ * la fila tal como venían. Los trozos de {@link ParallelConverter} llevan uno
+ * propio que solo acumula; el hilo llamador los junta en orden con
+ * {@link #merge}, renumerando los registros.
+ */
+final class RowErrors implements Closeable {
+	private final ErrorPolicy policy;
+	private final CSVPrinter rejects;
+	/** Errores de un trozo pendientes de {@link #merge}; null en el principal. */
+	private final List<Pending> pending;
+	private long count;
+
+	private record Pending(Converter.RowMismatch mismatch, List<String> fields) {}
+
+	private RowErrors(ErrorPolicy policy, CSVPrinter rejects, List<Pending> pending) {
+		this.policy = policy;
+		this.rejects = rejects;
+		this.pending = pending;
+	}
+
+	/** null sin política o con {@link ErrorPolicy.Action#FAIL}: el error se lanza tal cual. */
+	static RowErrors open(ConvertOptions o, List<String> names) throws IOException {
+		ErrorPolicy p = o.onError();
+		if (p == null || p.action() == ErrorPolicy.Action.FAIL) return null;
+		if (p.action() != ErrorPolicy.Action.REJECT) return new RowErrors(p, null, null);
+
+		if (p.rejects() == null) throw new IllegalArgumentException("--on-error reject necesita --rejects <fichero>");
+		CSVPrinter printer = new CSVPrinter(Files.newBufferedWriter(p.rejects(), o.charset()),
+				JsonToCsvConverter.csvFormat(o.delimeter()));
+		List<String> header = new ArrayList<>(List.of("record", "column", "reason"));
+		if (names != null) header.addAll(names);
+		printer.printRecord(header);
+		return new RowErrors(p, printer, null);
+	}
+
+	/** Acumulador para un trozo en paralelo. */
+	RowErrors forChunk() {
+		return new RowErrors(policy, null, new ArrayList<>());
+	}
+
+	/** SKIP o REJECT: la fila mala se deshace entera. */
+	boolean dropsRows() {
+		return policy.action() != ErrorPolicy.Action.NULL;
+	}
+
+	/** NULL: las celdas malas se escriben como null. */
+	boolean nullsCells() {
+		return policy.action() == ErrorPolicy.Action.NULL;
+	}
+
+	/** Celda anulada con {@link ErrorPolicy.Action#NULL}. */
+	void cell(Converter.RowMismatch m) throws IOException, SchemaMismatchException {
+		record(m, null);
+	}
+
+	/** Fila omitida; {@code fields} son sus campos tal como se leyeron. */
+	void row(Converter.RowMismatch m, List<String> fields) throws IOException, SchemaMismatchException {
+		record(m, (policy.action() == ErrorPolicy.Action.REJECT) ? fields : null);
+	}
+
+	/**
+	 * Junta los errores de un trozo hasta su registro {@code upTo} incluido
+	 * (lo que sigue quedó tras --limit); {@code offset} se suma a sus números de registro.
+	 */
+	void merge(RowErrors chunk, long offset, long upTo) throws IOException, SchemaMismatchException {
+		for (Pending e : chunk.pending) {
+			if (e.mismatch.recordNumber > upTo) break;
+			record((offset == 0) ? e.mismatch : e.mismatch.shifted(offset), e.fields);
+		}
+	}
+
+	private void record(Converter.RowMismatch m, List<String> fields) throws IOException, SchemaMismatchException {
+		if (pending != null) {
+			pending.add(new Pending(m, fields));
+			return;
+		}
+		if (++count > policy.maxErrors()) {
+			throw new SchemaMismatchException("Más de " + policy.maxErrors() + " errores (--max-errors); el último: "
+					+ m.getMessage());
+		}
+		if (rejects != null && fields != null) {
+			rejects.print(m.recordNumber);
+			rejects.print(m.colName);
+			rejects.print("valor '" + m.value + "' no compatible con tipo " + m.type);
+			for (String f : fields) rejects.print(f);
+			rejects.println();
+		}
+	}
+
+	/** La conversión ha terminado bien: los errores cuentan en la política. */
+	void done() {
+		policy.add(count);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (rejects != null) rejects.close();
+	}
+}
@@ -0,0 +1,177 @@
+package dev.silvericarus.core;
+
+import dev.silvericarus.csv.MappedCsvTokenizer;
+import org.apache.commons.csv.CSVRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro de filas de --where, evaluado sobre el texto crudo de cada campo
+ * antes de inferir o validar tipos: una fila descartada no pasa por
+ * {@link TypeInference} ni por el schema, y solo se miran las columnas que
+ * aparecen en alguna condición.
+ *
+ *   country=ES and age>=18
+ *   country in (ES, PT) and email is not null
+ *   name != 'García, Ana'
+ *
+ * Las condiciones se unen con "and". = y != comparan el texto tal cual
+ * (entre comillas simples caben espacios, comas y "and"); &lt; &lt;= &gt; &gt;=
+ * comparan como número y una celda que no lo es no cumple. Vacío o ausente
+ * es null: solo cumple "is null", nunca una comparación.
+ *
+ * Inmutable: se comparte entre los hilos de {@link ParallelConverter}.
+ */
+final class RowFilter {
+	enum Op { EQ, NE, IN, LT, LE, GT, GE, NULL, NOT_NULL }
+
+	private record Condition(int column, Op op, String[] text, byte[][] bytes, double number) {}
+
+	private static final Pattern AND = Pattern.compile("\\s+(?i:and)\\s+");
+	private static final Pattern COMMA = Pattern.compile(",");
+	private static final Pattern IS_NULL = Pattern.compile("(.+?)\\s+(?i:is)\\s+((?i:not)\\s+)?(?i:null)");
+	private static final Pattern IN = Pattern.compile("(.+?)\\s+(?i:in)\\s*\\((.*)\\)");
+	private static final Pattern COMPARE = Pattern.compile("(.+?)\\s*(!=|<=|>=|=|<|>)\\s*(.*)");
+
+	private final Condition[] conditions;
+
+	private RowFilter(Condition[] conditions) {
+		this.conditions = conditions;
+	}
+
+	/** null sin --where. Las columnas se buscan en {@code names} o como colN. */
+	static RowFilter of(String where, List<String> names) {
+		if (where == null || where.isBlank()) return null;
+		List<Condition> cs = new ArrayList<>();
+		for (String term : split(where.trim(), AND)) cs.add(parse(term.trim(), names));
+		return new RowFilter(cs.toArray(new Condition[0]));
+	}
+
+	private static Condition parse(String term, List<String> names) {
+		Matcher m = IS_NULL.matcher(term);
+		if (m.matches()) {
+			return new Condition(ColumnPlan.index(m.group(1), names, "--where"), m.group(2) == null ? Op.NULL : Op.NOT_NULL,
+					null, null, 0);
+		}
+		m = IN.matcher(term);
+		if (m.matches()) {
+			String[] values = split(m.group(2), COMMA).toArray(new String[0]);
+			for (int i = 0; i < values.length; i++) values[i] = unquote(values[i].trim());
+			return text(ColumnPlan.index(m.group(1), names, "--where"), Op.IN, values);
+		}
+		m = COMPARE.matcher(term);
+		if (!m.matches()) throw new IllegalArgumentException("--where: condición no reconocida: " + term);
+
+		int col = ColumnPlan.index(m.group(1), names, "--where");
+		String value = unquote(m.group(3).trim());
+		return switch (m.group(2)) {
+			case "=" -> text(col, Op.EQ, new String[]{value});
+			case "!=" -> text(col, Op.NE, new String[]{value});
+			default -> {
+				Op op = switch (m.group(2)) {
+					case "<" -> Op.LT;
+					case "<=" -> Op.LE;
+					case ">" -> Op.GT;
+					default -> Op.GE;
+				};
+				if (!TypeInference.fits(ColumnType.DOUBLE, value)) {
+					throw new IllegalArgumentException("--where: " + m.group(2) + " necesita un número: " + term);
+				}
+				yield new Condition(col, op, null, null, Double.parseDouble(value.trim()));
+			}
+		};
+	}
+
+	/** Como {@link Pattern#split}, pero sin cortar por un separador que cae dentro de comillas simples. */
+	private static List<String> split(String s, Pattern sep) {
+		List<String> parts = new ArrayList<>();
+		Matcher m = sep.matcher(s);
+		int from = 0, scanned = 0;
+		boolean quoted = false;
+		while (m.find()) {
+			for (; scanned < m.start(); scanned++) {
+				if (s.charAt(scanned) == '\'') quoted = !quoted;
+			}
+			if (quoted) continue;
+			parts.add(s.substring(from, m.start()));
+			from = m.end();
+		}
+		parts.add(s.substring(from));
+		return parts;
+	}
+
+	private static Condition text(int col, Op op, String[] values) {
+		byte[][] bytes = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+		return new Condition(col, op, values, bytes, 0);
+	}
+
+	private static String unquote(String s) {
+		if (s.length() >= 2 && s.charAt(0) == '\'' && s.charAt(s.length() - 1) == '\'') return s.substring(1, s.length() - 1);
+		return s;
+	}
+
+	boolean keeps(CSVRecord rec) {
+		for (Condition c : conditions) {
+			String s = (c.column < rec.size()) ? rec.get(c.column) : null;
+			if (!test(c, s)) return false;
+		}
+		return true;
+	}
+
+	private static boolean test(Condition c, String s) {
+		boolean isNull = s == null || s.isBlank();
+		return switch (c.op) {
+			case NULL -> isNull;
+			case NOT_NULL -> !isNull;
+			case EQ, IN -> !isNull && Arrays.asList(c.text).contains(s);
+			case NE -> !isNull && !c.text[0].equals(s);
+			default -> !isNull && compare(c, s);
+		};
+	}
+
+	/** Igual que {@link #keeps(CSVRecord)}, comparando los bytes del tokenizador sin crear Strings. */
+	boolean keeps(MappedCsvTokenizer tok, MappedConverter.Scratch scratch) {
+		for (Condition c : conditions) {
+			if (c.column >= tok.size()) {
+				if (c.op != Op.NULL) return false;
+				continue;
+			}
+			byte[] b = scratch.fit(tok.length(c.column));
+			int n = tok.copy(c.column, b);
+			boolean isNull = TypeInference.isBlank(b, 0, n);
+			boolean ok = switch (c.op) {
+				case NULL -> isNull;
+				case NOT_NULL -> !isNull;
+				case EQ, IN -> !isNull && anyEquals(c.bytes, b, n);
+				case NE -> !isNull && !Arrays.equals(c.bytes[0], 0, c.bytes[0].length, b, 0, n);
+				default -> !isNull && compare(c, scratch.text.wrap(b, 0, n));
+			};
+			if (!ok) return false;
+		}
+		return true;
+	}
+
+	private static boolean anyEquals(byte[][] values, byte[] b, int n) {
+		for (byte[] v : values) {
+			if (Arrays.equals(v, 0, v.length, b, 0, n)) return true;
+		}
+		return false;
+	}
+
+	private static boolean compare(Condition c, CharSequence s) {
+		if (!TypeInference.fits(ColumnType.DOUBLE, s)) return false;
+		double v = ColumnSketch.decimal(s);
+		return switch (c.op) {
+			case LT -> v < c.number;
+			case LE -> v <= c.number;
+			case GT -> v > c.number;
+			default -> v >= c.number;
+		};
+	}
+}
@@ -0,0 +1,24 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+
+import java.io.IOException;
+
+/**
+ * Generador con ganchos por fila para los bucles secuenciales de
+ * {@link Converter} y {@link MappedConverter}: {@link RewindableGenerator}
+ * (--on-error skip/reject) y {@link ShardingGenerator} (--split-rows/--split-bytes).
+ * Sin ninguno de los dos, los bucles usan el generador de Jackson tal cual.
+ */
+abstract class RowGenerator extends JsonGeneratorDelegate {
+	RowGenerator(JsonGenerator first) {
+		super(first, false);
+	}
+
+	/** Antes de empezar cada fila; {@code record} es su número de registro, con la cabecera. */
+	abstract void mark(long record) throws IOException;
+
+	/** Tira lo escrito desde el último {@link #mark}: la fila no ha existido. */
+	abstract void rewind() throws IOException;
+}
@@ -2,6 +2,7 @@ package dev.silvericarus.core;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -9,13 +10,23 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
+/**
+ * Columnas requeridas y tipos por columna para csv2json --schema:
+ *
+ *   {"columns": ["id", "alta"], "types": {"id": "long", "alta": "timestamp:epoch-millis"}}
+ *
+ * Las columnas date y timestamp admiten tras ':' cómo se escriben
+ * ({@link TemporalOutput}); sin él, ISO-8601 normalizado.
+ */
 public final class Schema {
 	private final List<String> columns;
 	private final Map<String, ColumnType> typesByName;
+	private final Map<String, TemporalOutput> outputsByName;
 
-	private Schema(List<String> columns, Map<String, ColumnType> typesByName) {
+	private Schema(List<String> columns, Map<String, ColumnType> typesByName, Map<String, TemporalOutput> outputsByName) {
 		this.columns = (columns == null) ? null : List.copyOf(columns);
-		this.typesByName = (typesByName == null) ? Map.of() : Map.copyOf(typesByName);
+		this.typesByName = (typesByName == null) ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(typesByName));
+		this.outputsByName = (outputsByName == null) ? Map.of() : Map.copyOf(outputsByName);
 	}
 
 	public static Schema load(Path path) throws IOException {
@@ -29,6 +40,7 @@ public final class Schema {
 		}
 
 		Map<String, ColumnType> map = new LinkedHashMap<>();
+		Map<String, TemporalOutput> outputs = new HashMap<>();
 		JsonNode typesNode = root.path("types");
 		if (!typesNode.isMissingNode()) {
 			if (!typesNode.isObject()) {
@@ -42,11 +54,45 @@ public final class Schema {
 				if (typeStr == null || typeStr.isBlank()) {
 					throw new IOException("Schema inválido: tipo vacío para columna '" + col + "'");
 				}
-				map.put(col, ColumnType.from(typeStr));
+				int colon = typeStr.indexOf(':');
+				ColumnType t = ColumnType.from((colon < 0) ? typeStr : typeStr.substring(0, colon));
+				if (colon >= 0) {
+					if (t != ColumnType.DATE && t != ColumnType.TIMESTAMP) {
+						throw new IOException("Schema inválido: solo date y timestamp admiten ':salida' (columna '" + col + "')");
+					}
+					outputs.put(col, TemporalOutput.from(typeStr.substring(colon + 1).trim()));
+				}
+				map.put(col, t);
 			}
 		}
 
-		return new Schema(cols, map);
+		return new Schema(cols, map, outputs);
+	}
+
+	public static Schema of(List<String> columns, Map<String, ColumnType> typesByName) {
+		return new Schema(columns, typesByName, null);
+	}
+
+	/** Como {@link #of(List, Map)}, con la salida de algunas columnas date/timestamp. */
+	public static Schema of(List<String> columns, Map<String, ColumnType> typesByName,
+	                        Map<String, TemporalOutput> outputsByName) {
+		return new Schema(columns, typesByName, outputsByName);
+	}
+
+	/** Escribe el schema con el mismo formato que lee {@link #load}. */
+	public void save(Path path) throws IOException {
+		ObjectMapper om = new ObjectMapper();
+		ObjectNode root = om.createObjectNode();
+		if (columns != null) {
+			columns.forEach(root.putArray("columns")::add);
+		}
+		ObjectNode types = root.putObject("types");
+		typesByName.forEach((col, t) -> {
+			String name = t.name().toLowerCase(Locale.ROOT);
+			TemporalOutput out = outputsByName.get(col);
+			types.put(col, (out == null) ? name : name + ":" + out.label());
+		});
+		om.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), root);
 	}
 
 	public List<String> getColumns() { return columns; }
@@ -54,6 +100,11 @@ public final class Schema {
 
 	public ColumnType typeOf(String colName) { return (colName == null) ? null : typesByName.get(colName); }
 
+	/** Salida de una columna date/timestamp; ISO si el schema no dice otra cosa. */
+	public TemporalOutput outputOf(String colName) {
+		return (colName == null) ? TemporalOutput.ISO : outputsByName.getOrDefault(colName, TemporalOutput.ISO);
+	}
+
 	public boolean hasColumns() { return columns != null && !columns.isEmpty(); }
 	public boolean hasTypes() { return !typesByName.isEmpty(); }
 }
@@ -0,0 +1,100 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Manifiesto de una salida partida (--split-rows/--split-bytes): qué
+ * ficheros hay, en orden, y qué registros y cuántos bytes lleva cada uno.
+ *
+ * Los ficheros salen del patrón de --out: "{n}" se cambia por el número
+ * de shard con cinco cifras (datos-{n}.ndjson -> datos-00000.ndjson); sin
+ * "{n}", el número va antes de la extensión. El manifiesto va al lado, con
+ * "manifest" en lugar del número y extensión .json.
+ *
+ * @param format  "array", "array-pretty" o "ndjson", como en {@link Checkpoint};
+ *                "smile", "cbor", "smile-seq" o "cbor-seq" con --format binario
+ * @param records filas escritas entre todos los shards
+ * @param shards  en orden; cada uno es un JSON (o NDJSON) completo
+ */
+public record ShardManifest(String format, long records, List<Shard> shards) {
+	static final String N = "{n}";
+
+	/**
+	 * @param file        nombre del fichero, en el directorio del manifiesto
+	 * @param firstRecord nº de registro de la primera fila, con la cabecera
+	 *                    (como commons-csv); -1 si el shard está vacío
+	 * @param lastRecord  nº de registro de la última fila; -1 si está vacío
+	 * @param records     filas del shard
+	 * @param bytes       tamaño del fichero
+	 */
+	public record Shard(String file, long firstRecord, long lastRecord, long records, long bytes) {}
+
+	/** Fichero del shard {@code n} según el patrón de --out. */
+	public static Path shardPath(Path pattern, int n) {
+		return fill(pattern, String.format(Locale.ROOT, "%05d", n), null);
+	}
+
+	/** Dónde va el manifiesto de un patrón de --out. */
+	public static Path manifestPath(Path pattern) {
+		return fill(pattern, "manifest", ".json");
+	}
+
+	private static Path fill(Path pattern, String n, String ext) {
+		String name = pattern.getFileName().toString();
+		if (!name.contains(N)) {
+			int dot = name.lastIndexOf('.');
+			name = (dot > 0) ? name.substring(0, dot) + "-" + N + name.substring(dot) : name + "-" + N;
+		}
+		name = name.replace(N, n);
+		if (ext != null) {
+			int dot = name.lastIndexOf('.');
+			name = ((dot > 0) ? name.substring(0, dot) : name) + ext;
+		}
+		return pattern.resolveSibling(name);
+	}
+
+	public static ShardManifest load(Path path) throws IOException {
+		JsonNode root = new ObjectMapper().readTree(path.toFile());
+		List<Shard> shards = new ArrayList<>();
+		for (JsonNode s : root.path("shards")) {
+			shards.add(new Shard(s.path("file").asText(), s.path("firstRecord").asLong(-1), s.path("lastRecord").asLong(-1),
+					s.path("records").asLong(), s.path("bytes").asLong()));
+		}
+		return new ShardManifest(root.path("format").asText(), root.path("records").asLong(), shards);
+	}
+
+	public void save(Path path) throws IOException {
+		ObjectMapper om = new ObjectMapper();
+		ObjectNode root = om.createObjectNode();
+		root.put("format", format);
+		root.put("records", records);
+		ArrayNode arr = root.putArray("shards");
+		for (Shard s : shards) {
+			ObjectNode n = arr.addObject();
+			n.put("file", s.file());
+			if (s.records() > 0) {
+				n.put("firstRecord", s.firstRecord());
+				n.put("lastRecord", s.lastRecord());
+			}
+			n.put("records", s.records());
+			n.put("bytes", s.bytes());
+		}
+		om.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), root);
+	}
+
+	/** Bytes entre todos los shards. */
+	public long bytes() {
+		long n = 0;
+		for (Shard s : shards) n += s.bytes();
+		return n;
+	}
+}
@@ -0,0 +1,174 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generador que reparte las filas en varios ficheros (--split-rows,
+ * --split-bytes). Al empezar una fila con el shard lleno, cierra el array
+ * del actual, lo pasa a un hilo aparte que lo vuelca y lo cierra, y sigue
+ * en un generador nuevo sobre el siguiente fichero: cada shard es un JSON
+ * (o NDJSON) completo, igual que si se hubiera convertido solo.
+ *
+ * Los bytes del shard son los que han llegado al fichero más los que el
+ * generador tiene aún en su buffer; el opener no debe meter otro buffer
+ * en medio, o el corte se retrasa lo que quepa en él. Un shard nunca se
+ * queda vacío por el límite de bytes: una fila más grande que él va sola.
+ *
+ * El manifiesto ({@link ShardManifest}) se escribe en {@link #finish()},
+ * cuando todos los shards están cerrados; si la conversión falla no hay
+ * manifiesto y los shards escritos se quedan como están.
+ */
+final class ShardingGenerator extends RowGenerator {
+	/** Generador de un shard sobre su fichero, sin buffer propio; puede ser un {@link RewindableGenerator}. */
+	interface Opener {
+		JsonGenerator open(OutputStream file) throws IOException;
+	}
+
+	private final Path pattern;
+	private final Opener opener;
+	private final String format;
+	private final boolean array;
+	private final long maxRows;
+	private final long maxBytes;
+	private final ExecutorService closer = Executors.newSingleThreadExecutor(
+			Thread.ofPlatform().name("csv2json-shard-close").daemon().factory());
+	private final List<Future<ShardManifest.Shard>> closed = new ArrayList<>();
+
+	private int index;
+	private Counter file;
+	private long rows, first = -1, last = -1;
+	private long pending = -1;
+	private long total;
+	private boolean finished;
+
+	private ShardingGenerator(JsonGenerator first, Counter file, Path pattern, Opener opener, ConvertOptions o) {
+		super(first);
+		this.file = file;
+		this.pattern = pattern;
+		this.opener = opener;
+		this.format = Checkpoint.format(o);
+		this.array = !o.ndjson();
+		this.maxRows = o.splitRows();
+		this.maxBytes = o.splitBytes();
+	}
+
+	/** Abre el primer shard; el "[" lo escribe el conversor, como con un solo fichero. */
+	static ShardingGenerator open(Path pattern, ConvertOptions o, Opener opener) throws IOException {
+		Counter file = new Counter(Files.newOutputStream(ShardManifest.shardPath(pattern, 0)));
+		return new ShardingGenerator(opener.open(file), file, pattern, opener, o);
+	}
+
+	@Override
+	void mark(long record) throws IOException {
+		commit();
+		if (rows > 0 && ((maxRows > 0 && rows >= maxRows) || (maxBytes > 0 && file.count + delegate.getOutputBuffered() >= maxBytes))) rotate();
+		pending = record;
+		if (delegate instanceof RowGenerator r) r.mark(record);
+	}
+
+	@Override
+	void rewind() throws IOException {
+		if (!(delegate instanceof RowGenerator r)) throw new IllegalStateException("El shard no sabe deshacer filas");
+		r.rewind();
+		pending = -1;
+	}
+
+	/** La fila marcada ha llegado entera: cuenta en el shard. */
+	private void commit() {
+		if (pending < 0) return;
+		if (first < 0) first = pending;
+		last = pending;
+		rows++;
+		total++;
+		pending = -1;
+	}
+
+	private void rotate() throws IOException {
+		JsonGenerator old = delegate;
+		boolean pretty = old.getPrettyPrinter() != null;
+		if (array) old.writeEndArray();
+		handOff(old);
+
+		index++;
+		file = new Counter(Files.newOutputStream(ShardManifest.shardPath(pattern, index)));
+		JsonGenerator fresh = opener.open(file);
+		if (pretty) fresh.useDefaultPrettyPrinter();
+		if (array) fresh.writeStartArray();
+		delegate = fresh;
+		rows = 0;
+		first = last = -1;
+	}
+
+	/** Vuelca y cierra el shard en el hilo de cierre; el de conversión sigue con el siguiente. */
+	private void handOff(JsonGenerator gen) {
+		Counter f = file;
+		String name = ShardManifest.shardPath(pattern, index).getFileName().toString();
+		long from = first, to = last, n = rows;
+		closed.add(closer.submit(() -> {
+			gen.close();
+			return new ShardManifest.Shard(name, from, to, n, f.count);
+		}));
+	}
+
+	/** La conversión ha terminado bien: cierra el último shard, espera a los demás y escribe el manifiesto. */
+	void finish() throws IOException {
+		commit();
+		handOff(delegate);
+		finished = true;
+		List<ShardManifest.Shard> shards = new ArrayList<>(closed.size());
+		try {
+			for (Future<ShardManifest.Shard> f : closed) shards.add(f.get());
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Conversión interrumpida");
+		} catch (ExecutionException ee) {
+			if (ee.getCause() instanceof IOException io) throw io;
+			throw new IOException(ee.getCause());
+		} finally {
+			closer.shutdown();
+		}
+		new ShardManifest(format, total, shards).save(ShardManifest.manifestPath(pattern));
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (finished) return;
+		try {
+			delegate.close();
+		} finally {
+			closer.shutdown();
+		}
+	}
+
+	/** Cuenta los bytes que llegan al fichero del shard. */
+	private static final class Counter extends FilterOutputStream {
+		long count;
+
+		Counter(OutputStream out) { super(out); }
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package dev.silvericarus.core;
+
+import java.util.Locale;
+
+/**
+ * Cómo se escriben las columnas DATE y TIMESTAMP de un schema, elegido por
+ * columna con un sufijo en el tipo: {@code "alta": "timestamp:epoch-millis"}.
+ */
+public enum TemporalOutput {
+	/** Texto ISO-8601 normalizado; con zona, pasado a UTC y con 'Z'. Por defecto. */
+	ISO,
+	/** Días desde 1970-01-01 (UTC). */
+	EPOCH_DAYS,
+	/** Segundos desde 1970-01-01T00:00:00Z; sin zona, la hora se toma como UTC. */
+	EPOCH_SECONDS,
+	/** Milisegundos desde 1970-01-01T00:00:00Z; los decimales de más se truncan. */
+	EPOCH_MILLIS;
+
+	public static TemporalOutput from(String s) {
+		return switch (s.toLowerCase(Locale.ROOT).replace('_', '-')) {
+			case "iso" -> ISO;
+			case "epoch-days", "days" -> EPOCH_DAYS;
+			case "epoch-seconds", "epoch", "seconds" -> EPOCH_SECONDS;
+			case "epoch-millis", "millis" -> EPOCH_MILLIS;
+			default -> throw new IllegalArgumentException("Salida de fecha no soportada: " + s + " (iso|epoch-days|epoch-seconds|epoch-millis)");
+		};
+	}
+
+	/** Nombre tal como lo lee {@link #from}, p. ej. "epoch-millis". */
+	public String label() {
+		return name().toLowerCase(Locale.ROOT).replace('_', '-');
+	}
+}
@@ -1,39 +1,241 @@
 package dev.silvericarus.core;
 
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Inferencia de tipos sin excepciones: {@link #classify} recorre el texto una
+ * sola vez y decide bool / int / long / double / string. Con --detect-dates,
+ * {@link #classify(CharSequence, boolean)} reconoce además fechas y horas
+ * ISO-8601 ({@link IsoTime}) entre lo que de otro modo sería texto.
+ *
+ * Gramática numérica (tras quitar blancos ≤ ' ' como {@link String#trim()}):
+ *   [+-]? ( dígitos ( '.' dígitos* )? | '.' dígitos ) ( [eE] [+-]? dígitos )?
+ *  - sin '.' ni exponente: INT si cabe en int, LONG si cabe en long,
+ *    DOUBLE si no (el literal se conserva entero, sin perder dígitos);
+ *  - con '.' o exponente: DOUBLE.
+ * Las formas que solo acepta Java (NaN, Infinity, hexadecimales, sufijos
+ * f/d, dígitos no ASCII) se quedan como texto.
+ *
+ * Los números se escriben con su literal original ({@link #numberLexeme}),
+ * normalizado solo lo justo para que sea JSON válido.
+ */
 public final class TypeInference {
 	private TypeInference(){}
 
+	private static final String INT_MAX = "2147483647";
+	private static final String INT_MIN_ABS = "2147483648";
+	private static final String LONG_MAX = "9223372036854775807";
+	private static final String LONG_MIN_ABS = "9223372036854775808";
+
 	public static Object infer(String s, boolean emptyAsNull, boolean stringsOnly) {
 		if (s == null) return null;
 		if (emptyAsNull && s.isBlank()) return null;
 		if (stringsOnly) return s;
 
-		//boolean
-		if (equalsIgnoreCaseAscii(s, "true")) return Boolean.TRUE;
-		if (equalsIgnoreCaseAscii(s, "false")) return Boolean.FALSE;
+		return switch (classify(s)) {
+			case BOOL -> isTrue(s);
+			case INT -> Integer.parseInt(numberLexeme(s));
+			case LONG -> Long.parseLong(numberLexeme(s));
+			case DOUBLE -> Double.parseDouble(numberLexeme(s));
+			default -> s;
+		};
+	}
+
+	/** Tipo del texto: BOOL, INT, LONG, DOUBLE o STRING. Nunca lanza. */
+	public static ColumnType classify(CharSequence s) {
+		int n = s.length();
+		if (n == 4 && equalsIgnoreCaseAscii(s, "true")) return ColumnType.BOOL;
+		if (n == 5 && equalsIgnoreCaseAscii(s, "false")) return ColumnType.BOOL;
+
+		int i = 0, e = n;
+		while (i < e && s.charAt(i) <= ' ') i++;
+		while (e > i && s.charAt(e - 1) <= ' ') e--;
+		if (i == e) return ColumnType.STRING;
+
+		boolean negative = false;
+		char c = s.charAt(i);
+		if (c == '+' || c == '-') {
+			negative = c == '-';
+			i++;
+		}
+
+		int intStart = i;
+		while (i < e && isDigit(s.charAt(i))) i++;
+		int intEnd = i;
+		boolean fraction = false, exponent = false;
+
+		if (i < e && s.charAt(i) == '.') {
+			fraction = true;
+			i++;
+			int fracStart = i;
+			while (i < e && isDigit(s.charAt(i))) i++;
+			if (intEnd == intStart && i == fracStart) return ColumnType.STRING;
+		} else if (intEnd == intStart) {
+			return ColumnType.STRING;
+		}
+
+		if (i < e && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			exponent = true;
+			i++;
+			if (i < e && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+			int expStart = i;
+			while (i < e && isDigit(s.charAt(i))) i++;
+			if (i == expStart) return ColumnType.STRING;
+		}
+
+		if (i != e) return ColumnType.STRING;
+		if (fraction || exponent) return ColumnType.DOUBLE;
+
+		while (intStart < intEnd - 1 && s.charAt(intStart) == '0') intStart++;
+		if (fitsIn(s, intStart, intEnd, negative ? INT_MIN_ABS : INT_MAX)) return ColumnType.INT;
+		if (fitsIn(s, intStart, intEnd, negative ? LONG_MIN_ABS : LONG_MAX)) return ColumnType.LONG;
+		return ColumnType.DOUBLE;
+	}
+
+	/**
+	 * Como {@link #classify(CharSequence)}; con {@code dates}, lo que sería
+	 * STRING sale como DATE o TIMESTAMP si es una fecha u hora ISO-8601.
+	 */
+	public static ColumnType classify(CharSequence s, boolean dates) {
+		ColumnType t = classify(s);
+		if (!dates || t != ColumnType.STRING) return t;
+		ColumnType k = IsoTime.kind(s);
+		return (k == null) ? t : k;
+	}
+
+	/**
+	 * ¿Se puede escribir el texto con el tipo dado sin perder nada?
+	 * STRING admite todo; BOOL solo true/false; INT solo enteros que caben en
+	 * int; LONG enteros que caben en long; DOUBLE y DECIMAL cualquier número;
+	 * DATE solo fechas; TIMESTAMP fechas con o sin hora.
+	 *
+	 * Se llama en cada celda de una columna ya fijada: cada tipo mira solo
+	 * lo suyo (BOOL compara el literal, INT y LONG recorren dígitos) en vez de
+	 * pasar por {@link #classify}.
+	 */
+	public static boolean fits(ColumnType t, CharSequence s) {
+		return switch (t) {
+			case STRING -> true;
+			case BOOL -> isBool(s);
+			case INT -> isIntegral(s, INT_MAX, INT_MIN_ABS);
+			case LONG -> isIntegral(s, LONG_MAX, LONG_MIN_ABS);
+			case DOUBLE, DECIMAL -> {
+				ColumnType found = classify(s);
+				yield found != ColumnType.STRING && found != ColumnType.BOOL;
+			}
+			case DATE -> IsoTime.kind(s) == ColumnType.DATE;
+			case TIMESTAMP -> IsoTime.kind(s) != null;
+		};
+	}
+
+	/** true/false en cualquier combinación de mayúsculas, sin blancos: lo que {@link #classify} da como BOOL. */
+	private static boolean isBool(CharSequence s) {
+		int n = s.length();
+		return (n == 4 && equalsIgnoreCaseAscii(s, "true")) || (n == 5 && equalsIgnoreCaseAscii(s, "false"));
+	}
+
+	/**
+	 * Entero con signo opcional y blancos alrededor, solo dígitos, que cabe
+	 * entre -{@code minAbs} y {@code max}; lo mismo que {@link #classify} da
+	 * como INT (o como INT o LONG) con los límites de int (o de long).
+	 */
+	private static boolean isIntegral(CharSequence s, String max, String minAbs) {
+		int i = 0, e = s.length();
+		while (i < e && s.charAt(i) <= ' ') i++;
+		while (e > i && s.charAt(e - 1) <= ' ') e--;
+		if (i == e) return false;
+		char c = s.charAt(i);
+		boolean negative = c == '-';
+		if (negative || c == '+') i++;
+		if (i == e) return false;
+		for (int k = i; k < e; k++) {
+			if (!isDigit(s.charAt(k))) return false;
+		}
+		while (i < e - 1 && s.charAt(i) == '0') i++;
+		return fitsIn(s, i, e, negative ? minAbs : max);
+	}
+
+	/** true si un texto clasificado como BOOL es "true" (en cualquier combinación de mayúsculas). */
+	public static boolean isTrue(CharSequence s) {
+		char c = s.charAt(0);
+		return c == 't' || c == 'T';
+	}
 
-		//int
-		String t = s.trim();
+	/**
+	 * Literal JSON de un texto ya clasificado como número: sin blancos, sin '+'
+	 * inicial ni ceros a la izquierda, y con "0" delante o detrás del punto si
+	 * faltaba. Si no hay nada que tocar devuelve el propio String, sin copiar.
+	 */
+	public static String numberLexeme(String s) {
+		if (isCanonicalNumber(s)) return s;
+		char[] buf = new char[s.length() + 2];
+		return new String(buf, 0, numberLexeme(s, buf));
+	}
 
-		try {
-			int v = Integer.parseInt(t);
-			return v;
-		} catch (NumberFormatException ignored) {}
+	/**
+	 * Igual que {@link #numberLexeme(String)} pero escribiendo en {@code dst},
+	 * que necesita {@code s.length() + 2} posiciones. Devuelve la longitud.
+	 */
+	public static int numberLexeme(CharSequence s, char[] dst) {
+		int i = 0, e = s.length();
+		while (i < e && s.charAt(i) <= ' ') i++;
+		while (e > i && s.charAt(e - 1) <= ' ') e--;
 
-		try {
-			long v = Long.parseLong(t);
-			return v;
-		} catch (NumberFormatException ignored) {}
+		int w = 0;
+		char c = s.charAt(i);
+		if (c == '+') i++;
+		else if (c == '-') dst[w++] = s.charAt(i++);
 
-		try {
-			double v = Double.parseDouble(t);
-			return v;
-		} catch (NumberFormatException ignored) {}
+		while (i < e - 1 && s.charAt(i) == '0' && isDigit(s.charAt(i + 1))) i++;
+		if (s.charAt(i) == '.') dst[w++] = '0';
 
-		return s;
+		while (i < e) {
+			c = s.charAt(i++);
+			dst[w++] = c;
+			if (c == '.' && (i == e || !isDigit(s.charAt(i)))) dst[w++] = '0';
+		}
+		return w;
+	}
+
+	/** {@link String#isBlank()} sobre bytes UTF-8, sin decodificar si todo es ASCII. */
+	public static boolean isBlank(byte[] b, int off, int len) {
+		for (int i = off, end = off + len; i < end; i++) {
+			int c = b[i] & 0xFF;
+			if (c >= 0x80) return new String(b, off, len, StandardCharsets.UTF_8).isBlank();
+			if (!(c == ' ' || (c >= 0x09 && c <= 0x0D) || (c >= 0x1C && c <= 0x1F))) return false;
+		}
+		return true;
+	}
+
+	private static boolean isCanonicalNumber(CharSequence s) {
+		int n = s.length();
+		if (s.charAt(0) <= ' ' || s.charAt(n - 1) <= ' ') return false;
+		int i = (s.charAt(0) == '-') ? 1 : 0;
+		char c = s.charAt(i);
+		if (c == '+' || c == '.') return false;
+		if (c == '0' && i + 1 < n && isDigit(s.charAt(i + 1))) return false;
+		for (; i < n; i++) {
+			if (s.charAt(i) == '.') return i + 1 < n && isDigit(s.charAt(i + 1));
+		}
+		return true;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/** ¿Caben los dígitos [from, to) (sin ceros a la izquierda) en el máximo dado? */
+	private static boolean fitsIn(CharSequence s, int from, int to, String max) {
+		int len = to - from;
+		if (len != max.length()) return len < max.length();
+		for (int k = 0; k < len; k++) {
+			char a = s.charAt(from + k), b = max.charAt(k);
+			if (a != b) return a < b;
+		}
+		return true;
 	}
 
-	private static boolean equalsIgnoreCaseAscii(String a, String b) {
+	private static boolean equalsIgnoreCaseAscii(CharSequence a, String b) {
 		if (a.length() != b.length()) return false;
 		for (int i = 0; i < a.length(); i++) {
 			char c1 = a.charAt(i), c2 = b.charAt(i);
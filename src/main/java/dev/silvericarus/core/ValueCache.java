@@ -0,0 +1,191 @@
+package dev.silvericarus.core;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Caché de una columna (--value-cache): celda cruda -> su valor JSON ya
+ * clasificado y escapado, listo para {@code writeRawValue}. En columnas de
+ * pocos valores (estados, países, etiquetas) la celda repetida se ahorra el
+ * String, la inferencia y el escapado; el texto UTF-8 lo guarda
+ * {@link SerializedString} la primera vez que se escribe.
+ *
+ * Memoria acotada: como mucho {@link #CAPACITY} valores de hasta
+ * {@link #MAX_KEY} bytes (o chars); llena, los nuevos no entran, aunque los
+ * ya guardados se siguen sustituyendo si cambia su tipo. Cada
+ * {@link #WINDOW} búsquedas se mira el porcentaje de aciertos y, si baja de
+ * {@link #MIN_HIT_RATE}, la caché se apaga para siempre y suelta sus tablas:
+ * una columna de ids o textos libres solo paga su primera ventana.
+ *
+ * Las claves son los bytes de la celda en el camino mapeado y el String en
+ * el de commons-csv; cada columna solo ve un tipo. No es segura entre
+ * hilos, como el plan que la lleva.
+ */
+final class ValueCache {
+	static final int CAPACITY = 512;
+	static final int MAX_KEY = 48;
+	static final int WINDOW = 1024;
+	static final double MIN_HIT_RATE = 0.5;
+
+	/** Direccionamiento abierto con sondeo lineal; al doble de la capacidad para que los sondeos sean cortos. */
+	private static final int MASK = CAPACITY * 2 - 1;
+
+	private Object[] keys = new Object[MASK + 1];
+	private int[] hashes = new int[MASK + 1];
+	private SerializedString[] values = new SerializedString[MASK + 1];
+	private ColumnType[] types = new ColumnType[MASK + 1];
+	private int size;
+	private int lookups, hits;
+	private boolean off;
+
+	/** Hueco de la última búsqueda que encontró la celda con otro tipo; -1 si no. */
+	private int stale = -1;
+
+	/**
+	 * ¿Merece la pena preparar el valor de una celda de {@code len} bytes para
+	 * {@link #put}? Llena, solo para sustituir el que la última búsqueda
+	 * encontró con otro tipo.
+	 */
+	boolean wants(int len) {
+		return !off && len <= MAX_KEY && (size < CAPACITY || stale >= 0);
+	}
+
+	/**
+	 * Posición de la celda b[0, len) en la caché; -1 si no está o si está
+	 * con un tipo distinto de {@code as} (null = cualquiera). Solo cuenta
+	 * como acierto lo que se va a escribir desde la caché.
+	 */
+	int find(byte[] b, int len, ColumnType as) {
+		stale = -1;
+		if (off || len > MAX_KEY) return -1;
+		int h = hash(b, len);
+		for (int i = h & MASK; keys[i] != null; i = (i + 1) & MASK) {
+			if (hashes[i] == h && keys[i] instanceof byte[] k && Arrays.equals(k, 0, k.length, b, 0, len)) return found(i, as);
+		}
+		return miss();
+	}
+
+	/** Como {@link #find(byte[], int, ColumnType)} con la celda como String. */
+	int find(String s, ColumnType as) {
+		stale = -1;
+		if (off || s.length() > MAX_KEY) return -1;
+		int h = s.hashCode();
+		for (int i = h & MASK; keys[i] != null; i = (i + 1) & MASK) {
+			if (hashes[i] == h && s.equals(keys[i])) return found(i, as);
+		}
+		return miss();
+	}
+
+	SerializedString json(int slot) { return values[slot]; }
+
+	ColumnType type(int slot) { return types[slot]; }
+
+	/** Guarda (o sustituye) la celda b[0, len) con su tipo y su valor JSON. */
+	void put(byte[] b, int len, ColumnType t, String json) {
+		if (off || len > MAX_KEY) return;
+		int h = hash(b, len);
+		int i = h & MASK;
+		while (keys[i] != null && !(hashes[i] == h && keys[i] instanceof byte[] k && Arrays.equals(k, 0, k.length, b, 0, len))) {
+			i = (i + 1) & MASK;
+		}
+		store(i, (keys[i] != null) ? keys[i] : Arrays.copyOf(b, len), h, t, json);
+	}
+
+	/** Como {@link #put(byte[], int, ColumnType, String)} con la celda como String. */
+	void put(String s, ColumnType t, String json) {
+		if (off || s.length() > MAX_KEY) return;
+		int h = s.hashCode();
+		int i = h & MASK;
+		while (keys[i] != null && !(hashes[i] == h && s.equals(keys[i]))) i = (i + 1) & MASK;
+		store(i, s, h, t, json);
+	}
+
+	/** Una celda nueva solo entra con sitio libre; una ya guardada siempre se puede sustituir. */
+	private void store(int i, Object key, int h, ColumnType t, String json) {
+		if (keys[i] == null) {
+			if (size >= CAPACITY) return;
+			size++;
+		}
+		keys[i] = key;
+		hashes[i] = h;
+		types[i] = t;
+		values[i] = new SerializedString(json);
+		stale = -1;
+	}
+
+	private int found(int slot, ColumnType as) {
+		if (as != null && types[slot] != as) {
+			// Guardada con un tipo que la columna ya no tiene (modo adaptativo): no es un acierto.
+			stale = slot;
+			return miss();
+		}
+		hits++;
+		count();
+		return off ? -1 : slot;
+	}
+
+	private int miss() {
+		count();
+		return -1;
+	}
+
+	/** Cierra la ventana cada {@link #WINDOW} búsquedas y apaga la caché si acierta poco. */
+	private void count() {
+		if (++lookups < WINDOW) return;
+		if (hits < WINDOW * MIN_HIT_RATE) {
+			off = true;
+			stale = -1;
+			keys = null;
+			hashes = null;
+			values = null;
+			types = null;
+		}
+		lookups = 0;
+		hits = 0;
+	}
+
+	private static int hash(byte[] b, int len) {
+		long h = HyperLogLog.hash(b, 0, len);
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Valor JSON de {@code s} escrito como {@code t}, igual que lo escribiría
+	 * el generador: literal de número, true/false, o texto entre comillas y
+	 * escapado (las fechas, ya normalizadas con el lector de la columna).
+	 */
+	static String json(ColumnPlan.Column c, String s, ColumnType t) {
+		return switch (t) {
+			case BOOL -> TypeInference.isTrue(s) ? "true" : "false";
+			case INT, LONG, DOUBLE -> TypeInference.numberLexeme(s);
+			case DATE, TIMESTAMP -> {
+				c.time().read(s, t);
+				yield quote(new String(c.time().chars(), 0, c.time().format(t)));
+			}
+			default -> quote(s);
+		};
+	}
+
+	/**
+	 * La celda b[0, len) como String si es UTF-8 válido; null si no (el
+	 * generador copia esos bytes tal cual y el valor guardado no sería igual).
+	 */
+	static String utf8(byte[] b, int len) {
+		String s = new String(b, 0, len, StandardCharsets.UTF_8);
+		for (int i = 0; i < len; i++) {
+			if (b[i] < 0) {
+				byte[] back = s.getBytes(StandardCharsets.UTF_8);
+				return Arrays.equals(back, 0, back.length, b, 0, len) ? s : null;
+			}
+		}
+		return s;
+	}
+
+	private static String quote(String s) {
+		char[] escaped = JsonStringEncoder.getInstance().quoteAsString(s);
+		return new StringBuilder(escaped.length + 2).append('"').append(escaped).append('"').toString();
+	}
+}
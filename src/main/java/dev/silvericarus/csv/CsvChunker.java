@@ -0,0 +1,120 @@
+package dev.silvericarus.csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parte un fichero CSV en rangos de bytes que empiezan y terminan en un
+ * límite de registro, teniendo en cuenta campos entrecomillados multilínea.
+ *
+ * Se hace en dos pasadas:
+ *  1) en paralelo, cuenta las comillas de cada trozo nominal (tamaño fijo);
+ *  2) con la suma acumulada se conoce si el inicio de cada trozo cae dentro
+ *     o fuera de comillas, y se avanza hasta el primer '\n' fuera de ellas.
+ *
+ * Las comillas dobladas ("") no alteran la paridad. Una comilla suelta dentro
+ * de un campo sin comillas sí la altera: en ese caso los cortes posteriores
+ * pueden caer en mal sitio, y el trozo anterior termina con unas comillas
+ * abiertas (error de parseo) que el llamador debe tratar volviendo al camino
+ * secuencial.
+ *
+ * Solo vale para codificaciones donde '\n' y la comilla son un único byte que
+ * no aparece dentro de secuencias multibyte (UTF-8, ASCII, ISO-8859-x...).
+ */
+public final class CsvChunker {
+	private static final int BUF_SIZE = 64 * 1024;
+
+	private CsvChunker() {}
+
+	/**
+	 * Devuelve los offsets de corte: el primero es {@code from}, el último
+	 * {@code to}, y cada par consecutivo delimita un trozo no vacío.
+	 */
+	public static long[] split(FileChannel ch, long from, long to, long chunkSize,
+	                           byte quote, ExecutorService pool) throws IOException {
+		if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize debe ser > 0");
+		if (to - from <= chunkSize) return new long[]{from, to};
+
+		int n = (int) ((to - from + chunkSize - 1) / chunkSize);
+		long[] nominal = new long[n + 1];
+		for (int i = 0; i < n; i++) nominal[i] = from + i * chunkSize;
+		nominal[n] = to;
+
+		List<Future<Long>> counts = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			long s = nominal[i], e = nominal[i + 1];
+			counts.add(pool.submit(() -> countQuotes(ch, s, e, quote)));
+		}
+
+		long[] cuts = new long[n + 1];
+		int k = 0;
+		cuts[k++] = from;
+		long quotesBefore = 0;
+		for (int i = 0; i < n; i++) {
+			if (i > 0) {
+				boolean inQuotes = (quotesBefore & 1) == 1;
+				long cut = Math.max(nextRecordStart(ch, nominal[i], to, quote, inQuotes), cuts[k - 1]);
+				if (cut > cuts[k - 1] && cut < to) cuts[k++] = cut;
+			}
+			quotesBefore += await(counts.get(i));
+		}
+		cuts[k++] = to;
+
+		long[] res = new long[k];
+		System.arraycopy(cuts, 0, res, 0, k);
+		return res;
+	}
+
+	private static long countQuotes(FileChannel ch, long start, long end, byte quote) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BUF_SIZE);
+		long pos = start, count = 0;
+		while (pos < end) {
+			buf.clear();
+			buf.limit((int) Math.min(BUF_SIZE, end - pos));
+			int r = ch.read(buf, pos);
+			if (r < 0) break;
+			for (int i = 0; i < r; i++) if (buf.get(i) == quote) count++;
+			pos += r;
+		}
+		return count;
+	}
+
+	private static long nextRecordStart(FileChannel ch, long start, long end, byte quote, boolean inQuotes) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BUF_SIZE);
+		long pos = start;
+		while (pos < end) {
+			buf.clear();
+			buf.limit((int) Math.min(BUF_SIZE, end - pos));
+			int r = ch.read(buf, pos);
+			if (r < 0) break;
+			for (int i = 0; i < r; i++) {
+				byte b = buf.get(i);
+				if (b == quote) inQuotes = !inQuotes;
+				else if (b == '\n' && !inQuotes) return pos + i + 1;
+			}
+			pos += r;
+		}
+		return end;
+	}
+
+	private static long await(Future<Long> f) throws IOException {
+		try {
+			return f.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrumpido mientras se partía el fichero", ie);
+		} catch (ExecutionException ee) {
+			Throwable c = ee.getCause();
+			if (c instanceof IOException io) throw io;
+			if (c instanceof UncheckedIOException uio) throw uio.getCause();
+			throw new IOException(c);
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package dev.silvericarus.csv;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Detecta el dialecto de un CSV leyendo una única muestra acotada del
+ * principio de la entrada: delimitador, comilla, si hay cabecera y
+ * BOM/codificación. La muestra se devuelve en {@link Sniffed} para que el
+ * conversor la vuelva a leer de memoria ({@link Sniffed#replay()}) seguida
+ * del resto del stream, así que funciona con entradas no posicionables
+ * (stdin, tuberías) y ningún byte se lee dos veces de la fuente.
+ *
+ * Delimitador: todos los candidatos (',', ';', '\t', '|') se cuentan en la
+ * misma pasada, fuera de comillas, y se puntúan por coherencia (mismo nº de
+ * columnas por registro), con la misma heurística de siempre:
+ *  - penaliza fuertemente si el modo de columnas es 1 (prob. delimitador incorrecto)
+ *  - penaliza inconsistencias (filas con nº columnas distinto al modo)
+ *  - en empate, prioridad: ',', ';', '\t', '|'
+ *
+ * Comilla: '"' salvo que la comilla simple abra campos más veces.
+ * Cabecera: la primera fila no tiene celdas vacías ni numéricas y alguna
+ * columna la delata (números debajo, o longitudes fijas distintas).
+ */
+public final class CsvSniffer {
+	public static final int DEFAULT_SAMPLE_BYTES = 64 << 10;
+	public static final int DEFAULT_MAX_RECORDS = 200;
+
+	private static final char[] CANDIDATES = {',', ';', '\t', '|'};
+	private static final char[] QUOTES = {'"', '\''};
+	private static final int PENALTY_SINGLE_COLUMN = 1_000;
+	private static final int PENALTY_INCONSISTENCY = 10;
+
+	private CsvSniffer() {}
+
+	/** Dialecto detectado. {@code bomLength} son los bytes de BOM que la réplica ya se salta. */
+	public record Dialect(char delimeter, char quote, boolean header, Charset charset, int bomLength) {}
+
+	/** Resultado: el dialecto y la muestra leída, pendiente de reproducir delante del resto. */
+	public record Sniffed(Dialect dialect, byte[] sample, int length, InputStream rest) {
+		/** La entrada completa sin el BOM: la muestra desde memoria y luego el resto del stream. */
+		public InputStream replay() {
+			int bom = dialect.bomLength();
+			return new SequenceInputStream(new ByteArrayInputStream(sample, bom, length - bom), rest);
+		}
+	}
+
+	public static Sniffed sniff(InputStream in, Charset charset, char delimeter) throws IOException {
+		return sniff(in, charset, delimeter, DEFAULT_SAMPLE_BYTES, DEFAULT_MAX_RECORDS);
+	}
+
+	/**
+	 * @param charset   codificación declarada; null = detectar (BOM, UTF-8 válido o ISO-8859-1).
+	 *                  Si hay BOM, manda el BOM.
+	 * @param delimeter delimitador ya conocido; 0 = detectar.
+	 */
+	public static Sniffed sniff(InputStream in, Charset charset, char delimeter,
+	                            int sampleBytes, int maxRecords) throws IOException {
+		Objects.requireNonNull(in, "in");
+		if (sampleBytes <= 0) sampleBytes = DEFAULT_SAMPLE_BYTES;
+		if (maxRecords <= 0) maxRecords = DEFAULT_MAX_RECORDS;
+
+		byte[] sample = in.readNBytes(sampleBytes);
+		int n = sample.length;
+		boolean eof = n < sampleBytes;
+
+		Charset cs = bomCharset(sample, n);
+		int bom = (cs == null) ? 0 : bomLength(sample, n);
+		if (cs == null) cs = charset;
+		if (cs == null) cs = isUtf8(sample, n, eof) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+
+		String text = new String(sample, bom, n - bom, cs);
+		if (!eof) {
+			int lastNl = Math.max(text.lastIndexOf('\n'), text.lastIndexOf('\r'));
+			if (lastNl > 0) text = text.substring(0, lastNl);
+		}
+
+		char quote = detectQuote(text);
+		List<int[]> records = new ArrayList<>();
+		char delim = (delimeter != 0) ? delimeter : detectDelimeter(text, quote, maxRecords, records);
+		if (records.isEmpty()) splitRecords(text, quote, maxRecords, records);
+		boolean header = detectHeader(text, records, delim, quote);
+
+		return new Sniffed(new Dialect(delim, quote, header, cs, bom), sample, n, in);
+	}
+
+	/** Bytes de BOM (UTF-8, UTF-16BE o UTF-16LE) al principio de los {@code n} primeros de {@code b}; 0 si no hay. */
+	public static int bomLength(byte[] b, int n) {
+		if (n >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB && (b[2] & 0xFF) == 0xBF) return 3;
+		if (n >= 2 && (b[0] & 0xFF) == 0xFE && (b[1] & 0xFF) == 0xFF) return 2;
+		if (n >= 2 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xFE) return 2;
+		return 0;
+	}
+
+	private static Charset bomCharset(byte[] b, int n) {
+		return switch (bomLength(b, n)) {
+			case 3 -> StandardCharsets.UTF_8;
+			case 2 -> ((b[0] & 0xFF) == 0xFE) ? StandardCharsets.UTF_16BE : StandardCharsets.UTF_16LE;
+			default -> null;
+		};
+	}
+
+	/** Cuenta cuántas veces abre campo cada candidato a comilla (inicio de línea o tras un delimitador). */
+	private static char detectQuote(String text) {
+		int[] opens = new int[QUOTES.length];
+		boolean fieldStart = true;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (fieldStart) {
+				for (int q = 0; q < QUOTES.length; q++) if (c == QUOTES[q]) opens[q]++;
+			}
+			if (c == ' ') continue;
+			fieldStart = (c == '\n' || c == '\r' || isCandidate(c));
+		}
+		return (opens[1] > opens[0]) ? QUOTES[1] : QUOTES[0];
+	}
+
+	/**
+	 * Una sola pasada: para cada registro (fin de línea fuera de comillas)
+	 * cuenta las apariciones de todos los candidatos y guarda sus límites.
+	 */
+	private static char detectDelimeter(String text, char quote, int maxRecords, List<int[]> records) {
+		List<List<Integer>> widths = new ArrayList<>(CANDIDATES.length);
+		for (int k = 0; k < CANDIDATES.length; k++) widths.add(new ArrayList<>());
+		int[] counts = new int[CANDIDATES.length];
+
+		boolean inQuotes = false;
+		int start = 0;
+		for (int i = 0; i <= text.length() && records.size() < maxRecords; i++) {
+			char c = (i < text.length()) ? text.charAt(i) : '\n';
+			if (c == quote) {
+				inQuotes = !inQuotes;
+			} else if (!inQuotes && (c == '\n' || c == '\r')) {
+				if (i > start) {
+					records.add(new int[]{start, i});
+					for (int k = 0; k < CANDIDATES.length; k++) {
+						widths.get(k).add(counts[k] + 1);
+						counts[k] = 0;
+					}
+				}
+				start = i + 1;
+			} else if (!inQuotes) {
+				for (int k = 0; k < CANDIDATES.length; k++) if (c == CANDIDATES[k]) counts[k]++;
+			}
+		}
+
+		int best = 0, bestScore = Integer.MAX_VALUE;
+		for (int k = 0; k < CANDIDATES.length; k++) {
+			int score = score(widths.get(k), k);
+			if (score < bestScore) {
+				best = k;
+				bestScore = score;
+			}
+		}
+		return CANDIDATES[best];
+	}
+
+	private static int score(List<Integer> widths, int priorityIndex) {
+		if (widths.isEmpty()) return Integer.MAX_VALUE - priorityIndex;
+
+		int mode = mostFrequent(widths);
+		int inconsistencies = 0;
+		for (int w : widths) if (w != mode) inconsistencies++;
+
+		int score = inconsistencies * PENALTY_INCONSISTENCY;
+		if (mode == 1 && widths.size() > 1) score += PENALTY_SINGLE_COLUMN;
+
+		return score * 100 + priorityIndex;
+	}
+
+	private static int mostFrequent(List<Integer> xs) {
+		Map<Integer, Integer> freq = new HashMap<>();
+		// Sin merge(..., Integer::sum): sería la primera lambda del arranque y su bootstrap cuesta más que el sniff.
+		for (int x : xs) freq.put(x, freq.getOrDefault(x, 0) + 1);
+		int best = xs.get(0), bestC = 0;
+		for (Map.Entry<Integer, Integer> e : freq.entrySet()) {
+			int k = e.getKey(), c = e.getValue();
+			if (c > bestC || (c == bestC && k > best)) {
+				best = k; bestC = c;
+			}
+		}
+		return best;
+	}
+
+	private static void splitRecords(String text, char quote, int maxRecords, List<int[]> records) {
+		boolean inQuotes = false;
+		int start = 0;
+		for (int i = 0; i <= text.length() && records.size() < maxRecords; i++) {
+			char c = (i < text.length()) ? text.charAt(i) : '\n';
+			if (c == quote) inQuotes = !inQuotes;
+			else if (!inQuotes && (c == '\n' || c == '\r')) {
+				if (i > start) records.add(new int[]{start, i});
+				start = i + 1;
+			}
+		}
+	}
+
+	/**
+	 * Cada columna vota: +1 si debajo solo hay números (y arriba texto) o si
+	 * debajo todos los valores miden lo mismo y la primera fila no; -1 si el
+	 * valor de la primera fila se repite debajo.
+	 */
+	private static boolean detectHeader(String text, List<int[]> records, char delim, char quote) {
+		if (records.size() < 2) return false;
+
+		List<String> first = fields(text, records.get(0), delim, quote);
+		for (String f : first) {
+			if (f.isEmpty() || isNumeric(f)) return false;
+		}
+
+		int votes = 0;
+		for (int col = 0; col < first.size(); col++) {
+			boolean allNumeric = true;
+			boolean repeated = false;
+			int sameLength = -1;
+			int values = 0;
+			for (int r = 1; r < records.size(); r++) {
+				List<String> row = fields(text, records.get(r), delim, quote);
+				if (col >= row.size()) continue;
+				String v = row.get(col);
+				if (v.isEmpty()) continue;
+				values++;
+				if (!isNumeric(v)) allNumeric = false;
+				if (v.equals(first.get(col))) repeated = true;
+				if (sameLength == -1) sameLength = v.length();
+				else if (sameLength != v.length()) sameLength = -2;
+			}
+			if (values == 0) continue;
+			if (repeated) votes--;
+			else if (allNumeric) votes++;
+			else if (sameLength >= 0 && sameLength != first.get(col).length()) votes++;
+		}
+		return votes > 0;
+	}
+
+	/** Campos del registro [start, end) sin comillas ni espacios alrededor. */
+	private static List<String> fields(String text, int[] rec, char delim, char quote) {
+		List<String> out = new ArrayList<>();
+		StringBuilder sb = new StringBuilder();
+		boolean inQuotes = false;
+		for (int i = rec[0]; i < rec[1]; i++) {
+			char c = text.charAt(i);
+			if (c == quote) {
+				if (inQuotes && i + 1 < rec[1] && text.charAt(i + 1) == quote) {
+					sb.append(c);
+					i++;
+				} else {
+					inQuotes = !inQuotes;
+				}
+			} else if (c == delim && !inQuotes) {
+				out.add(sb.toString().strip());
+				sb.setLength(0);
+			} else {
+				sb.append(c);
+			}
+		}
+		out.add(sb.toString().strip());
+		return out;
+	}
+
+	/** Número decimal sencillo: [+-]? dígitos ('.' dígitos)? o '.' dígitos. */
+	private static boolean isNumeric(String s) {
+		int i = 0, n = s.length();
+		if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+		int digits = 0;
+		while (i < n && Character.isDigit(s.charAt(i))) { i++; digits++; }
+		if (i < n && s.charAt(i) == '.') {
+			i++;
+			while (i < n && Character.isDigit(s.charAt(i))) { i++; digits++; }
+		}
+		return digits > 0 && i == n;
+	}
+
+	private static boolean isCandidate(char c) {
+		for (char d : CANDIDATES) if (c == d) return true;
+		return false;
+	}
+
+	/** ¿Es la muestra UTF-8 válido? Una secuencia cortada al final de la muestra no cuenta como error. */
+	private static boolean isUtf8(byte[] b, int n, boolean eof) {
+		int end = n;
+		if (!eof) {
+			int k = n - 1;
+			while (k >= 0 && k > n - 4 && (b[k] & 0xC0) == 0x80) k--;
+			if (k >= 0 && (b[k] & 0xC0) == 0xC0) end = k;
+		}
+		try {
+			StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT)
+					.decode(ByteBuffer.wrap(b, 0, end));
+			return true;
+		} catch (CharacterCodingException e) {
+			return false;
+		}
+	}
+}
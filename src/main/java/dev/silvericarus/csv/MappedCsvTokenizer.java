@@ -0,0 +1,296 @@
+package dev.silvericarus.csv;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tokenizador CSV a nivel de byte sobre el fichero mapeado en memoria
+ * ({@link FileChannel#map}). No crea Strings: cada registro se describe con
+ * el offset y la longitud de sus campos dentro de {@link #buffer()}.
+ *
+ * Reproduce el formato que usa {@code Converter.csvToJson} con commons-csv:
+ *  - comilla como encapsulador, "" dentro de comillas = una comilla;
+ *  - espacios alrededor del campo ignorados (no dentro de las comillas);
+ *  - fin de registro en LF, CR o CRLF; las líneas vacías se saltan;
+ *  - una comilla en mitad de un campo sin comillas es un carácter más.
+ *
+ * Pensado para UTF-8 (o ASCII); no valida que los bytes sean UTF-8 correcto.
+ * El fichero se mapea por ventanas; si un registro cruza el final de la
+ * ventana se vuelve a mapear empezando en ese registro.
+ */
+public final class MappedCsvTokenizer implements Closeable {
+	private static final int DEFAULT_WINDOW = 64 << 20;
+
+	private final FileChannel ch;
+	private final boolean ownsChannel;
+	private final long end;
+	private final byte delim;
+	private final byte quote;
+
+	private int windowSize;
+	private ByteBuffer buf;
+	private long windowStart;
+	private int pos;
+
+	private int count;
+	private int[] starts = new int[32];
+	private int[] lengths = new int[32];
+	private boolean[] escaped = new boolean[32];
+	private long recordNumber;
+
+	public MappedCsvTokenizer(Path path, char delimeter, char quote) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ), true, 0, -1, delimeter, quote, DEFAULT_WINDOW);
+	}
+
+	/** Tokeniza solo el rango [start, end) de un canal ajeno (no se cierra al terminar). */
+	public MappedCsvTokenizer(FileChannel ch, long start, long end, char delimeter, char quote) throws IOException {
+		this(ch, false, start, end, delimeter, quote, DEFAULT_WINDOW);
+	}
+
+	MappedCsvTokenizer(FileChannel ch, boolean ownsChannel, long start, long end,
+	                   char delimeter, char quote, int windowSize) throws IOException {
+		if (delimeter > 0x7F || quote > 0x7F) throw new IllegalArgumentException("Delimitador y comilla deben ser ASCII");
+		this.ch = ch;
+		this.ownsChannel = ownsChannel;
+		this.end = (end < 0) ? ch.size() : end;
+		this.delim = (byte) delimeter;
+		this.quote = (byte) quote;
+		this.windowSize = windowSize;
+		map(start);
+	}
+
+	/** Avanza al siguiente registro; false al llegar al final. */
+	public boolean next() throws IOException {
+		while (true) {
+			int r = parseRecord(pos);
+			if (r == EOF) return false;
+			if (r >= 0) {
+				pos = r;
+				recordNumber++;
+				return true;
+			}
+			long recStart = windowStart + pos;
+			if (pos == 0) windowSize = (int) Math.min(Integer.MAX_VALUE - 8, windowSize * 2L);
+			map(recStart);
+		}
+	}
+
+	/** Buffer sobre el que apuntan los offsets; válido hasta la siguiente llamada a {@link #next()}. */
+	public ByteBuffer buffer() { return buf; }
+
+	public int size() { return count; }
+	public int start(int i) { return starts[i]; }
+	public int length(int i) { return lengths[i]; }
+
+	/** true si el campo venía entre comillas y contiene "" que hay que desdoblar. */
+	public boolean needsUnescape(int i) { return escaped[i]; }
+
+	/** Número de registro empezando en 1 (la cabecera, si la hay, cuenta), como commons-csv. */
+	public long recordNumber() { return recordNumber; }
+
+	/** Offset absoluto en el fichero donde empieza el siguiente registro. */
+	public long position() { return windowStart + pos; }
+
+	/**
+	 * Sigue leyendo desde {@code offset}, que debe ser un inicio de registro
+	 * (un {@link #position()} anterior), como si ya se hubieran leído
+	 * {@code recordNumber} registros.
+	 */
+	public void seek(long offset, long recordNumber) throws IOException {
+		if (offset < 0 || offset > end) throw new IllegalArgumentException("Offset fuera del fichero: " + offset);
+		map(offset);
+		this.count = 0;
+		this.recordNumber = recordNumber;
+	}
+
+	/**
+	 * Copia el campo en {@code dst} desdoblando las comillas si hace falta.
+	 * Devuelve la longitud copiada; {@code dst} debe tener al menos {@link #length(int)} bytes.
+	 */
+	public int copy(int i, byte[] dst) {
+		int s = starts[i], n = lengths[i];
+		if (!escaped[i]) {
+			buf.get(s, dst, 0, n);
+			return n;
+		}
+		int w = 0;
+		for (int k = s, e = s + n; k < e; k++) {
+			byte b = buf.get(k);
+			dst[w++] = b;
+			if (b == quote) k++;
+		}
+		return w;
+	}
+
+	public String string(int i, Charset cs) {
+		byte[] tmp = new byte[lengths[i]];
+		int n = copy(i, tmp);
+		return new String(tmp, 0, n, cs);
+	}
+
+	public String string(int i) { return string(i, StandardCharsets.UTF_8); }
+
+	@Override
+	public void close() throws IOException {
+		buf = null;
+		if (ownsChannel) ch.close();
+	}
+
+	private void map(long from) throws IOException {
+		windowStart = from;
+		long len = Math.min(windowSize, end - from);
+		buf = (len == 0) ? ByteBuffer.allocate(0) : ch.map(FileChannel.MapMode.READ_ONLY, from, len);
+		pos = 0;
+	}
+
+	private boolean moreAfterWindow() {
+		return windowStart + buf.limit() < end;
+	}
+
+	private static final int EOF = -1;
+	private static final int NEED_MORE = -2;
+
+	/** Devuelve la posición tras el registro, EOF, o NEED_MORE si el registro cruza la ventana. */
+	private int parseRecord(int p) throws IOException {
+		final ByteBuffer b = buf;
+		final int lim = b.limit();
+
+		while (p < lim && (b.get(p) == '\n' || b.get(p) == '\r')) p++;
+		if (p >= lim) return moreAfterWindow() ? NEED_MORE : EOF;
+
+		count = 0;
+		while (true) {
+			while (p < lim) {
+				int w = whitespaceLen(b, p, lim);
+				if (w < 0) return NEED_MORE;
+				if (w == 0) break;
+				p += w;
+			}
+			if (p >= lim && moreAfterWindow()) return NEED_MORE;
+
+			int fStart, fEnd;
+			boolean esc = false;
+			if (p < lim && b.get(p) == quote) {
+				fStart = ++p;
+				while (true) {
+					if (p >= lim) {
+						if (moreAfterWindow()) return NEED_MORE;
+						// EOFException: con --follow es un registro que aún se está escribiendo.
+						throw new EOFException("EOF reached before encapsulated token finished (registro " + (recordNumber + 1) + ")");
+					}
+					if (b.get(p) == quote) {
+						if (p + 1 >= lim && moreAfterWindow()) return NEED_MORE;
+						if (p + 1 < lim && b.get(p + 1) == quote) {
+							esc = true;
+							p += 2;
+							continue;
+						}
+						break;
+					}
+					p++;
+				}
+				fEnd = p++;
+				while (p < lim) {
+					byte c = b.get(p);
+					if (c == delim || c == '\n' || c == '\r') break;
+					int w = whitespaceLen(b, p, lim);
+					if (w < 0) return NEED_MORE;
+					if (w == 0) {
+						throw new IOException("Invalid char between encapsulated token and delimiter (registro " + (recordNumber + 1) + ")");
+					}
+					p += w;
+				}
+			} else {
+				fStart = p;
+				while (p < lim) {
+					byte c = b.get(p);
+					if (c == delim || c == '\n' || c == '\r') break;
+					p++;
+				}
+				fEnd = p;
+				while (fEnd > fStart) {
+					int w = trailingWhitespaceLen(b, fStart, fEnd);
+					if (w == 0) break;
+					fEnd -= w;
+				}
+			}
+
+			if (p >= lim && moreAfterWindow()) return NEED_MORE;
+			add(fStart, fEnd - fStart, esc);
+
+			if (p >= lim) return p;
+			byte c = b.get(p);
+			if (c == delim) {
+				p++;
+				if (p >= lim && !moreAfterWindow()) {
+					add(p, 0, false);
+					return p;
+				}
+				continue;
+			}
+			if (c == '\r') {
+				p++;
+				if (p >= lim && moreAfterWindow()) return NEED_MORE;
+				if (p < lim && b.get(p) == '\n') p++;
+				return p;
+			}
+			return p + 1;
+		}
+	}
+
+	private void add(int start, int len, boolean esc) {
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+			escaped = Arrays.copyOf(escaped, count * 2);
+		}
+		starts[count] = start;
+		lengths[count] = len;
+		escaped[count] = esc;
+		count++;
+	}
+
+	/**
+	 * Longitud en bytes del blanco en p (0 si no lo hay), con el mismo criterio
+	 * que {@link Character#isWhitespace}: ASCII y los espacios Unicode de 3 bytes.
+	 * El delimitador y los fines de línea nunca cuentan como blanco.
+	 * Devuelve -1 si la secuencia queda cortada por el final de la ventana.
+	 */
+	private int whitespaceLen(ByteBuffer b, int p, int lim) {
+		int c = b.get(p) & 0xFF;
+		if (c == delim || c == '\n' || c == '\r') return 0;
+		if (c < 0x80) return isAsciiWhitespace(c) ? 1 : 0;
+		if (p + 2 >= lim && moreAfterWindow()) return -1;
+		if (p + 2 < lim && isWideWhitespace(c, b.get(p + 1) & 0xFF, b.get(p + 2) & 0xFF)) return 3;
+		return 0;
+	}
+
+	private int trailingWhitespaceLen(ByteBuffer b, int from, int e) {
+		int c = b.get(e - 1) & 0xFF;
+		if (c < 0x80) return (c != delim && isAsciiWhitespace(c)) ? 1 : 0;
+		if (e - 3 >= from && isWideWhitespace(b.get(e - 3) & 0xFF, b.get(e - 2) & 0xFF, c)) return 3;
+		return 0;
+	}
+
+	private static boolean isAsciiWhitespace(int c) {
+		return c == ' ' || (c >= 0x09 && c <= 0x0D) || (c >= 0x1C && c <= 0x1F);
+	}
+
+	/** U+1680, U+2000..U+2006, U+2008..U+200A, U+2028, U+2029, U+205F, U+3000. */
+	private static boolean isWideWhitespace(int b0, int b1, int b2) {
+		if (b0 == 0xE1) return b1 == 0x9A && b2 == 0x80;
+		if (b0 == 0xE2) {
+			if (b1 == 0x80) return (b2 >= 0x80 && b2 <= 0x8A && b2 != 0x87) || b2 == 0xA8 || b2 == 0xA9;
+			return b1 == 0x81 && b2 == 0x9F;
+		}
+		return b0 == 0xE3 && b1 == 0x80 && b2 == 0x80;
+	}
+}
@@ -0,0 +1,146 @@
+package dev.silvericarus.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader que arregla comillas "relajadas" al vuelo, sin copia intermedia:
+ *  - dentro de comillas, "" se mantiene tal cual (comilla escapada);
+ *  - los blancos entre una comilla de cierre y el delimitador o el fin de
+ *    línea se eliminan (también los que no son {@link Character#isWhitespace},
+ *    como U+00A0, que commons-csv no ignora);
+ *  - si tras esos blancos viene otra cosa, se dejan en un único espacio.
+ *
+ * Procesa por bloques con {@link #read(char[], int, int)}: una pasada y
+ * memoria constante, así que sirve igual para ficheros que para stdin.
+ */
+public final class RelaxedQuotesReader extends Reader {
+	private static final int NORMAL = 0;
+	private static final int IN_QUOTES = 1;
+	private static final int QUOTE_IN_QUOTES = 2;
+	private static final int AFTER_CLOSE = 3;
+	private static final int SPACES_AFTER_CLOSE = 4;
+
+	private final Reader in;
+	private final char quote;
+	private final char[] delims;
+	private final char[] buf = new char[8192];
+	private int pos, lim;
+	private boolean eof;
+
+	private int state = NORMAL;
+	private final char[] pending = new char[2];
+	private int pendingCount;
+
+	public RelaxedQuotesReader(Reader in, char quote, char... delims) {
+		this.in = in;
+		this.quote = quote;
+		this.delims = (delims == null || delims.length == 0) ? new char[]{',', ';', '\t', '|'} : delims.clone();
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) return 0;
+		int w = off, end = off + len;
+
+		while (w < end) {
+			if (pendingCount > 0) {
+				cbuf[w++] = pending[0];
+				pending[0] = pending[1];
+				pendingCount--;
+				continue;
+			}
+			if (pos == lim) {
+				if (eof || !fill()) {
+					flushAtEof();
+					if (pendingCount > 0) continue;
+					break;
+				}
+			}
+
+			char c = buf[pos];
+			switch (state) {
+				case NORMAL -> {
+					if (c == quote) state = IN_QUOTES;
+					cbuf[w++] = c;
+					pos++;
+				}
+				case IN_QUOTES -> {
+					if (c == quote) state = QUOTE_IN_QUOTES;
+					else cbuf[w++] = c;
+					pos++;
+				}
+				case QUOTE_IN_QUOTES -> {
+					if (c == quote) {
+						emit(quote, quote);
+						state = IN_QUOTES;
+						pos++;
+					} else {
+						emit(quote);
+						state = AFTER_CLOSE;
+					}
+				}
+				case AFTER_CLOSE -> {
+					if (isAnySpace(c) && !isBoundary(c)) {
+						state = SPACES_AFTER_CLOSE;
+						pos++;
+					} else {
+						state = NORMAL;
+					}
+				}
+				default -> {
+					if (isAnySpace(c) && !isBoundary(c)) {
+						pos++;
+					} else {
+						if (!isBoundary(c)) emit(' ');
+						state = NORMAL;
+					}
+				}
+			}
+		}
+
+		int n = w - off;
+		return (n == 0 && eof && pendingCount == 0) ? -1 : n;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private boolean fill() throws IOException {
+		int n = in.read(buf, 0, buf.length);
+		if (n < 0) {
+			eof = true;
+			return false;
+		}
+		pos = 0;
+		lim = n;
+		return true;
+	}
+
+	/** Al acabar la entrada: una comilla pendiente de decidir es de cierre; los blancos sobran. */
+	private void flushAtEof() {
+		if (state == QUOTE_IN_QUOTES) emit(quote);
+		state = NORMAL;
+	}
+
+	private void emit(char c) {
+		pending[pendingCount++] = c;
+	}
+
+	private void emit(char a, char b) {
+		pending[pendingCount++] = a;
+		pending[pendingCount++] = b;
+	}
+
+	private boolean isBoundary(char c) {
+		if (c == '\n' || c == '\r') return true;
+		for (char d : delims) if (c == d) return true;
+		return false;
+	}
+
+	private static boolean isAnySpace(char c) {
+		return Character.isWhitespace(c) || Character.isSpaceChar(c);
+	}
+}
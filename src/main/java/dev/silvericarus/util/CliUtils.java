@@ -1,8 +1,34 @@
 package dev.silvericarus.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 public final class CliUtils {
+	/** Valor de --in/--out que significa stdin/stdout. */
+	public static final String STDIO = "-";
+	private static final int STDIO_BUFFER = 1 << 18;
+
 	private CliUtils() {}
 
+	public static boolean isStdio(String v) {
+		return STDIO.equals(v);
+	}
+
+	/** stdin directamente sobre el descriptor, con buffer grande. */
+	public static InputStream stdin() {
+		return new BufferedInputStream(new FileInputStream(FileDescriptor.in), STDIO_BUFFER);
+	}
+
+	/** stdout sin el PrintStream de System.out, que lleva un buffer de 128 bytes y autoflush. */
+	public static OutputStream stdout() {
+		return new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), STDIO_BUFFER);
+	}
+
 	public static char toDelimeterChar (String s) {
 		if (s == null || s.isBlank())
 			throw new IllegalArgumentException("Delimitador vacío");
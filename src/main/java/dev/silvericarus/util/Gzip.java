@@ -0,0 +1,40 @@
+package dev.silvericarus.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/** Entrada y salida gzip de la CLI, solo con java.util.zip. */
+public final class Gzip {
+	private static final int BUFFER = 1 << 16;
+
+	private Gzip() {}
+
+	public static boolean hasExtension(String name) {
+		return name != null && name.toLowerCase(Locale.ROOT).endsWith(".gz");
+	}
+
+	/** Mira, sin consumirlos, si los dos primeros bytes son la firma gzip (1f 8b). */
+	public static boolean startsWithMagic(BufferedInputStream in) throws IOException {
+		in.mark(2);
+		int b0 = in.read(), b1 = in.read();
+		in.reset();
+		return b0 == 0x1f && b1 == 0x8b;
+	}
+
+	/**
+	 * Descomprime en un hilo aparte ({@link ReadAheadInputStream}), por
+	 * delante del parser. Admite varios miembros concatenados (pigz, cat a.gz b.gz).
+	 */
+	public static InputStream decompress(InputStream in) throws IOException {
+		return new ReadAheadInputStream(new GZIPInputStream(in, BUFFER), "csv2json-gunzip");
+	}
+
+	/** Comprime por bloques en {@code threads} hilos ({@link ParallelGzipOutputStream}). */
+	public static OutputStream compress(OutputStream out, int threads) throws IOException {
+		return new ParallelGzipOutputStream(out, threads);
+	}
+}
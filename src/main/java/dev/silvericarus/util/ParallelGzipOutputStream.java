@@ -0,0 +1,174 @@
+package dev.silvericarus.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip comprimiendo por bloques en paralelo, como pigz, solo con java.util.zip.
+ *
+ * - Lo escrito se parte en bloques de {@code blockSize} bytes; cada bloque se
+ *   comprime en un hilo con su propio {@link Deflater} en modo raw, usando
+ *   como diccionario los últimos 32 KB del bloque anterior (así apenas se
+ *   pierde ratio respecto a un único deflate).
+ * - Cada bloque acaba con SYNC_FLUSH, que deja la salida alineada a byte sin
+ *   cerrar el stream deflate; el último acaba con FINISH. Concatenados en
+ *   orden forman un único stream deflate válido.
+ * - El hilo que escribe calcula el CRC32 y el tamaño, y pone la cabecera y
+ *   el trailer gzip. Hay como mucho 2 × hilos bloques en vuelo.
+ *
+ * El resultado lo lee cualquier gunzip ({@link java.util.zip.GZIPInputStream} incluido).
+ * No es seguro escribir desde varios hilos a la vez.
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+	public static final int DEFAULT_BLOCK = 128 << 10;
+	private static final int DICT = 32 << 10;
+	private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	private final OutputStream out;
+	private final ExecutorService pool;
+	private final int window;
+	private final int blockSize;
+	private final int level;
+	private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final CRC32 crc = new CRC32();
+	private long size;
+
+	private byte[] block;
+	private int len;
+	/** Bloque anterior, ya enviado: su final es el diccionario del siguiente. */
+	private byte[] prev;
+	private int prevLen;
+	private boolean closed;
+
+	public ParallelGzipOutputStream(OutputStream out, int threads) throws IOException {
+		this(out, threads, DEFAULT_BLOCK, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public ParallelGzipOutputStream(OutputStream out, int threads, int blockSize, int level) throws IOException {
+		this.out = Objects.requireNonNull(out, "out");
+		if (threads < 1) throw new IllegalArgumentException("threads debe ser >= 1");
+		if (blockSize < 1) throw new IllegalArgumentException("blockSize debe ser >= 1");
+		this.pool = Executors.newFixedThreadPool(threads,
+				Thread.ofPlatform().name("csv2json-gzip-", 0).daemon().factory());
+		this.window = threads * 2;
+		this.blockSize = blockSize;
+		this.level = level;
+		this.block = new byte[blockSize];
+		out.write(HEADER);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (closed) throw new IOException("Stream cerrado");
+		if (len == blockSize) submit(false);
+		block[len++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int n) throws IOException {
+		Objects.checkFromIndexSize(off, n, b.length);
+		if (closed) throw new IOException("Stream cerrado");
+		while (n > 0) {
+			if (len == blockSize) submit(false);
+			int k = Math.min(n, blockSize - len);
+			System.arraycopy(b, off, block, len, k);
+			len += k;
+			off += k;
+			n -= k;
+		}
+	}
+
+	/** Solo vacía lo ya comprimido: un bloque a medias se quedaría sin diccionario siguiente. */
+	@Override
+	public void flush() throws IOException {
+		while (!pending.isEmpty() && pending.peekFirst().isDone()) out.write(await(pending.pollFirst()));
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		closed = true;
+		try {
+			submit(true);
+			while (!pending.isEmpty()) out.write(await(pending.pollFirst()));
+			writeIntLE((int) crc.getValue());
+			writeIntLE((int) size);
+			out.close();
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void submit(boolean last) throws IOException {
+		byte[] data = block;
+		int n = len;
+		byte[] dict = prev;
+		int dictOff = Math.max(0, prevLen - DICT);
+		int dictLen = prevLen - dictOff;
+
+		crc.update(data, 0, n);
+		size += n;
+		pending.addLast(pool.submit(() -> deflate(data, n, dict, dictOff, dictLen, last, level)));
+
+		prev = data;
+		prevLen = n;
+		block = last ? null : new byte[blockSize];
+		len = 0;
+
+		while (pending.size() >= window) out.write(await(pending.pollFirst()));
+	}
+
+	private static byte[] deflate(byte[] data, int n, byte[] dict, int dictOff, int dictLen,
+	                              boolean last, int level) {
+		Deflater d = new Deflater(level, true);
+		try {
+			if (dict != null && dictLen > 0) d.setDictionary(dict, dictOff, dictLen);
+			d.setInput(data, 0, n);
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, n / 2));
+			byte[] tmp = new byte[16 << 10];
+			if (last) {
+				d.finish();
+				while (!d.finished()) bos.write(tmp, 0, d.deflate(tmp));
+			} else {
+				// Con SYNC_FLUSH, mientras llene el buffer es que queda salida pendiente.
+				int k;
+				do {
+					k = d.deflate(tmp, 0, tmp.length, Deflater.SYNC_FLUSH);
+					bos.write(tmp, 0, k);
+				} while (k == tmp.length);
+			}
+			return bos.toByteArray();
+		} finally {
+			d.end();
+		}
+	}
+
+	private static byte[] await(Future<byte[]> f) throws IOException {
+		try {
+			return f.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Compresión interrumpida");
+		} catch (ExecutionException ee) {
+			throw new IOException("Error comprimiendo un bloque", ee.getCause());
+		}
+	}
+
+	private void writeIntLE(int v) throws IOException {
+		out.write(v);
+		out.write(v >>> 8);
+		out.write(v >>> 16);
+		out.write(v >>> 24);
+	}
+}
@@ -0,0 +1,103 @@
+package dev.silvericarus.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Lee la fuente en un hilo aparte, unos bloques por delante del consumidor.
+ * Pensado para descomprimir gzip mientras el hilo principal parsea: el
+ * inflate y el CSV avanzan a la vez en vez de turnarse.
+ *
+ * Los errores de la fuente se relanzan en el consumidor, en el orden en que
+ * habrían salido.
+ */
+public final class ReadAheadInputStream extends InputStream {
+	private static final int BLOCK = 64 << 10;
+	private static final int DEPTH = 4;
+	private static final byte[] EOF = new byte[0];
+
+	private final InputStream src;
+	private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(DEPTH);
+	private final Thread reader;
+
+	private byte[] cur = new byte[0];
+	private int pos, lim;
+	private boolean eof;
+
+	public ReadAheadInputStream(InputStream src, String name) {
+		this.src = src;
+		this.reader = Thread.ofPlatform().name(name).daemon().start(this::pump);
+	}
+
+	private void pump() {
+		try {
+			while (true) {
+				byte[] b = src.readNBytes(BLOCK);
+				if (b.length == 0) break;
+				queue.put(b);
+				if (b.length < BLOCK) break;
+			}
+			queue.put(EOF);
+		} catch (InterruptedException ie) {
+			// close(): el consumidor ya no quiere más.
+		} catch (IOException | RuntimeException e) {
+			try {
+				queue.put(e);
+			} catch (InterruptedException ignored) {
+				// close() a la vez que el error: nadie lo va a leer.
+			}
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (pos == lim && !next()) return -1;
+		return cur[pos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) return 0;
+		if (pos == lim && !next()) return -1;
+		int n = Math.min(len, lim - pos);
+		System.arraycopy(cur, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return lim - pos;
+	}
+
+	private boolean next() throws IOException {
+		if (eof) return false;
+		Object o;
+		try {
+			o = queue.take();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Lectura interrumpida");
+		}
+		if (o instanceof IOException e) throw new IOException(e.getMessage(), e);
+		if (o instanceof RuntimeException e) throw e;
+		cur = (byte[]) o;
+		pos = 0;
+		lim = cur.length;
+		if (cur == EOF) eof = true;
+		return !eof;
+	}
+
+	/**
+	 * No espera al hilo: puede estar bloqueado leyendo stdin. Cerrar la fuente
+	 * lo desbloquea o le hace fallar, y ese error ya no se lee.
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.interrupt();
+		src.close();
+	}
+}
@@ -0,0 +1,104 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ColumnTypeLock;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveTypesTest {
+	@TempDir Path tmp;
+
+	@Test
+	void widensIntLongDoubleString() {
+		ColumnTypeLock lock = new ColumnTypeLock();
+		lock.observe(0, "1");
+		assertThat(lock.typeOf(0)).isEqualTo(ColumnType.INT);
+
+		assertThat(lock.resolve(0, "2")).isEqualTo(ColumnType.INT);
+		assertThat(lock.resolve(0, "3000000000")).isEqualTo(ColumnType.LONG);
+		assertThat(lock.resolve(0, "7")).isEqualTo(ColumnType.LONG);
+		assertThat(lock.resolve(0, "1.5")).isEqualTo(ColumnType.DOUBLE);
+		assertThat(lock.resolve(0, "true")).isEqualTo(ColumnType.STRING);
+		assertThat(lock.resolve(0, "8")).isEqualTo(ColumnType.STRING);
+
+		assertThat(ColumnTypeLock.widen(ColumnType.BOOL, ColumnType.BOOL)).isEqualTo(ColumnType.BOOL);
+		assertThat(ColumnTypeLock.widen(ColumnType.BOOL, ColumnType.INT)).isEqualTo(ColumnType.STRING);
+		assertThat(ColumnTypeLock.widen(null, ColumnType.DOUBLE)).isEqualTo(ColumnType.DOUBLE);
+	}
+
+	@Test
+	void lockedColumnStaysConsistentOnBothPaths() throws Exception {
+		String csv = String.join("\n",
+				"id,code,flag,note",
+				"1,10,true,",
+				"2,20,false,x",
+				"3,A7,true,",
+				"4,30,true,y"
+		) + "\n";
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+
+		for (boolean commons : new boolean[]{false, true}) {
+			Path out = tmp.resolve("out" + commons + ".ndjson");
+			Converter.csvToJson(in, out, new ConvertOptions()
+					.header(true).emptyAsNull(true).ndjson(true)
+					.commonsCsv(commons)
+					.adaptiveTypes(true).adaptiveSample(2));
+
+			ObjectMapper om = new ObjectMapper();
+			List<String> lines = Files.readAllLines(out, StandardCharsets.UTF_8);
+			assertThat(lines).hasSize(4);
+			// Muestra (2 filas): code=INT. La fila 3 la ensancha a STRING y se queda así.
+			assertThat(om.readTree(lines.get(1)).get("code").isInt()).isTrue();
+			assertThat(om.readTree(lines.get(2)).get("code").isTextual()).isTrue();
+			JsonNode last = om.readTree(lines.get(3));
+			assertThat(last.get("code").isTextual()).isTrue();
+			assertThat(last.get("code").asText()).isEqualTo("30");
+			assertThat(last.get("flag").isBoolean()).isTrue();
+			assertThat(last.get("id").isInt()).isTrue();
+		}
+	}
+
+	@Test
+	void inferredSchemaCanBeLoadedBack() throws Exception {
+		String csv = String.join("\n",
+				"id,amount,active,name,empty",
+				"1,10,true,Ana,",
+				"2,3000000000,false,Luis,",
+				"3,2.5,TRUE,Eva,"
+		) + "\n";
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+		Path schemaOut = tmp.resolve("schema.json");
+
+		Converter.csvToJson(in, tmp.resolve("out.json"), new ConvertOptions()
+				.header(true).emptyAsNull(true)
+				.inferSchemaOut(schemaOut));
+
+		Schema sch = Schema.load(schemaOut);
+		assertThat(sch.getColumns()).containsExactly("id", "amount", "active", "name", "empty");
+		assertThat(sch.typeOf("id")).isEqualTo(ColumnType.INT);
+		assertThat(sch.typeOf("amount")).isEqualTo(ColumnType.DOUBLE);
+		assertThat(sch.typeOf("active")).isEqualTo(ColumnType.BOOL);
+		assertThat(sch.typeOf("name")).isEqualTo(ColumnType.STRING);
+		assertThat(sch.typeOf("empty")).isNull();
+
+		Path again = tmp.resolve("again.json");
+		Converter.csvToJson(in, again, new ConvertOptions().header(true).emptyAsNull(true).schema(sch));
+		JsonNode arr = new ObjectMapper().readTree(again.toFile());
+		assertThat(arr.get(0).get("amount").isNumber()).isTrue();
+		assertThat(arr.get(2).get("active").asBoolean()).isTrue();
+	}
+}
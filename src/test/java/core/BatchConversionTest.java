@@ -0,0 +1,57 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.silvericarus.app.CsvToJsonCmd;
+import dev.silvericarus.app.Main;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchConversionTest {
+	@TempDir Path tmp;
+
+	@Test
+	void convertsEveryFileAndKeepsGoingAfterAMismatch() throws Exception {
+		Path in = tmp.resolve("in");
+		Files.createDirectories(in.resolve("sub"));
+		Files.writeString(in.resolve("a.csv"), "id;age\n1;30\n2;40\n", StandardCharsets.UTF_8);
+		Files.writeString(in.resolve("b.csv"), "id;age\n3;x\n", StandardCharsets.UTF_8);
+		Files.writeString(in.resolve("notes.txt"), "no es csv", StandardCharsets.UTF_8);
+		try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(in.resolve("sub/c.csv.gz")))) {
+			os.write("id,age\n4,50\n5,60\n6,70\n".getBytes(StandardCharsets.UTF_8));
+		}
+		Path schema = tmp.resolve("schema.json");
+		Files.writeString(schema, "{\"types\":{\"age\":\"int\"}}", StandardCharsets.UTF_8);
+
+		Path out = tmp.resolve("out");
+		Path summary = tmp.resolve("summary.json");
+		int code = CsvToJsonCmd.run(Main.parseOptions(new String[]{
+				"--in-dir", in.toString(), "--out-dir", out.toString(),
+				"--ndjson", "--header", "--jobs", "2",
+				"--schema", schema.toString(), "--summary", summary.toString()}));
+
+		assertThat(code).isEqualTo(3);
+		assertThat(Files.readString(out.resolve("a.ndjson"), StandardCharsets.UTF_8))
+				.contains("{\"id\":1,\"age\":30}").contains("{\"id\":2,\"age\":40}");
+		assertThat(Files.readString(out.resolve("sub/c.ndjson"), StandardCharsets.UTF_8))
+				.contains("{\"id\":6,\"age\":70}");
+		assertThat(Files.exists(out.resolve("b.ndjson"))).isFalse();
+		assertThat(Files.exists(out.resolve("notes.ndjson"))).isFalse();
+
+		JsonNode s = new ObjectMapper().readTree(summary.toFile());
+		assertThat(s.path("ok").asLong()).isEqualTo(2);
+		assertThat(s.path("failed").asLong()).isEqualTo(1);
+		assertThat(s.path("rows").asLong()).isEqualTo(5);
+		assertThat(s.path("files").size()).isEqualTo(3);
+		assertThat(s.path("files").get(1).path("status").asText()).isEqualTo("error");
+		assertThat(s.path("files").get(1).path("error").asText()).contains("age");
+	}
+}
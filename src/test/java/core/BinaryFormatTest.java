@@ -0,0 +1,142 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.ErrorPolicy;
+import dev.silvericarus.core.OutputFormat;
+import dev.silvericarus.core.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinaryFormatTest {
+	@TempDir Path tmp;
+
+	/** 300 filas con nombres de campo y textos cortos que se repiten; la 50 trae una edad que no es número. */
+	private Path input() throws Exception {
+		StringBuilder sb = new StringBuilder("id,country,age,active,score\n");
+		String[] countries = {"ES", "PT", "FR"};
+		for (int i = 1; i <= 300; i++) {
+			sb.append(i).append(',').append(countries[i % 3]).append(',').append(i == 50 ? "n/a" : String.valueOf(i % 80))
+					.append(',').append(i % 2 == 0).append(',').append(i % 7 == 0 ? "" : (i / 4.0)).append('\n');
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	/** Camino mapeado, commons-csv, comillas relajadas y con hilos (que en binario va en secuencial). */
+	private static List<Supplier<ConvertOptions>> paths() {
+		return List.of(
+				() -> new ConvertOptions().header(true),
+				() -> new ConvertOptions().header(true).commonsCsv(true),
+				() -> new ConvertOptions().header(true).relaxedQuotes(true),
+				() -> new ConvertOptions().header(true).threads(4).chunkBytes(512));
+	}
+
+	private static ObjectMapper mapper(OutputFormat f) {
+		return switch (f) {
+			case SMILE -> new ObjectMapper(new SmileFactory());
+			case CBOR -> new ObjectMapper(new CBORFactory());
+			default -> new ObjectMapper();
+		};
+	}
+
+	/** Filas en orden, estén en un array o sueltas. */
+	private static List<JsonNode> rows(ObjectMapper om, byte[] data) throws Exception {
+		List<JsonNode> rows = new ArrayList<>();
+		try (MappingIterator<JsonNode> it = om.readerFor(JsonNode.class).readValues(new ByteArrayInputStream(data))) {
+			while (it.hasNext()) {
+				JsonNode n = it.next();
+				if (n.isArray()) n.forEach(rows::add);
+				else rows.add(n);
+			}
+		}
+		return rows;
+	}
+
+	@Test
+	void binaryFormatsCarryTheSameValuesAsJson() throws Exception {
+		Path in = input();
+		Schema schema = Schema.of(null, Map.of("score", ColumnType.DOUBLE));
+		for (Supplier<ConvertOptions> path : paths()) {
+			Path json = tmp.resolve("out.json");
+			Converter.csvToJson(in, json, path.get().schema(schema).emptyAsNull(true).limit(250));
+			List<JsonNode> expected = rows(new ObjectMapper(), Files.readAllBytes(json));
+			assertThat(expected).hasSize(250);
+
+			for (OutputFormat f : new OutputFormat[]{OutputFormat.SMILE, OutputFormat.CBOR}) {
+				for (boolean seq : new boolean[]{false, true}) {
+					Path out = tmp.resolve("out" + f.extension());
+					Converter.csvToJson(in, out, path.get().schema(schema).emptyAsNull(true).limit(250).format(f).ndjson(seq));
+					assertThat(rows(mapper(f), Files.readAllBytes(out))).isEqualTo(expected);
+				}
+			}
+		}
+	}
+
+	@Test
+	void backReferencesMakeSmileSmallerThanJson() throws Exception {
+		Path in = input();
+		ByteArrayOutputStream json = new ByteArrayOutputStream();
+		Converter.csvToJson(in, json, new ConvertOptions().header(true).ndjson(true));
+		ByteArrayOutputStream smile = new ByteArrayOutputStream();
+		Converter.csvToJson(in, smile, new ConvertOptions().header(true).ndjson(true).format(OutputFormat.SMILE));
+		assertThat(smile.size()).isLessThan(json.size() * 3 / 4);
+		// Cabecera Smile ":)\n" y, en la versión, el bit de nombres compartidos.
+		byte[] b = smile.toByteArray();
+		assertThat(new String(b, 0, 3, StandardCharsets.US_ASCII)).isEqualTo(":)\n");
+		assertThat(b[3] & 0x01).isEqualTo(1);
+		assertThat(rows(mapper(OutputFormat.SMILE), b)).hasSize(300);
+	}
+
+	@Test
+	void skippedRowsStillDecodeWithAdaptiveTypes() throws Exception {
+		Path in = input();
+		Schema strict = Schema.of(null, Map.of("age", ColumnType.INT));
+		for (OutputFormat f : new OutputFormat[]{OutputFormat.SMILE, OutputFormat.CBOR}) {
+			for (Supplier<ConvertOptions> path : paths()) {
+				Path json = tmp.resolve("out.json");
+				Converter.csvToJson(in, json, path.get().schema(strict).adaptiveTypes(true)
+						.onError(new ErrorPolicy(ErrorPolicy.Action.SKIP)));
+				Path out = tmp.resolve("out" + f.extension());
+				Converter.csvToJson(in, out, path.get().schema(strict).adaptiveTypes(true)
+						.onError(new ErrorPolicy(ErrorPolicy.Action.SKIP)).format(f));
+
+				List<JsonNode> rows = rows(mapper(f), Files.readAllBytes(out));
+				assertThat(rows).hasSize(299);
+				assertThat(rows).isEqualTo(rows(new ObjectMapper(), Files.readAllBytes(json)));
+			}
+		}
+	}
+
+	@Test
+	void textOnlyFeaturesRejectBinaryOutput() throws Exception {
+		Path in = input();
+		ConvertOptions o = new ConvertOptions().header(true).ndjson(true).format(OutputFormat.CBOR);
+		assertThatThrownBy(() -> Converter.csvToJson(in, tmp.resolve("out.cbor"), o.checkpoint(tmp.resolve("cp.json"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("--checkpoint");
+		assertThatThrownBy(() -> OutputFormat.from("avro"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("--format");
+	}
+}
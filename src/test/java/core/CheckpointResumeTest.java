@@ -0,0 +1,123 @@
+package core;
+
+import dev.silvericarus.core.Checkpoint;
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.SchemaMismatchException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CheckpointResumeTest {
+	@TempDir Path tmp;
+
+	/** 9 filas; la 7ª no es un entero. */
+	private Path input() throws Exception {
+		StringBuilder sb = new StringBuilder("id,name,age\n");
+		for (int i = 1; i <= 9; i++) {
+			sb.append(i).append(",\"n, ").append(i).append("\",").append(i == 7 ? "x" : String.valueOf(20 + i)).append('\n');
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	@Test
+	void resumesAfterSchemaMismatchWithIdenticalOutput() throws Exception {
+		Path in = input();
+		for (String mode : new String[]{"ndjson", "array", "pretty"}) {
+			ConvertOptions base = new ConvertOptions().header(true)
+					.ndjson(mode.equals("ndjson")).pretty(mode.equals("pretty"));
+
+			Path expected = tmp.resolve("expected-" + mode + ".json");
+			Converter.csvToJson(in, expected, base);
+
+			// Primera pasada: el schema exige INT en age y falla en la fila 7; el último checkpoint es tras la 6.
+			Path out = tmp.resolve("out-" + mode + ".json");
+			Path cp = tmp.resolve("cp-" + mode + ".json");
+			ConvertOptions strict = copy(base).schema(Schema.of(null, Map.of("age", ColumnType.INT)))
+					.checkpoint(cp).checkpointEvery(2);
+			assertThatThrownBy(() -> Converter.csvToJson(in, out, strict)).isInstanceOf(SchemaMismatchException.class);
+
+			Checkpoint c = Checkpoint.load(cp);
+			assertThat(c.records()).isEqualTo(6);
+			assertThat(c.recordNumber()).isEqualTo(7);
+			assertThat(Files.size(out)).isGreaterThanOrEqualTo(c.outputLength());
+
+			// Segunda pasada sin el schema: sigue desde la fila 7 y el resultado es el de una sola pasada.
+			Converter.csvToJson(in, out, copy(base).checkpoint(cp).checkpointEvery(2).resume(true));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8))
+					.isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+			assertThat(Files.exists(cp)).isFalse();
+		}
+	}
+
+	@Test
+	void keepsWidenedAdaptiveTypesAcrossResume() throws Exception {
+		Path in = input();
+		Path expected = tmp.resolve("expected.ndjson");
+		ConvertOptions base = new ConvertOptions().header(true).ndjson(true).adaptiveTypes(true).adaptiveSample(2);
+		Converter.csvToJson(in, expected, base);
+
+		Path out = tmp.resolve("out.ndjson");
+		Path cp = tmp.resolve("cp.json");
+		Converter.csvToJson(in, out, copy(base).checkpoint(cp).checkpointEvery(8));
+		// Simula un corte tras la fila 8: se borra lo que hay después y se deja el checkpoint.
+		assertThat(Files.exists(cp)).isFalse();
+		new Checkpoint(Files.size(in), offsetAfterRow(in, 8), 9, 8, lengthAfterRow(expected, 8), "ndjson",
+				List.of(ColumnType.INT, ColumnType.STRING, ColumnType.STRING)).save(cp);
+		Files.writeString(out, "basura tras el corte", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		Converter.csvToJson(in, out, copy(base).checkpoint(cp).resume(true));
+		assertThat(Files.readString(out, StandardCharsets.UTF_8))
+				.isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void refusesChangedInput() throws Exception {
+		Path in = input();
+		Path out = tmp.resolve("out.json");
+		Path cp = tmp.resolve("cp.json");
+		new Checkpoint(1, 0, 1, 1, 0, "array", null).save(cp);
+		Files.writeString(out, "[", StandardCharsets.UTF_8);
+		assertThatThrownBy(() -> Converter.csvToJson(in, out, new ConvertOptions().header(true).checkpoint(cp).resume(true)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("ha cambiado");
+	}
+
+	private static ConvertOptions copy(ConvertOptions o) {
+		return new ConvertOptions().header(o.header()).ndjson(o.ndjson()).pretty(o.pretty())
+				.adaptiveTypes(o.adaptiveTypes()).adaptiveSample(o.adaptiveSample());
+	}
+
+	/** Byte donde empieza la fila {@code n + 1} (cabecera aparte). */
+	private static long offsetAfterRow(Path in, int n) throws Exception {
+		byte[] b = Files.readAllBytes(in);
+		int lines = 0;
+		for (int i = 0; i < b.length; i++) {
+			if (b[i] == '\n' && ++lines == n + 1) return i + 1;
+		}
+		return b.length;
+	}
+
+	/** Bytes de las {@code n} primeras líneas de un NDJSON. */
+	private static long lengthAfterRow(Path ndjson, int n) throws Exception {
+		byte[] b = Files.readAllBytes(ndjson);
+		int lines = 0;
+		for (int i = 0; i < b.length; i++) {
+			if (b[i] == '\n' && ++lines == n) return i + 1;
+		}
+		return b.length;
+	}
+}
@@ -0,0 +1,46 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnPlanTest {
+	@TempDir Path tmp;
+
+	@Test
+	void widerAndNarrowerRowsUseSamePlanOnBothPaths() throws Exception {
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, "a,\"b \"\"q\"\"\"\n1,x,007,true\n2\n", StandardCharsets.UTF_8);
+		Path schemaPath = tmp.resolve("schema.json");
+		Files.writeString(schemaPath, "{\"types\": {\"col2\": \"string\"}}", StandardCharsets.UTF_8);
+		Schema sch = Schema.load(schemaPath);
+
+		String expected = null;
+		for (boolean commons : new boolean[]{false, true}) {
+			Path out = tmp.resolve("out" + commons + ".ndjson");
+			Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true).schema(sch).commonsCsv(commons));
+			String json = Files.readString(out, StandardCharsets.UTF_8);
+			if (expected == null) expected = json;
+			assertThat(json).isEqualTo(expected);
+		}
+
+		ObjectMapper om = new ObjectMapper();
+		String[] lines = expected.split("\n");
+		JsonNode wide = om.readTree(lines[0]);
+		assertThat(wide.get("b \"q\"").asText()).isEqualTo("x");
+		assertThat(wide.get("col2").asText()).isEqualTo("007");
+		assertThat(wide.get("col3").asBoolean()).isTrue();
+		JsonNode narrow = om.readTree(lines[1]);
+		assertThat(narrow.get("b \"q\"").isNull()).isTrue();
+	}
+}
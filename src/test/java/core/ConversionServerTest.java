@@ -0,0 +1,85 @@
+package core;
+
+import dev.silvericarus.app.ConversionServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConversionServerTest {
+	private final HttpClient client = HttpClient.newHttpClient();
+	private ConversionServer server;
+
+	/** Servidor en un puerto libre con un cuerpo máximo de 1 KB. */
+	private void withServer(Body body) throws Exception {
+		server = new ConversionServer("127.0.0.1", 0, 2, 1024, null);
+		server.start();
+		try {
+			body.run();
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	private interface Body {
+		void run() throws Exception;
+	}
+
+	private HttpResponse<String> post(String query, String body) throws Exception {
+		HttpRequest req = HttpRequest.newBuilder(uri("/csv2json" + query))
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return client.send(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://127.0.0.1:" + server.port() + path);
+	}
+
+	@Test
+	void convertsPostedCsvWithQueryFlags() throws Exception {
+		withServer(() -> {
+			HttpResponse<String> r = post("?ndjson&delim=%3B&header&empty-as-null", "id;name\n1;Ana\n2;\n");
+			assertThat(r.statusCode()).isEqualTo(200);
+			assertThat(r.headers().firstValue("Content-Type").orElse("")).startsWith("application/x-ndjson");
+			assertThat(r.body()).contains("{\"id\":1,\"name\":\"Ana\"}");
+			assertThat(r.body()).contains("{\"id\":2,\"name\":null}");
+
+			HttpResponse<String> arr = post("?header", "a,b\nx,2\n");
+			assertThat(arr.statusCode()).isEqualTo(200);
+			assertThat(arr.body()).isEqualTo("[{\"a\":\"x\",\"b\":2}]");
+		});
+	}
+
+	@Test
+	void rejectsBadRequests() throws Exception {
+		withServer(() -> {
+			assertThat(post("?nope", "a\n1\n").statusCode()).isEqualTo(400);
+			assertThat(post("", "a\n" + "1\n".repeat(600)).statusCode()).isEqualTo(413);
+
+			HttpResponse<String> get = client.send(HttpRequest.newBuilder(uri("/csv2json")).GET().build(),
+					HttpResponse.BodyHandlers.ofString());
+			assertThat(get.statusCode()).isEqualTo(405);
+		});
+	}
+
+	@Test
+	void metricsCountRequests() throws Exception {
+		withServer(() -> {
+			post("?header", "a\n1\n2\n");
+			post("?bad", "a\n1\n");
+
+			HttpResponse<String> m = client.send(HttpRequest.newBuilder(uri("/metrics")).GET().build(),
+					HttpResponse.BodyHandlers.ofString());
+			assertThat(m.statusCode()).isEqualTo(200);
+			assertThat(m.body()).contains("csv2json_requests_total{status=\"200\"} 1");
+			assertThat(m.body()).contains("csv2json_requests_total{status=\"400\"} 1");
+			assertThat(m.body()).contains("csv2json_rows_total 2");
+			assertThat(m.body()).contains("csv2json_latency_seconds{quantile=\"0.99\"}");
+		});
+	}
+}
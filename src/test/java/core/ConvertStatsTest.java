@@ -0,0 +1,148 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.silvericarus.app.CsvToJsonCmd;
+import dev.silvericarus.app.Main;
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.ConvertStats;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.ErrorPolicy;
+import dev.silvericarus.core.Schema;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConvertStatsTest {
+	@TempDir Path tmp;
+
+	@Test
+	void sameCountsOnEveryPath() throws Exception {
+		StringBuilder csv = new StringBuilder("id,score,flag,note\n");
+		for (int i = 0; i < 200; i++) {
+			csv.append(i).append(',')
+					.append(i % 2 == 0 ? "1.5" : "2").append(',')
+					.append(i % 3 == 0 ? "true" : "").append(',')
+					.append(i % 5 == 0 ? "nota" : "").append('\n');
+		}
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+
+		String[] reports = new String[3];
+		for (int mode = 0; mode < 3; mode++) {
+			ConvertStats stats = new ConvertStats();
+			Converter.csvToJson(in, tmp.resolve("out" + mode + ".ndjson"), new ConvertOptions()
+					.header(true).emptyAsNull(true).ndjson(true)
+					.commonsCsv(mode == 1)
+					.threads(mode == 2 ? 3 : 1).chunkBytes(256)
+					.stats(stats));
+
+			assertThat(stats.recordsIn()).isEqualTo(200);
+			assertThat(stats.recordsOut()).isEqualTo(200);
+			assertThat(stats.nanos(ConvertStats.Phase.PARSE)).isPositive();
+
+			Path report = tmp.resolve("stats" + mode + ".json");
+			stats.write(report);
+			JsonNode columns = new ObjectMapper().readTree(report.toFile()).path("columns");
+			reports[mode] = columns.toString();
+
+			assertThat(columns.get(0).path("types").path("int").asLong()).isEqualTo(200);
+			assertThat(columns.get(1).path("types").path("double").asLong()).isEqualTo(100);
+			assertThat(columns.get(1).path("types").path("int").asLong()).isEqualTo(100);
+			assertThat(columns.get(2).path("types").path("bool").asLong()).isEqualTo(67);
+			assertThat(columns.get(2).path("nulls").asLong()).isEqualTo(133);
+			assertThat(columns.get(3).path("name").asText()).isEqualTo("note");
+		}
+		assertThat(reports[1]).isEqualTo(reports[0]);
+		assertThat(reports[2]).isEqualTo(reports[0]);
+	}
+
+	@Test
+	void filteredAndSkippedRowsAreReadButNotWritten() throws Exception {
+		StringBuilder csv = new StringBuilder("id,kind,age\n");
+		for (int i = 0; i < 200; i++) {
+			csv.append(i).append(',').append(i % 2 == 0 ? "a" : "b").append(',').append(i % 10 == 4 ? "x" : "30").append('\n');
+		}
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+		Schema schema = Schema.of(null, Map.of("age", ColumnType.INT));
+
+		for (int mode = 0; mode < 3; mode++) {
+			ConvertStats stats = new ConvertStats();
+			Converter.csvToJson(in, tmp.resolve("out" + mode + ".ndjson"), new ConvertOptions()
+					.header(true).ndjson(true).schema(schema)
+					.where("kind = a").onError(new ErrorPolicy(ErrorPolicy.Action.SKIP))
+					.commonsCsv(mode == 1)
+					.threads(mode == 2 ? 3 : 1).chunkBytes(256)
+					.stats(stats));
+
+			// 100 pasan --where y 20 de ellos no encajan con el schema.
+			assertThat(stats.recordsIn()).isEqualTo(200);
+			assertThat(stats.recordsOut()).isEqualTo(80);
+		}
+	}
+
+	@Test
+	void reportHasPhasesAndThroughput() throws Exception {
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, "a;b\n\"x\"  ;1\n2;\n", StandardCharsets.UTF_8);
+		Path out = tmp.resolve("out.json");
+
+		ConvertStats stats = new ConvertStats();
+		try (var s = stats.phase(ConvertStats.Phase.CONVERT)) {
+			Converter.csvToJson(in, out, new ConvertOptions()
+					.delimeter(';').header(true).relaxedQuotes(true).limit(1)
+					.stats(stats));
+		}
+		stats.bytesIn(Files.size(in)).bytesOut(Files.size(out));
+		Path report = tmp.resolve("stats.json");
+		stats.write(report);
+
+		JsonNode root = new ObjectMapper().readTree(report.toFile());
+		assertThat(root.path("input").path("bytes").asLong()).isEqualTo(Files.size(in));
+		assertThat(root.path("output").path("records").asLong()).isEqualTo(1);
+		assertThat(root.path("phasesMs").has("detect")).isTrue();
+		assertThat(root.path("phasesMs").has("sanitize")).isTrue();
+		assertThat(root.path("phasesMs").has("write")).isTrue();
+		assertThat(root.path("rowsPerSecond").asLong()).isNotNegative();
+		assertThat(root.path("columns").get(1).path("types").path("int").asLong()).isEqualTo(1);
+	}
+
+	@Test
+	void convertEventCarriesTheInputBytes() throws Exception {
+		Path in = tmp.resolve("in");
+		Files.createDirectories(in);
+		Path csv = in.resolve("data.csv");
+		Files.writeString(csv, "id,name\n1,Ana\n2,Luis\n", StandardCharsets.UTF_8);
+
+		Path jfr = tmp.resolve("rec.jfr");
+		try (Recording r = new Recording()) {
+			r.enable("dev.silvericarus.ConversionPhase");
+			r.start();
+			assertThat(CsvToJsonCmd.run(Main.parseOptions(new String[]{
+					"--in", csv.toString(), "--out", tmp.resolve("out.ndjson").toString(), "--ndjson", "--header"}))).isEqualTo(0);
+			assertThat(CsvToJsonCmd.run(Main.parseOptions(new String[]{
+					"--in-dir", in.toString(), "--out-dir", tmp.resolve("out").toString(), "--ndjson", "--header"}))).isEqualTo(0);
+			r.stop();
+			r.dump(jfr);
+		}
+
+		List<RecordedEvent> converts = RecordingFile.readAllEvents(jfr).stream()
+				.filter(e -> "convert".equals(e.getString("phase")))
+				.toList();
+		// Uno de la CLI y otro del fichero del lote.
+		assertThat(converts.size()).isEqualTo(2);
+		for (RecordedEvent e : converts) assertThat(e.getLong("bytes")).isEqualTo(Files.size(csv));
+	}
+}
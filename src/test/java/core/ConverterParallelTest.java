@@ -0,0 +1,90 @@
+package core;
+
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.SchemaMismatchException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConverterParallelTest {
+	@TempDir Path tmp;
+
+	private Path bigCsv(int rows) throws Exception {
+		StringBuilder sb = new StringBuilder("id,name,value,active,comment\n");
+		for (int i = 0; i < rows; i++) {
+			sb.append(i).append(",Name").append(i).append(',');
+			sb.append(i % 3 == 0 ? "2147483" + (600 + i % 100) : (i % 3 == 1 ? i + ".5" : "")).append(',');
+			sb.append(i % 2 == 0).append(',');
+			if (i % 7 == 0) sb.append("\"Multilínea\n\"\"con\"\" comillas,\nfila ").append(i).append('"');
+			else sb.append("ok");
+			sb.append(i % 5 == 0 ? "\r\n" : "\n");
+		}
+		Path in = tmp.resolve("big.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	private static ConvertOptions opts() {
+		return new ConvertOptions().delimeter(',').header(true).emptyAsNull(true).charset(StandardCharsets.UTF_8);
+	}
+
+	private void assertSameAsSequential(Path in, ConvertOptions seq, ConvertOptions par) throws Exception {
+		Path a = tmp.resolve("seq.json");
+		Path b = tmp.resolve("par.json");
+		Converter.csvToJson(in, a, seq);
+		Converter.csvToJson(in, b, par.threads(4).chunkBytes(4096));
+		assertThat(Files.mismatch(a, b)).isEqualTo(-1L);
+	}
+
+	@Test
+	void ndjsonIsByteIdentical() throws Exception {
+		Path in = bigCsv(5_000);
+		assertSameAsSequential(in, opts().ndjson(true), opts().ndjson(true));
+	}
+
+	@Test
+	void arrayAndPrettyAreByteIdentical() throws Exception {
+		Path in = bigCsv(5_000);
+		assertSameAsSequential(in, opts(), opts());
+		assertSameAsSequential(in, opts().pretty(true), opts().pretty(true));
+	}
+
+	@Test
+	void limitStopsAtSameRecord() throws Exception {
+		Path in = bigCsv(5_000);
+		assertSameAsSequential(in, opts().ndjson(true).limit(1234), opts().ndjson(true).limit(1234));
+		assertSameAsSequential(in, opts().pretty(true).limit(7), opts().pretty(true).limit(7));
+	}
+
+	@Test
+	void schemaMismatchReportsGlobalRecordNumber() throws Exception {
+		StringBuilder sb = new StringBuilder("id,value\n");
+		for (int i = 0; i < 5_000; i++) sb.append(i).append(',').append(i == 3_999 ? "x" : String.valueOf(i)).append('\n');
+		Path in = tmp.resolve("bad.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		Path schemaPath = tmp.resolve("schema.json");
+		Files.writeString(schemaPath, "{\"types\": {\"value\": \"long\"}}", StandardCharsets.UTF_8);
+		Schema sch = Schema.load(schemaPath);
+
+		String seqMsg = null;
+		try {
+			Converter.csvToJson(in, tmp.resolve("seq.json"), opts().ndjson(true).schema(sch));
+		} catch (SchemaMismatchException e) {
+			seqMsg = e.getMessage();
+		}
+		assertThat(seqMsg).isNotNull();
+
+		assertThatThrownBy(() -> Converter.csvToJson(in, tmp.resolve("par.json"),
+				opts().ndjson(true).schema(sch).threads(4).chunkBytes(4096)))
+				.isInstanceOf(SchemaMismatchException.class)
+				.hasMessageContaining(seqMsg);
+	}
+}
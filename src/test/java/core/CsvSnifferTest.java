@@ -0,0 +1,104 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.silvericarus.app.CsvToJsonCmd;
+import dev.silvericarus.app.Main;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.csv.CsvSniffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvSnifferTest {
+	@TempDir Path tmp;
+
+	/** Stream de un solo uso: falla si alguien intenta volver atrás. */
+	private static InputStream oneShot(byte[] data) {
+		return new FilterInputStream(new ByteArrayInputStream(data)) {
+			@Override public boolean markSupported() { return false; }
+			@Override public synchronized void reset() throws IOException { throw new IOException("no seekable"); }
+		};
+	}
+
+	@Test
+	void detectsDialectAndHeaderInOnePass() throws Exception {
+		String csv = String.join("\n",
+				"nombre;edad;ciudad",
+				"'Ana; la de arriba';30;Madrid",
+				"Luis;31;'Sevilla'",
+				"Eva;29;Bilbao") + "\n";
+
+		CsvSniffer.Sniffed s = CsvSniffer.sniff(oneShot(csv.getBytes(StandardCharsets.UTF_8)), null, (char) 0);
+
+		assertThat(s.dialect().delimeter()).isEqualTo(';');
+		assertThat(s.dialect().quote()).isEqualTo('\'');
+		assertThat(s.dialect().header()).isTrue();
+		assertThat(s.dialect().charset()).isEqualTo(StandardCharsets.UTF_8);
+		assertThat(new String(s.replay().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csv);
+	}
+
+	@Test
+	void noHeaderWhenFirstRowLooksLikeData() throws Exception {
+		String csv = "1,Ana,30\n2,Luis,31\n3,Eva,29\n";
+		CsvSniffer.Sniffed s = CsvSniffer.sniff(oneShot(csv.getBytes(StandardCharsets.UTF_8)), null, (char) 0);
+		assertThat(s.dialect().header()).isFalse();
+	}
+
+	@Test
+	void bomIsDetectedAndSkippedOnReplay() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(new byte[]{(byte) 0xFF, (byte) 0xFE});
+		bos.write("id\tnombre\n1\tÁlvaro\n2\tNúria\n".getBytes(StandardCharsets.UTF_16LE));
+
+		// Muestra más pequeña que la entrada: el resto llega del stream original.
+		CsvSniffer.Sniffed s = CsvSniffer.sniff(oneShot(bos.toByteArray()), StandardCharsets.UTF_8, (char) 0, 48, 200);
+		assertThat(s.dialect().charset()).isEqualTo(StandardCharsets.UTF_16LE);
+		assertThat(s.dialect().bomLength()).isEqualTo(2);
+
+		Path out = tmp.resolve("out.json");
+		Converter.csvToJson(s.replay(), out, new ConvertOptions()
+				.delimeter(s.dialect().delimeter()).header(true)
+				.charset(s.dialect().charset()));
+
+		JsonNode arr = new ObjectMapper().readTree(out.toFile());
+		assertThat(arr).hasSize(2);
+		assertThat(arr.get(0).get("id").asInt()).isEqualTo(1);
+		assertThat(arr.get(1).get("nombre").asText()).isEqualTo("Núria");
+	}
+
+	@Test
+	void invalidUtf8FallsBackToLatin1() throws Exception {
+		byte[] data = "a,b\ncaña,1\n".getBytes(StandardCharsets.ISO_8859_1);
+		CsvSniffer.Sniffed s = CsvSniffer.sniff(oneShot(data), null, (char) 0);
+		assertThat(s.dialect().charset()).isEqualTo(StandardCharsets.ISO_8859_1);
+	}
+
+	@Test
+	void cliDetectsHeaderAndEncodingOnlyWithAuto() throws Exception {
+		Path in = tmp.resolve("latin1.csv");
+		Files.write(in, "id,ciudad\n1,Cádiz\n2,León\n".getBytes(StandardCharsets.ISO_8859_1));
+		Path out = tmp.resolve("out.ndjson");
+
+		assertThat(CsvToJsonCmd.run(Main.parseOptions(new String[]{
+				"--in", in.toString(), "--out", out.toString(), "--ndjson", "--header", "auto", "--encoding", "auto"}))).isEqualTo(0);
+		// La salida de texto va en la codificación de la entrada.
+		assertThat(Files.readString(out, StandardCharsets.ISO_8859_1)).startsWith("{\"id\":1,\"ciudad\":\"Cádiz\"}");
+
+		// Sin las flags, como siempre: la primera fila es un registro más.
+		assertThat(CsvToJsonCmd.run(Main.parseOptions(new String[]{
+				"--in", in.toString(), "--out", out.toString(), "--ndjson", "--encoding", "ISO-8859-1"}))).isEqualTo(0);
+		assertThat(Files.readString(out, StandardCharsets.ISO_8859_1)).startsWith("{\"col0\":\"id\",\"col1\":\"ciudad\"}");
+	}
+}
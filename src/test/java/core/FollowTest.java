@@ -0,0 +1,141 @@
+package core;
+
+import dev.silvericarus.app.CsvToJsonCmd;
+import dev.silvericarus.app.Main;
+import dev.silvericarus.core.Checkpoint;
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FollowTest {
+	@TempDir Path tmp;
+
+	/** --follow en otro hilo, hasta {@link Following#stop()}. */
+	private static final class Following {
+		final Thread thread;
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		Following(Path in, Path out, ConvertOptions o) {
+			thread = new Thread(() -> {
+				try {
+					Converter.follow(in, out, o);
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			});
+			thread.start();
+		}
+
+		void stop() throws Exception {
+			thread.interrupt();
+			thread.join(10_000);
+			assertThat(thread.isAlive()).isFalse();
+			if (failure.get() != null) throw new AssertionError(failure.get());
+		}
+	}
+
+	private static void append(Path in, String s) throws Exception {
+		Files.writeString(in, s, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Espera a que el checkpoint dé por escritas {@code records} filas: la
+	 * salida se vuelca antes, y parar a mitad de la pasada la dejaría sin guardar.
+	 */
+	private void awaitRecords(long records) throws Exception {
+		Path state = tmp.resolve("state.json");
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		long seen = -1;
+		while (System.nanoTime() < deadline) {
+			if (Files.exists(state) && (seen = Checkpoint.load(state).records()) == records) return;
+			Thread.sleep(20);
+		}
+		throw new AssertionError("El checkpoint no llega a " + records + " filas: " + seen);
+	}
+
+	private ConvertOptions options() {
+		return new ConvertOptions().header(true).ndjson(true).followPollMillis(20).checkpoint(tmp.resolve("state.json"));
+	}
+
+	@Test
+	void appendsOnlyCompleteRecordsAndMatchesAOneShotConversion() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Path out = tmp.resolve("out.ndjson");
+		// La última fila aún no tiene salto de línea y la siguiente llega con un campo multilínea a medias.
+		Files.writeString(in, "id,name\n1,a\n2,b\n3,c", StandardCharsets.UTF_8);
+
+		LongAdder rows = new LongAdder();
+		Following f = new Following(in, out, options().rowCounter(rows));
+		awaitRecords(2);
+		append(in, "\n4,\"linea 1\n");
+		awaitRecords(3);
+		append(in, "linea 2\"\n5,e\n");
+		awaitRecords(5);
+		f.stop();
+
+		Path expected = tmp.resolve("expected.ndjson");
+		Converter.csvToJson(in, expected, new ConvertOptions().header(true).ndjson(true));
+		assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+
+		Checkpoint c = Checkpoint.load(tmp.resolve("state.json"));
+		assertThat(c.records()).isEqualTo(5);
+		assertThat(c.recordNumber()).isEqualTo(6);
+		assertThat(c.inputOffset()).isEqualTo(Files.size(in));
+		assertThat(c.outputLength()).isEqualTo(Files.size(out));
+		assertThat(rows.sum()).isEqualTo(5);
+	}
+
+	@Test
+	void restartKeepsLockedTypesAndSkipsWhatWasConverted() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Path out = tmp.resolve("out.ndjson");
+		// Muestra de 2 filas: code queda en INT y la 3ª lo ensancha a STRING.
+		Files.writeString(in, "id,code\n1,10\n2,20\n3,abc\n", StandardCharsets.UTF_8);
+		ConvertOptions o = options().adaptiveTypes(true).adaptiveSample(2);
+
+		Following first = new Following(in, out, o);
+		awaitRecords(3);
+		first.stop();
+		assertThat(Checkpoint.load(tmp.resolve("state.json")).types())
+				.containsExactly(ColumnType.INT, ColumnType.STRING);
+
+		// Parado, llega más; al volver a arrancar code sigue como STRING aunque la muestra diría INT.
+		append(in, "4,40\n");
+		Following second = new Following(in, out, o);
+		awaitRecords(4);
+		second.stop();
+
+		assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo(
+				"{\"id\":1,\"code\":10}\n {\"id\":2,\"code\":20}\n {\"id\":3,\"code\":\"abc\"}\n {\"id\":4,\"code\":\"40\"}\n");
+	}
+
+	@Test
+	void needsNdjsonAndAStateFile() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, "id\n1\n", StandardCharsets.UTF_8);
+		Path out = tmp.resolve("out.json");
+		assertThatThrownBy(() -> Converter.follow(in, out, options().ndjson(false)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("--ndjson");
+		assertThatThrownBy(() -> Converter.follow(in, out, options().checkpoint(null)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("estado");
+		// Sigue hasta que lo paran: no hay un final en el que escribir el informe.
+		assertThatThrownBy(() -> CsvToJsonCmd.run(Main.parseOptions(new String[]{"--in", in.toString(), "--out",
+				out.toString(), "--ndjson", "--header", "--follow", "--stats", tmp.resolve("stats.json").toString()})))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("--stats");
+	}
+}
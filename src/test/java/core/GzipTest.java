@@ -0,0 +1,86 @@
+package core;
+
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.util.Gzip;
+import dev.silvericarus.util.ParallelGzipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GzipTest {
+	@TempDir Path tmp;
+
+	@Test
+	void parallelBlocksFormOneValidGzipStream() throws Exception {
+		// Texto repetitivo con algo de ruido: que el diccionario entre bloques importe.
+		StringBuilder sb = new StringBuilder();
+		Random rnd = new Random(7);
+		for (int i = 0; i < 20_000; i++) sb.append("{\"id\":").append(i).append(",\"v\":").append(rnd.nextInt(100)).append("}\n");
+		byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+		for (int threads : new int[]{1, 4}) {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (OutputStream gz = new ParallelGzipOutputStream(bos, threads, 4096, Deflater.DEFAULT_COMPRESSION)) {
+				gz.write(data, 0, 1000);
+				gz.write(data[1000]);
+				gz.write(data, 1001, data.length - 1001);
+			}
+			try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+				assertThat(in.readAllBytes()).isEqualTo(data);
+			}
+			assertThat(bos.size()).isLessThan(data.length / 3);
+		}
+
+		ByteArrayOutputStream empty = new ByteArrayOutputStream();
+		new ParallelGzipOutputStream(empty, 2).close();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(empty.toByteArray()))) {
+			assertThat(in.readAllBytes()).isEmpty();
+		}
+	}
+
+	@Test
+	void gzipInputIsDetectedAndConverted() throws Exception {
+		String csv = "id,name\n1,Ana\n2,Eva\n";
+		ByteArrayOutputStream gz = new ByteArrayOutputStream();
+		try (OutputStream os = new GZIPOutputStream(gz)) {
+			os.write(csv.getBytes(StandardCharsets.UTF_8));
+		}
+
+		BufferedInputStream plain = new BufferedInputStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+		assertThat(Gzip.startsWithMagic(plain)).isFalse();
+		assertThat(plain.read()).isEqualTo((int) 'i');
+
+		BufferedInputStream peek = new BufferedInputStream(new ByteArrayInputStream(gz.toByteArray()));
+		assertThat(Gzip.startsWithMagic(peek)).isTrue();
+
+		Path out = tmp.resolve("out.ndjson.gz");
+		ConvertOptions o = new ConvertOptions().header(true).ndjson(true);
+		Converter.csvToJson(Gzip.decompress(peek), Gzip.compress(Files.newOutputStream(out), 2), o);
+
+		Path plainOut = tmp.resolve("out.ndjson");
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+		Converter.csvToJson(in, plainOut, o);
+		try (InputStream r = new GZIPInputStream(Files.newInputStream(out))) {
+			assertThat(new String(r.readAllBytes(), StandardCharsets.UTF_8))
+					.isEqualTo(Files.readString(plainOut, StandardCharsets.UTF_8));
+		}
+		assertThat(Gzip.hasExtension("x.NDJSON.GZ")).isTrue();
+		assertThat(Gzip.hasExtension("x.ndjson")).isFalse();
+	}
+}
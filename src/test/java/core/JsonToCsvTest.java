@@ -0,0 +1,133 @@
+package core;
+
+import dev.silvericarus.core.JsonToCsvConverter;
+import dev.silvericarus.core.JsonToCsvOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonToCsvTest {
+	@TempDir Path tmp;
+
+	private List<String> convert(String json, JsonToCsvOptions o) throws Exception {
+		Path in = tmp.resolve("in.json");
+		Path out = tmp.resolve("out.csv");
+		Files.writeString(in, json, StandardCharsets.UTF_8);
+		JsonToCsvConverter.run(in, out, o);
+		return Files.readAllLines(out, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void ndjsonDiscoversColumnsFromFirstRecords() throws Exception {
+		String ndjson = String.join("\n",
+				"{\"id\":1,\"name\":\"Ana\",\"score\":1.50}",
+				"{\"id\":2,\"active\":true,\"name\":\"Luis, el de \\\"arriba\\\"\"}",
+				"{\"id\":3,\"tags\":[\"a\",\"b\"],\"name\":null}");
+
+		List<String> lines = convert(ndjson, new JsonToCsvOptions());
+
+		assertThat(lines).containsExactly(
+				"id,name,score,active,tags",
+				"1,Ana,1.50,,",
+				"2,\"Luis, el de \"\"arriba\"\"\",,true,",
+				"3,,,,\"[\"\"a\"\",\"\"b\"\"]\"");
+	}
+
+	@Test
+	void arrayWithFixedColumnsAndLimit() throws Exception {
+		String json = "[ {\"a\":1,\"b\":2,\"c\":{\"x\":1}}, {\"b\":4,\"a\":3}, {\"a\":5} ]";
+
+		List<String> lines = convert(json, new JsonToCsvOptions().columns(List.of("b", "a")).delimeter(';').limit(2));
+
+		assertThat(lines).containsExactly("b;a", "2;1", "4;3");
+	}
+
+	@Test
+	void keysAfterDiscoveryAreDroppedAndCounted() throws Exception {
+		Path in = tmp.resolve("in.ndjson");
+		Files.writeString(in, "{\"a\":1}\n{\"a\":2,\"late\":{\"deep\":[1,2]}}\n", StandardCharsets.UTF_8);
+		Path out = tmp.resolve("out.csv");
+
+		JsonToCsvConverter.Result r = JsonToCsvConverter.run(in, out, new JsonToCsvOptions().discoverRows(1).header(false));
+
+		assertThat(r.records()).isEqualTo(2L);
+		assertThat(r.droppedFields()).isEqualTo(1L);
+		assertThat(Files.readAllLines(out, StandardCharsets.UTF_8)).containsExactly("1", "2");
+	}
+
+	@Test
+	void columnPathsFlattenNestedObjectsAndArrays() throws Exception {
+		String ndjson = String.join("\n",
+				"{\"id\":1,\"user\":{\"name\":\"Ana\",\"address\":{\"city\":\"Vigo\",\"zip\":\"36201\"}},\"tags\":[\"a\",\"b\"],\"items\":[{\"sku\":\"x\"},{\"sku\":\"y\",\"qty\":2}]}",
+				"{\"tags\":[],\"user\":{\"address\":null},\"id\":2,\"items\":{\"sku\":\"no es array\"}}",
+				"{\"id\":3,\"user\":{\"address\":{\"city\":{\"es\":\"Ourense\"}}},\"tags\":[[1],\"c\",\"d\"]}");
+
+		List<String> lines = convert(ndjson, new JsonToCsvOptions()
+				.columns(List.of("id", "user.address.city", "tags[1]", "items[1].sku", "tags[0]")));
+
+		// Una hoja que resulta ser objeto o array sigue saliendo como JSON compacto.
+		assertThat(lines).containsExactly(
+				"id,user.address.city,tags[1],items[1].sku,tags[0]",
+				"1,Vigo,b,y,a",
+				"2,,,,",
+				"3,\"{\"\"es\"\":\"\"Ourense\"\"}\",c,,[1]");
+	}
+
+	@Test
+	void unrequestedSubtreesAreSkippedAndCounted() throws Exception {
+		Path in = tmp.resolve("in.ndjson");
+		Files.writeString(in, "{\"a\":{\"keep\":1,\"drop\":{\"deep\":[1,{\"x\":2}]}},\"b\":[1,2,3],\"c\":true}\n",
+				StandardCharsets.UTF_8);
+		Path out = tmp.resolve("out.csv");
+
+		JsonToCsvConverter.Result r = JsonToCsvConverter.run(in, out, new JsonToCsvOptions().columns(List.of("a.keep", "c")));
+
+		assertThat(r.droppedFields()).isEqualTo(2L);
+		assertThat(Files.readAllLines(out, StandardCharsets.UTF_8)).containsExactly("a.keep,c", "1,true");
+	}
+
+	@Test
+	void dottedKeysAreReadAsTheyAreWhenTheRecordHasThem() throws Exception {
+		String ndjson = String.join("\n",
+				"{\"id\":1,\"price.usd\":10,\"col[1]\":\"a\"}",
+				"{\"id\":2,\"price\":{\"usd\":20},\"col\":[\"x\",\"y\"]}",
+				"{\"price\":{\"usd\":99},\"price.usd\":30,\"id\":3}");
+
+		List<String> lines = convert(ndjson, new JsonToCsvOptions().columns(List.of("id", "price.usd", "col[1]")));
+
+		// La clave exacta manda sobre la ruta, venga antes o después.
+		assertThat(lines).containsExactly("id,price.usd,col[1]", "1,10,a", "2,20,y", "3,30,");
+
+		// Columnas de un schema: nombres de cabecera, nunca rutas.
+		lines = convert(ndjson, new JsonToCsvOptions().columns(List.of("id", "price.usd", "col[1]", "a..b")).literalColumns(true));
+		assertThat(lines).containsExactly("id,price.usd,col[1],a..b", "1,10,a,", "2,,,", "3,30,,");
+	}
+
+	@Test
+	void invalidOrOverlappingPathsFail() {
+		for (String bad : List.of("a..b", "a.", "[0]", "a[x]", "a[0]b", "a.[0]")) {
+			assertThatThrownBy(() -> convert("{}", new JsonToCsvOptions().columns(List.of(bad))))
+					.isInstanceOf(IllegalArgumentException.class)
+					.hasMessageContaining(bad);
+		}
+		assertThatThrownBy(() -> convert("{}", new JsonToCsvOptions().columns(List.of("user.id", "user"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("se solapa");
+		assertThatThrownBy(() -> convert("{}", new JsonToCsvOptions().columns(List.of("user", "user.id"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("se solapa");
+	}
+
+	@Test
+	void scalarRecordFails() {
+		assertThatThrownBy(() -> convert("[{\"a\":1}, 2]", new JsonToCsvOptions()))
+				.hasMessageContaining("Registro 2");
+	}
+}
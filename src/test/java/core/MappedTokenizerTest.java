@@ -0,0 +1,78 @@
+package core;
+
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.csv.MappedCsvTokenizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedTokenizerTest {
+	@TempDir Path tmp;
+
+	@Test
+	void tokenizesQuotesSpacesAndLineEndings() throws Exception {
+		String csv = "a, b ,\"c\"\"d\"\r\n"
+				+ "\n"
+				+ "  \"x,\ny\"  ,z\"q, \r"
+				+ "1,,　w　";
+		Path in = tmp.resolve("t.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+
+		try (MappedCsvTokenizer tok = new MappedCsvTokenizer(in, ',', '"')) {
+			assertThat(tok.next()).isTrue();
+			assertThat(tok.size()).isEqualTo(3);
+			assertThat(tok.string(0)).isEqualTo("a");
+			assertThat(tok.string(1)).isEqualTo("b");
+			assertThat(tok.needsUnescape(2)).isTrue();
+			assertThat(tok.string(2)).isEqualTo("c\"d");
+
+			assertThat(tok.next()).isTrue();
+			assertThat(tok.recordNumber()).isEqualTo(2L);
+			assertThat(tok.string(0)).isEqualTo("x,\ny");
+			assertThat(tok.string(1)).isEqualTo("z\"q");
+			assertThat(tok.string(2)).isEqualTo("");
+
+			assertThat(tok.next()).isTrue();
+			assertThat(tok.size()).isEqualTo(3);
+			assertThat(tok.string(1)).isEqualTo("");
+			assertThat(tok.string(2)).isEqualTo("w");
+
+			assertThat(tok.next()).isFalse();
+		}
+	}
+
+	@Test
+	void sameOutputAsCommonsCsv() throws Exception {
+		String csv = String.join("\n",
+				"id,name,age,active,quote, spaced ",
+				"1,Ana,30,true,\"Dijo \"\"hola\"\"\", x ",
+				"2,Luis,,FALSE,\"Multilínea",
+				"aquí\",\t",
+				"3,  María  ,-7,no,\"\",1.5e3",
+				"4,Ñandú,2147483648,TRUE,\" con espacios \",NaN",
+				"5,é,+12,True,tab\there,١٢",
+				"6,trailing,",
+				"7,a,b,c,d,e,extra",
+				"");
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+
+		for (boolean ndjson : new boolean[]{true, false}) {
+			for (boolean emptyAsNull : new boolean[]{true, false}) {
+				Path a = tmp.resolve("commons.json");
+				Path b = tmp.resolve("mapped.json");
+				ConvertOptions base = new ConvertOptions().header(true).ndjson(ndjson).pretty(!ndjson)
+						.emptyAsNull(emptyAsNull).charset(StandardCharsets.UTF_8);
+				Converter.csvToJson(in, a, base.commonsCsv(true));
+				Converter.csvToJson(in, b, base.commonsCsv(false));
+				assertThat(Files.readString(b, StandardCharsets.UTF_8)).isEqualTo(Files.readString(a, StandardCharsets.UTF_8));
+			}
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package core;
+
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.ConvertStats;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.ErrorPolicy;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.SchemaMismatchException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OnErrorTest {
+	@TempDir Path tmp;
+
+	private static final Schema AGE_INT = Schema.of(null, Map.of("age", ColumnType.INT));
+
+	/** 200 filas; age no es un entero en la 1ª y en una de cada 17. */
+	private static boolean bad(int i) {
+		return i == 1 || i % 17 == 0;
+	}
+
+	/** CSV con las filas malas tal cual, sin ellas, o con la celda vacía. */
+	private Path input(String name, String mode) throws Exception {
+		return input(name, mode, 200);
+	}
+
+	private Path input(String name, String mode, int rows) throws Exception {
+		StringBuilder sb = new StringBuilder("id,name,age\n");
+		for (int i = 1; i <= rows; i++) {
+			if (bad(i) && mode.equals("skip")) continue;
+			String age = !bad(i) ? String.valueOf(20 + i % 50) : mode.equals("null") ? "" : "x" + i;
+			sb.append(i).append(",\"n, ").append(i).append("\",").append(age).append('\n');
+		}
+		Path in = tmp.resolve(name);
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	/** Los cuatro caminos: mapeado, commons-csv, Reader con comillas relajadas y por trozos. */
+	private static List<ConvertOptions> paths(String format) {
+		return List.of(base(format), base(format).commonsCsv(true), base(format).relaxedQuotes(true),
+				base(format).threads(4).chunkBytes(256));
+	}
+
+	private static ConvertOptions base(String format) {
+		return new ConvertOptions().header(true).schema(AGE_INT)
+				.ndjson(format.equals("ndjson")).pretty(format.equals("pretty"));
+	}
+
+	@Test
+	void parallelLimitIgnoresBadRowsPastTheLastRowTaken() throws Exception {
+		Path in = input("in.csv", "raw");
+		// Las 20 primeras filas buenas llegan hasta la 22: solo la 1 y la 17 son errores.
+		ConvertStats seqStats = new ConvertStats();
+		Path seqRejects = tmp.resolve("seq-rejects.csv");
+		Path seqOut = tmp.resolve("seq.ndjson");
+		Converter.csvToJson(in, seqOut, base("ndjson").limit(20).stats(seqStats)
+				.onError(new ErrorPolicy(ErrorPolicy.Action.REJECT).rejects(seqRejects).maxErrors(2)));
+		assertThat(seqStats.recordsIn()).isEqualTo(22);
+
+		for (ConvertOptions o : List.of(base("ndjson").threads(4).chunkBytes(256), base("ndjson").threads(4).chunkBytes(256).commonsCsv(true))) {
+			ConvertStats stats = new ConvertStats();
+			Path rejects = tmp.resolve("par-rejects.csv");
+			Path out = tmp.resolve("par.ndjson");
+			ErrorPolicy p = new ErrorPolicy(ErrorPolicy.Action.REJECT).rejects(rejects).maxErrors(2);
+			Converter.csvToJson(in, out, o.limit(20).stats(stats).onError(p));
+
+			assertThat(p.errors()).isEqualTo(2);
+			assertThat(Files.readString(out)).isEqualTo(Files.readString(seqOut));
+			assertThat(Files.readString(rejects)).isEqualTo(Files.readString(seqRejects));
+			assertThat(stats.recordsIn()).isEqualTo(22);
+			assertThat(stats.recordsOut()).isEqualTo(20);
+		}
+	}
+
+	@Test
+	void skipDropsBadRowsOnEveryPath() throws Exception {
+		Path in = input("in.csv", "raw");
+		Path clean = input("clean.csv", "skip");
+		for (String format : new String[]{"ndjson", "array", "pretty"}) {
+			Path expected = tmp.resolve("expected-" + format + ".json");
+			Converter.csvToJson(clean, expected, base(format));
+
+			for (ConvertOptions o : paths(format)) {
+				ErrorPolicy p = new ErrorPolicy(ErrorPolicy.Action.SKIP);
+				Path out = tmp.resolve("out.json");
+				Converter.csvToJson(in, out, o.onError(p));
+				assertThat(Files.readString(out, StandardCharsets.UTF_8))
+						.isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+				assertThat(p.errors()).isEqualTo(12);
+			}
+		}
+	}
+
+	@Test
+	void skipAndRejectKeepOutputsLargerThanTheRewindBuffer() throws Exception {
+		// Unos 800 KB de salida, muy por encima del buffer de 64 KB, con filas malas repartidas por todo.
+		Path in = input("big.csv", "raw", 20_000);
+		Path clean = input("big-clean.csv", "skip", 20_000);
+		for (String format : new String[]{"ndjson", "pretty"}) {
+			Path expected = tmp.resolve("big-expected.json");
+			Converter.csvToJson(clean, expected, base(format));
+
+			for (ConvertOptions o : List.of(base(format), base(format).commonsCsv(true), base(format).relaxedQuotes(true))) {
+				for (ErrorPolicy.Action a : new ErrorPolicy.Action[]{ErrorPolicy.Action.SKIP, ErrorPolicy.Action.REJECT}) {
+					ErrorPolicy p = new ErrorPolicy(a).rejects(tmp.resolve("big-rejects.csv"));
+					Path out = tmp.resolve("big-out.json");
+					Converter.csvToJson(in, out, o.onError(p));
+					assertThat(Files.size(out)).isGreaterThan(256 * 1024L);
+					assertThat(Files.readString(out, StandardCharsets.UTF_8))
+							.isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+					assertThat(p.errors()).isEqualTo(1 + 20_000 / 17);
+				}
+			}
+		}
+	}
+
+	@Test
+	void nullWritesNullInBadCells() throws Exception {
+		Path in = input("in.csv", "raw");
+		Path blanked = input("blanked.csv", "null");
+		Path expected = tmp.resolve("expected.ndjson");
+		Converter.csvToJson(blanked, expected, base("ndjson").emptyAsNull(true));
+
+		for (ConvertOptions o : paths("ndjson")) {
+			ErrorPolicy p = new ErrorPolicy(ErrorPolicy.Action.NULL);
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, o.onError(p));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8))
+					.isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+			assertThat(p.errors()).isEqualTo(12);
+		}
+	}
+
+	@Test
+	void rejectWritesBadRowsWithRecordColumnAndReason() throws Exception {
+		Path in = input("in.csv", "raw");
+		Path clean = input("clean.csv", "skip");
+		Path expected = tmp.resolve("expected.ndjson");
+		Converter.csvToJson(clean, expected, base("ndjson"));
+
+		for (ConvertOptions o : paths("ndjson")) {
+			Path rejects = tmp.resolve("rejects.csv");
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, o.onError(new ErrorPolicy(ErrorPolicy.Action.REJECT).rejects(rejects)));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8))
+					.isEqualTo(Files.readString(expected, StandardCharsets.UTF_8));
+
+			List<String> lines = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+			assertThat(lines).hasSize(13);
+			assertThat(lines.get(0)).isEqualTo("record,column,reason,id,name,age");
+			assertThat(lines.get(1)).isEqualTo("2,age,valor 'x1' no compatible con tipo INT,1,\"n, 1\",x1");
+			assertThat(lines.get(12)).isEqualTo("188,age,valor 'x187' no compatible con tipo INT,187,\"n, 187\",x187");
+		}
+	}
+
+	@Test
+	void maxErrorsStopsTheConversion() throws Exception {
+		Path in = input("in.csv", "raw");
+		for (ConvertOptions o : paths("array")) {
+			ErrorPolicy p = new ErrorPolicy(ErrorPolicy.Action.SKIP).maxErrors(5);
+			assertThatThrownBy(() -> Converter.csvToJson(in, tmp.resolve("out.json"), o.onError(p)))
+					.isInstanceOf(SchemaMismatchException.class)
+					.hasMessageContaining("--max-errors")
+					.hasMessageContaining("x85");
+		}
+		ErrorPolicy enough = new ErrorPolicy(ErrorPolicy.Action.NULL).maxErrors(12);
+		Converter.csvToJson(in, tmp.resolve("out.json"), base("array").onError(enough));
+		assertThat(enough.errors()).isEqualTo(12);
+	}
+}
@@ -0,0 +1,137 @@
+package core;
+
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Profile;
+import dev.silvericarus.core.Profiler;
+import dev.silvericarus.core.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProfilerTest {
+	@TempDir Path tmp;
+
+	/** 3000 filas: id único, país con ES muy por delante, edad con algún hueco y algún texto, nota decimal. */
+	private Path input() throws Exception {
+		StringBuilder sb = new StringBuilder("id,country,age,score,note\n");
+		String[] countries = {"ES", "ES", "ES", "PT", "FR", "ES", "IT"};
+		for (int i = 1; i <= 3000; i++) {
+			sb.append(i).append(',').append(countries[i % countries.length]).append(',')
+					.append(i % 100 == 0 ? "" : i % 250 == 0 ? "desconocida" : String.valueOf(18 + i % 60)).append(',')
+					.append(i / 8.0).append(',')
+					.append(i % 3 == 0 ? "\"  \"" : "\"nota, " + (i % 40) + "\"").append('\n');
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	private static Profile.Column column(Profile p, String name) {
+		return p.columns().stream().filter(c -> c.name().equals(name)).findFirst().orElseThrow();
+	}
+
+	private static List<Profile.Column> withoutTop(Profile p) {
+		return p.columns().stream()
+				.map(c -> new Profile.Column(c.name(), c.type(), c.types(), c.nulls(), c.blanks(), c.nullRate(),
+						c.min(), c.max(), c.distinct(), List.of()))
+				.toList();
+	}
+
+	@Test
+	void reportsTypesNullsRangesDistinctAndTopValues() throws Exception {
+		Profile p = Profiler.profile(input(), new ConvertOptions().header(true), 3);
+
+		assertThat(p.records()).isEqualTo(3000);
+		assertThat(p.columns().stream().map(Profile.Column::name).toList()).containsExactly("id", "country", "age", "score", "note");
+
+		Profile.Column id = column(p, "id");
+		assertThat(id.type()).isEqualTo(ColumnType.INT);
+		assertThat(id.min()).isEqualTo("1");
+		assertThat(id.max()).isEqualTo("3000");
+		assertThat(id.nulls()).isEqualTo(0);
+		assertThat(Math.abs(id.distinct() - 3000)).isLessThan(150L);
+
+		Profile.Column country = column(p, "country");
+		assertThat(country.type()).isEqualTo(ColumnType.STRING);
+		assertThat(country.distinct()).isEqualTo(4);
+		assertThat(country.min()).isEqualTo("ES");
+		assertThat(country.max()).isEqualTo("PT");
+		// Count-Min nunca cuenta de menos; con 4 valores no hay colisiones que lo inflen.
+		assertThat(country.top()).containsExactly(
+				new Profile.Value("ES", 1714), new Profile.Value("FR", 429), new Profile.Value("PT", 429));
+
+		// 30 vacías (múltiplos de 100) y 6 textos (250, 750, ..., 2750).
+		Profile.Column age = column(p, "age");
+		assertThat(age.type()).isEqualTo(ColumnType.STRING);
+		assertThat(age.types()).isEqualTo(Map.of(ColumnType.INT, 2964L, ColumnType.STRING, 6L));
+		assertThat(age.nulls()).isEqualTo(30);
+		assertThat(age.nullRate()).isEqualTo(0.01);
+		// Con algún texto la columna es STRING: mínimo y máximo por orden de bytes.
+		assertThat(age.max()).isEqualTo("desconocida");
+
+		Profile.Column score = column(p, "score");
+		assertThat(score.type()).isEqualTo(ColumnType.DOUBLE);
+		assertThat(score.min()).isEqualTo("0.125");
+		assertThat(score.max()).isEqualTo("375.0");
+
+		Profile.Column note = column(p, "note");
+		assertThat(note.blanks()).isEqualTo(1000);
+		assertThat(note.nulls()).isEqualTo(0);
+		assertThat(note.top()).hasSize(3);
+	}
+
+	@Test
+	void parallelChunksMergeToTheSameProfile() throws Exception {
+		Path in = input();
+		Profile one = Profiler.profile(in, new ConvertOptions().header(true), 5);
+		Profile many = Profiler.profile(in, new ConvertOptions().header(true).threads(4).chunkBytes(4096), 5);
+
+		// HLL y Count-Min se combinan sin pérdida (máximos y sumas): nada depende del reparto salvo
+		// qué candidatos a top-k sobreviven en columnas con más valores que sitio.
+		assertThat(withoutTop(many)).isEqualTo(withoutTop(one));
+		assertThat(column(many, "country").top()).isEqualTo(column(one, "country").top());
+	}
+
+	@Test
+	void raggedRowsAndTheSchemaForCsv2json() throws Exception {
+		Path in = tmp.resolve("ragged.csv");
+		Files.writeString(in, "a,b\n1,x\n2\n3,y,true\n", StandardCharsets.UTF_8);
+		Profile p = Profiler.profile(in, new ConvertOptions().header(true).threads(2).chunkBytes(1), 10);
+
+		assertThat(p.columns().stream().map(Profile.Column::name).toList()).containsExactly("a", "b", "col2");
+		assertThat(column(p, "b").nulls()).isEqualTo(1);
+		assertThat(column(p, "col2").nulls()).isEqualTo(2);
+		assertThat(column(p, "col2").type()).isEqualTo(ColumnType.BOOL);
+
+		Path schemaOut = tmp.resolve("schema.json");
+		p.schema().save(schemaOut);
+		Schema s = Schema.load(schemaOut);
+		assertThat(s.getColumns()).containsExactly("a", "b");
+		assertThat(s.getTypesByName()).isEqualTo(Map.of("a", ColumnType.INT, "b", ColumnType.STRING, "col2", ColumnType.BOOL));
+
+		// Listo para csv2json --schema.
+		Path out = tmp.resolve("out.ndjson");
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true).schema(s));
+		assertThat(Files.readAllLines(out, StandardCharsets.UTF_8)).hasSize(3);
+	}
+
+	@Test
+	void needsAnAsciiCompatibleEncoding() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, "a\n1\n", StandardCharsets.UTF_8);
+		assertThatThrownBy(() -> Profiler.profile(in, new ConvertOptions().header(true).charset(StandardCharsets.UTF_16), 10))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("ASCII");
+		assertThat(List.of(Profiler.profile(in, new ConvertOptions().header(true), 10).records())).containsExactly(1L);
+	}
+}
@@ -0,0 +1,150 @@
+package core;
+
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PushdownTest {
+	@TempDir Path tmp;
+
+	/** 100 filas; las de FR traen una edad que no es número y "notes" nunca lo es. */
+	private Path input() throws Exception {
+		StringBuilder sb = new StringBuilder("id,country,age,email,notes\n");
+		String[] countries = {"ES", "PT", "FR"};
+		for (int i = 1; i <= 100; i++) {
+			String country = countries[i % 3];
+			String age = country.equals("FR") ? "n/a" : String.valueOf(10 + i % 40);
+			String email = (i % 5 == 0) ? "" : "u" + i + "@x.es";
+			sb.append(i).append(',').append(country).append(',').append(age).append(',')
+					.append(email).append(",\"nota, ").append(i).append("\"\n");
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	/** Los cuatro caminos: mapeado, commons-csv, Reader con comillas relajadas y por trozos. */
+	private static List<ConvertOptions> paths() {
+		return List.of(base(), base().commonsCsv(true), base().relaxedQuotes(true), base().threads(4).chunkBytes(256));
+	}
+
+	private static ConvertOptions base() {
+		return new ConvertOptions().header(true).ndjson(true);
+	}
+
+	/** Lo que deberían dar --select age,id --where "country in (ES, PT) and age>=40 and email is not null". */
+	private static String expected() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 1; i <= 100; i++) {
+			int age = 10 + i % 40;
+			if (i % 3 == 2 || age < 40 || i % 5 == 0) continue;
+			if (!sb.isEmpty()) sb.append(' ');
+			sb.append("{\"age\":").append(age).append(",\"id\":").append(i).append("}\n");
+		}
+		return sb.toString();
+	}
+
+	@Test
+	void selectsAndFiltersOnEveryPath() throws Exception {
+		Path in = input();
+		for (ConvertOptions o : paths()) {
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, o.select(List.of("age", "id"))
+					.where("country in (ES, PT) and age>=40 and email is not null"));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo(expected());
+		}
+	}
+
+	@Test
+	void skippedRowsAndColumnsNeverReachTheSchema() throws Exception {
+		Path in = input();
+		// age y notes no encajan con INT en las filas de FR y en todas, respectivamente.
+		Schema strict = Schema.of(null, Map.of("age", ColumnType.INT, "notes", ColumnType.INT));
+		for (ConvertOptions o : paths()) {
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, o.schema(strict).select(List.of("id", "age")).where("country != FR and id<=4"));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8))
+					.isEqualTo("{\"id\":1,\"age\":11}\n {\"id\":3,\"age\":13}\n {\"id\":4,\"age\":14}\n");
+		}
+	}
+
+	@Test
+	void adaptiveTypesOnlyLookAtSelectedMatchingRows() throws Exception {
+		Path in = input();
+		Path out = tmp.resolve("out.ndjson");
+		Path schemaOut = tmp.resolve("schema.json");
+		Converter.csvToJson(in, out, base().adaptiveTypes(true).inferSchemaOut(schemaOut)
+				.select(List.of("id", "age")).where("country=ES"));
+		assertThat(Files.readString(out, StandardCharsets.UTF_8)).startsWith("{\"id\":3,\"age\":13}\n");
+		assertThat(Schema.load(schemaOut).typeOf("age")).isEqualTo(ColumnType.INT);
+		assertThat(Schema.load(schemaOut).typeOf("notes")).isNull();
+	}
+
+	@Test
+	void quotedValuesKeepTheirAndsAndCommas() throws Exception {
+		Path in = tmp.resolve("quoted.csv");
+		Files.writeString(in, """
+				id,name,tag
+				1,Tom and Jerry,"a, b"
+				2,Tom,a
+				3,Jerry,b
+				4,Tom and Jerry,a
+				""", StandardCharsets.UTF_8);
+		for (ConvertOptions o : paths()) {
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, o.select(List.of("id")).where("name = 'Tom and Jerry' and tag in ('a, b', 'c')"));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+		}
+		Path out = tmp.resolve("out.ndjson");
+		Converter.csvToJson(in, out, base().select(List.of("id")).where("tag in (a, 'a, b') AND name != 'Tom and Jerry'"));
+		assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo("{\"id\":2}\n");
+	}
+
+	@Test
+	void comparesDecimalsAndExponentsLikeParseDouble() throws Exception {
+		String[] values = {"0.1", " 0.10000000000000001 ", "-2e3", "1.5E-1", ".2", "+7", "1e400", "12345678901234567890.5", "x", ""};
+		StringBuilder csv = new StringBuilder("id,v\n");
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			csv.append(i).append(",\"").append(values[i]).append("\"\n");
+			String v = values[i].trim();
+			if (v.isEmpty() || v.equals("x") || Double.parseDouble(v) <= 0.1) continue;
+			if (!expected.isEmpty()) expected.append(' ');
+			expected.append("{\"id\":").append(i).append("}\n");
+		}
+		Path in = tmp.resolve("nums.csv");
+		Files.writeString(in, csv.toString(), StandardCharsets.UTF_8);
+		for (ConvertOptions o : paths()) {
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, o.select(List.of("id")).where("v > 0.1"));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+		}
+	}
+
+	@Test
+	void rejectsUnknownColumnsAndBadPredicates() throws Exception {
+		Path in = input();
+		Path out = tmp.resolve("out.ndjson");
+		assertThatThrownBy(() -> Converter.csvToJson(in, out, base().select(List.of("id", "nope"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("'nope'");
+		assertThatThrownBy(() -> Converter.csvToJson(in, out, base().where("age > mucho")))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("número");
+		assertThatThrownBy(() -> Converter.csvToJson(in, out, base().select(List.of("id", "id"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("repetida");
+	}
+}
@@ -0,0 +1,55 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.csv.RelaxedQuotesReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RelaxedQuotesReaderTest {
+	@TempDir Path tmp;
+
+	private static String fix(String s, int chunk) throws Exception {
+		StringBuilder sb = new StringBuilder();
+		try (Reader r = new RelaxedQuotesReader(new StringReader(s), '"', ',')) {
+			char[] buf = new char[chunk];
+			int n;
+			while ((n = r.read(buf, 0, buf.length)) != -1) sb.append(buf, 0, n);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	void fixesBlanksAfterClosingQuote() throws Exception {
+		String in = "\"a\"  ,\"b \"\"x\"\"\" \nc,\"d\" e\n\"z\" ";
+		String expected = "\"a\",\"b \"\"x\"\"\"\nc,\"d\" e\n\"z\"";
+		// Con bloques de 1 char se cruzan todos los estados entre llamadas.
+		for (int chunk : new int[]{1, 2, 3, 8192}) {
+			assertThat(fix(in, chunk)).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void converterWrapsInputWithoutTempCopy() throws Exception {
+		Path in = tmp.resolve("relaxed.csv");
+		Files.writeString(in, "id,name\n1,\"Ana\" \n2,\"Luis \"\"L\"\"\" ,\n", StandardCharsets.UTF_8);
+		Path out = tmp.resolve("out.json");
+
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).relaxedQuotes(true));
+
+		JsonNode arr = new ObjectMapper().readTree(out.toFile());
+		assertThat(arr).hasSize(2);
+		assertThat(arr.get(0).get("name").asText()).isEqualTo("Ana");
+		assertThat(arr.get(1).get("name").asText()).isEqualTo("Luis \"L\"");
+	}
+}
@@ -0,0 +1,154 @@
+package core;
+
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.ErrorPolicy;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.ShardManifest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardingTest {
+	@TempDir Path tmp;
+
+	private static final ObjectMapper OM = new ObjectMapper();
+
+	/** 250 filas; cada 7ª trae una edad que no es número. */
+	private Path input() throws Exception {
+		StringBuilder sb = new StringBuilder("id,name,age\n");
+		for (int i = 1; i <= 250; i++) {
+			sb.append(i).append(",\"nombre ").append(i).append("\",").append(i % 7 == 0 ? "x" : String.valueOf(i % 90)).append('\n');
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	/** Los formatos de salida por el camino mapeado y por commons-csv. */
+	private static List<ConvertOptions> variants() {
+		List<ConvertOptions> l = new ArrayList<>();
+		for (boolean commons : new boolean[]{false, true}) {
+			l.add(new ConvertOptions().header(true).ndjson(true).commonsCsv(commons));
+			l.add(new ConvertOptions().header(true).commonsCsv(commons));
+			l.add(new ConvertOptions().header(true).pretty(true).commonsCsv(commons));
+		}
+		return l;
+	}
+
+	/** Todas las filas de todos los shards, en orden; cada shard tiene que ser JSON completo por sí solo. */
+	private static List<JsonNode> rows(Path dir, ShardManifest m) throws Exception {
+		List<JsonNode> rows = new ArrayList<>();
+		for (ShardManifest.Shard s : m.shards()) rows.addAll(parse(dir.resolve(s.file())));
+		return rows;
+	}
+
+	private static List<JsonNode> parse(Path file) throws Exception {
+		List<JsonNode> rows = new ArrayList<>();
+		try (MappingIterator<JsonNode> it = OM.readerFor(JsonNode.class).readValues(file.toFile())) {
+			while (it.hasNext()) {
+				JsonNode n = it.next();
+				if (n.isArray()) n.forEach(rows::add);
+				else rows.add(n);
+			}
+		}
+		return rows;
+	}
+
+	private static void checkManifest(Path dir, ShardManifest m) throws Exception {
+		long records = 0, next = 2;
+		for (ShardManifest.Shard s : m.shards()) {
+			assertThat(s.bytes()).isEqualTo(Files.size(dir.resolve(s.file())));
+			assertThat(parse(dir.resolve(s.file()))).hasSize((int) s.records());
+			assertThat(s.firstRecord()).isGreaterThanOrEqualTo(next);
+			assertThat(s.lastRecord()).isGreaterThanOrEqualTo(s.firstRecord());
+			next = s.lastRecord() + 1;
+			records += s.records();
+		}
+		assertThat(m.records()).isEqualTo(records);
+	}
+
+	@Test
+	void shardsTogetherMatchTheUnsplitOutput() throws Exception {
+		Path in = input();
+		for (ConvertOptions o : variants()) {
+			Path whole = tmp.resolve("whole.json");
+			Converter.csvToJson(in, whole, o);
+
+			Path dir = Files.createTempDirectory(tmp, "split");
+			Path pattern = dir.resolve("out-{n}.json");
+			Converter.csvToJson(in, pattern, o.splitRows(100));
+
+			ShardManifest m = ShardManifest.load(dir.resolve("out-manifest.json"));
+			assertThat(m.shards().stream().map(ShardManifest.Shard::file).toList())
+					.containsExactly("out-00000.json", "out-00001.json", "out-00002.json");
+			assertThat(m.shards().stream().map(ShardManifest.Shard::records).toList()).containsExactly(100L, 100L, 50L);
+			assertThat(m.shards().get(1).firstRecord()).isEqualTo(102);
+			assertThat(m.shards().get(1).lastRecord()).isEqualTo(201);
+			checkManifest(dir, m);
+			assertThat(rows(dir, m)).isEqualTo(parse(whole));
+		}
+	}
+
+	@Test
+	void splitBytesCutsNearTheLimit() throws Exception {
+		Path in = input();
+		for (ConvertOptions o : variants()) {
+			Path dir = Files.createTempDirectory(tmp, "split");
+			Path pattern = dir.resolve("out.ndjson");
+			Converter.csvToJson(in, pattern, o.splitBytes(1));
+
+			// Con un límite de 1 byte cada fila va sola en su shard, sin shards vacíos.
+			ShardManifest m = ShardManifest.load(dir.resolve("out-manifest.json"));
+			assertThat(m.records()).isEqualTo(250);
+			assertThat(m.shards()).hasSizeGreaterThan(1);
+			assertThat(m.shards().stream().allMatch(s -> s.records() > 0)).isTrue();
+			assertThat(dir.resolve("out-00000.ndjson")).exists();
+			checkManifest(dir, m);
+		}
+	}
+
+	@Test
+	void skippedRowsDoNotCountTowardsTheShard() throws Exception {
+		Path in = input();
+		Schema strict = Schema.of(null, Map.of("age", ColumnType.INT));
+		for (ConvertOptions o : variants()) {
+			Path dir = Files.createTempDirectory(tmp, "split");
+			Path pattern = dir.resolve("out-{n}.json");
+			Converter.csvToJson(in, pattern, o.schema(strict).onError(new ErrorPolicy(ErrorPolicy.Action.SKIP)).splitRows(50));
+
+			ShardManifest m = ShardManifest.load(dir.resolve("out-manifest.json"));
+			// 250 filas menos las 35 múltiplos de 7.
+			assertThat(m.records()).isEqualTo(215);
+			assertThat(m.shards().stream().map(ShardManifest.Shard::records).toList()).containsExactly(50L, 50L, 50L, 50L, 15L);
+			checkManifest(dir, m);
+			assertThat(rows(dir, m).stream().noneMatch(r -> r.get("id").asInt() % 7 == 0)).isTrue();
+		}
+	}
+
+	@Test
+	void needsAFileToSplit() throws Exception {
+		Path in = input();
+		ConvertOptions o = new ConvertOptions().header(true).ndjson(true).splitRows(10);
+		assertThatThrownBy(() -> Converter.csvToJson(in, new ByteArrayOutputStream(), o))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("--split-rows");
+		assertThatThrownBy(() -> Converter.csvToJson(in, tmp.resolve("out.ndjson"), o.checkpoint(tmp.resolve("ck.json"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("--checkpoint");
+	}
+}
@@ -0,0 +1,57 @@
+package core;
+
+import dev.silvericarus.app.Main;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.csv.CsvSniffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StdioPipelineTest {
+	@TempDir Path tmp;
+
+	@Test
+	void dashIsAValueNotAFlag() {
+		Map<String, String> m = Main.parseOptions(new String[]{"--in", "-", "--out", "-", "--ndjson", "--limit", "3"});
+		assertThat(m.get("in")).isEqualTo("-");
+		assertThat(m.get("out")).isEqualTo("-");
+		assertThat(m.get("ndjson")).isEqualTo("true");
+		assertThat(m.get("limit")).isEqualTo("3");
+	}
+
+	@Test
+	void streamsMatchFileOutput() throws Exception {
+		String csv = "id;name;score\n1;Ana;2.5\n2;\"B;o\";\n3;Eva;7\n";
+		Path in = tmp.resolve("data.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+
+		for (boolean ndjson : new boolean[]{true, false}) {
+			ConvertOptions o = new ConvertOptions().delimeter(';').header(true).emptyAsNull(true).ndjson(ndjson);
+			Path file = tmp.resolve("out" + ndjson + ".json");
+			Converter.csvToJson(in, file, o);
+			String expected = Files.readString(file, StandardCharsets.UTF_8);
+
+			// stdin -> stdout, detectando el dialecto sobre la muestra y repitiéndola.
+			CsvSniffer.Sniffed sniffed = CsvSniffer.sniff(
+					new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), null, (char) 0);
+			assertThat(sniffed.dialect().delimeter()).isEqualTo(';');
+			ByteArrayOutputStream piped = new ByteArrayOutputStream();
+			Converter.csvToJson(sniffed.replay(), piped, o);
+			assertThat(piped.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+
+			// fichero -> stdout, por el tokenizador mapeado.
+			ByteArrayOutputStream mapped = new ByteArrayOutputStream();
+			Converter.csvToJson(in, mapped, o);
+			assertThat(mapped.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.OutputFormat;
+import dev.silvericarus.core.Schema;
+import dev.silvericarus.core.SchemaMismatchException;
+import dev.silvericarus.core.TemporalOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static dev.silvericarus.core.TypeInference.classify;
+import static dev.silvericarus.core.TypeInference.fits;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TemporalTypesTest {
+	@TempDir Path tmp;
+
+	/** Camino mapeado, commons-csv y por trozos. */
+	private static List<Supplier<ConvertOptions>> paths() {
+		return List.of(
+				() -> new ConvertOptions().header(true).ndjson(true),
+				() -> new ConvertOptions().header(true).ndjson(true).commonsCsv(true),
+				() -> new ConvertOptions().header(true).ndjson(true).threads(4).chunkBytes(256));
+	}
+
+	private static List<JsonNode> rows(Path out) throws Exception {
+		ObjectMapper om = new ObjectMapper();
+		return Files.readAllLines(out, StandardCharsets.UTF_8).stream().map(l -> {
+			try {
+				return om.readTree(l);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}).toList();
+	}
+
+	@Test
+	void fixedLayoutsAreValidatedWithoutAFormatter() {
+		assertThat(classify("2024-02-29", true)).isEqualTo(ColumnType.DATE);
+		assertThat(classify(" 2024-02-29T10:15 ", true)).isEqualTo(ColumnType.TIMESTAMP);
+		assertThat(classify("2024-02-29 10:15:30.123456789+02:00", true)).isEqualTo(ColumnType.TIMESTAMP);
+		assertThat(classify("2024-02-29T10:15:30Z", true)).isEqualTo(ColumnType.TIMESTAMP);
+		assertThat(classify("2024-02-29T10:15:30-0530", true)).isEqualTo(ColumnType.TIMESTAMP);
+		assertThat(classify("2000-02-29", true)).isEqualTo(ColumnType.DATE);
+
+		// Sin --detect-dates siguen siendo texto; fechas imposibles o mal formadas, también con él.
+		assertThat(classify("2024-02-29")).isEqualTo(ColumnType.STRING);
+		for (String bad : new String[]{"2023-02-29", "1900-02-29", "2024-04-31", "2024-13-01", "2024-1-01",
+				"2024-01-01T24:00", "2024-01-01T10:60", "2024-01-01T10:00:60", "2024-01-01T10:00:00.",
+				"2024-01-01T10:00:00.1234567890", "2024-01-01T10:00+2", "2024-01-01T10:00Zz", "2024-01-01X10:00"}) {
+			assertThat(classify(bad, true)).as(bad).isEqualTo(ColumnType.STRING);
+		}
+		assertThat(classify("20240101", true)).isEqualTo(ColumnType.INT);
+
+		assertThat(fits(ColumnType.TIMESTAMP, "2024-01-01")).isTrue();
+		assertThat(fits(ColumnType.DATE, "2024-01-01T00:00")).isFalse();
+		assertThat(fits(ColumnType.DECIMAL, "-0012.50")).isTrue();
+		assertThat(fits(ColumnType.DECIMAL, "12,50")).isFalse();
+	}
+
+	@Test
+	void schemaPicksIsoOrEpochPerColumn() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, """
+				id,price,day,at,seen,local
+				1,0012.50,2024-02-29,2024-02-29T23:30:00+02:00,2024-02-29T23:30:00.5+02:00,2024-02-29 23:30
+				2,-0.01,1969-12-31,1970-01-01T00:00:00.999Z,1969-12-31T23:59:59Z,1970-01-01T00:00:00.250
+				""", StandardCharsets.UTF_8);
+		Path schemaFile = tmp.resolve("schema.json");
+		Files.writeString(schemaFile, """
+				{"types": {"price": "decimal", "day": "date:epoch-days", "at": "timestamp:epoch-millis",
+				           "seen": "timestamp", "local": "datetime:iso"}}
+				""", StandardCharsets.UTF_8);
+		Schema schema = Schema.load(schemaFile);
+		assertThat(schema.outputOf("day")).isEqualTo(TemporalOutput.EPOCH_DAYS);
+		assertThat(schema.outputOf("seen")).isEqualTo(TemporalOutput.ISO);
+
+		for (Supplier<ConvertOptions> path : paths()) {
+			Path out = tmp.resolve("out.ndjson");
+			Converter.csvToJson(in, out, path.get().schema(schema));
+			List<JsonNode> rows = rows(out);
+
+			// DECIMAL conserva el literal (sin ceros a la izquierda), no pasa por double.
+			assertThat(Files.readAllLines(out, StandardCharsets.UTF_8).get(0)).startsWith("{\"id\":1,\"price\":12.50,");
+			assertThat(rows.get(0).get("day").asLong()).isEqualTo(LocalDate.of(2024, 2, 29).toEpochDay());
+			assertThat(rows.get(0).get("at").asLong())
+					.isEqualTo(OffsetDateTime.parse("2024-02-29T23:30:00+02:00").toInstant().toEpochMilli());
+			// Con zona, normalizado a UTC; sin ella, tal cual pero con 'T' y segundos.
+			assertThat(rows.get(0).get("seen").asText()).isEqualTo("2024-02-29T21:30:00.5Z");
+			assertThat(rows.get(0).get("local").asText()).isEqualTo("2024-02-29T23:30:00");
+
+			assertThat(rows.get(1).get("day").asLong()).isEqualTo(-1);
+			assertThat(rows.get(1).get("at").asLong()).isEqualTo(999);
+			assertThat(rows.get(1).get("seen").asText()).isEqualTo("1969-12-31T23:59:59Z");
+			assertThat(rows.get(1).get("local").asText()).isEqualTo("1970-01-01T00:00:00.250");
+		}
+
+		// El sufijo se conserva al guardar.
+		Path saved = tmp.resolve("saved.json");
+		schema.save(saved);
+		assertThat(Schema.load(saved).outputOf("at")).isEqualTo(TemporalOutput.EPOCH_MILLIS);
+		assertThat(Schema.load(saved).getTypesByName()).isEqualTo(schema.getTypesByName());
+	}
+
+	@Test
+	void normalisedInstantsMatchJavaTime() throws Exception {
+		Random r = new Random(7);
+		DateTimeFormatter f = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSxxx");
+		StringBuilder sb = new StringBuilder("at\n");
+		Instant[] expected = new Instant[500];
+		for (int i = 0; i < expected.length; i++) {
+			Instant t = Instant.ofEpochMilli(r.nextLong(-2_000_000_000_000L, 4_000_000_000_000L));
+			ZoneOffset off = ZoneOffset.ofTotalSeconds(r.nextInt(-18 * 4, 18 * 4 + 1) * 900);
+			sb.append(f.format(t.atOffset(off))).append('\n');
+			expected[i] = t;
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+
+		Path out = tmp.resolve("out.ndjson");
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true).detectDates(true));
+		List<JsonNode> rows = rows(out);
+		for (int i = 0; i < expected.length; i++) {
+			assertThat(Instant.parse(rows.get(i).get("at").asText())).isEqualTo(expected[i]);
+		}
+
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true)
+				.schema(Schema.load(write("{\"types\": {\"at\": \"timestamp:epoch-seconds\"}}"))));
+		rows = rows(out);
+		for (int i = 0; i < expected.length; i++) {
+			assertThat(rows.get(i).get("at").asLong()).isEqualTo(expected[i].getEpochSecond());
+		}
+	}
+
+	@Test
+	void adaptiveDatesWidenAndSchemaRejectsImpossibleDays() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, "d,n\n2024-01-01,1\n2024-01-02,2\n2024-01-03T08:00Z,3\n", StandardCharsets.UTF_8);
+
+		// La muestra bloquea DATE; la tercera fila la ensancha a TIMESTAMP desde ahí.
+		Path out = tmp.resolve("out.ndjson");
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true).detectDates(true)
+				.adaptiveTypes(true).adaptiveSample(2));
+		assertThat(rows(out).stream().map(n -> n.get("d").asText()).toList())
+				.containsExactly("2024-01-01", "2024-01-02", "2024-01-03T08:00:00Z");
+
+		// Sin --detect-dates el texto sale tal cual.
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true));
+		assertThat(rows(out).get(2).get("d").asText()).isEqualTo("2024-01-03T08:00Z");
+
+		Files.writeString(in, "d\n2024-02-30\n", StandardCharsets.UTF_8);
+		assertThatThrownBy(() -> Converter.csvToJson(in, out, new ConvertOptions().header(true).ndjson(true)
+				.schema(Schema.of(null, Map.of("d", ColumnType.DATE)))))
+				.isInstanceOf(SchemaMismatchException.class)
+				.hasMessageContaining("2024-02-30");
+		assertThatThrownBy(() -> Schema.load(write("{\"types\": {\"n\": \"int:epoch-millis\"}}")))
+				.isInstanceOf(java.io.IOException.class)
+				.hasMessageContaining("date y timestamp");
+	}
+
+	@Test
+	void decimalsStayExactInSmile() throws Exception {
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, "price\n12345678901234567.89\n0.1\n", StandardCharsets.UTF_8);
+		Path out = tmp.resolve("out.smile");
+		Converter.csvToJson(in, out, new ConvertOptions().header(true).format(OutputFormat.SMILE)
+				.schema(Schema.of(null, Map.of("price", ColumnType.DECIMAL))));
+		JsonNode rows = new ObjectMapper(new SmileFactory()).readTree(Files.readAllBytes(out));
+		assertThat(rows.get(0).get("price").decimalValue().toPlainString()).isEqualTo("12345678901234567.89");
+		assertThat(rows.get(1).get("price").decimalValue().toPlainString()).isEqualTo("0.1");
+	}
+
+	private Path write(String json) throws Exception {
+		Path p = tmp.resolve("s" + System.nanoTime() + ".json");
+		Files.writeString(p, json, StandardCharsets.UTF_8);
+		return p;
+	}
+}
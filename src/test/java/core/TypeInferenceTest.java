@@ -0,0 +1,75 @@
+package core;
+
+import dev.silvericarus.core.ColumnType;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.TypeInference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static dev.silvericarus.core.TypeInference.classify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TypeInferenceTest {
+	@TempDir Path tmp;
+
+	@Test
+	void classifiesWithoutParsing() {
+		assertThat(classify("TRUE")).isEqualTo(ColumnType.BOOL);
+		assertThat(classify("false")).isEqualTo(ColumnType.BOOL);
+		assertThat(classify(" true")).isEqualTo(ColumnType.STRING);
+
+		assertThat(classify("42")).isEqualTo(ColumnType.INT);
+		assertThat(classify(" -2147483648 ")).isEqualTo(ColumnType.INT);
+		assertThat(classify("2147483648")).isEqualTo(ColumnType.LONG);
+		assertThat(classify("-9223372036854775808")).isEqualTo(ColumnType.LONG);
+		assertThat(classify("9223372036854775808")).isEqualTo(ColumnType.DOUBLE);
+
+		assertThat(classify("1.10")).isEqualTo(ColumnType.DOUBLE);
+		assertThat(classify(".5")).isEqualTo(ColumnType.DOUBLE);
+		assertThat(classify("5.")).isEqualTo(ColumnType.DOUBLE);
+		assertThat(classify("1e-3")).isEqualTo(ColumnType.DOUBLE);
+
+		assertThat(classify("")).isEqualTo(ColumnType.STRING);
+		assertThat(classify("-")).isEqualTo(ColumnType.STRING);
+		assertThat(classify(".")).isEqualTo(ColumnType.STRING);
+		assertThat(classify("1e")).isEqualTo(ColumnType.STRING);
+		assertThat(classify("NaN")).isEqualTo(ColumnType.STRING);
+		assertThat(classify("10d")).isEqualTo(ColumnType.STRING);
+		assertThat(classify("0x1p3")).isEqualTo(ColumnType.STRING);
+		assertThat(classify("12a")).isEqualTo(ColumnType.STRING);
+	}
+
+	@Test
+	void numberLexemeIsValidJsonAndKeepsDigits() {
+		assertThat(TypeInference.numberLexeme("1.10")).isEqualTo("1.10");
+		assertThat(TypeInference.numberLexeme(" +12 ")).isEqualTo("12");
+		assertThat(TypeInference.numberLexeme("007")).isEqualTo("7");
+		assertThat(TypeInference.numberLexeme("-00.5")).isEqualTo("-0.5");
+		assertThat(TypeInference.numberLexeme("-.5")).isEqualTo("-0.5");
+		assertThat(TypeInference.numberLexeme("5.e3")).isEqualTo("5.0e3");
+		assertThat(TypeInference.numberLexeme("123456789012345678901234567890"))
+				.isEqualTo("123456789012345678901234567890");
+	}
+
+	@Test
+	void converterWritesOriginalDigits() throws Exception {
+		String csv = String.join("\n",
+				"price,big,neg",
+				"1.10,123456789012345678901234567890,-0.50");
+		Path in = tmp.resolve("n.csv");
+		Files.writeString(in, csv, StandardCharsets.UTF_8);
+
+		for (boolean commons : new boolean[]{true, false}) {
+			Path out = tmp.resolve("n.ndjson");
+			Converter.csvToJson(in, out, new ConvertOptions()
+					.header(true).ndjson(true).commonsCsv(commons));
+			assertThat(Files.readString(out, StandardCharsets.UTF_8).trim())
+					.isEqualTo("{\"price\":1.10,\"big\":123456789012345678901234567890,\"neg\":-0.50}");
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.silvericarus.core.ConvertOptions;
+import dev.silvericarus.core.Converter;
+import dev.silvericarus.core.OutputFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValueCacheTest {
+	@TempDir Path tmp;
+
+	/**
+	 * 5000 filas: estado y país con pocos valores (con comillas, saltos de
+	 * línea, acentos y un control que hay que escapar), un id que no se
+	 * repite, un flag, una fecha y un importe que en la fila 3000 deja de ser número.
+	 */
+	private Path input() throws Exception {
+		String[] states = {"OK", "\"KO\"", "en curso", "línea\nnueva", "tab\tbell\u0007", "  "};
+		String[] countries = {"ES", "PT", "FR", "Ñ"};
+		StringBuilder sb = new StringBuilder("id,state,country,flag,day,amount\n");
+		for (int i = 1; i <= 5000; i++) {
+			String state = states[i % states.length];
+			sb.append(i).append(",\"").append(state.replace("\"", "\"\"")).append("\",")
+					.append(countries[i % countries.length]).append(',')
+					.append(i % 3 == 0).append(',')
+					.append("2024-0").append(1 + i % 9).append("-1").append(i % 10).append(',')
+					.append(i == 3000 ? "n/a" : String.valueOf(i % 5)).append('\n');
+		}
+		Path in = tmp.resolve("in.csv");
+		Files.writeString(in, sb.toString(), StandardCharsets.UTF_8);
+		return in;
+	}
+
+	private static List<Supplier<ConvertOptions>> paths() {
+		return List.of(
+				() -> new ConvertOptions().header(true).ndjson(true),
+				() -> new ConvertOptions().header(true),
+				() -> new ConvertOptions().header(true).pretty(true).emptyAsNull(true),
+				() -> new ConvertOptions().header(true).ndjson(true).commonsCsv(true),
+				() -> new ConvertOptions().header(true).ndjson(true).relaxedQuotes(true),
+				() -> new ConvertOptions().header(true).ndjson(true).threads(4).chunkBytes(4096),
+				() -> new ConvertOptions().header(true).ndjson(true).stringsOnly(true),
+				() -> new ConvertOptions().header(true).ndjson(true).detectDates(true),
+				// La muestra fija amount como INT y la fila 3000 lo ensancha: lo ya guardado como número no vale.
+				() -> new ConvertOptions().header(true).ndjson(true).adaptiveTypes(true).adaptiveSample(100),
+				() -> new ConvertOptions().header(true).ndjson(true).commonsCsv(true).adaptiveTypes(true).adaptiveSample(100));
+	}
+
+	private static byte[] convert(Path in, ConvertOptions o) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Converter.csvToJson(in, out, o);
+		return out.toByteArray();
+	}
+
+	@Test
+	void cachedOutputIsByteForByteTheSame() throws Exception {
+		Path in = input();
+		for (Supplier<ConvertOptions> path : paths()) {
+			byte[] plain = convert(in, path.get());
+			byte[] cached = convert(in, path.get().valueCache(true));
+			assertThat(new String(cached, StandardCharsets.UTF_8)).isEqualTo(new String(plain, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void adaptiveWideningIsSeenThroughTheCache() throws Exception {
+		Path in = input();
+		byte[] out = convert(in, new ConvertOptions().header(true).ndjson(true).adaptiveTypes(true).adaptiveSample(100).valueCache(true));
+		List<String> lines = new String(out, StandardCharsets.UTF_8).lines().toList();
+		ObjectMapper om = new ObjectMapper();
+		// Antes de la fila 3000 el importe sale como número; después, como texto, también los que ya estaban guardados.
+		assertThat(om.readTree(lines.get(2000)).get("amount").isNumber()).isTrue();
+		assertThat(om.readTree(lines.get(3500)).get("amount").isTextual()).isTrue();
+		assertThat(om.readTree(lines.get(3500)).get("amount").asText()).isEqualTo("1");
+	}
+
+	@Test
+	void invalidUtf8IsCopiedAsTheGeneratorWouldAndBinaryOutputIgnoresTheCache() throws Exception {
+		Path in = tmp.resolve("latin.csv");
+		ByteArrayOutputStream raw = new ByteArrayOutputStream();
+		raw.writeBytes("code\n".getBytes(StandardCharsets.US_ASCII));
+		for (int i = 0; i < 3000; i++) {
+			raw.writeBytes(i % 2 == 0 ? new byte[]{'E', (byte) 0xD1, 'E', '\n'} : "ES\n".getBytes(StandardCharsets.US_ASCII));
+		}
+		Files.write(in, raw.toByteArray());
+		assertThat(convert(in, new ConvertOptions().header(true).ndjson(true).valueCache(true)))
+				.isEqualTo(convert(in, new ConvertOptions().header(true).ndjson(true)));
+
+		Path csv = input();
+		ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+		JsonNode plain = cbor.readTree(convert(csv, new ConvertOptions().header(true).format(OutputFormat.CBOR)));
+		JsonNode cached = cbor.readTree(convert(csv, new ConvertOptions().header(true).format(OutputFormat.CBOR).valueCache(true)));
+		assertThat(cached).isEqualTo(plain);
+	}
+}